@@ -0,0 +1,33 @@
+// JMH benchmarks for the common module's serialization, sorting and file layout
+// hot paths. Not part of the module; run with ./gradlew :benchmarks:jmh
+plugins {
+    `java`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    toolchain {
+        // Set Java version to 17
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+dependencies {
+    jmh(projects.common)
+    jmh(projects.testFixtures)
+
+    // Provided by the gateway at runtime, so needed on the benchmark classpath here
+    jmh(libs.ignition.common)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    // Machine-readable results, for comparing runs before a release
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // Narrow a run with -PjmhIncludes=<regex>, e.g. -PjmhIncludes=FileLayout
+    project.findProperty("jmhIncludes")?.let { includes.set(listOf(it.toString())) }
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
@@ -0,0 +1,60 @@
+package dev.bwdesigngroup.ignition.tag_cicd.benchmarks;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.StreamingTagImporter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagDirectoryReader;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for reading and writing the on-disk export layouts.
+ *
+ * @author Keith Gamble
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileLayoutBenchmarks {
+
+    /**
+     * Writes the whole tree to one file, as the single file export mode does.
+     */
+    @Benchmark
+    public void saveJsonToFile(FileLayoutState state) throws IOException {
+        FileUtilities.saveJsonToFile(state.tree, state.workDirectory.resolve("save.json").toString());
+    }
+
+    @Benchmark
+    public String readFileAsString(FileLayoutState state) throws IOException {
+        return FileUtilities.readFileAsString(state.singleFile);
+    }
+
+    /**
+     * Skips through the single file with the pull parser, as the first pass of a
+     * streaming single file import does.
+     */
+    @Benchmark
+    public StreamingTagImporter.ScanResult scanSingleFile(FileLayoutState state) throws IOException {
+        return StreamingTagImporter.scan(state.singleFile.toPath());
+    }
+
+    @Benchmark
+    public JsonObject readTagsFromDirectory(FileLayoutState state) throws IOException {
+        return TagDirectoryReader.read(state.executors.getReaderPool(), state.individualFilesDirectory);
+    }
+
+    /**
+     * Cleans a directory that already matches the tree, so nothing is deleted and
+     * the benchmark measures the walk and comparison that every individual files
+     * export pays for.
+     */
+    @Benchmark
+    public void deleteExistingFiles(FileLayoutState state) throws IOException {
+        FileUtilities.deleteExistingFiles(state.individualFilesDirectory.toString(), state.tree);
+    }
+}
@@ -0,0 +1,67 @@
+package dev.bwdesigngroup.ignition.tag_cicd.benchmarks;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The synthetic tag tree written to a temporary directory in both layouts: as
+ * a single file, and as one file per tag with a directory per folder, the way
+ * the individual files export mode writes it.
+ *
+ * @author Keith Gamble
+ */
+@State(Scope.Benchmark)
+public class FileLayoutState extends TagTreeState {
+    public Path workDirectory;
+    public File singleFile;
+    public Path individualFilesDirectory;
+    public TagCICDExecutors executors;
+
+    @Setup(Level.Trial)
+    public void writeLayouts() throws IOException {
+        workDirectory = Files.createTempDirectory("tag-cicd-bench");
+        singleFile = workDirectory.resolve("tags.json").toFile();
+        FileUtilities.saveJsonToFile(tree, singleFile.getPath());
+
+        individualFilesDirectory = workDirectory.resolve("individual");
+        writeIndividualFiles(tree, individualFilesDirectory);
+        executors = new TagCICDExecutors();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLayouts() throws IOException {
+        executors.close();
+        try (Stream<Path> paths = Files.walk(workDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static void writeIndividualFiles(JsonObject folder, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        JsonArray tags = folder.getAsJsonArray("tags");
+        for (JsonElement tagElement : tags) {
+            JsonObject tag = tagElement.getAsJsonObject();
+            String name = tag.get("name").getAsString();
+            if ("Folder".equals(tag.get("tagType").getAsString())) {
+                writeIndividualFiles(tag, directory.resolve(name));
+            } else {
+                FileUtilities.saveJsonToFile(tag, directory.resolve(name + ".json").toString());
+            }
+        }
+    }
+}
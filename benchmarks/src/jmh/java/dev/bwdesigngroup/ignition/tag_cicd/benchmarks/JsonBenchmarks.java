@@ -0,0 +1,25 @@
+package dev.bwdesigngroup.ignition.tag_cicd.benchmarks;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for sorting tag JSON into the order exports write it in.
+ *
+ * @author Keith Gamble
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonBenchmarks {
+
+    @Benchmark
+    public JsonElement sortJsonElementRecursively(TagTreeState state) {
+        return FileUtilities.sortJsonElementRecursively(state.tree);
+    }
+}
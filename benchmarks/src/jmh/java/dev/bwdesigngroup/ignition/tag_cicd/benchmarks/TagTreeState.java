@@ -0,0 +1,37 @@
+package dev.bwdesigngroup.ignition.tag_cicd.benchmarks;
+
+import dev.bwdesigngroup.ignition.tag_cicd.testfixtures.SyntheticTagTree;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A synthetic tag tree shared by every benchmark, parameterized by size and
+ * shape. Override the parameters with JMH's {@code -p} option.
+ *
+ * @author Keith Gamble
+ */
+@State(Scope.Benchmark)
+public class TagTreeState {
+    @Param({ "1000", "10000" })
+    public int tagCount;
+
+    @Param({ "1", "3" })
+    public int depth;
+
+    @Param({ "0.2" })
+    public double udtRatio;
+
+    @Param({ "5", "20" })
+    public int propertyCount;
+
+    public JsonObject tree;
+
+    @Setup(Level.Trial)
+    public void generateTree() {
+        tree = new SyntheticTagTree(tagCount, depth, udtRatio, propertyCount).generate();
+    }
+}
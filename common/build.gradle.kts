@@ -12,4 +12,17 @@ java {
 dependencies {
     compileOnly(libs.ignition.common)
     compileOnly(libs.ignition.gateway.api)
+
+    testImplementation(platform(libs.junit.bom))
+    testImplementation(libs.junit.jupiter)
+    testRuntimeOnly(libs.junit.platform.launcher)
+    // Provided by the gateway at runtime, so needed on the test classpath here
+    testImplementation(libs.ignition.common)
+    testImplementation(libs.ignition.gateway.api)
+    // In-memory tag manager for tests that read from and import into a provider
+    testImplementation(projects.testFixtures)
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
\ No newline at end of file
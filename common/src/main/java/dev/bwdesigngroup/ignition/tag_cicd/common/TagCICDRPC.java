@@ -3,11 +3,22 @@ package dev.bwdesigngroup.ignition.tag_cicd.common;
 public interface TagCICDRPC {
         String exportTags(String provider, String baseTagPath, String filePath, boolean recursive,
                         boolean localPropsOnly, String exportMode, boolean deleteExisting,
-                        boolean excludeUdtDefinitions);
+                        boolean excludeUdtDefinitions, boolean incremental);
 
         String importTags(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
                         String exportMode);
 
+        String startExportJob(String provider, String baseTagPath, String filePath, boolean recursive,
+                        boolean localPropsOnly, String exportMode, boolean deleteExisting,
+                        boolean excludeUdtDefinitions, boolean incremental);
+
+        String startImportJob(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
+                        String exportMode);
+
+        String getJobStatus(String jobId);
+
+        String cancelJob(String jobId);
+
         String exportTagsFromConfig();
 
         String importTagsFromConfig();
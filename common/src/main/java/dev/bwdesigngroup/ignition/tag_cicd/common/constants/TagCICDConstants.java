@@ -4,4 +4,110 @@ public class TagCICDConstants {
     public static final String MODULE_ID = "tag-cicd";
     public static final String DESIGNER_NOTIFICATION_ID = "tag-cicd-designer";
     public static final String CONFIG_FILE_PATH = "data/modules/tag-cicd/export-config.json";
-}
\ No newline at end of file
+
+    /**
+     * Maximum number of sibling tags sent to the tag manager in a single import
+     * call. Can be overridden with the {@code tagcicd.import.batchSize} system
+     * property.
+     */
+    public static final int IMPORT_BATCH_SIZE = Integer.getInteger("tagcicd.import.batchSize", 500);
+
+    /**
+     * Maximum number of import calls left outstanding with the tag manager at
+     * once. Can be overridden with the {@code tagcicd.import.maxInFlight} system
+     * property.
+     */
+    public static final int IMPORT_MAX_IN_FLIGHT = Integer.getInteger("tagcicd.import.maxInFlight", 4);
+
+    /**
+     * Number of export and import jobs run at the same time by the gateway. Can
+     * be overridden with the {@code tagcicd.jobs.concurrency} system property.
+     */
+    public static final int JOB_CONCURRENCY = Integer.getInteger("tagcicd.jobs.concurrency", 1);
+
+    /**
+     * Number of jobs that may wait for a free slot before new submissions are
+     * rejected. Can be overridden with the {@code tagcicd.jobs.queueLimit}
+     * system property.
+     */
+    public static final int JOB_QUEUE_LIMIT = Integer.getInteger("tagcicd.jobs.queueLimit", 16);
+
+    /**
+     * Minutes a finished job is kept for status queries. Can be overridden with
+     * the {@code tagcicd.jobs.retentionMinutes} system property.
+     */
+    public static final int JOB_RETENTION_MINUTES = Integer.getInteger("tagcicd.jobs.retentionMinutes", 60);
+
+    /**
+     * Maximum number of finished jobs kept, oldest first out. Can be overridden
+     * with the {@code tagcicd.jobs.maxRetained} system property.
+     */
+    public static final int JOB_MAX_RETAINED = Integer.getInteger("tagcicd.jobs.maxRetained", 100);
+
+    /**
+     * Milliseconds between progress updates pushed to the Designer for running
+     * jobs. Can be overridden with the {@code tagcicd.jobs.progressIntervalMillis}
+     * system property.
+     */
+    public static final int JOB_PROGRESS_INTERVAL_MILLIS = Integer.getInteger("tagcicd.jobs.progressIntervalMillis",
+            1000);
+
+    /**
+     * Number of threads used to read and parse tag files during an import.
+     * Reads mostly wait on the disk, so this defaults to twice the number of
+     * processors. Can be overridden with the {@code tagcicd.import.readParallelism}
+     * system property.
+     */
+    public static final int IMPORT_READ_PARALLELISM = Integer.getInteger("tagcicd.import.readParallelism",
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+
+    /**
+     * Number of threads used to write the exports of a configuration file, see
+     * {@code BatchTagExporter}. Defaults to the number of processors. Can be
+     * overridden with the {@code tagcicd.export.parallelism} system property.
+     */
+    public static final int EXPORT_PARALLELISM = Integer.getInteger("tagcicd.export.parallelism",
+            Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Number of configurations of a configuration file imported at the same time,
+     * see {@code BatchTagImporter}. Every import also keeps up to
+     * {@link #IMPORT_MAX_IN_FLIGHT} calls outstanding with the tag manager. Can be
+     * overridden with the {@code tagcicd.import.configParallelism} system
+     * property.
+     */
+    public static final int CONFIG_IMPORT_PARALLELISM = Integer.getInteger("tagcicd.import.configParallelism", 4);
+
+    /**
+     * Size in bytes from which import files are memory-mapped instead of read
+     * through a buffer on the heap, see {@code TagFileReader}. Zero never maps.
+     * Can be overridden with the {@code tagcicd.import.mapThreshold} system
+     * property.
+     */
+    public static final long IMPORT_MAP_THRESHOLD = Long.getLong("tagcicd.import.mapThreshold", 16L * 1024 * 1024);
+
+    /**
+     * Number of tags a folder may hold before an individual files export spreads
+     * its tag files over bucket subdirectories, see {@code FanOutLayout}. Zero,
+     * the default, never fans out. Can be overridden with the
+     * {@code tagcicd.individualFiles.fanOutThreshold} system property.
+     */
+    public static final int FAN_OUT_THRESHOLD = Integer.getInteger("tagcicd.individualFiles.fanOutThreshold", 0);
+
+    /**
+     * How fanned out tag files are assigned to buckets: {@code hash} for 256
+     * buckets by a hash of the tag name, or {@code alpha} for one bucket per
+     * leading character. Can be overridden with the
+     * {@code tagcicd.individualFiles.fanOutLayout} system property.
+     */
+    public static final String FAN_OUT_LAYOUT = System.getProperty("tagcicd.individualFiles.fanOutLayout", "hash");
+
+    /**
+     * Size in bytes a structured files {@code tags.json} or {@code udts.json} may
+     * reach before an export splits it into numbered shards, see
+     * {@code StructuredFileShards}. Zero never shards. Can be overridden with the
+     * {@code tagcicd.structuredFiles.shardSize} system property.
+     */
+    public static final long STRUCTURED_SHARD_SIZE = Long.getLong("tagcicd.structuredFiles.shardSize",
+            64L * 1024 * 1024);
+}
@@ -21,7 +21,23 @@ public enum ExportMode {
      * Export/import using a folder structure with tags.json and udts.json files in
      * each folder
      */
-    STRUCTURED_FILES("structuredByType", "Structured Files");
+    STRUCTURED_FILES("structuredByType", "Structured Files"),
+
+    /**
+     * Export/import all tags as a single gzip-compressed JSON file
+     */
+    SINGLE_FILE_GZIP("singleFileGzip", "Single Compressed File (gzip)"),
+
+    /**
+     * Export/import the individual files layout as entries of a single zip
+     * archive
+     */
+    INDIVIDUAL_FILES_ZIP("individualFilesZip", "Individual Files (zip archive)"),
+
+    /**
+     * Export/import the structured files layout as entries of a single zip archive
+     */
+    STRUCTURED_FILES_ZIP("structuredByTypeZip", "Structured Files (zip archive)");
 
     private final String code;
     private final String displayName;
@@ -39,6 +55,21 @@ public enum ExportMode {
         return displayName;
     }
 
+    /**
+     * @return true if the mode exports to and imports from one file rather than a
+     *         directory
+     */
+    public boolean isSingleFile() {
+        return this == SINGLE_FILE || this == SINGLE_FILE_GZIP;
+    }
+
+    /**
+     * @return true if the mode exports to and imports from a zip archive
+     */
+    public boolean isArchive() {
+        return this == INDIVIDUAL_FILES_ZIP || this == STRUCTURED_FILES_ZIP;
+    }
+
     /**
      * Get the ExportMode from a string code.
      * 
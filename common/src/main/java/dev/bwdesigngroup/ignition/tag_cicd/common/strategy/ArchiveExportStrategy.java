@@ -0,0 +1,344 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationProgress;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.StructuredFileShards;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagArchiveReader;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagArchiveWriter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagDiff;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportBatcher;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Strategy for exporting/importing the individual files or structured files
+ * layout as the entries of a single zip archive, without writing the files to
+ * disk one by one or extracting them to import.
+ * <p>
+ * A {@code .zip} extension is added to the target path if it does not already
+ * have one. The archive is always written whole and replaces any existing one,
+ * so stale files are never left behind; an incremental export leaves the
+ * existing archive untouched when the new one is identical. Folders are never
+ * fanned out inside an archive, since entries do not cost a directory lookup,
+ * while structured files are still sharded so that each import call stays
+ * small.
+ * <p>
+ * Archives can also be imported from a stream, such as a request body, read in
+ * a single pass through their entries.
+ *
+ * @author Keith Gamble
+ */
+public class ArchiveExportStrategy implements TagExportImportStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveExportStrategy.class.getName());
+
+    public static final String ARCHIVE_FILE_EXTENSION = ".zip";
+
+    private final boolean structured;
+
+    /**
+     * @param structured whether the archive holds the structured files layout
+     *                   rather than the individual files layout
+     */
+    public ArchiveExportStrategy(boolean structured) {
+        this.structured = structured;
+    }
+
+    /**
+     * Returns the path an archive export writes to for the given target path.
+     *
+     * @param filePath the configured target path
+     * @return the path with {@value #ARCHIVE_FILE_EXTENSION} appended, unless it
+     *         already ends with it
+     */
+    public static String getArchiveFilePath(String filePath) {
+        return filePath.toLowerCase().endsWith(ARCHIVE_FILE_EXTENSION) ? filePath
+                : filePath + ARCHIVE_FILE_EXTENSION;
+    }
+
+    @Override
+    public void exportTagsToDisk(
+            JsonObject tagsJson,
+            String provider,
+            String baseTagPath,
+            String filePath,
+            boolean deleteExisting,
+            boolean excludeUdtDefinitions,
+            boolean incremental) throws IOException {
+        Path archiveFile = Paths.get(getArchiveFilePath(filePath));
+        try {
+            logger.info("Exporting tags to archive: provider={}, baseTagPath={}, filePath={}, mode={}",
+                    provider, baseTagPath, archiveFile, getExportMode().getCode());
+
+            try (TagArchiveWriter archive = new TagArchiveWriter(archiveFile)) {
+                writeArchive(tagsJson, excludeUdtDefinitions, archive);
+                archive.commit(incremental);
+            }
+            logger.info("Successfully exported tags to archive: {}", archiveFile);
+        } catch (IllegalArgumentException e) {
+            logger.error("Export validation failed: {}", e.getMessage());
+            throw new IOException("Export configuration error: " + e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("Error exporting tags to archive: {}", e.getMessage(), e);
+            throw new IOException("Failed to export tags to archive: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public JsonObject importTagsFromSource(
+            GatewayTagManager tagManager,
+            TagCICDExecutors executors,
+            String provider,
+            String baseTagPath,
+            String sourcePath,
+            String collisionPolicy) throws IOException {
+        logger.info(
+                "Importing tags from archive: provider={}, baseTagPath={}, sourcePath={}, collisionPolicy={}, mode={}",
+                provider, baseTagPath, sourcePath, collisionPolicy, getExportMode().getCode());
+
+        Path archiveFile = Paths.get(sourcePath);
+        if (!Files.isRegularFile(archiveFile)) {
+            throw new IOException("Source path is not a valid archive: " + sourcePath);
+        }
+
+        return TagFileImports.run(tagManager, provider, baseTagPath, collisionPolicy, "archive",
+                (tagDiff, policy, createdTags, responseObject) -> {
+                    try (TagArchiveReader reader = new TagArchiveReader(archiveFile, executors.getReaderPool())) {
+                        OperationProgress.current().setPhase(OperationProgress.PHASE_READING);
+                        if (structured) {
+                            importStructuredFiles(reader, tagManager, provider, baseTagPath, tagDiff, policy,
+                                    createdTags);
+                        } else {
+                            JsonObject tagsJson = reader.readTagTree();
+                            IndividualFilesExportStrategy.importTagTree(tagManager, provider, baseTagPath, tagsJson,
+                                    tagDiff, policy, createdTags, responseObject);
+                        }
+                    }
+                });
+    }
+
+    @Override
+    public boolean supportsStreamImport() {
+        return true;
+    }
+
+    @Override
+    public JsonObject importTagsFromStream(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            InputStream source,
+            String collisionPolicy) throws IOException {
+        logger.info("Importing tags from archive stream: provider={}, baseTagPath={}, collisionPolicy={}, mode={}",
+                provider, baseTagPath, collisionPolicy, getExportMode().getCode());
+
+        try (InputStream in = source) {
+            return TagFileImports.run(tagManager, provider, baseTagPath, collisionPolicy, "archive",
+                    (tagDiff, policy, createdTags, responseObject) -> {
+                        OperationProgress.current().setPhase(OperationProgress.PHASE_READING);
+                        if (structured) {
+                            importStructuredFiles(in, tagManager, provider, baseTagPath, tagDiff, policy,
+                                    createdTags);
+                        } else {
+                            JsonObject tagsJson = TagArchiveReader.readTagTree(in);
+                            IndividualFilesExportStrategy.importTagTree(tagManager, provider, baseTagPath, tagsJson,
+                                    tagDiff, policy, createdTags, responseObject);
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public ExportMode getExportMode() {
+        return structured ? ExportMode.STRUCTURED_FILES_ZIP : ExportMode.INDIVIDUAL_FILES_ZIP;
+    }
+
+    /**
+     * Writes the given tags to an archive in this strategy's layout, with the
+     * root folder at the root of the archive.
+     *
+     * @param tagsJson              the tags to write
+     * @param excludeUdtDefinitions whether to leave out the {@code _types_} folders
+     * @param archive               the archive to write to
+     * @throws IOException if an entry cannot be written
+     */
+    public void writeArchive(JsonObject tagsJson, boolean excludeUdtDefinitions, TagArchiveWriter archive)
+            throws IOException {
+        if (structured) {
+            writeStructuredFiles(tagsJson, excludeUdtDefinitions, archive);
+        } else {
+            writeIndividualFiles(tagsJson, excludeUdtDefinitions, archive);
+        }
+    }
+
+    /**
+     * Writes the same files {@link IndividualFilesExportStrategy} writes, one
+     * entry per tag and one directory entry per folder.
+     */
+    private void writeIndividualFiles(JsonObject tagsJson, boolean excludeUdtDefinitions, TagArchiveWriter archive)
+            throws IOException {
+        if (TagFileLayout.isSingleTag(tagsJson)) {
+            archive.putJson(tagsJson.get("name").getAsString() + ".json",
+                    (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson));
+            return;
+        }
+
+        TagFileLayout.walkIndividualFiles(tagsJson, excludeUdtDefinitions, (folderPath, folder) -> {
+            String folderEntry = folderPath.isEmpty() ? "" : folderPath + "/";
+            if (!folderPath.isEmpty()) {
+                archive.putDirectory(folderEntry);
+            }
+            return (tagName, sortedTag) -> archive.putJson(folderEntry + tagName + ".json", sortedTag);
+        });
+    }
+
+    /**
+     * Writes the same files {@link StructuredFilesExportStrategy} writes, a
+     * {@code tags.json} and a {@code udts.json}, or their shards, per folder.
+     */
+    private void writeStructuredFiles(JsonObject tagsJson, boolean excludeUdtDefinitions, TagArchiveWriter archive)
+            throws IOException {
+        TagFileLayout.walkStructuredFiles(tagsJson, excludeUdtDefinitions, new TagFileLayout.StructuredFilesVisitor() {
+            @Override
+            public void folder(String folderPath) {
+                // Folders without files are not kept in a structured files export
+            }
+
+            @Override
+            public void typesFile(String typesPath, JsonObject sortedUdtDefinitions) throws IOException {
+                archive.putJson(typesPath + "/" + StructuredFileShards.UDTS_FILE_NAME, sortedUdtDefinitions);
+            }
+
+            @Override
+            public void tagsFile(String folderPath, String fileName, JsonArray sortedTags) throws IOException {
+                String folderEntry = folderPath.isEmpty() ? "" : folderPath + "/";
+                for (Map.Entry<String, JsonObject> shard
+                        : StructuredFileShards.shardDocuments(sortedTags, fileName).entrySet()) {
+                    archive.putJson(folderEntry + shard.getKey(), shard.getValue());
+                }
+            }
+        });
+    }
+
+    /**
+     * Imports the structured files in the archive the way
+     * {@link StructuredFilesExportStrategy} imports them from a directory: the
+     * root {@code _types_/udts.json} first, then every other file as an import
+     * call of its own. Folders named {@code _types_} below the root are skipped,
+     * as they are in a directory.
+     */
+    private void importStructuredFiles(TagArchiveReader reader, GatewayTagManager tagManager, String provider,
+            String baseTagPath, TagDiff tagDiff, CollisionPolicy policy, JsonObject createdTags) throws IOException {
+        List<String> tagEntries = new ArrayList<>();
+        boolean hasTypes = false;
+        for (String entryName : reader.listStructuredFiles()) {
+            if (isRootTypesEntry(entryName)) {
+                hasTypes = true;
+            } else if (!isNestedTypesEntry(entryName)) {
+                tagEntries.add(entryName);
+            }
+        }
+
+        if (hasTypes) {
+            OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_UDTS);
+            reader.readEntries(List.of(TagFileLayout.TYPES_FOLDER_NAME + "/" + StructuredFileShards.UDTS_FILE_NAME),
+                    (entryName, content) -> importTypesDocument(tagManager, provider, baseTagPath, tagDiff, policy,
+                            createdTags, content));
+        }
+
+        OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+        try (TagImportBatcher batcher = new TagImportBatcher(tagManager, provider, policy, createdTags)) {
+            reader.readEntries(tagEntries, (entryName, content) -> importStructuredDocument(batcher, provider,
+                    baseTagPath, tagDiff, entryName, content));
+        }
+    }
+
+    /**
+     * Imports the structured files of an archive read from a stream, in the
+     * order the archive holds them. The root {@code _types_/udts.json} may come
+     * anywhere in it, so the {@code udts.json} files of UDT instances that come
+     * before it are held back until it has been imported; {@code tags.json}
+     * files are imported as they are read.
+     */
+    private void importStructuredFiles(InputStream in, GatewayTagManager tagManager, String provider,
+            String baseTagPath, TagDiff tagDiff, CollisionPolicy policy, JsonObject createdTags) throws IOException {
+        Map<String, String> heldBackInstances = new LinkedHashMap<>();
+        boolean[] typesImported = {false};
+
+        OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+        try (TagImportBatcher batcher = new TagImportBatcher(tagManager, provider, policy, createdTags)) {
+            TagArchiveReader.readStructuredFiles(in, (entryName, content) -> {
+                if (isRootTypesEntry(entryName)) {
+                    OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_UDTS);
+                    importTypesDocument(tagManager, provider, baseTagPath, tagDiff, policy, createdTags, content);
+                    OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+                    typesImported[0] = true;
+                    for (Map.Entry<String, String> heldBack : heldBackInstances.entrySet()) {
+                        importStructuredDocument(batcher, provider, baseTagPath, tagDiff, heldBack.getKey(),
+                                heldBack.getValue());
+                    }
+                    heldBackInstances.clear();
+                } else if (isNestedTypesEntry(entryName)) {
+                    logger.debug("Skipping nested _types_ file {}", entryName);
+                } else if (!typesImported[0] && entryName.substring(entryName.lastIndexOf('/') + 1)
+                        .startsWith("udts")) {
+                    heldBackInstances.put(entryName, content);
+                } else {
+                    importStructuredDocument(batcher, provider, baseTagPath, tagDiff, entryName, content);
+                }
+            });
+
+            for (Map.Entry<String, String> heldBack : heldBackInstances.entrySet()) {
+                importStructuredDocument(batcher, provider, baseTagPath, tagDiff, heldBack.getKey(),
+                        heldBack.getValue());
+            }
+        }
+    }
+
+    private void importTypesDocument(GatewayTagManager tagManager, String provider, String baseTagPath,
+            TagDiff tagDiff, CollisionPolicy policy, JsonObject createdTags, String content) throws IOException {
+        String typesBasePath = TagFileImports.typesBasePath(baseTagPath);
+        String document = TagFileImports.readStructuredDocument(content, tagDiff, typesBasePath, typesBasePath);
+        if (document != null) {
+            TagFileImports.importTypesDocument(tagManager, TagFileImports.toTagPath(provider, typesBasePath),
+                    document, policy, createdTags);
+        }
+    }
+
+    private void importStructuredDocument(TagImportBatcher batcher, String provider, String baseTagPath,
+            TagDiff tagDiff, String entryName, String content) throws IOException {
+        int separator = entryName.lastIndexOf('/');
+        String folderPath = separator < 0 ? "" : entryName.substring(0, separator);
+        String tagPath = folderPath.isEmpty() ? baseTagPath
+                : baseTagPath.isEmpty() ? folderPath : baseTagPath + "/" + folderPath;
+
+        String document = TagFileImports.readStructuredDocument(content, tagDiff, baseTagPath, tagPath);
+        if (document != null) {
+            TagFileImports.importStructuredDocument(batcher, TagFileImports.toTagPath(provider, tagPath),
+                    entryName.substring(separator + 1), document);
+        }
+    }
+
+    private static boolean isRootTypesEntry(String entryName) {
+        return entryName.equals(TagFileLayout.TYPES_FOLDER_NAME + "/" + StructuredFileShards.UDTS_FILE_NAME);
+    }
+
+    private static boolean isNestedTypesEntry(String entryName) {
+        return ("/" + entryName).contains("/" + TagFileLayout.TYPES_FOLDER_NAME + "/");
+    }
+}
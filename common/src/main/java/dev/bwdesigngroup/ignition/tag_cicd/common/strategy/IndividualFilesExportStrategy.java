@@ -1,17 +1,23 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.CanonicalJsonWriter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ExportIndex;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ExportManifest;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FanOutLayout;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
-import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
-import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationProgress;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.RootLocks;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagDiff;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagDirectoryReader;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportBatcher;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.UdtDependencyGraph;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
-import com.inductiveautomation.ignition.common.model.values.QualityCode;
-import com.inductiveautomation.ignition.common.tags.TagUtilities;
 import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
-import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
 import com.inductiveautomation.ignition.common.tags.model.TagPath;
 import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
 import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
@@ -20,13 +26,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Strategy for exporting/importing tags as individual files in a folder
@@ -39,46 +44,26 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
 
     @Override
     public void exportTagsToDisk(
-            GatewayTagManager tagManager,
+            JsonObject tagsJson,
             String provider,
             String baseTagPath,
-            boolean recursive,
-            boolean localPropsOnly,
             String filePath,
             boolean deleteExisting,
-            boolean excludeUdtDefinitions) throws IOException {
+            boolean excludeUdtDefinitions,
+            boolean incremental) throws IOException {
 
         boolean cleanupPerformed = false;
 
         try {
             logger.info(
-                    "Exporting tags as individual files: provider={}, baseTagPath={}, filePath={}, recursive={}, deleteExisting={}",
-                    provider, baseTagPath, filePath, recursive, deleteExisting);
-
-            // CRITICAL: Validate configuration BEFORE any file operations
-            logger.debug("Validating export configuration...");
-            TagExportUtilities.validateExportConfiguration(tagManager, provider, baseTagPath, recursive,
-                    localPropsOnly);
-
-            TagConfigurationModel tagConfigurationModel = TagConfigUtilities.getTagConfigurationModel(
-                    tagManager, provider, baseTagPath, recursive, localPropsOnly);
-            JsonObject tagsJson = TagExportUtilities.convertToJsonObject(tagConfigurationModel);
-
-            // Additional validation of the export result before cleanup
-            if (hasUnknownTagTypes(tagsJson)) {
-                String errorMsg = "Export validation failed: Contains Unknown tag types. ";
-                if (baseTagPath != null && baseTagPath.startsWith("_types_/")) {
-                    errorMsg += "The UDT folder '" + baseTagPath + "' may not exist or may be empty. " +
-                            "Please verify the folder exists and contains UDT definitions.";
-                } else {
-                    errorMsg += "This usually indicates an invalid tag path or empty folder. " +
-                            "Please verify the tag path exists and contains tags.";
-                }
-                throw new IOException(errorMsg);
-            }
+                    "Exporting tags as individual files: provider={}, baseTagPath={}, filePath={}, deleteExisting={}",
+                    provider, baseTagPath, filePath, deleteExisting);
+
+            // The tags were validated when they were read, see TagExportUtilities.fetchExportTags, so
+            // no Unknown tag type can reach the cleanup below
 
             // Check if this is an individual tag export (not a folder/container export)
-            boolean isIndividualTagExport = isSingleTag(tagsJson);
+            boolean isIndividualTagExport = TagFileLayout.isSingleTag(tagsJson);
 
             // if tagsJson is an atomic tag or UDT instance, the filePath must drop the suffix that matches the tag name
             if (isIndividualTagExport) {
@@ -96,16 +81,50 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
                 }
             }
 
-            // Only perform cleanup for folder/container exports, not individual tag exports
-            if (deleteExisting && !isIndividualTagExport) {
-                logger.info("Validation successful - proceeding with cleanup of directory: {}", directoryPath);
-                FileUtilities.deleteExistingFiles(directoryPath, tagsJson);
-                cleanupPerformed = true;
-            } else if (isIndividualTagExport) {
-                logger.info("Skipping directory cleanup for individual tag export: {}", tagsJson.get("name").getAsString());
-            }
+            // Individual tag exports write into a directory owned by some other export, so they
+            // never use (or invalidate) that directory's manifest, nor lock it
+            boolean useManifest = incremental && !isIndividualTagExport;
+
+            // Hold the root for the whole export, so that no other export, manifest or index update
+            // works on it between the cleanup and the new index being written
+            try (RootLocks.RootLock rootLock = isIndividualTagExport ? null
+                    : RootLocks.EXPORT_ROOTS.lock(directory.toPath())) {
+                if (!incremental && !isIndividualTagExport) {
+                    ExportManifest.invalidate(directory.toPath());
+                }
+
+                try (ExportManifest manifest = useManifest
+                        ? ExportManifest.open(directory.toPath())
+                        : ExportManifest.disabled()) {
+                    // Only perform cleanup for folder/container exports, not individual tag exports. An
+                    // incremental export only needs the full cleanup walk when there is no manifest yet, and
+                    // any other export only when there is no index from the previous export. Otherwise the
+                    // tag files the new index does not record are deleted once the export is written.
+                    boolean cleanup = deleteExisting && !isIndividualTagExport && (!useManifest || manifest.isNew());
+                    ExportIndex previousIndex = cleanup ? ExportIndex.read(directory.toPath()) : null;
+                    if (cleanup && previousIndex == null) {
+                        logger.info("Validation successful - proceeding with cleanup of directory: {}", directoryPath);
+                        FileUtilities.deleteExistingFiles(directoryPath, tagsJson);
+                        cleanupPerformed = true;
+                    } else if (isIndividualTagExport) {
+                        logger.info("Skipping directory cleanup for individual tag export: {}",
+                                tagsJson.get("name").getAsString());
+                    }
+
+                    ExportIndex index = new ExportIndex();
+                    saveTagsAsIndividualFiles(tagsJson, directoryPath, excludeUdtDefinitions, manifest, index);
 
-            saveTagsAsIndividualFiles(tagsJson, directoryPath, excludeUdtDefinitions);
+                    if (deleteExisting && useManifest) {
+                        manifest.deleteRemovedFiles();
+                    }
+                    if (previousIndex != null) {
+                        index.deleteUnindexedFiles(directory.toPath());
+                    }
+                    if (!isIndividualTagExport) {
+                        index.write(directory.toPath());
+                    }
+                }
+            }
             logger.info("Successfully exported tags as individual files to: {}", directoryPath);
 
         } catch (IllegalArgumentException e) {
@@ -132,49 +151,14 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
         }
     }
 
-    /**
-     * Checks if the JSON structure contains any Unknown tag types.
-     * 
-     * @param json the JSON to check
-     * @return true if Unknown tag types are found
-     */
-    private boolean hasUnknownTagTypes(JsonObject json) {
-        // Check the root level
-        if (json.has("tagType") && "Unknown".equals(json.get("tagType").getAsString())) {
-            return true;
-        }
-
-        // Check tags array
-        if (json.has("tags") && json.get("tags").isJsonArray()) {
-            JsonArray tags = json.getAsJsonArray("tags");
-            for (JsonElement tagElement : tags) {
-                if (tagElement.isJsonObject()) {
-                    JsonObject tagObject = tagElement.getAsJsonObject();
-                    if (tagObject.has("tagType") && "Unknown".equals(tagObject.get("tagType").getAsString())) {
-                        return true;
-                    }
-                    // Recursively check nested structures
-                    if (hasUnknownTagTypes(tagObject)) {
-                        return true;
-                    }
-                }
-            }
-        }
-
-        return false;
-    }
-
     @Override
     public JsonObject importTagsFromSource(
             GatewayTagManager tagManager,
+            TagCICDExecutors executors,
             String provider,
             String baseTagPath,
             String sourcePath,
             String collisionPolicy) throws IOException {
-        JsonObject responseObject = new JsonObject();
-        JsonObject createdTags = new JsonObject();
-        JsonObject deletedTags = new JsonObject();
-
         logger.info(
                 "Importing tags from directory: provider={}, baseTagPath={}, sourcePath={}, collisionPolicy={}",
                 provider, baseTagPath, sourcePath, collisionPolicy);
@@ -184,77 +168,132 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
             throw new IOException("Source path is not a valid directory: " + sourcePath);
         }
 
-        boolean deleteTags = "d".equalsIgnoreCase(collisionPolicy);
-        CollisionPolicy policy = CollisionPolicy.fromString(
-                deleteTags ? "o" : (collisionPolicy.isEmpty() ? "a" : collisionPolicy));
-
-        if (deleteTags) {
-            logger.info("Deleting existing tags at {}/{}", provider, baseTagPath);
-            try {
-                TagPath tagPath = new BasicTagPath(provider,
-                        baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
-                TagConfigurationModel baseTagsConfig = TagConfigUtilities.getTagConfigurationModel(
-                        tagManager, provider, baseTagPath, true, false);
-                List<QualityCode> deletedQualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(
-                        tagManager, provider, tagPath, baseTagsConfig);
-                deletedTags.add(baseTagPath, TagConfigUtilities.convertQualityCodesToArray(deletedQualityCodes));
-            } catch (Exception e) {
-                logger.error("Failed to delete existing tags: {}", e.getMessage(), e);
-                throw new IOException("Failed to delete existing tags: " + e.getMessage(), e);
-            }
-        }
+        return TagFileImports.run(tagManager, provider, baseTagPath, collisionPolicy, "directory",
+                (tagDiff, policy, createdTags, responseObject) -> {
+                    OperationProgress.current().setPhase(OperationProgress.PHASE_READING);
+                    JsonObject tagsJson = null;
+                    ExportIndex index = tagDiff != null ? ExportIndex.read(directory.toPath()) : null;
+                    if (index != null) {
+                        // The index hashes are enough to tell which tags are unchanged, so only the others are
+                        // parsed
+                        tagsJson = TagDirectoryReader.read(executors.getReaderPool(), directory.toPath(), index,
+                                entry -> !isUnchanged(tagDiff, baseTagPath, entry));
+                    }
+                    if (tagsJson == null) {
+                        tagsJson = TagDirectoryReader.read(executors.getReaderPool(), directory.toPath());
+                    }
 
-        try {
-            JsonObject tagsJson = TagImportUtilities.readTagsFromDirectory(sourcePath, "");
-
-            // If the baseTagPath contains _types_ as a part of the path, that means we are sub-selected into a
-            // UDT folder. So we should sort our current object at the root assuming its a types folder
-            JsonObject typesFolder;
-            String typesBasePath;
-
-            if (baseTagPath.contains("_types_")) {
-                // We're already in a types folder, so treat the entire structure as the types folder
-                typesFolder = tagsJson;
-                typesBasePath = baseTagPath;
-            } else {
-                // Normal processing: look for _types_ folder within the structure
-                typesFolder = TagImportUtilities.findTypesFolder(tagsJson);
-                typesBasePath = baseTagPath.isEmpty() ? "_types_" : baseTagPath + "/_types_";
-            }
+                    importTagTree(tagManager, provider, baseTagPath, tagsJson, tagDiff, policy, createdTags,
+                            responseObject);
+                });
+    }
 
-            if (typesFolder != null && typesFolder.has("tags")) {
-                TagPath typesPath = new BasicTagPath(provider, List.of(typesBasePath.split("/")));
+    /**
+     * Imports a tag tree read from an individual files export, its UDT
+     * definitions first, in dependency order, and then every other tag.
+     *
+     * @param tagManager     the GatewayTagManager instance
+     * @param provider       the target tag provider
+     * @param baseTagPath    the base tag path to import to
+     * @param tagsJson       the tag tree, an object with a {@code tags} array
+     * @param tagDiff        the differential import to filter the tree through, or
+     *                       null to import every tag
+     * @param policy         the collision policy to use
+     * @param createdTags    receives the quality codes of the imported tags
+     * @param responseObject receives any UDT dependency cycles
+     * @throws IOException if an import cannot be submitted
+     */
+    static void importTagTree(GatewayTagManager tagManager, String provider, String baseTagPath, JsonObject tagsJson,
+            TagDiff tagDiff, CollisionPolicy policy, JsonObject createdTags, JsonObject responseObject)
+            throws IOException {
+        // If the baseTagPath contains _types_ as a part of the path, that means we are sub-selected into a
+        // UDT folder. So we should sort our current object at the root assuming its a types folder
+        JsonObject typesFolder;
+        String typesBasePath;
+
+        if (baseTagPath.contains("_types_")) {
+            // We're already in a types folder, so treat the entire structure as the types folder
+            typesFolder = tagsJson;
+            typesBasePath = baseTagPath;
+        } else {
+            // Normal processing: look for _types_ folder within the structure
+            typesFolder = TagImportUtilities.findTypesFolder(tagsJson);
+            typesBasePath = baseTagPath.isEmpty() ? "_types_" : baseTagPath + "/_types_";
+        }
 
-                List<JsonObject> sortedUdtTypes = sortUdtTypesByDependencies(typesFolder.getAsJsonArray("tags"));
+        if (typesFolder != null && typesFolder.has("tags")) {
+            TagPath typesPath = new BasicTagPath(provider, List.of(typesBasePath.split("/")));
 
-                for (JsonObject udtTypeObject : sortedUdtTypes) {
-                    String udtName = udtTypeObject.get("name").getAsString();
-                    List<QualityCode> qualityCodes = tagManager
-                            .importTagsAsync(typesPath, TagUtilities.jsonToString(udtTypeObject), "json", policy)
-                            .join();
-                    createdTags.add(typesPath.toString() + "/" + udtName,
-                            TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
+            JsonArray udtTypesArray = typesFolder.getAsJsonArray("tags");
+            if (tagDiff != null) {
+                udtTypesArray = tagDiff.filterChanged(typesBasePath, typesBasePath, typesFolder)
+                        .getAsJsonArray("tags");
+            }
+            OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_UDTS);
+            OperationProgress.current().expect(OperationProgress.TAGS_IMPORTED, udtTypesArray.size());
+            UdtDependencyGraph udtGraph = UdtDependencyGraph.build(udtTypesArray);
+            udtGraph.addCyclesToResponse(responseObject);
+
+            try (TagImportBatcher batcher = new TagImportBatcher(tagManager, provider, policy, createdTags)) {
+                for (List<JsonObject> level : udtGraph.getLevels()) {
+                    batcher.importTags(typesBasePath, level);
+                    batcher.awaitCompletion();
                 }
+            }
 
-                // Only remove the types folder if we found it within the structure (not when we're already in types)
-                if (!baseTagPath.contains("_types_")) {
-                    tagsJson.getAsJsonArray("tags").remove(typesFolder);
-                }
+            // Only remove the types folder if we found it within the structure (not when we're already in types)
+            if (!baseTagPath.contains("_types_")) {
+                tagsJson.getAsJsonArray("tags").remove(typesFolder);
             }
+        }
 
-            // Only do recursive import if we're not already in a types folder
-            // (since we've already processed all UDT types above)
-            if (!baseTagPath.contains("_types_") || typesFolder == null) {
-                importTagsRecursively(tagManager, provider, baseTagPath, policy, createdTags, tagsJson);
+        // Only do recursive import if we're not already in a types folder
+        // (since we've already processed all UDT types above)
+        if (!baseTagPath.contains("_types_") || typesFolder == null) {
+            if (tagDiff != null) {
+                tagsJson = tagDiff.filterChanged(baseTagPath, baseTagPath, tagsJson);
+            }
+            OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+            OperationProgress.current().expect(OperationProgress.TAGS_IMPORTED,
+                    TagImportBatcher.countTags(tagsJson));
+            try (TagImportBatcher batcher = new TagImportBatcher(tagManager, provider, policy, createdTags)) {
+                batcher.importTree(baseTagPath, tagsJson);
             }
-        } catch (Exception e) {
-            logger.error("Failed to import tags from directory: {}", e.getMessage(), e);
-            throw new IOException("Failed to import tags from directory: " + e.getMessage(), e);
         }
+    }
 
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, deletedTags, "deleted_tags");
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, createdTags, "created_tags");
-        return responseObject;
+    /**
+     * Checks an indexed tag against the live provider, using the same root paths
+     * the import passes to {@link TagDiff#filterChanged}.
+     */
+    private static boolean isUnchanged(TagDiff tagDiff, String baseTagPath, ExportIndex.Entry entry) {
+        String rootPath = baseTagPath;
+        String relativePath = entry.getTagPath();
+        if (!baseTagPath.contains("_types_") && relativePath.startsWith("_types_/")) {
+            rootPath = baseTagPath.isEmpty() ? "_types_" : baseTagPath + "/_types_";
+            relativePath = relativePath.substring("_types_/".length());
+        }
+        try {
+            return tagDiff.isUnchanged(rootPath, relativePath, entry.getHash());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean supportsStreamImport() {
+        return false;
+    }
+
+    @Override
+    public JsonObject importTagsFromStream(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            InputStream source,
+            String collisionPolicy) {
+        throw new UnsupportedOperationException(getExportMode().getDisplayName()
+                + " mode imports a stream through its zip archive mode");
     }
 
     @Override
@@ -269,217 +308,106 @@ public class IndividualFilesExportStrategy implements TagExportImportStrategy {
         return filePath.endsWith("/") ? filePath : filePath + "/";
     }
 
-    private void saveTagsAsIndividualFiles(JsonObject json, String baseFilePath, boolean excludeUdtDefinitions)
-            throws IOException {
+    private void saveTagsAsIndividualFiles(JsonObject json, String baseFilePath, boolean excludeUdtDefinitions,
+            ExportManifest manifest, ExportIndex index) throws IOException {
         // Check if this is a single tag (AtomicTag, UdtInstance, UdtType, etc.) rather than a container
-        if (isSingleTag(json)) {
+        if (TagFileLayout.isSingleTag(json)) {
             // Handle single tag case - save directly as JSON file
             String tagName = json.get("name").getAsString();
-            JsonObject sortedTag = (JsonObject) FileUtilities.sortJsonElementRecursively(json);
             String filePath = baseFilePath + tagName + ".json";
+            FanOutLayout fanOut = FanOutLayout.read(Paths.get(baseFilePath));
+            if (fanOut != null) {
+                filePath = baseFilePath + fanOut.bucketFor(tagName) + "/" + tagName + ".json";
+            }
             logger.info("Saving individual tag '{}' (type: {}) to: {}", tagName, json.get("tagType").getAsString(), filePath);
-            FileUtilities.saveJsonToFile(sortedTag, filePath);
+            JsonObject sortedTag = (JsonObject) FileUtilities.sortJsonElementRecursively(json);
+            String hash = CanonicalJsonWriter.sha256(sortedTag);
+            manifest.saveJsonToFile(sortedTag, filePath, hash);
+            ExportIndex.recordTag(Paths.get(filePath), sortedTag, hash);
             return;
         }
 
-        if (json.has("tags")) {
-            JsonArray tags = json.getAsJsonArray("tags");
-            for (JsonElement tag : tags) {
-                JsonObject tagObject = tag.getAsJsonObject();
-                String tagType = tagObject.get("tagType").getAsString();
-                String tagName = tagObject.get("name").getAsString();
-
-                if (excludeUdtDefinitions && "_types_".equals(tagName) && "Folder".equals(tagType)) {
-                    logger.info("Skipping _types_ folder due to excludeUdtDefinitions=true");
-                    continue;
-                }
-
-                if ("_types_".equals(tagName) && "Folder".equals(tagType)) {
-                    JsonArray typesTags = tagObject.getAsJsonArray("tags");
-                    if (typesTags == null || typesTags.size() == 0) {
-                        logger.info("Skipping _types_ folder because it is empty");
-                        continue;
-                    }
-                }
-
-                if ("Folder".equals(tagType) || "Provider".equals(tagType)) {
-                    String folderPath = baseFilePath + tagName + "/";
-                    File folder = new File(folderPath);
-                    folder.mkdirs();
-                    saveTagsAsIndividualFiles(tagObject, folderPath, excludeUdtDefinitions);
-                } else {
-                    tagObject = (JsonObject) FileUtilities.sortJsonElementRecursively(tagObject);
-                    FileUtilities.saveJsonToFile(tagObject, baseFilePath + tagName + ".json");
-                }
+        TagFileLayout.walkIndividualFiles(json, excludeUdtDefinitions, (folderPath, folder) -> {
+            String directoryPath = folderPath.isEmpty() ? baseFilePath : baseFilePath + folderPath + "/";
+            if (!folderPath.isEmpty()) {
+                new File(directoryPath).mkdirs();
+                index.addFolder(folderPath, folderPath);
             }
-        } else {
-            FileUtilities.saveJsonToFile(json, baseFilePath + ".json");
-        }
-    }
-
-    private List<JsonObject> sortUdtTypesByDependencies(JsonArray udtTypesArray) {
-        Map<String, JsonObject> udtTypesMap = new HashMap<>();
-        Map<String, Set<String>> dependencies = new HashMap<>();
-        Set<String> allUdtNames = new HashSet<>();
-
-        for (JsonElement element : udtTypesArray) {
-            JsonObject udtType = element.getAsJsonObject();
-            String udtName = udtType.get("name").getAsString();
-            udtTypesMap.put(udtName, udtType);
-            allUdtNames.add(udtName);
-            Set<String> deps = new HashSet<>();
-            findUdtDependencies(udtType, deps);
-            dependencies.put(udtName, deps);
-        }
-
-        List<String> sortedNames = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> tempMarks = new HashSet<>();
-
-        for (String udtName : allUdtNames) {
-            if (!visited.contains(udtName)) {
-                topologicalSortUdts(udtName, dependencies, visited, tempMarks, sortedNames);
+            if (!folder.has("tags")) {
+                manifest.saveJsonToFile(folder, directoryPath + ".json");
+                return null;
             }
-        }
-
-        List<JsonObject> sortedUdts = new ArrayList<>();
-        for (String name : sortedNames) {
-            JsonObject udtObject = udtTypesMap.get(name);
-            if (udtObject != null) {
-                sortedUdts.add(udtObject);
-            }
-        }
-
-        return sortedUdts;
+            return openFolder(folderPath, directoryPath, folder.getAsJsonArray("tags"), manifest, index);
+        });
     }
 
-    private void findUdtDependencies(JsonObject jsonObject, Set<String> dependencies) {
-        if (jsonObject.has("tagType") &&
-                jsonObject.get("tagType").getAsString().equals("UdtInstance") &&
-                jsonObject.has("typeId")) {
-            dependencies.add(jsonObject.get("typeId").getAsString());
+    /**
+     * Lays out a folder's directory for its tag files, fanned out over buckets or
+     * not, and returns the writer that saves them and records them in the index.
+     */
+    private TagFileLayout.TagWriter openFolder(String folderPath, String directoryPath, JsonArray tags,
+            ExportManifest manifest, ExportIndex index) throws IOException {
+        Path directory = Paths.get(directoryPath);
+        FanOutLayout fanOut = chooseFanOut(tags, directoryPath);
+        FanOutLayout previousFanOut = FanOutLayout.read(directory);
+        boolean layoutChanged = previousFanOut == null ? fanOut != null
+                : fanOut == null || !fanOut.getLayout().equals(previousFanOut.getLayout());
+        if (previousFanOut != null && layoutChanged) {
+            FanOutLayout.removeBuckets(directory);
         }
-
-        if (jsonObject.has("tags")) {
-            JsonArray tags = jsonObject.getAsJsonArray("tags");
-            for (JsonElement tagElement : tags) {
-                if (tagElement.isJsonObject()) {
-                    findUdtDependencies(tagElement.getAsJsonObject(), dependencies);
-                }
-            }
+        if (fanOut != null && layoutChanged) {
+            fanOut.writeMarker(directory);
         }
 
-        if (jsonObject.has("parameters")) {
-            JsonElement parametersElement = jsonObject.get("parameters");
-
-            // Handle both JsonArray and JsonObject cases for parameters
-            if (parametersElement.isJsonArray()) {
-                JsonArray parameters = parametersElement.getAsJsonArray();
-                for (JsonElement paramElement : parameters) {
-                    if (paramElement.isJsonObject()) {
-                        JsonObject param = paramElement.getAsJsonObject();
-                        if (param.has("value") && param.get("value").isJsonObject()) {
-                            findUdtDependencies(param.get("value").getAsJsonObject(), dependencies);
-                        }
-                    }
-                }
-            } else if (parametersElement.isJsonObject()) {
-                JsonObject parameters = parametersElement.getAsJsonObject();
-                for (Map.Entry<String, JsonElement> entry : parameters.entrySet()) {
-                    JsonElement paramValue = entry.getValue();
-                    if (paramValue.isJsonObject()) {
-                        findUdtDependencies(paramValue.getAsJsonObject(), dependencies);
-                    }
+        return (tagName, sortedTag) -> {
+            String fileName = tagName + ".json";
+            if (fanOut != null) {
+                if (previousFanOut == null) {
+                    // The folder was written without buckets before
+                    Files.deleteIfExists(directory.resolve(fileName));
                 }
+                fileName = fanOut.bucketFor(tagName) + "/" + fileName;
             }
-        }
+            // The tag is sorted again as the file is written, which the hash has to match
+            String hash = CanonicalJsonWriter.sha256(sortedTag);
+            manifest.saveJsonToFile(sortedTag, directoryPath + fileName, hash);
+            String tagPath = folderPath.isEmpty() ? tagName : folderPath + "/" + tagName;
+            index.addTag(tagPath, folderPath.isEmpty() ? fileName : folderPath + "/" + fileName, sortedTag, hash);
+        };
     }
 
-    private void topologicalSortUdts(
-            String udtName,
-            Map<String, Set<String>> dependencies,
-            Set<String> visited,
-            Set<String> tempMarks,
-            List<String> sortedNames) {
-        if (tempMarks.contains(udtName)) {
-            logger.warn("Circular dependency detected in UDT types involving: " + udtName);
-            return;
-        }
-
-        if (visited.contains(udtName)) {
-            return;
-        }
-
-        tempMarks.add(udtName);
-
-        Set<String> deps = dependencies.getOrDefault(udtName, Collections.emptySet());
-        for (String dep : deps) {
-            if (dependencies.containsKey(dep)) {
-                topologicalSortUdts(dep, dependencies, visited, tempMarks, sortedNames);
+    /**
+     * Decides whether a folder's tag files are spread over buckets, see
+     * {@link FanOutLayout}.
+     *
+     * @param tags          the folder's tags
+     * @param directoryPath the folder's directory, for logging
+     * @return the layout to use, or null to write the files directly into the
+     *         folder's directory
+     */
+    private FanOutLayout chooseFanOut(JsonArray tags, String directoryPath) {
+        int tagCount = 0;
+        for (JsonElement tag : tags) {
+            JsonObject tagObject = tag.getAsJsonObject();
+            String tagType = tagObject.get("tagType").getAsString();
+            if (!"Folder".equals(tagType) && !"Provider".equals(tagType)) {
+                tagCount++;
             }
         }
 
-        tempMarks.remove(udtName);
-        visited.add(udtName);
-        sortedNames.add(udtName);
-    }
-
-    private void importTagsRecursively(
-            GatewayTagManager tagManager,
-            String provider,
-            String baseTagPath,
-            CollisionPolicy collisionPolicy,
-            JsonObject createdTags,
-            JsonObject tagsJson) {
-        List<String> pathComponents = new ArrayList<>();
-        if (!baseTagPath.isEmpty()) {
-            pathComponents.addAll(List.of(baseTagPath.split("/")));
-        }
-        TagPath basePath = new BasicTagPath(provider, pathComponents);
-
-        JsonArray tags = tagsJson.getAsJsonArray("tags");
-        if (tags == null || tags.size() == 0) {
-            return;
+        FanOutLayout fanOut = FanOutLayout.forTagCount(tagCount);
+        if (fanOut == null) {
+            return null;
         }
-
-        for (JsonElement tagElement : tags) {
-            JsonObject tagObject = tagElement.getAsJsonObject();
-            String tagType = tagObject.get("tagType").getAsString();
+        for (JsonElement tag : tags) {
+            JsonObject tagObject = tag.getAsJsonObject();
             String tagName = tagObject.get("name").getAsString();
-
-            if ("Folder".equals(tagType)) {
-                String folderPath = baseTagPath.isEmpty() ? tagName : baseTagPath + "/" + tagName;
-                importTagsRecursively(tagManager, provider, folderPath, collisionPolicy, createdTags, tagObject);
-            } else {
-                JsonObject singleTagJson = new JsonObject();
-                singleTagJson.add("tags", new JsonArray());
-                singleTagJson.getAsJsonArray("tags").add(tagObject);
-
-                try {
-                    List<QualityCode> qualityCodes = tagManager
-                            .importTagsAsync(basePath, TagUtilities.jsonToString(singleTagJson), "json",
-                                    collisionPolicy)
-                            .join();
-                    createdTags.add(basePath.toString() + "/" + tagName,
-                            TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
-                } catch (Exception e) {
-                    logger.error("Error importing tag {}: {}", tagName, e.getMessage(), e);
-                }
+            if (FanOutLayout.isBucketName(tagName)) {
+                logger.warn("Not fanning out {} tags in {}: the folder holds '{}', which would be read as a bucket",
+                        tagCount, directoryPath, tagName);
+                return null;
             }
         }
+        return fanOut;
     }
-
-    /**
-     * Determines if the given JSON object represents a single tag (AtomicTag, UdtInstance, or UdtType)
-     * rather than a container/folder structure.
-     *
-     * @param json the JSON object to check
-     * @return true if it represents a single tag, false otherwise
-     */
-    private boolean isSingleTag(JsonObject json) {
-        return json.has("tagType") && json.has("name") &&
-               ("AtomicTag".equals(json.get("tagType").getAsString()) ||
-                "UdtInstance".equals(json.get("tagType").getAsString()) ||
-                "UdtType".equals(json.get("tagType").getAsString()));
-    }
-}
\ No newline at end of file
+}
@@ -1,12 +1,20 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ExportManifest;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationProgress;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.StreamingTagImporter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagDiff;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportBatcher;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.UdtDependencyGraph;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagFileReader;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
-import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.stream.JsonReader;
 import com.inductiveautomation.ignition.common.model.values.QualityCode;
 import com.inductiveautomation.ignition.common.tags.TagUtilities;
 import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
@@ -19,40 +27,71 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
- * Strategy for exporting/importing tags as a single JSON file.
+ * Strategy for exporting/importing tags as a single JSON file, optionally
+ * gzip-compressed.
+ * <p>
+ * Compression follows the file name: any file ending in
+ * {@value FileUtilities#COMPRESSED_FILE_EXTENSION} is written compressed, and
+ * the compressed mode adds that extension when the path does not have it.
+ * Imports recognize compressed files by their content, so either mode reads
+ * either kind of file.
+ * <p>
+ * Tags can also be imported from a stream, such as a request body, holding the
+ * same document, compressed or not, or a zip archive holding it. The stream is
+ * parsed once, as it is read.
  * 
  * @author Keith Gamble
  */
 public class SingleFileExportStrategy implements TagExportImportStrategy {
     private static final Logger logger = LoggerFactory.getLogger(SingleFileExportStrategy.class.getName());
 
+    private final boolean compressed;
+
+    public SingleFileExportStrategy() {
+        this(false);
+    }
+
+    /**
+     * @param compressed true to write gzip-compressed files
+     */
+    public SingleFileExportStrategy(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    /**
+     * Returns the path the compressed mode writes to for the given configured
+     * path, which is the path itself if it already has the
+     * {@value FileUtilities#COMPRESSED_FILE_EXTENSION} extension.
+     *
+     * @param filePath the configured file path
+     * @return the path of the compressed file
+     */
+    public static String getCompressedFilePath(String filePath) {
+        return FileUtilities.isCompressedPath(filePath) ? filePath
+                : filePath + FileUtilities.COMPRESSED_FILE_EXTENSION;
+    }
+
     @Override
     public void exportTagsToDisk(
-            GatewayTagManager tagManager,
+            JsonObject tagsJson,
             String provider,
             String baseTagPath,
-            boolean recursive,
-            boolean localPropsOnly,
             String filePath,
             boolean deleteExisting,
-            boolean excludeUdtDefinitions) throws IOException {
+            boolean excludeUdtDefinitions,
+            boolean incremental) throws IOException {
         try {
+            if (compressed) {
+                filePath = getCompressedFilePath(filePath);
+            }
             logger.info(
-                    "Exporting tags as single file: provider={}, baseTagPath={}, filePath={}, recursive={}, deleteExisting={}",
-                    provider, baseTagPath, filePath, recursive, deleteExisting);
-
-            TagConfigurationModel tagConfigurationModel = TagConfigUtilities.getTagConfigurationModel(
-                    tagManager, provider, baseTagPath, recursive, localPropsOnly);
-            JsonObject tagsJson = TagExportUtilities.convertToJsonObject(tagConfigurationModel);
+                    "Exporting tags as single file: provider={}, baseTagPath={}, filePath={}, deleteExisting={}",
+                    provider, baseTagPath, filePath, deleteExisting);
 
             if (excludeUdtDefinitions) {
                 tagsJson = TagExportUtilities.removeUdtDefinitions(tagsJson);
@@ -61,7 +100,19 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
             tagsJson = (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson);
 
             File file = new File(filePath);
-            File parentDir = file.getParentFile();
+            File parentDir = file.getAbsoluteFile().getParentFile();
+
+            if (incremental) {
+                // The single file is the only unit, so an unchanged file is simply left alone. Other
+                // single-file exports may share this directory, so nothing else is ever deleted.
+                try (ExportManifest manifest = ExportManifest.open(parentDir.toPath())) {
+                    if (!manifest.saveJsonToFile(tagsJson, filePath)) {
+                        logger.info("Tags unchanged, skipped writing single file: {}", filePath);
+                    }
+                }
+                logger.info("Successfully exported tags to single file: {}", filePath);
+                return;
+            }
 
             // Handle deleteExisting for single file mode
             if (deleteExisting && file.exists()) {
@@ -89,6 +140,7 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
     @Override
     public JsonObject importTagsFromSource(
             GatewayTagManager tagManager,
+            TagCICDExecutors executors,
             String provider,
             String baseTagPath,
             String sourcePath,
@@ -107,76 +159,39 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
         }
 
         boolean deleteTags = "d".equalsIgnoreCase(collisionPolicy);
+        TagDiff tagDiff = TagDiff.isDiffPolicy(collisionPolicy) ? new TagDiff(tagManager, provider) : null;
         CollisionPolicy policy = CollisionPolicy.fromString(
-                deleteTags ? "o" : (collisionPolicy.isEmpty() ? "a" : collisionPolicy));
+                deleteTags || tagDiff != null ? "o" : (collisionPolicy.isEmpty() ? "a" : collisionPolicy));
 
         if (deleteTags) {
-            logger.info("Deleting existing tags at {}/{}", provider, baseTagPath);
-            try {
-                TagPath tagPath = new BasicTagPath(provider,
-                        baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
-                TagConfigurationModel baseTagsConfig = TagConfigUtilities.getTagConfigurationModel(
-                        tagManager, provider, baseTagPath, true, false);
-                List<QualityCode> deletedQualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(
-                        tagManager, provider, tagPath, baseTagsConfig);
-                deletedTags.add(baseTagPath, TagConfigUtilities.convertQualityCodesToArray(deletedQualityCodes));
-            } catch (Exception e) {
-                logger.error("Failed to delete existing tags: {}", e.getMessage(), e);
-                throw new IOException("Failed to delete existing tags: " + e.getMessage(), e);
-            }
+            deleteExistingTags(tagManager, provider, baseTagPath, deletedTags);
         }
 
         try {
-            String fileContent = FileUtilities.readFileAsString(sourceFile);
-            JsonObject tagsJson = TagUtilities.stringToJson(fileContent).getAsJsonObject();
+            OperationProgress.current().setPhase(OperationProgress.PHASE_READING);
+            StreamingTagImporter.ScanResult scan = StreamingTagImporter.scan(sourceFile.toPath());
 
-            JsonArray tagsArray = tagsJson.getAsJsonArray("tags");
-            if (tagsArray != null) {
+            if (scan.hasTags()) {
                 // Step 1: Import UDT definitions from _types_
-                JsonObject typesFolder = findTypesFolder(tagsJson);
+                JsonObject typesFolder = scan.getTypesFolder();
                 if (typesFolder != null) {
-                    String typesBasePath = "_types_"; // Always import UDTs to _types_
-                    TagPath typesPath = new BasicTagPath(provider, List.of(typesBasePath.split("/")));
-                    JsonArray udtTypesArray = typesFolder.getAsJsonArray("tags");
-
-                    if (udtTypesArray != null && udtTypesArray.size() > 0) {
-                        List<JsonObject> sortedUdtTypes = sortUdtTypesByDependencies(udtTypesArray);
-
-                        logger.debug("Importing UDTs to {}", typesPath);
-                        for (JsonObject udtType : sortedUdtTypes) {
-                            JsonObject singleUdtJson = new JsonObject();
-                            singleUdtJson.add("tags", new JsonArray());
-                            singleUdtJson.getAsJsonArray("tags").add(udtType);
-                            List<QualityCode> qualityCodes = tagManager
-                                    .importTagsAsync(typesPath, TagUtilities.jsonToString(singleUdtJson), "json",
-                                            policy)
-                                    .join();
-                            String udtName = udtType.get("name").getAsString();
-                            JsonArray qualityArray = TagConfigUtilities.convertQualityCodesToArray(qualityCodes);
-                            createdTags.add(typesPath.toString() + "/" + udtName, qualityArray);
-                            logger.debug("Imported UDT {} with result: {}", udtName, qualityArray);
-                            if (!qualityArray.toString().contains("Good")) {
-                                logger.warn("UDT {} import may have failed: {}", udtName, qualityArray);
-                            }
-                        }
-                    }
-
-                    // Remove _types_ from tagsArray
-                    tagsArray.remove(typesFolder);
+                    importTypesFolder(tagManager, provider, typesFolder, tagDiff, policy, createdTags,
+                            responseObject);
                 }
 
-                // Step 2: Import remaining tags with folder structure
+                // Step 2: Stream the remaining tags with folder structure, skipping _types_
                 logger.debug("Importing remaining tags from {}", baseTagPath);
-                importTagsRecursively(tagManager, provider, baseTagPath, policy, createdTags, tagsJson);
+                OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+                if (tagDiff == null) {
+                    OperationProgress.current().expect(OperationProgress.TAGS_IMPORTED, scan.getTagCount());
+                }
+                try (TagImportBatcher batcher = new TagImportBatcher(tagManager, provider, policy, createdTags)) {
+                    new StreamingTagImporter(batcher, tagDiff, baseTagPath).importTags(sourceFile.toPath());
+                }
             } else {
-                // Fallback for flat JSON
-                TagPath basePath = new BasicTagPath(provider,
-                        baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
-                List<QualityCode> qualityCodes = tagManager
-                        .importTagsAsync(basePath, fileContent, "json", policy)
-                        .join();
-                createdTags.add(basePath.toString(), TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
-                logger.debug("Imported flat JSON to {} with result: {}", basePath, qualityCodes);
+                // Fallback for flat JSON, which holds a single tag
+                importFlatTag(tagManager, provider, baseTagPath, TagFileReader.readString(sourceFile.toPath()),
+                        policy, createdTags);
             }
         } catch (Exception e) {
             logger.error("Failed to import tags from file: {}", e.getMessage(), e);
@@ -185,182 +200,133 @@ public class SingleFileExportStrategy implements TagExportImportStrategy {
 
         TagConfigUtilities.addQualityCodesToJsonObject(responseObject, deletedTags, "deleted_tags");
         TagConfigUtilities.addQualityCodesToJsonObject(responseObject, createdTags, "created_tags");
+        if (tagDiff != null) {
+            tagDiff.addToResponse(responseObject);
+        }
         return responseObject;
     }
 
     @Override
-    public ExportMode getExportMode() {
-        return ExportMode.SINGLE_FILE;
+    public boolean supportsStreamImport() {
+        return true;
     }
 
-    private JsonObject findTypesFolder(JsonObject tagsJson) {
-        JsonArray tags = tagsJson.getAsJsonArray("tags");
-        if (tags != null) {
-            for (JsonElement tag : tags) {
-                JsonObject tagObject = tag.getAsJsonObject();
-                if ("_types_".equals(tagObject.get("name").getAsString()) &&
-                        "Folder".equals(tagObject.get("tagType").getAsString())) {
-                    return tagObject;
-                }
-            }
-        }
-        return null;
-    }
-
-    private List<JsonObject> sortUdtTypesByDependencies(JsonArray udtTypesArray) {
-        Map<String, JsonObject> udtTypesMap = new HashMap<>();
-        Map<String, Set<String>> dependencies = new HashMap<>();
-        Set<String> allUdtNames = new HashSet<>();
-
-        for (JsonElement element : udtTypesArray) {
-            JsonObject udtType = element.getAsJsonObject();
-            String udtName = udtType.get("name").getAsString();
-            udtTypesMap.put(udtName, udtType);
-            allUdtNames.add(udtName);
-            Set<String> deps = new HashSet<>();
-            findUdtDependencies(udtType, deps);
-            dependencies.put(udtName, deps);
-        }
+    @Override
+    public JsonObject importTagsFromStream(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            InputStream source,
+            String collisionPolicy) throws IOException {
+        JsonObject responseObject = new JsonObject();
+        JsonObject createdTags = new JsonObject();
+        JsonObject deletedTags = new JsonObject();
 
-        List<String> sortedNames = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        Set<String> tempMarks = new HashSet<>();
+        logger.info("Importing tags from stream: provider={}, baseTagPath={}, collisionPolicy={}",
+                provider, baseTagPath, collisionPolicy);
 
-        for (String udtName : allUdtNames) {
-            if (!visited.contains(udtName)) {
-                topologicalSortUdts(udtName, dependencies, visited, tempMarks, sortedNames);
-            }
-        }
+        boolean deleteTags = "d".equalsIgnoreCase(collisionPolicy);
+        TagDiff tagDiff = TagDiff.isDiffPolicy(collisionPolicy) ? new TagDiff(tagManager, provider) : null;
+        CollisionPolicy policy = CollisionPolicy.fromString(
+                deleteTags || tagDiff != null ? "o" : (collisionPolicy.isEmpty() ? "a" : collisionPolicy));
 
-        List<JsonObject> sortedUdts = new ArrayList<>();
-        for (String name : sortedNames) {
-            JsonObject udtObject = udtTypesMap.get(name);
-            if (udtObject != null) {
-                sortedUdts.add(udtObject);
+        try (JsonReader reader = TagFileReader.openJson(source)) {
+            if (deleteTags) {
+                deleteExistingTags(tagManager, provider, baseTagPath, deletedTags);
             }
-        }
-
-        logger.debug("Sorted UDTs: {}", sortedUdts.stream().map(obj -> obj.get("name").getAsString()).toList());
-        return sortedUdts;
-    }
 
-    private void findUdtDependencies(JsonObject jsonObject, Set<String> dependencies) {
-        if (jsonObject.has("tagType") &&
-                "UdtInstance".equals(jsonObject.get("tagType").getAsString()) &&
-                jsonObject.has("typeId")) {
-            String typeId = jsonObject.get("typeId").getAsString();
-            if (!typeId.isEmpty()) {
-                dependencies.add(typeId);
+            // The stream is read once, so its tags are imported as they are parsed, with the
+            // root _types_ folder imported as soon as it arrives
+            OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+            JsonObject flatTag;
+            try (TagImportBatcher batcher = new TagImportBatcher(tagManager, provider, policy, createdTags)) {
+                flatTag = new StreamingTagImporter(batcher, tagDiff, baseTagPath).importTags(reader, typesFolder -> {
+                    importTypesFolder(tagManager, provider, typesFolder, tagDiff, policy, createdTags,
+                            responseObject);
+                    OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+                });
             }
-        }
 
-        if (jsonObject.has("tags") && jsonObject.get("tags").isJsonArray()) {
-            JsonArray tags = jsonObject.getAsJsonArray("tags");
-            for (JsonElement tagElement : tags) {
-                if (tagElement.isJsonObject()) {
-                    findUdtDependencies(tagElement.getAsJsonObject(), dependencies);
-                }
+            if (flatTag != null) {
+                importFlatTag(tagManager, provider, baseTagPath, TagUtilities.jsonToString(flatTag), policy,
+                        createdTags);
             }
+        } catch (IOException e) {
+            logger.error("Failed to import tags from stream: {}", e.getMessage(), e);
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to import tags from stream: {}", e.getMessage(), e);
+            throw new IOException("Failed to import tags from stream: " + e.getMessage(), e);
         }
 
-        if (jsonObject.has("parameters")) {
-            JsonElement parametersElement = jsonObject.get("parameters");
-
-            // Handle both JsonArray and JsonObject cases for parameters
-            if (parametersElement.isJsonArray()) {
-                JsonArray parameters = parametersElement.getAsJsonArray();
-                for (JsonElement paramElement : parameters) {
-                    if (paramElement.isJsonObject()) {
-                        JsonObject param = paramElement.getAsJsonObject();
-                        if (param.has("value") && param.get("value").isJsonObject()) {
-                            findUdtDependencies(param.get("value").getAsJsonObject(), dependencies);
-                        }
-                    }
-                }
-            } else if (parametersElement.isJsonObject()) {
-                JsonObject parameters = parametersElement.getAsJsonObject();
-                for (Map.Entry<String, JsonElement> entry : parameters.entrySet()) {
-                    JsonElement paramValue = entry.getValue();
-                    if (paramValue.isJsonObject()) {
-                        findUdtDependencies(paramValue.getAsJsonObject(), dependencies);
-                    }
-                }
-            }
+        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, deletedTags, "deleted_tags");
+        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, createdTags, "created_tags");
+        if (tagDiff != null) {
+            tagDiff.addToResponse(responseObject);
         }
+        return responseObject;
     }
 
-    private void topologicalSortUdts(
-            String udtName,
-            Map<String, Set<String>> dependencies,
-            Set<String> visited,
-            Set<String> tempMarks,
-            List<String> sortedNames) {
-        if (tempMarks.contains(udtName)) {
-            logger.warn("Circular dependency detected in UDT types involving: {}", udtName);
-            return;
+    private static void deleteExistingTags(GatewayTagManager tagManager, String provider, String baseTagPath,
+            JsonObject deletedTags) throws IOException {
+        OperationProgress.current().setPhase(OperationProgress.PHASE_DELETING);
+        logger.info("Deleting existing tags at {}/{}", provider, baseTagPath);
+        try {
+            TagPath tagPath = new BasicTagPath(provider,
+                    baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
+            TagConfigurationModel baseTagsConfig = TagConfigUtilities.getTagConfigurationModel(
+                    tagManager, provider, baseTagPath, true, false);
+            List<QualityCode> deletedQualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(
+                    tagManager, provider, tagPath, baseTagsConfig);
+            deletedTags.add(baseTagPath, TagConfigUtilities.convertQualityCodesToArray(deletedQualityCodes));
+        } catch (Exception e) {
+            logger.error("Failed to delete existing tags: {}", e.getMessage(), e);
+            throw new IOException("Failed to delete existing tags: " + e.getMessage(), e);
         }
+    }
 
-        if (visited.contains(udtName)) {
-            return;
+    /**
+     * Imports the UDT definitions of the root {@code _types_} folder, in levels
+     * so that every definition is imported after the ones it depends on.
+     */
+    private static void importTypesFolder(GatewayTagManager tagManager, String provider, JsonObject typesFolder,
+            TagDiff tagDiff, CollisionPolicy policy, JsonObject createdTags, JsonObject responseObject)
+            throws IOException {
+        String typesBasePath = "_types_"; // Always import UDTs to _types_
+        TagPath typesPath = new BasicTagPath(provider, List.of(typesBasePath.split("/")));
+        JsonArray udtTypesArray = typesFolder.getAsJsonArray("tags");
+        if (tagDiff != null && udtTypesArray != null) {
+            udtTypesArray = tagDiff.filterChanged(typesBasePath, typesBasePath, typesFolder)
+                    .getAsJsonArray("tags");
         }
 
-        tempMarks.add(udtName);
-
-        Set<String> deps = dependencies.getOrDefault(udtName, Collections.emptySet());
-        for (String dep : deps) {
-            if (dependencies.containsKey(dep)) {
-                topologicalSortUdts(dep, dependencies, visited, tempMarks, sortedNames);
+        if (udtTypesArray != null && udtTypesArray.size() > 0) {
+            OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_UDTS);
+            OperationProgress.current().expect(OperationProgress.TAGS_IMPORTED, udtTypesArray.size());
+            UdtDependencyGraph udtGraph = UdtDependencyGraph.build(udtTypesArray);
+            udtGraph.addCyclesToResponse(responseObject);
+
+            logger.debug("Importing UDTs to {} in {} levels", typesPath, udtGraph.getLevels().size());
+            try (TagImportBatcher batcher = new TagImportBatcher(tagManager, provider, policy, createdTags)) {
+                for (List<JsonObject> level : udtGraph.getLevels()) {
+                    batcher.importTags(typesBasePath, level);
+                    batcher.awaitCompletion();
+                }
             }
         }
-
-        tempMarks.remove(udtName);
-        visited.add(udtName);
-        sortedNames.add(udtName);
     }
 
-    private void importTagsRecursively(
-            GatewayTagManager tagManager,
-            String provider,
-            String baseTagPath,
-            CollisionPolicy collisionPolicy,
-            JsonObject createdTags,
-            JsonObject tagsJson) throws IOException {
-        JsonArray tags = tagsJson.getAsJsonArray("tags");
-        if (tags == null || tags.size() == 0) {
-            return;
-        }
-
-        List<String> pathComponents = new ArrayList<>();
-        if (!baseTagPath.isEmpty()) {
-            pathComponents.addAll(List.of(baseTagPath.split("/")));
-        }
-        TagPath basePath = new BasicTagPath(provider, pathComponents);
-
-        for (JsonElement tagElement : tags) {
-            JsonObject tagObject = tagElement.getAsJsonObject();
-            String tagType = tagObject.get("tagType").getAsString();
-            String tagName = tagObject.get("name").getAsString();
+    private static void importFlatTag(GatewayTagManager tagManager, String provider, String baseTagPath,
+            String tagJson, CollisionPolicy policy, JsonObject createdTags) {
+        TagPath basePath = new BasicTagPath(provider,
+                baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
+        List<QualityCode> qualityCodes = tagManager.importTagsAsync(basePath, tagJson, "json", policy).join();
+        createdTags.add(basePath.toString(), TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
+        logger.debug("Imported flat JSON to {} with result: {}", basePath, qualityCodes);
+    }
 
-            if ("Folder".equals(tagType)) {
-                String folderPath = baseTagPath.isEmpty() ? tagName : baseTagPath + "/" + tagName;
-                importTagsRecursively(tagManager, provider, folderPath, collisionPolicy, createdTags, tagObject);
-            } else {
-                JsonObject singleTagJson = new JsonObject();
-                singleTagJson.add("tags", new JsonArray());
-                singleTagJson.getAsJsonArray("tags").add(tagObject);
-
-                try {
-                    List<QualityCode> qualityCodes = tagManager
-                            .importTagsAsync(basePath, TagUtilities.jsonToString(singleTagJson), "json",
-                                    collisionPolicy)
-                            .join();
-                    createdTags.add(basePath.toString() + "/" + tagName,
-                            TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
-                    logger.debug("Imported tag {} to {} with result: {}", tagName, basePath, qualityCodes);
-                } catch (Exception e) {
-                    logger.error("Error importing tag {}: {}", tagName, e.getMessage(), e);
-                }
-            }
-        }
+    @Override
+    public ExportMode getExportMode() {
+        return compressed ? ExportMode.SINGLE_FILE_GZIP : ExportMode.SINGLE_FILE;
     }
-}
\ No newline at end of file
+}
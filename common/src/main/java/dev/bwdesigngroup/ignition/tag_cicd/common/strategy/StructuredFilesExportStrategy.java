@@ -1,36 +1,36 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ExportManifest;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
-import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
-import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationProgress;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.RootLocks;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.StructuredFileShards;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagDiff;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportBatcher;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
-import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.common.gson.JsonParser;
-import com.inductiveautomation.ignition.common.model.values.QualityCode;
-import com.inductiveautomation.ignition.common.tags.TagUtilities;
-import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
-import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
 import com.inductiveautomation.ignition.common.tags.model.TagPath;
-import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
 import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Strategy for exporting/importing tags in a structured format with tags.json
- * and udts.json files in each folder.
+ * and udts.json files in each folder. Files that would grow too large are split
+ * into shards, see {@link StructuredFileShards}.
  * 
  * @author Keith Gamble
  */
@@ -41,25 +41,17 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
 
     @Override
     public void exportTagsToDisk(
-            GatewayTagManager tagManager,
+            JsonObject tagsJson,
             String provider,
             String baseTagPath,
-            boolean recursive,
-            boolean localPropsOnly,
             String filePath,
             boolean deleteExisting,
-            boolean excludeUdtDefinitions) throws IOException {
+            boolean excludeUdtDefinitions,
+            boolean incremental) throws IOException {
         try {
             logger.info(
-                    "Exporting tags in structured format: provider={}, baseTagPath={}, filePath={}, recursive={}, deleteExisting={}",
-                    provider, baseTagPath, filePath, recursive, deleteExisting);
-
-            // Get tag configuration model
-            TagConfigurationModel tagConfigurationModel = TagConfigUtilities.getTagConfigurationModel(
-                    tagManager, provider, baseTagPath, recursive, localPropsOnly);
-
-            // Convert to JSON
-            JsonObject tagsJson = TagExportUtilities.convertToJsonObject(tagConfigurationModel);
+                    "Exporting tags in structured format: provider={}, baseTagPath={}, filePath={}, deleteExisting={}",
+                    provider, baseTagPath, filePath, deleteExisting);
 
             // Ensure directory exists
             String directoryPath = ensureDirectoryPath(filePath);
@@ -70,14 +62,31 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
                 }
             }
 
-            // Handle deleteExisting for structured files mode
-            if (deleteExisting) {
-                logger.info("Cleaning existing structured files in directory: {}", directoryPath);
-                FileUtilities.cleanStructuredFilesDirectory(directoryPath);
-            }
+            // Hold the root for the whole export, so that no other export works on it between the
+            // cleanup and the last file being written
+            try (RootLocks.RootLock rootLock = RootLocks.EXPORT_ROOTS.lock(directory.toPath())) {
+                if (!incremental) {
+                    ExportManifest.invalidate(directory.toPath());
+                }
+
+                try (ExportManifest manifest = incremental
+                        ? ExportManifest.open(directory.toPath())
+                        : ExportManifest.disabled()) {
+                    // Handle deleteExisting for structured files mode. An incremental export only needs
+                    // to clean the whole directory when there is no manifest yet.
+                    if (deleteExisting && (!incremental || manifest.isNew())) {
+                        logger.info("Cleaning existing structured files in directory: {}", directoryPath);
+                        FileUtilities.cleanStructuredFilesDirectory(directoryPath);
+                    }
+
+                    // Export tags in structured format
+                    exportTagsInStructuredFormat(tagsJson, directoryPath, excludeUdtDefinitions, manifest);
 
-            // Export tags in structured format
-            exportTagsInStructuredFormat(tagsJson, directoryPath, excludeUdtDefinitions);
+                    if (deleteExisting && incremental) {
+                        manifest.deleteRemovedFiles();
+                    }
+                }
+            }
             logger.info("Successfully exported tags in structured format to: {}", directoryPath);
         } catch (Exception e) {
             logger.error("Error exporting tags in structured format: {}", e.getMessage(), e);
@@ -88,14 +97,11 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
     @Override
     public JsonObject importTagsFromSource(
             GatewayTagManager tagManager,
+            TagCICDExecutors executors,
             String provider,
             String baseTagPath,
             String sourcePath,
             String collisionPolicy) throws IOException {
-        JsonObject responseObject = new JsonObject();
-        JsonObject createdTags = new JsonObject();
-        JsonObject deletedTags = new JsonObject();
-
         logger.info(
                 "Importing tags from structured format: provider={}, baseTagPath={}, sourcePath={}, collisionPolicy={}",
                 provider, baseTagPath, sourcePath, collisionPolicy);
@@ -105,59 +111,46 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
             throw new IOException("Source path is not a valid directory: " + sourcePath);
         }
 
-        // Handle delete-and-replace policy
-        boolean deleteTags = "d".equalsIgnoreCase(collisionPolicy);
-        CollisionPolicy policy = CollisionPolicy.fromString(
-                deleteTags ? "o" : (collisionPolicy.isEmpty() ? "a" : collisionPolicy));
-
-        if (deleteTags) {
-            logger.info("Deleting existing tags at {}/{}", provider, baseTagPath);
-            try {
-                TagPath tagPath = new BasicTagPath(provider,
-                        baseTagPath.isEmpty() ? List.of() : List.of(baseTagPath.split("/")));
-                TagConfigurationModel baseTagsConfig = TagConfigUtilities.getTagConfigurationModel(
-                        tagManager, provider, baseTagPath, true, false);
-                List<QualityCode> deletedQualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(
-                        tagManager, provider, tagPath, baseTagsConfig);
-                deletedTags.add(baseTagPath, TagConfigUtilities.convertQualityCodesToArray(deletedQualityCodes));
-            } catch (Exception e) {
-                logger.error("Failed to delete existing tags: {}", e.getMessage(), e);
-                throw new IOException("Failed to delete existing tags: " + e.getMessage(), e);
-            }
-        }
-
-        try {
-            // First check for _types_ folder and import UDT types
-            File typesFolder = new File(sourcePath + "/_types_");
-            if (typesFolder.exists() && typesFolder.isDirectory()) {
-                String typesBasePath = baseTagPath.isEmpty() ? "_types_" : baseTagPath + "/_types_";
-                TagPath typesPath = new BasicTagPath(provider, List.of(typesBasePath.split("/")));
-
-                // Import UDT types if they exist
-                File udtTypesFile = new File(typesFolder, UDTS_FILE_NAME);
-                if (udtTypesFile.exists() && udtTypesFile.isFile()) {
-                    String fileContent = new String(Files.readAllBytes(udtTypesFile.toPath()));
-                    JsonObject udtTypesJson = TagUtilities.stringToJson(fileContent).getAsJsonObject();
+        return TagFileImports.run(tagManager, provider, baseTagPath, collisionPolicy, "structured format",
+                (tagDiff, policy, createdTags, responseObject) -> {
+                    // First import the UDT types of the _types_ folder, if there are any
+                    File udtTypesFile = new File(sourcePath + "/" + TagFileLayout.TYPES_FOLDER_NAME,
+                            UDTS_FILE_NAME);
+                    if (udtTypesFile.isFile()) {
+                        OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_UDTS);
+                        String typesBasePath = TagFileImports.typesBasePath(baseTagPath);
+                        String document = TagFileImports.readStructuredDocument(udtTypesFile.toPath(), tagDiff,
+                                typesBasePath, typesBasePath);
+                        if (document != null) {
+                            TagFileImports.importTypesDocument(tagManager,
+                                    TagFileImports.toTagPath(provider, typesBasePath), document, policy,
+                                    createdTags);
+                        }
+                    }
 
-                    List<QualityCode> qualityCodes = tagManager
-                            .importTagsAsync(typesPath, fileContent, "json", policy)
-                            .join();
-                    createdTags.add(typesPath.toString(),
-                            TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
-                }
-            }
+                    // Then import all tags recursively
+                    OperationProgress.current().setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+                    try (TagImportBatcher batcher = new TagImportBatcher(tagManager, provider, policy,
+                            createdTags)) {
+                        importStructuredFiles(batcher, provider, baseTagPath, sourcePath, tagDiff, baseTagPath);
+                    }
+                });
+    }
 
-            // Then import all tags recursively
-            importStructuredFiles(tagManager, provider, baseTagPath, sourcePath, policy, createdTags);
-        } catch (Exception e) {
-            logger.error("Failed to import tags from structured format: {}", e.getMessage(), e);
-            throw new IOException("Failed to import tags from structured format: " + e.getMessage(), e);
-        }
+    @Override
+    public boolean supportsStreamImport() {
+        return false;
+    }
 
-        // Add results to response
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, deletedTags, "deleted_tags");
-        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, createdTags, "created_tags");
-        return responseObject;
+    @Override
+    public JsonObject importTagsFromStream(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            InputStream source,
+            String collisionPolicy) {
+        throw new UnsupportedOperationException(getExportMode().getDisplayName()
+                + " mode imports a stream through its zip archive mode");
     }
 
     @Override
@@ -173,122 +166,43 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
         return filePath.endsWith("/") ? filePath : filePath + "/";
     }
 
-    private void exportTagsInStructuredFormat(JsonObject json, String basePath, boolean excludeUdtDefinitions)
-            throws IOException {
-        if (!json.has("tags")) {
-            return;
-        }
-
-        // Split tags and UDT instances in the current folder
-        JsonArray regularTags = new JsonArray();
-        JsonArray udtInstances = new JsonArray();
-        JsonArray subfolderTags = new JsonArray();
-
-        JsonArray tags = json.getAsJsonArray("tags");
-        for (JsonElement tagElement : tags) {
-            JsonObject tagObject = tagElement.getAsJsonObject();
-            String tagType = tagObject.get("tagType").getAsString();
-            String tagName = tagObject.get("name").getAsString();
-
-            // Handle _types_ folder specially
-            if ("_types_".equals(tagName) && "Folder".equals(tagType)) {
-                if (!excludeUdtDefinitions) {
-                    String typesPath = basePath + "/" + tagName;
-                    File typesDir = new File(typesPath);
-                    typesDir.mkdirs();
-
-                    // Export UDT definitions to the _types_ folder
-                    JsonArray udtDefinitions = new JsonArray();
-                    if (tagObject.has("tags")) {
-                        JsonArray typesTags = tagObject.getAsJsonArray("tags");
-                        for (JsonElement typeElement : typesTags) {
-                            udtDefinitions.add(typeElement);
-                        }
-                    }
-
-                    if (udtDefinitions.size() > 0) {
-                        JsonObject udtDefinitionsJson = new JsonObject();
-                        udtDefinitionsJson.add("tags", udtDefinitions);
-                        udtDefinitionsJson = (JsonObject) FileUtilities.sortJsonElementRecursively(udtDefinitionsJson);
-                        FileUtilities.saveJsonToFile(udtDefinitionsJson, typesPath + "/" + UDTS_FILE_NAME);
-                    }
-                }
-                continue;
+    private void exportTagsInStructuredFormat(JsonObject json, String basePath, boolean excludeUdtDefinitions,
+            ExportManifest manifest) throws IOException {
+        Path directory = Paths.get(basePath);
+        TagFileLayout.walkStructuredFiles(json, excludeUdtDefinitions, new TagFileLayout.StructuredFilesVisitor() {
+            @Override
+            public void folder(String folderPath) {
+                directory.resolve(folderPath).toFile().mkdirs();
             }
 
-            // Process regular folder
-            if ("Folder".equals(tagType)) {
-                String folderPath = basePath + "/" + tagName;
-                File folder = new File(folderPath);
-                folder.mkdirs();
-                exportTagsInStructuredFormat(tagObject, folderPath, excludeUdtDefinitions);
-                subfolderTags.add(tagObject);
+            @Override
+            public void typesFile(String typesPath, JsonObject sortedUdtDefinitions) throws IOException {
+                manifest.saveJsonToFile(sortedUdtDefinitions,
+                        directory.resolve(typesPath).resolve(UDTS_FILE_NAME).toString());
             }
-            // Process UDT instances
-            else if ("UdtInstance".equals(tagType)) {
-                udtInstances.add(tagObject);
-            }
-            // Process regular tags
-            else {
-                regularTags.add(tagObject);
-            }
-        }
 
-        // Save regularTags to tags.json if there are any
-        if (regularTags.size() > 0) {
-            JsonObject tagsJson = new JsonObject();
-            tagsJson.add("tags", regularTags);
-            tagsJson = (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson);
-            FileUtilities.saveJsonToFile(tagsJson, basePath + "/" + TAGS_FILE_NAME);
-        }
-
-        // Save UDT instances to udts.json if there are any
-        if (udtInstances.size() > 0) {
-            JsonObject udtsJson = new JsonObject();
-            udtsJson.add("tags", udtInstances);
-            udtsJson = (JsonObject) FileUtilities.sortJsonElementRecursively(udtsJson);
-            FileUtilities.saveJsonToFile(udtsJson, basePath + "/" + UDTS_FILE_NAME);
-        }
+            @Override
+            public void tagsFile(String folderPath, String fileName, JsonArray sortedTags) throws IOException {
+                StructuredFileShards.write(sortedTags, directory.resolve(folderPath), fileName, manifest);
+            }
+        });
     }
 
     private void importStructuredFiles(
-            GatewayTagManager tagManager,
+            TagImportBatcher batcher,
             String provider,
             String baseTagPath,
             String sourcePath,
-            CollisionPolicy policy,
-            JsonObject createdTags) throws IOException {
-        // Create tag path
-        List<String> pathComponents = new ArrayList<>();
-        if (!baseTagPath.isEmpty()) {
-            pathComponents.addAll(List.of(baseTagPath.split("/")));
-        }
-        TagPath basePath = new BasicTagPath(provider, pathComponents);
-
-        // Import tags.json if it exists
-        File tagsFile = new File(sourcePath, TAGS_FILE_NAME);
-        if (tagsFile.exists() && tagsFile.isFile()) {
-            String fileContent = new String(Files.readAllBytes(tagsFile.toPath()));
-            JsonObject tagsJson = TagUtilities.stringToJson(fileContent).getAsJsonObject();
-
-            List<QualityCode> qualityCodes = tagManager
-                    .importTagsAsync(basePath, fileContent, "json", policy)
-                    .join();
-            createdTags.add(basePath.toString() + "/tags",
-                    TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
-        }
-
-        // Import udts.json if it exists
-        File udtsFile = new File(sourcePath, UDTS_FILE_NAME);
-        if (udtsFile.exists() && udtsFile.isFile()) {
-            String fileContent = new String(Files.readAllBytes(udtsFile.toPath()));
-            JsonObject udtsJson = TagUtilities.stringToJson(fileContent).getAsJsonObject();
-
-            List<QualityCode> qualityCodes = tagManager
-                    .importTagsAsync(basePath, fileContent, "json", policy)
-                    .join();
-            createdTags.add(basePath.toString() + "/udts",
-                    TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
+            TagDiff tagDiff,
+            String rootTagPath) throws IOException {
+        TagPath basePath = TagFileImports.toTagPath(provider, baseTagPath);
+
+        // Import tags.json and udts.json, or their shards. Each file is submitted as its own call, so
+        // the shards of a large folder are imported at the same time
+        for (String fileName : List.of(TAGS_FILE_NAME, UDTS_FILE_NAME)) {
+            for (Path file : StructuredFileShards.listFiles(Paths.get(sourcePath), fileName)) {
+                importStructuredFile(batcher, basePath, file, tagDiff, rootTagPath, baseTagPath);
+            }
         }
 
         // Recursively process subdirectories
@@ -300,13 +214,26 @@ public class StructuredFilesExportStrategy implements TagExportImportStrategy {
             for (Path subdirectory : subdirectories) {
                 String folderName = subdirectory.getFileName().toString();
                 // Skip _types_ folder as it's already handled separately
-                if ("_types_".equals(folderName)) {
+                if (TagFileLayout.TYPES_FOLDER_NAME.equals(folderName)) {
                     continue;
                 }
 
                 String childPath = baseTagPath.isEmpty() ? folderName : baseTagPath + "/" + folderName;
-                importStructuredFiles(tagManager, provider, childPath, subdirectory.toString(), policy, createdTags);
+                importStructuredFiles(batcher, provider, childPath, subdirectory.toString(), tagDiff, rootTagPath);
             }
         }
     }
-}
\ No newline at end of file
+
+    private void importStructuredFile(
+            TagImportBatcher batcher,
+            TagPath basePath,
+            Path file,
+            TagDiff tagDiff,
+            String rootTagPath,
+            String baseTagPath) throws IOException {
+        String document = TagFileImports.readStructuredDocument(file, tagDiff, rootTagPath, baseTagPath);
+        if (document != null) {
+            TagFileImports.importStructuredDocument(batcher, basePath, file.getFileName().toString(), document);
+        }
+    }
+}
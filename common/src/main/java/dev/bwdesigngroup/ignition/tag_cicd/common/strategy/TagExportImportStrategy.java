@@ -1,10 +1,13 @@
 package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Interface for tag export/import strategies.
@@ -15,7 +18,9 @@ import java.io.IOException;
 public interface TagExportImportStrategy {
 
     /**
-     * Export tags to disk.
+     * Export tags to disk. The tags are read from the provider once, through
+     * {@link TagExportUtilities#fetchExportTags}, and written with
+     * {@link #exportTagsToDisk(JsonObject, String, String, String, boolean, boolean, boolean)}.
      * 
      * @param tagManager            The GatewayTagManager instance
      * @param provider              The tag provider name
@@ -25,9 +30,10 @@ public interface TagExportImportStrategy {
      * @param filePath              The target file or directory path
      * @param deleteExisting        Whether to delete existing files before export
      * @param excludeUdtDefinitions Whether to exclude UDT definitions
+     * @param incremental           Whether to skip unchanged files using the export manifest
      * @throws IOException If an error occurs during export
      */
-    void exportTagsToDisk(
+    default void exportTagsToDisk(
             GatewayTagManager tagManager,
             String provider,
             String baseTagPath,
@@ -35,12 +41,40 @@ public interface TagExportImportStrategy {
             boolean localPropsOnly,
             String filePath,
             boolean deleteExisting,
-            boolean excludeUdtDefinitions) throws IOException;
+            boolean excludeUdtDefinitions,
+            boolean incremental) throws IOException {
+        JsonObject tagsJson = TagExportUtilities.fetchExportTags(tagManager, provider, baseTagPath, recursive,
+                localPropsOnly);
+        exportTagsToDisk(tagsJson, provider, baseTagPath, filePath, deleteExisting, excludeUdtDefinitions,
+                incremental);
+    }
+
+    /**
+     * Export tags that have already been read and validated to disk.
+     * 
+     * @param tagsJson              The tags to export, as read from the provider
+     * @param provider              The tag provider name
+     * @param baseTagPath           The base tag path the tags were read from
+     * @param filePath              The target file or directory path
+     * @param deleteExisting        Whether to delete existing files before export
+     * @param excludeUdtDefinitions Whether to exclude UDT definitions
+     * @param incremental           Whether to skip unchanged files using the export manifest
+     * @throws IOException If an error occurs during export
+     */
+    void exportTagsToDisk(
+            JsonObject tagsJson,
+            String provider,
+            String baseTagPath,
+            String filePath,
+            boolean deleteExisting,
+            boolean excludeUdtDefinitions,
+            boolean incremental) throws IOException;
 
     /**
      * Import tags from a source file or directory.
      * 
      * @param tagManager      The GatewayTagManager instance
+     * @param executors       The pools to read the source on
      * @param provider        The target tag provider
      * @param baseTagPath     The base tag path to import to
      * @param sourcePath      The source file or directory path
@@ -50,11 +84,42 @@ public interface TagExportImportStrategy {
      */
     JsonObject importTagsFromSource(
             GatewayTagManager tagManager,
+            TagCICDExecutors executors,
             String provider,
             String baseTagPath,
             String sourcePath,
             String collisionPolicy) throws IOException;
 
+    /**
+     * Check whether this strategy can import tags from a stream read once, such
+     * as a request body. The directory modes cannot; their streams are imported
+     * through their zip archive modes instead.
+     * 
+     * @return True if {@link #importTagsFromStream} is supported
+     */
+    boolean supportsStreamImport();
+
+    /**
+     * Import tags from a stream, such as an uploaded request body, reading it
+     * once and without writing it to disk. Only called when
+     * {@link #supportsStreamImport()} is true.
+     * 
+     * @param tagManager      The GatewayTagManager instance
+     * @param provider        The target tag provider
+     * @param baseTagPath     The base tag path to import to
+     * @param source          The stream to read, which is closed when done
+     * @param collisionPolicy The collision policy to use
+     * @return A JsonObject containing information about the imported tags
+     * @throws IOException If an error occurs during import
+     * @throws UnsupportedOperationException If the strategy does not support stream imports
+     */
+    JsonObject importTagsFromStream(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            InputStream source,
+            String collisionPolicy) throws IOException;
+
     /**
      * Get the export mode associated with this strategy.
      * 
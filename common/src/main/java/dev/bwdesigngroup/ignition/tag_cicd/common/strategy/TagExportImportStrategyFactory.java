@@ -44,8 +44,14 @@ public class TagExportImportStrategyFactory {
         switch (mode) {
             case SINGLE_FILE:
                 return new SingleFileExportStrategy();
+            case SINGLE_FILE_GZIP:
+                return new SingleFileExportStrategy(true);
             case STRUCTURED_FILES:
                 return new StructuredFilesExportStrategy();
+            case INDIVIDUAL_FILES_ZIP:
+                return new ArchiveExportStrategy(false);
+            case STRUCTURED_FILES_ZIP:
+                return new ArchiveExportStrategy(true);
             case INDIVIDUAL_FILES:
             default:
                 return new IndividualFilesExportStrategy();
@@ -0,0 +1,190 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationProgress;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagDiff;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagFileReader;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportBatcher;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.TagUtilities;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The import steps the directory strategies and {@link ArchiveExportStrategy}
+ * share, whether they read their files from a directory or from an archive.
+ *
+ * @author Keith Gamble
+ */
+final class TagFileImports {
+    private static final Logger logger = LoggerFactory.getLogger(TagFileImports.class.getName());
+
+    private TagFileImports() {
+    }
+
+    /**
+     * Runs an import with the collision policy applied: existing tags are deleted
+     * first for the delete policy, and a differential import filters what the
+     * given import sends. The quality codes of the deleted and imported tags, and
+     * the differences found, are added to the response.
+     *
+     * @param tagManager      the tag manager
+     * @param provider        the target tag provider
+     * @param baseTagPath     the base tag path to import to
+     * @param collisionPolicy the collision policy code
+     * @param source          what is imported from, such as "directory", for errors
+     * @param tagImport       reads the source and imports its tags
+     * @return the response of the import
+     * @throws IOException if the existing tags cannot be deleted or the import fails
+     */
+    static JsonObject run(GatewayTagManager tagManager, String provider, String baseTagPath,
+            String collisionPolicy, String source, TagImport tagImport) throws IOException {
+        JsonObject responseObject = new JsonObject();
+        JsonObject createdTags = new JsonObject();
+        JsonObject deletedTags = new JsonObject();
+
+        boolean deleteTags = "d".equalsIgnoreCase(collisionPolicy);
+        TagDiff tagDiff = TagDiff.isDiffPolicy(collisionPolicy) ? new TagDiff(tagManager, provider) : null;
+        CollisionPolicy policy = CollisionPolicy.fromString(
+                deleteTags || tagDiff != null ? "o" : (collisionPolicy.isEmpty() ? "a" : collisionPolicy));
+
+        if (deleteTags) {
+            OperationProgress.current().setPhase(OperationProgress.PHASE_DELETING);
+            logger.info("Deleting existing tags at {}/{}", provider, baseTagPath);
+            try {
+                TagPath tagPath = toTagPath(provider, baseTagPath);
+                TagConfigurationModel baseTagsConfig = TagConfigUtilities.getTagConfigurationModel(
+                        tagManager, provider, baseTagPath, true, false);
+                List<QualityCode> deletedQualityCodes = TagConfigUtilities.deleteTagsInConfigurationModel(
+                        tagManager, provider, tagPath, baseTagsConfig);
+                deletedTags.add(baseTagPath, TagConfigUtilities.convertQualityCodesToArray(deletedQualityCodes));
+            } catch (Exception e) {
+                logger.error("Failed to delete existing tags: {}", e.getMessage(), e);
+                throw new IOException("Failed to delete existing tags: " + e.getMessage(), e);
+            }
+        }
+
+        try {
+            tagImport.run(tagDiff, policy, createdTags, responseObject);
+        } catch (Exception e) {
+            logger.error("Failed to import tags from {}: {}", source, e.getMessage(), e);
+            throw new IOException("Failed to import tags from " + source + ": " + e.getMessage(), e);
+        }
+
+        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, deletedTags, "deleted_tags");
+        TagConfigUtilities.addQualityCodesToJsonObject(responseObject, createdTags, "created_tags");
+        if (tagDiff != null) {
+            tagDiff.addToResponse(responseObject);
+        }
+        return responseObject;
+    }
+
+    /**
+     * Reads a structured file for import, filtered through the differential
+     * import if there is one.
+     *
+     * @param file        the file to read
+     * @param tagDiff     the differential import, or null to import every tag
+     * @param rootTagPath the base tag path of the whole import
+     * @param tagPath     the tag path the file's tags are imported to
+     * @return the document to import, or null if none of its tags changed
+     * @throws IOException if the file cannot be read
+     */
+    static String readStructuredDocument(Path file, TagDiff tagDiff, String rootTagPath, String tagPath)
+            throws IOException {
+        if (tagDiff == null) {
+            return TagFileReader.readString(file);
+        }
+        return filterChanged(TagFileReader.parse(file).getAsJsonObject(), tagDiff, rootTagPath, tagPath);
+    }
+
+    /**
+     * Filters a structured file already read, such as an archive entry, as
+     * {@link #readStructuredDocument(Path, TagDiff, String, String)} filters a
+     * file.
+     *
+     * @param content     the file's content
+     * @param tagDiff     the differential import, or null to import every tag
+     * @param rootTagPath the base tag path of the whole import
+     * @param tagPath     the tag path the file's tags are imported to
+     * @return the document to import, or null if none of its tags changed
+     * @throws IOException if the live tags cannot be read
+     */
+    static String readStructuredDocument(String content, TagDiff tagDiff, String rootTagPath, String tagPath)
+            throws IOException {
+        if (tagDiff == null) {
+            return content;
+        }
+        return filterChanged(TagUtilities.stringToJson(content).getAsJsonObject(), tagDiff, rootTagPath, tagPath);
+    }
+
+    private static String filterChanged(JsonObject tagsJson, TagDiff tagDiff, String rootTagPath, String tagPath)
+            throws IOException {
+        tagsJson = tagDiff.filterChanged(rootTagPath, tagPath, tagsJson);
+        return TagDiff.isEmpty(tagsJson) ? null : TagUtilities.jsonToString(tagsJson);
+    }
+
+    /**
+     * Imports the root {@code udts.json} of a structured files export into the
+     * {@code _types_} folder below the base tag path, in a single call.
+     *
+     * @param tagManager  the tag manager
+     * @param typesPath   the {@code _types_} folder to import to
+     * @param document    the document to import
+     * @param policy      the collision policy to use
+     * @param createdTags receives the quality codes of the imported types
+     */
+    static void importTypesDocument(GatewayTagManager tagManager, TagPath typesPath, String document,
+            CollisionPolicy policy, JsonObject createdTags) {
+        List<QualityCode> qualityCodes = tagManager.importTagsAsync(typesPath, document, "json", policy).join();
+        createdTags.add(typesPath.toString(), TagConfigUtilities.convertQualityCodesToArray(qualityCodes));
+    }
+
+    /**
+     * Submits a {@code tags.json} or {@code udts.json} document, or one of their
+     * shards, as an import call of its own, with its result recorded under the
+     * folder's path and the file's name.
+     *
+     * @param batcher  the batcher to submit through
+     * @param basePath the folder the document's tags are imported to
+     * @param fileName the name of the file the document was read from
+     * @param document the document to import
+     * @throws IOException if the import cannot be submitted
+     */
+    static void importStructuredDocument(TagImportBatcher batcher, TagPath basePath, String fileName,
+            String document) throws IOException {
+        String resultKey = basePath.toString() + "/" + fileName.substring(0, fileName.length() - ".json".length());
+        batcher.importDocument(basePath, document, resultKey);
+    }
+
+    /**
+     * @return the path of the {@code _types_} folder below the given base tag path
+     */
+    static String typesBasePath(String baseTagPath) {
+        return baseTagPath.isEmpty() ? TagFileLayout.TYPES_FOLDER_NAME
+                : baseTagPath + "/" + TagFileLayout.TYPES_FOLDER_NAME;
+    }
+
+    static TagPath toTagPath(String provider, String tagPath) {
+        return new BasicTagPath(provider, tagPath.isEmpty() ? List.of() : List.of(tagPath.split("/")));
+    }
+
+    /**
+     * Reads a source and imports its tags, for {@link #run}.
+     */
+    @FunctionalInterface
+    interface TagImport {
+        void run(TagDiff tagDiff, CollisionPolicy policy, JsonObject createdTags, JsonObject responseObject)
+                throws Exception;
+    }
+}
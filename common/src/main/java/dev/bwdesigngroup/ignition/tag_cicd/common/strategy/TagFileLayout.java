@@ -0,0 +1,207 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.StructuredFileShards;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Walks a tag tree in the layout of the individual files or the structured
+ * files export, so that the directory strategies and
+ * {@link ArchiveExportStrategy} lay out the same files, and only differ in
+ * where they write them.
+ * <p>
+ * Folder paths are relative to the export root, with {@code /} separators, and
+ * empty for the root itself. Every document handed on is already sorted once,
+ * since the files are sorted again as they are written.
+ *
+ * @author Keith Gamble
+ */
+final class TagFileLayout {
+    private static final Logger logger = LoggerFactory.getLogger(TagFileLayout.class.getName());
+
+    static final String TYPES_FOLDER_NAME = "_types_";
+
+    private TagFileLayout() {
+    }
+
+    /**
+     * Walks the given folder in the individual files layout: one file per tag and
+     * one directory per folder. The {@code _types_} folders are skipped when UDT
+     * definitions are excluded, or when they are empty.
+     *
+     * @param folder                the folder to walk, usually the export root
+     * @param excludeUdtDefinitions whether to skip the {@code _types_} folders
+     * @param visitor               receives each folder and its tags
+     * @throws IOException if the visitor cannot write a folder or tag
+     */
+    static void walkIndividualFiles(JsonObject folder, boolean excludeUdtDefinitions, IndividualFilesVisitor visitor)
+            throws IOException {
+        walkIndividualFiles(folder, "", excludeUdtDefinitions, visitor);
+    }
+
+    private static void walkIndividualFiles(JsonObject folder, String folderPath, boolean excludeUdtDefinitions,
+            IndividualFilesVisitor visitor) throws IOException {
+        TagWriter tagWriter = visitor.enterFolder(folderPath, folder);
+        if (!folder.has("tags")) {
+            return;
+        }
+
+        for (JsonElement tag : folder.getAsJsonArray("tags")) {
+            JsonObject tagObject = tag.getAsJsonObject();
+            String tagType = tagObject.get("tagType").getAsString();
+            String tagName = tagObject.get("name").getAsString();
+
+            if (isTypesFolder(tagName, tagType)) {
+                JsonArray typesTags = tagObject.getAsJsonArray("tags");
+                if (excludeUdtDefinitions || typesTags == null || typesTags.size() == 0) {
+                    logger.debug("Skipping _types_ folder in {}", folderPath.isEmpty() ? "export root" : folderPath);
+                    continue;
+                }
+            }
+
+            if ("Folder".equals(tagType) || "Provider".equals(tagType)) {
+                walkIndividualFiles(tagObject, childPath(folderPath, tagName), excludeUdtDefinitions, visitor);
+            } else {
+                tagWriter.write(tagName, (JsonObject) FileUtilities.sortJsonElementRecursively(tagObject));
+            }
+        }
+    }
+
+    /**
+     * Walks the given folder in the structured files layout: a {@code tags.json}
+     * and a {@code udts.json} per folder, and the UDT definitions of a
+     * {@code _types_} folder in its own {@code udts.json}. A folder's subfolders
+     * are visited before its files.
+     *
+     * @param folder                the folder to walk, usually the export root
+     * @param excludeUdtDefinitions whether to skip the {@code _types_} folders
+     * @param visitor               receives each folder and file
+     * @throws IOException if the visitor cannot write a folder or file
+     */
+    static void walkStructuredFiles(JsonObject folder, boolean excludeUdtDefinitions,
+            StructuredFilesVisitor visitor) throws IOException {
+        walkStructuredFiles(folder, "", excludeUdtDefinitions, visitor);
+    }
+
+    private static void walkStructuredFiles(JsonObject folder, String folderPath, boolean excludeUdtDefinitions,
+            StructuredFilesVisitor visitor) throws IOException {
+        if (!folder.has("tags")) {
+            return;
+        }
+
+        JsonArray regularTags = new JsonArray();
+        JsonArray udtInstances = new JsonArray();
+        for (JsonElement tag : folder.getAsJsonArray("tags")) {
+            JsonObject tagObject = tag.getAsJsonObject();
+            String tagType = tagObject.get("tagType").getAsString();
+            String tagName = tagObject.get("name").getAsString();
+
+            if (isTypesFolder(tagName, tagType)) {
+                if (!excludeUdtDefinitions) {
+                    String typesPath = childPath(folderPath, tagName);
+                    visitor.folder(typesPath);
+                    JsonArray udtDefinitions = tagObject.getAsJsonArray("tags");
+                    if (udtDefinitions != null && udtDefinitions.size() > 0) {
+                        JsonObject udtDefinitionsJson = new JsonObject();
+                        udtDefinitionsJson.add("tags", udtDefinitions);
+                        visitor.typesFile(typesPath,
+                                (JsonObject) FileUtilities.sortJsonElementRecursively(udtDefinitionsJson));
+                    }
+                }
+            } else if ("Folder".equals(tagType)) {
+                String subfolderPath = childPath(folderPath, tagName);
+                visitor.folder(subfolderPath);
+                walkStructuredFiles(tagObject, subfolderPath, excludeUdtDefinitions, visitor);
+            } else if ("UdtInstance".equals(tagType)) {
+                udtInstances.add(tagObject);
+            } else {
+                regularTags.add(tagObject);
+            }
+        }
+
+        if (regularTags.size() > 0) {
+            visitor.tagsFile(folderPath, StructuredFileShards.TAGS_FILE_NAME,
+                    FileUtilities.sortJsonElementRecursively(regularTags).getAsJsonArray());
+        }
+        if (udtInstances.size() > 0) {
+            visitor.tagsFile(folderPath, StructuredFileShards.UDTS_FILE_NAME,
+                    FileUtilities.sortJsonElementRecursively(udtInstances).getAsJsonArray());
+        }
+    }
+
+    /**
+     * Determines if the given JSON object represents a single tag (AtomicTag, UdtInstance, or UdtType)
+     * rather than a container/folder structure.
+     *
+     * @param json the JSON object to check
+     * @return true if it represents a single tag, false otherwise
+     */
+    static boolean isSingleTag(JsonObject json) {
+        return json.has("tagType") && json.has("name") &&
+               ("AtomicTag".equals(json.get("tagType").getAsString()) ||
+                "UdtInstance".equals(json.get("tagType").getAsString()) ||
+                "UdtType".equals(json.get("tagType").getAsString()));
+    }
+
+    static boolean isTypesFolder(String tagName, String tagType) {
+        return TYPES_FOLDER_NAME.equals(tagName) && "Folder".equals(tagType);
+    }
+
+    private static String childPath(String folderPath, String name) {
+        return folderPath.isEmpty() ? name : folderPath + "/" + name;
+    }
+
+    /**
+     * Receives the folders of an individual files walk.
+     */
+    @FunctionalInterface
+    interface IndividualFilesVisitor {
+        /**
+         * Called for each folder before any of its tags or subfolders, the root
+         * included.
+         *
+         * @param folderPath the folder's path, empty for the root
+         * @param folder     the folder, which may have no {@code tags}
+         * @return the writer for the folder's tag files, or null if it has no {@code tags}
+         * @throws IOException if the folder cannot be written
+         */
+        TagWriter enterFolder(String folderPath, JsonObject folder) throws IOException;
+    }
+
+    /**
+     * Writes the tag files of one folder of an individual files walk.
+     */
+    @FunctionalInterface
+    interface TagWriter {
+        void write(String tagName, JsonObject sortedTag) throws IOException;
+    }
+
+    /**
+     * Receives the folders and files of a structured files walk.
+     */
+    interface StructuredFilesVisitor {
+        /**
+         * Called for each folder below the root, including the {@code _types_}
+         * folders, before any of its files.
+         */
+        void folder(String folderPath) throws IOException;
+
+        /**
+         * Called with the UDT definitions of a {@code _types_} folder, to be
+         * written to its {@code udts.json}.
+         */
+        void typesFile(String typesPath, JsonObject sortedUdtDefinitions) throws IOException;
+
+        /**
+         * Called with a folder's tags or UDT instances, to be written to its
+         * {@code tags.json} or {@code udts.json}, or their shards.
+         */
+        void tagsFile(String folderPath, String fileName, JsonArray sortedTags) throws IOException;
+    }
+}
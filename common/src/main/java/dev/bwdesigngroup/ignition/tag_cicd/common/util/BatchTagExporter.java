@@ -0,0 +1,378 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.ArchiveExportStrategy;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.SingleFileExportStrategy;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Exports the entries of a configuration file together, reading each tag from
+ * the provider once however many entries include it.
+ * <p>
+ * The entries are grouped by provider, and only the base paths that are not
+ * below another entry's base path are read, in parallel. Every entry is then
+ * exported from its part of one of those reads, so entries that overlap are
+ * exported from the same read of their tags and agree with each other. An
+ * entry whose tags cannot be found in a read, such as one inside a UDT
+ * instance or one whose path does not exist, reads and validates its own tags
+ * as a single export does.
+ * <p>
+ * The exports are written on the exporter pool of {@link TagCICDExecutors},
+ * {@link TagCICDConstants#EXPORT_PARALLELISM} threads, scheduled by a
+ * {@link ConfigDependencyGraph}. Entries whose outputs overlap, one being the
+ * same as or inside the other, are written one after another in configuration
+ * order, as they always were, and all others at the same time.
+ *
+ * @author Keith Gamble
+ */
+public class BatchTagExporter {
+    private static final Logger logger = LoggerFactory.getLogger(BatchTagExporter.class.getName());
+
+    private BatchTagExporter() {
+    }
+
+    /**
+     * One export of a batch, always recursive and with all properties.
+     */
+    public static final class Entry {
+        private final String provider;
+        private final String baseTagPath;
+        private final String filePath;
+        private final String exportMode;
+        private final boolean excludeUdtDefinitions;
+        private final boolean incremental;
+
+        public Entry(String provider, String baseTagPath, String filePath, String exportMode,
+                boolean excludeUdtDefinitions, boolean incremental) {
+            this.provider = provider != null ? provider : TagConfigUtilities.DEFAULT_PROVIDER;
+            this.baseTagPath = TagExportUtilities.normalizeTagPath(baseTagPath);
+            this.filePath = filePath;
+            this.exportMode = exportMode;
+            this.excludeUdtDefinitions = excludeUdtDefinitions;
+            this.incremental = incremental;
+        }
+
+        /**
+         * Creates an entry from an element of {@code export-config.json}.
+         *
+         * @param config the configuration
+         * @return the entry
+         */
+        public static Entry fromConfig(JsonObject config) {
+            return new Entry(
+                    config.get("provider").getAsString(),
+                    config.get("baseTagPath").getAsString(),
+                    config.get("sourcePath").getAsString(),
+                    config.get("exportMode").getAsString(),
+                    config.has("excludeUdtDefinitions") && config.get("excludeUdtDefinitions").getAsBoolean(),
+                    config.has("incrementalExport") && config.get("incrementalExport").getAsBoolean());
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public String getBaseTagPath() {
+            return baseTagPath;
+        }
+
+        public String getFilePath() {
+            return filePath;
+        }
+
+        public String getExportMode() {
+            return exportMode;
+        }
+
+        /**
+         * @return the file or directory the export writes, as the strategies
+         *         resolve it
+         */
+        Path getOutputPath() {
+            ExportMode mode = ExportMode.fromCode(exportMode);
+            String outputPath = filePath;
+            if (mode.isArchive()) {
+                outputPath = ArchiveExportStrategy.getArchiveFilePath(filePath);
+            } else if (mode == ExportMode.SINGLE_FILE_GZIP) {
+                outputPath = SingleFileExportStrategy.getCompressedFilePath(filePath);
+            } else if (!mode.isSingleFile() && filePath.contains(".") && !filePath.endsWith("/")
+                    && filePath.contains("/")) {
+                // The directory modes write next to a path that looks like a file
+                outputPath = filePath.substring(0, filePath.lastIndexOf('/'));
+            }
+            return Paths.get(outputPath).toAbsolutePath().normalize();
+        }
+    }
+
+    /**
+     * Exports the given entries. An entry that fails does not stop the others.
+     *
+     * @param tagManager the tag manager
+     * @param executors  the pools to read and write the exports on
+     * @param entries    the entries, in configuration order
+     * @return an object with a {@code details} object holding a message for each
+     *         exported file path, an {@code errors} object holding the error for
+     *         each file path that failed, and the number of subtrees read from the
+     *         providers as {@code subtrees_read}
+     * @throws InterruptedException  if interrupted while waiting for the exports
+     * @throws CancellationException if the operation was cancelled
+     */
+    public static JsonObject export(GatewayTagManager tagManager, TagCICDExecutors executors, List<Entry> entries)
+            throws InterruptedException {
+        ExecutorService pool = executors.getExporterPool();
+        OperationProgress progress = OperationProgress.current();
+
+        // Read the covering subtrees of every provider at the same time
+        progress.setPhase(OperationProgress.PHASE_FETCHING);
+        List<Snapshot> snapshots = findCoveringSnapshots(entries);
+        List<Future<?>> reads = new ArrayList<>();
+        for (Snapshot snapshot : snapshots) {
+            reads.add(pool.submit(() -> {
+                runWith(progress, () -> snapshot.read(tagManager));
+                return null;
+            }));
+        }
+        awaitAll(reads);
+        logger.info("Read {} subtrees for {} export configurations", snapshots.size(), entries.size());
+
+        // Write the exports, each once those with overlapping outputs before it are done. Each entry
+        // reports its own phase, and the batch reports how many entries are done
+        progress.setPhase(OperationProgress.PHASE_WRITING);
+        progress.expect(OperationProgress.CONFIGS_COMPLETED, entries.size());
+        ConfigDependencyGraph graph = buildGraph(entries);
+        Exception[] errors = graph.run(pool, i -> {
+            OperationProgress.bind(progress.child());
+            try {
+                progress.checkCancelled();
+                Entry entry = entries.get(i);
+                try {
+                    exportEntry(tagManager, entry, findSnapshot(snapshots, entry));
+                } catch (Exception e) {
+                    if (!(e instanceof CancellationException)) {
+                        logger.error("Error exporting {} from provider {} at '{}': {}", entry.filePath,
+                                entry.provider, entry.baseTagPath, e.getMessage(), e);
+                    }
+                    throw e;
+                }
+            } finally {
+                progress.increment(OperationProgress.CONFIGS_COMPLETED);
+                OperationProgress.bind(null);
+            }
+        }, false);
+
+        JsonObject result = new JsonObject();
+        JsonObject details = new JsonObject();
+        JsonObject errorDetails = new JsonObject();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (errors[i] == null) {
+                details.addProperty(entry.filePath, "Exported successfully using " +
+                        ExportMode.fromCode(entry.exportMode).getDisplayName() + " mode");
+            } else {
+                errorDetails.addProperty(entry.filePath, errors[i].getMessage());
+            }
+        }
+        result.add("details", details);
+        result.add("errors", errorDetails);
+        result.addProperty("subtrees_read", snapshots.size());
+        return result;
+    }
+
+    private static void exportEntry(GatewayTagManager tagManager, Entry entry, Snapshot snapshot)
+            throws IOException {
+        logger.info("Exporting tags from config: filePath={}, provider={}, baseTagPath={}, exportMode={}",
+                entry.filePath, entry.provider, entry.baseTagPath, entry.exportMode);
+
+        JsonObject tagsJson = snapshot != null && snapshot.tags != null
+                ? findSubtree(snapshot.tags, snapshot.baseTagPath, entry.baseTagPath)
+                : null;
+        if (tagsJson != null) {
+            TagExportUtilities.validateExportTags(tagsJson, entry.provider, entry.baseTagPath);
+        } else {
+            tagsJson = TagExportUtilities.fetchExportTags(tagManager, entry.provider, entry.baseTagPath, true,
+                    false);
+        }
+        TagExportUtilities.writeTagsToDisk(tagsJson, entry.provider, entry.baseTagPath, entry.filePath,
+                entry.exportMode, true, entry.excludeUdtDefinitions, entry.incremental);
+    }
+
+    /**
+     * Finds the smallest set of base paths, per provider, whose subtrees hold the
+     * subtrees of all the entries.
+     */
+    private static List<Snapshot> findCoveringSnapshots(List<Entry> entries) {
+        Map<String, List<String>> pathsByProvider = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            pathsByProvider.computeIfAbsent(entry.provider, provider -> new ArrayList<>()).add(entry.baseTagPath);
+        }
+
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, List<String>> providerPaths : pathsByProvider.entrySet()) {
+            List<String> paths = new ArrayList<>(providerPaths.getValue());
+            // Shorter paths first, so that every covering path is chosen before the paths below it
+            paths.sort(Comparator.comparingInt(String::length));
+            List<String> covering = new ArrayList<>();
+            for (String path : paths) {
+                if (covering.stream().noneMatch(root -> covers(root, path))) {
+                    covering.add(path);
+                    snapshots.add(new Snapshot(providerPaths.getKey(), path));
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    private static Snapshot findSnapshot(List<Snapshot> snapshots, Entry entry) {
+        for (Snapshot snapshot : snapshots) {
+            if (snapshot.provider.equals(entry.provider) && covers(snapshot.baseTagPath, entry.baseTagPath)) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a tag path is the same as or below another. Paths are
+     * compared as written, so an entry that spells a path differently reads its
+     * own tags, as it would on its own.
+     */
+    static boolean covers(String root, String path) {
+        return root.isEmpty() || path.equals(root) || path.startsWith(root + "/");
+    }
+
+    /**
+     * Finds the tag at the given path in a subtree read from a covering path,
+     * descending through folders only.
+     *
+     * @return the tag, or null if it is not in the subtree
+     */
+    static JsonObject findSubtree(JsonObject root, String rootPath, String path) {
+        if (path.length() == rootPath.length()) {
+            return root;
+        }
+
+        String relativePath = rootPath.isEmpty() ? path : path.substring(rootPath.length() + 1);
+        JsonObject current = root;
+        for (String name : relativePath.split("/")) {
+            // The members of a UDT are exported differently when read on their own
+            String tagType = current.has("tagType") ? current.get("tagType").getAsString() : "";
+            if (!tagType.isEmpty() && !"Folder".equals(tagType) && !"Provider".equals(tagType)) {
+                return null;
+            }
+            current = findChild(current, name);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    private static JsonObject findChild(JsonObject folder, String name) {
+        if (!folder.has("tags") || !folder.get("tags").isJsonArray()) {
+            return null;
+        }
+        for (JsonElement child : folder.getAsJsonArray("tags")) {
+            if (child.isJsonObject()) {
+                JsonObject childObject = child.getAsJsonObject();
+                if (childObject.has("name") && name.equals(childObject.get("name").getAsString())) {
+                    return childObject;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds the order the exports are written in. Entries whose outputs overlap,
+     * one being the same as or inside the other, are written one after another in
+     * configuration order.
+     */
+    static ConfigDependencyGraph buildGraph(List<Entry> entries) {
+        ConfigDependencyGraph graph = new ConfigDependencyGraph(entries.size());
+        Path[] outputs = new Path[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            outputs[i] = entries.get(i).getOutputPath();
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            for (int j = i + 1; j < entries.size(); j++) {
+                if (ConfigDependencyGraph.overlaps(outputs[i], outputs[j])) {
+                    graph.addConflict(i, j);
+                }
+            }
+        }
+        return graph;
+    }
+
+    private static void runWith(OperationProgress progress, Runnable task) {
+        OperationProgress.bind(progress);
+        try {
+            task.run();
+        } finally {
+            OperationProgress.bind(null);
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(false));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    /**
+     * A covering subtree of one provider, read once for all the entries below it.
+     */
+    private static final class Snapshot {
+        private final String provider;
+        private final String baseTagPath;
+        private JsonObject tags;
+
+        private Snapshot(String provider, String baseTagPath) {
+            this.provider = provider;
+            this.baseTagPath = baseTagPath;
+        }
+
+        private void read(GatewayTagManager tagManager) {
+            OperationProgress.current().checkCancelled();
+            try {
+                tags = TagExportUtilities.readTagsJson(tagManager, provider, baseTagPath, true, false);
+            } catch (Exception e) {
+                // The entries below it read their own tags and report the error
+                logger.warn("Could not read provider {} at '{}' for a batch export: {}", provider, baseTagPath,
+                        e.getMessage());
+            }
+        }
+    }
+}
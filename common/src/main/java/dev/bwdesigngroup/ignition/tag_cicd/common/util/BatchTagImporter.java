@@ -0,0 +1,225 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Imports the entries of a configuration file together, running entries that
+ * cannot affect each other at the same time.
+ * <p>
+ * The entries are scheduled by a {@link ConfigDependencyGraph}. Two entries
+ * are imported one after the other, in configuration order, when they import
+ * into the same provider at base paths that overlap, one being the same as or
+ * below the other, or when they read source paths that overlap. An entry that
+ * imports into the {@code _types_} folder of a provider is imported before the
+ * other entries of that provider, so UDT definitions are in place before the
+ * instances that use them, even when it comes later in the configuration,
+ * unless it overlaps an entry before it. All other entries are imported at the
+ * same time, on the importer pool of {@link TagCICDExecutors},
+ * {@link TagCICDConstants#CONFIG_IMPORT_PARALLELISM} threads.
+ * <p>
+ * An entry that fails skips the entries that had to wait for it, as they
+ * would otherwise be imported on top of an incomplete import. Entries that do
+ * not depend on it are still imported.
+ *
+ * @author Keith Gamble
+ */
+public class BatchTagImporter {
+    private static final Logger logger = LoggerFactory.getLogger(BatchTagImporter.class.getName());
+
+
+    private BatchTagImporter() {
+    }
+
+    /**
+     * One import of a batch.
+     */
+    public static final class Entry {
+        private final String provider;
+        private final String baseTagPath;
+        private final String sourcePath;
+        private final String collisionPolicy;
+        private final String exportMode;
+
+        public Entry(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
+                String exportMode) {
+            this.provider = provider != null ? provider : TagConfigUtilities.DEFAULT_PROVIDER;
+            this.baseTagPath = baseTagPath;
+            this.sourcePath = sourcePath;
+            this.collisionPolicy = collisionPolicy;
+            this.exportMode = exportMode;
+        }
+
+        /**
+         * Creates an entry from an element of {@code export-config.json}.
+         *
+         * @param config the configuration
+         * @return the entry
+         */
+        public static Entry fromConfig(JsonObject config) {
+            return new Entry(
+                    config.get("provider").getAsString(),
+                    config.get("baseTagPath").getAsString(),
+                    config.get("sourcePath").getAsString(),
+                    config.get("collisionPolicy").getAsString(),
+                    config.get("exportMode").getAsString());
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public String getBaseTagPath() {
+            return baseTagPath;
+        }
+
+        public String getSourcePath() {
+            return sourcePath;
+        }
+
+        public String getCollisionPolicy() {
+            return collisionPolicy;
+        }
+
+        public String getExportMode() {
+            return exportMode;
+        }
+
+        /**
+         * @return whether the entry imports UDT definitions only, into the
+         *         {@code _types_} folder of its provider
+         */
+        boolean importsTypesOnly() {
+            String path = TagExportUtilities.normalizeTagPath(baseTagPath);
+            return BatchTagExporter.covers(TagConfigUtilities.UDT_TYPES_FOLDER, path);
+        }
+    }
+
+    /**
+     * Imports the given entries.
+     *
+     * @param tagManager the tag manager
+     * @param executors  the pools to import the entries and read their sources on
+     * @param entries    the entries, in configuration order
+     * @return an object with a {@code details} object holding the result of each
+     *         imported source path, and an {@code errors} object holding the error
+     *         for each source path that failed or was skipped
+     * @throws InterruptedException  if interrupted while waiting for the imports
+     * @throws CancellationException if the operation was cancelled
+     */
+    public static JsonObject importTags(GatewayTagManager tagManager, TagCICDExecutors executors,
+            List<Entry> entries) throws InterruptedException {
+        OperationProgress progress = OperationProgress.current();
+        ConfigDependencyGraph graph = buildGraph(entries);
+        logger.info("Importing {} configurations with {} dependencies, at most {} one after another",
+                entries.size(), graph.getDependencyCount(), graph.getCriticalPathLength());
+
+        // Each entry reports its own phase, and the batch reports how many entries are done
+        progress.setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+        progress.expect(OperationProgress.CONFIGS_COMPLETED, entries.size());
+        JsonObject[] results = new JsonObject[entries.size()];
+        Exception[] errors = graph.run(executors.getImporterPool(), i -> {
+            OperationProgress.bind(progress.child());
+            try {
+                progress.checkCancelled();
+                Entry entry = entries.get(i);
+                logger.info("Importing tags from config: sourcePath={}, provider={}, baseTagPath={}, exportMode={}",
+                        entry.sourcePath, entry.provider, entry.baseTagPath, entry.exportMode);
+                try {
+                    results[i] = TagImportUtilities.importTagsFromSource(tagManager, executors, entry.provider,
+                            entry.baseTagPath, entry.sourcePath, entry.collisionPolicy, entry.exportMode);
+                } catch (Exception e) {
+                    if (!(e instanceof CancellationException)) {
+                        logger.error("Error importing {} to provider {} at '{}': {}", entry.sourcePath,
+                                entry.provider, entry.baseTagPath, e.getMessage(), e);
+                    }
+                    throw e;
+                }
+            } finally {
+                progress.increment(OperationProgress.CONFIGS_COMPLETED);
+                OperationProgress.bind(null);
+            }
+        }, true);
+
+        JsonObject result = new JsonObject();
+        JsonObject details = new JsonObject();
+        JsonObject errorDetails = new JsonObject();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (errors[i] instanceof ConfigDependencyGraph.SkippedException) {
+                int failed = ((ConfigDependencyGraph.SkippedException) errors[i]).getFailedIndex();
+                errorDetails.addProperty(entry.sourcePath, "Skipped because the import from " +
+                        entries.get(failed).sourcePath + " did not complete");
+            } else if (errors[i] != null) {
+                errorDetails.addProperty(entry.sourcePath, errors[i].getMessage());
+            } else {
+                details.add(entry.sourcePath, results[i]);
+            }
+        }
+        result.add("details", details);
+        result.add("errors", errorDetails);
+        return result;
+    }
+
+    /**
+     * Builds the order the entries are imported in, see the class description.
+     */
+    static ConfigDependencyGraph buildGraph(List<Entry> entries) {
+        int size = entries.size();
+        boolean[] typesOnly = new boolean[size];
+        String[] tagPaths = new String[size];
+        Path[] sources = new Path[size];
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries.get(i);
+            typesOnly[i] = entry.importsTypesOnly();
+            tagPaths[i] = TagExportUtilities.normalizeTagPath(entry.baseTagPath);
+            sources[i] = Paths.get(entry.sourcePath).toAbsolutePath().normalize();
+        }
+
+        // Move each types import ahead of the entries before it that it does not overlap
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int position = order.size();
+            while (typesOnly[i] && position > 0 && !typesOnly[order.get(position - 1)]
+                    && !overlaps(entries, tagPaths, sources, order.get(position - 1), i)) {
+                position--;
+            }
+            order.add(position, i);
+        }
+        int[] ranks = new int[size];
+        for (int position = 0; position < size; position++) {
+            ranks[order.get(position)] = position;
+        }
+
+        ConfigDependencyGraph graph = new ConfigDependencyGraph(ranks);
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                boolean typesBeforeInstances = typesOnly[i] != typesOnly[j]
+                        && entries.get(i).provider.equals(entries.get(j).provider);
+                if (typesBeforeInstances || overlaps(entries, tagPaths, sources, i, j)) {
+                    graph.addConflict(i, j);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Checks whether two entries import into overlapping base paths of the same
+     * provider or read overlapping source paths.
+     */
+    private static boolean overlaps(List<Entry> entries, String[] tagPaths, Path[] sources, int i, int j) {
+        return (entries.get(i).provider.equals(entries.get(j).provider)
+                && ConfigDependencyGraph.overlaps(tagPaths[i], tagPaths[j]))
+                || ConfigDependencyGraph.overlaps(sources[i], sources[j]);
+    }
+}
@@ -0,0 +1,128 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorts tag JSON into the order the module has always written it to disk, so
+ * that exports are stable across runs and diff cleanly in git.
+ * <p>
+ * Object members are ordered by key. Array elements are ordered by the compact
+ * serialization of the element as it was <em>before</em> sorting. Because the
+ * key is the unsorted serialization, sorting is not idempotent: sorting an
+ * already sorted tree can reorder arrays of objects again. Exports have always
+ * sorted their tags once before handing them to
+ * {@link FileUtilities#saveJsonToFile}, which sorts again, so the files on disk
+ * hold the tags sorted twice. Callers that write export files must keep doing
+ * exactly that to keep the bytes unchanged.
+ * <p>
+ * Each element's sort key is computed once per array and the array is sorted
+ * with a stable O(n log n) sort, which gives the same order as the original
+ * implementation's scan for the first element matching each sorted key.
+ *
+ * @author Keith Gamble
+ */
+public class CanonicalJsonUtilities {
+
+    /**
+     * Returns a sorted copy of the given element, sorting object members by key
+     * and array elements by their unsorted compact serialization, recursively.
+     * The given element is not modified.
+     *
+     * @param element the JSON element to sort
+     * @return the sorted JSON element
+     */
+    public static JsonElement sort(JsonElement element) {
+        if (element == null) {
+            return null;
+        } else if (element.isJsonObject()) {
+            JsonObject sortedObject = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : sortedEntries(element.getAsJsonObject())) {
+                sortedObject.add(entry.getKey(), sort(entry.getValue()));
+            }
+            return sortedObject;
+        } else if (element.isJsonArray()) {
+            JsonArray sortedArray = new JsonArray();
+            for (JsonElement arrayElement : sortedElements(element.getAsJsonArray())) {
+                sortedArray.add(sort(arrayElement));
+            }
+            return sortedArray;
+        }
+
+        return element;
+    }
+
+    /**
+     * Returns the members of the given object ordered by key. The values
+     * themselves are not sorted.
+     *
+     * @param object the JSON object
+     * @return the object's entries ordered by key
+     */
+    static List<Map.Entry<String, JsonElement>> sortedEntries(JsonObject object) {
+        List<Map.Entry<String, JsonElement>> entries = new ArrayList<>(object.entrySet());
+        entries.sort(Map.Entry.comparingByKey());
+        return entries;
+    }
+
+    /**
+     * Returns the elements of the given array ordered by their compact
+     * serialization as given. The elements themselves are not sorted. The sort
+     * keys are discarded before returning so that callers walking the tree only
+     * hold one level of keys at a time.
+     *
+     * @param array the JSON array
+     * @return the array's elements in sorted order
+     */
+    static JsonElement[] sortedElements(JsonArray array) {
+        JsonElement[] elements = new JsonElement[array.size()];
+        if (elements.length < 2) {
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = array.get(i);
+            }
+            return elements;
+        }
+
+        // Serialize every element once up front; Arrays.sort on objects is stable, so
+        // equal keys keep their original relative order
+        KeyedElement[] keyedElements = new KeyedElement[elements.length];
+        for (int i = 0; i < keyedElements.length; i++) {
+            JsonElement arrayElement = array.get(i);
+            keyedElements[i] = new KeyedElement(arrayElement.toString(), arrayElement);
+        }
+        Arrays.sort(keyedElements, Comparator.comparing(KeyedElement::getKey));
+
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = keyedElements[i].getElement();
+        }
+        return elements;
+    }
+
+    /**
+     * An array element paired with its precomputed sort key.
+     */
+    private static final class KeyedElement {
+        private final String key;
+        private final JsonElement element;
+
+        KeyedElement(String key, JsonElement element) {
+            this.key = key;
+            this.element = element;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        JsonElement getElement() {
+            return element;
+        }
+    }
+}
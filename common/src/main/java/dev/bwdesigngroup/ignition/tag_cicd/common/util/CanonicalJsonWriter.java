@@ -0,0 +1,191 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.Gson;
+import com.inductiveautomation.ignition.common.gson.GsonBuilder;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonPrimitive;
+import com.inductiveautomation.ignition.common.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Streams tag JSON to disk in sorted order without building the sorted tree or
+ * the rendered document in memory.
+ * <p>
+ * Every write sorts its input exactly once, the way
+ * {@link FileUtilities#saveJsonToFile} always has. Output is identical to
+ * pretty-printing the result of {@link CanonicalJsonUtilities#sort(JsonElement)}
+ * with Gson: two space indentation, HTML-safe escaping, and object members with
+ * null values omitted. Files are always written as UTF-8.
+ *
+ * @author Keith Gamble
+ */
+public class CanonicalJsonWriter {
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    /**
+     * Writes the given JSON element to the given file, sorted once, replacing any
+     * existing file.
+     *
+     * @param element the JSON element to write
+     * @param path    the file to write to
+     * @throws IOException if there is an error writing the file
+     */
+    public static void write(JsonElement element, Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            write(element, writer);
+        }
+    }
+
+    /**
+     * Writes the given JSON element to the given writer, sorted once. The writer is
+     * flushed but not closed.
+     *
+     * @param element the JSON element to write
+     * @param writer  the writer to write to
+     * @throws IOException if there is an error writing to the writer
+     */
+    public static void write(JsonElement element, Writer writer) throws IOException {
+        write(element, writer, true);
+    }
+
+    /**
+     * Computes the SHA-256 of the sorted, pretty-printed UTF-8 form of the given
+     * element without materializing it. Two elements hash the same exactly when
+     * they would be written to identical files.
+     *
+     * @param element the JSON element to hash
+     * @return the lowercase hex encoded hash
+     * @throws IOException if the hash cannot be computed
+     */
+    public static String sha256(JsonElement element) throws IOException {
+        return sha256(element, true);
+    }
+
+    /**
+     * Computes the SHA-256 of the pretty-printed UTF-8 form of the given element
+     * in the order it is given, without sorting it. For an element parsed from a
+     * file this module wrote, this is the hash of the file's bytes.
+     *
+     * @param element the JSON element to hash
+     * @return the lowercase hex encoded hash
+     * @throws IOException if the hash cannot be computed
+     */
+    public static String sha256Unsorted(JsonElement element) throws IOException {
+        return sha256(element, false);
+    }
+
+    /**
+     * Computes the SHA-256 of the given bytes. For a file written by
+     * {@link #write(JsonElement, Path)}, this is the same hash
+     * {@link #sha256(JsonElement)} gives for the element that was written.
+     *
+     * @param bytes the bytes to hash
+     * @return the lowercase hex encoded hash
+     * @throws IOException if the hash cannot be computed
+     */
+    public static String sha256(byte[] bytes) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+        return toHex(digest.digest(bytes));
+    }
+
+    private static String sha256(JsonElement element, boolean sort) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+
+        write(element, new OutputStreamWriter(new DigestSink(digest), StandardCharsets.UTF_8), sort);
+        return toHex(digest.digest());
+    }
+
+    private static void write(JsonElement element, Writer writer, boolean sort) throws IOException {
+        JsonWriter jsonWriter = PRETTY_GSON.newJsonWriter(writer);
+        // Match Gson.toJson(JsonElement), which writes leniently so NaN/Infinity pass through
+        jsonWriter.setLenient(true);
+        writeElement(jsonWriter, element, sort);
+        jsonWriter.flush();
+    }
+
+    private static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : hash) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static void writeElement(JsonWriter out, JsonElement element, boolean sort) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            out.nullValue();
+        } else if (element.isJsonPrimitive()) {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isNumber()) {
+                out.value(primitive.getAsNumber());
+            } else if (primitive.isBoolean()) {
+                out.value(primitive.getAsBoolean());
+            } else {
+                out.value(primitive.getAsString());
+            }
+        } else if (element.isJsonArray()) {
+            out.beginArray();
+            JsonArray array = element.getAsJsonArray();
+            Iterable<JsonElement> elements = sort ? Arrays.asList(CanonicalJsonUtilities.sortedElements(array)) : array;
+            for (JsonElement arrayElement : elements) {
+                writeElement(out, arrayElement, sort);
+            }
+            out.endArray();
+        } else {
+            out.beginObject();
+            JsonObject object = element.getAsJsonObject();
+            Iterable<Map.Entry<String, JsonElement>> entries = sort
+                    ? CanonicalJsonUtilities.sortedEntries(object)
+                    : object.entrySet();
+            for (Map.Entry<String, JsonElement> entry : entries) {
+                out.name(entry.getKey());
+                writeElement(out, entry.getValue(), sort);
+            }
+            out.endObject();
+        }
+    }
+
+    /**
+     * Output stream that feeds a digest instead of storing the bytes.
+     */
+    private static final class DigestSink extends OutputStream {
+        private final MessageDigest digest;
+
+        DigestSink(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void write(int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            digest.update(bytes, offset, length);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * The order the entries of a configuration file must run in, as a directed
+ * acyclic graph. An entry runs once every entry it depends on has finished,
+ * and entries that do not depend on each other, directly or through others,
+ * run at the same time, so a batch takes as long as its longest chain of
+ * dependencies rather than the sum of its entries.
+ * <p>
+ * Dependencies always point from an entry earlier in the run order to a later
+ * one, so the graph cannot hold a cycle. The run order is configuration order,
+ * except for entries given a lower rank, which come before all entries of a
+ * higher rank.
+ *
+ * @author Keith Gamble
+ */
+public class ConfigDependencyGraph {
+    private final int[] order;
+    private final int[] position;
+    private final List<List<Integer>> predecessors = new ArrayList<>();
+    private int dependencyCount;
+
+    /**
+     * Creates a graph without dependencies that runs entries in configuration
+     * order.
+     *
+     * @param size the number of entries
+     */
+    public ConfigDependencyGraph(int size) {
+        this(new int[size]);
+    }
+
+    /**
+     * Creates a graph without dependencies that runs entries of a lower rank
+     * before those of a higher rank, and otherwise in configuration order.
+     *
+     * @param ranks the rank of each entry
+     */
+    public ConfigDependencyGraph(int[] ranks) {
+        int size = ranks.length;
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            indexes.add(i);
+            predecessors.add(new ArrayList<>());
+        }
+        indexes.sort((a, b) -> ranks[a] != ranks[b] ? Integer.compare(ranks[a], ranks[b]) : Integer.compare(a, b));
+
+        order = new int[size];
+        position = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = indexes.get(i);
+            position[order[i]] = i;
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Makes two entries that conflict run one after the other, the one earlier
+     * in the run order first.
+     *
+     * @param a an entry
+     * @param b another entry
+     */
+    public void addConflict(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        int first = position[a] < position[b] ? a : b;
+        int second = first == a ? b : a;
+        predecessors.get(second).add(first);
+        dependencyCount++;
+    }
+
+    /**
+     * @param index an entry
+     * @return the entries that must finish before the given one starts
+     */
+    public List<Integer> getPredecessors(int index) {
+        return predecessors.get(index);
+    }
+
+    /**
+     * @return the number of dependencies between entries
+     */
+    public int getDependencyCount() {
+        return dependencyCount;
+    }
+
+    /**
+     * @return the number of entries in the longest chain of dependencies, the
+     *         fewest entries that must run one after another
+     */
+    public int getCriticalPathLength() {
+        int[] length = new int[order.length];
+        int longest = 0;
+        for (int index : order) {
+            length[index] = 1;
+            for (int predecessor : predecessors.get(index)) {
+                length[index] = Math.max(length[index], length[predecessor] + 1);
+            }
+            longest = Math.max(longest, length[index]);
+        }
+        return longest;
+    }
+
+    /**
+     * Task run for one entry of the graph.
+     */
+    @FunctionalInterface
+    public interface EntryTask {
+        void run(int index) throws Exception;
+    }
+
+    /**
+     * Runs a task for every entry on the given executor, each as soon as the
+     * entries it depends on have finished, and waits for all of them. A task
+     * that fails does not stop the others; its exception is returned instead.
+     *
+     * @param executor          the executor to run the tasks on
+     * @param task              the task to run for each entry
+     * @param skipAfterFailures whether to skip, rather than run, the entries
+     *                          that depend on an entry that failed or was
+     *                          skipped
+     * @return the exception each entry failed with, by index, null for those
+     *         that succeeded; skipped entries hold a {@link SkippedException}
+     * @throws InterruptedException  if interrupted while waiting for the tasks
+     * @throws CancellationException if a task was cancelled
+     */
+    public Exception[] run(Executor executor, EntryTask task, boolean skipAfterFailures)
+            throws InterruptedException {
+        Exception[] errors = new Exception[order.length];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Void>[] futures = new CompletableFuture[order.length];
+
+        // Predecessors come first in the run order, so their futures always exist
+        for (int index : order) {
+            List<Integer> before = predecessors.get(index);
+            CompletableFuture<?>[] waitFor = new CompletableFuture<?>[before.size()];
+            for (int i = 0; i < waitFor.length; i++) {
+                waitFor[i] = futures[before.get(i)];
+            }
+            futures[index] = CompletableFuture.allOf(waitFor).thenRunAsync(() -> {
+                if (skipAfterFailures) {
+                    for (int predecessor : before) {
+                        if (errors[predecessor] != null) {
+                            errors[index] = new SkippedException(predecessor);
+                            return;
+                        }
+                    }
+                }
+                try {
+                    task.run(index);
+                } catch (CancellationException e) {
+                    throw e;
+                } catch (Exception e) {
+                    errors[index] = e;
+                }
+            }, executor);
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures);
+        try {
+            all.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            for (CompletableFuture<Void> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+        return errors;
+    }
+
+    /**
+     * Checks whether two files or directories overlap, one being the same as or
+     * inside the other.
+     *
+     * @param a an absolute, normalized path
+     * @param b another absolute, normalized path
+     * @return whether the paths overlap
+     */
+    public static boolean overlaps(Path a, Path b) {
+        return a.startsWith(b) || b.startsWith(a);
+    }
+
+    /**
+     * Checks whether two tag paths of the same provider overlap, one being the
+     * same as or below the other. An empty path is the provider root.
+     *
+     * @param a a normalized tag path
+     * @param b another normalized tag path
+     * @return whether the tag paths overlap
+     */
+    public static boolean overlaps(String a, String b) {
+        return BatchTagExporter.covers(a, b) || BatchTagExporter.covers(b, a);
+    }
+
+    /**
+     * Error recorded for an entry that was not run because an entry it depends
+     * on failed.
+     */
+    public static class SkippedException extends Exception {
+        private final int failedIndex;
+
+        public SkippedException(int failedIndex) {
+            super("Skipped because configuration " + (failedIndex + 1) + " did not complete");
+            this.failedIndex = failedIndex;
+        }
+
+        /**
+         * @return the index of the entry whose failure caused the skip
+         */
+        public int getFailedIndex() {
+            return failedIndex;
+        }
+    }
+}
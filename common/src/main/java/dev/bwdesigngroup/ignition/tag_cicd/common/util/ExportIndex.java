@@ -0,0 +1,336 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The index an individual files export writes to its root, so that later
+ * imports, cleanups and differential imports can plan their work without
+ * listing directories.
+ * <p>
+ * The index lives in the export root as {@value #INDEX_FILE_NAME} and maps the
+ * path of every exported tag and folder, relative to the exported tag path, to
+ * the file or directory it was written to (relative to the root), its tag type
+ * and, for tags, the SHA-256 of the file and the UDT types it depends on.
+ * <p>
+ * The index is only a shortcut. Readers verify the hash of every file they read
+ * against it, check that it records every tag file and folder in the directory,
+ * and fall back to walking the directory when a file is missing, has changed or
+ * was added by other means than an export, see {@link TagDirectoryReader}.
+ *
+ * @author Keith Gamble
+ */
+public class ExportIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ExportIndex.class.getName());
+
+    public static final String INDEX_FILE_NAME = ".tagcicd-index.json";
+    private static final int INDEX_VERSION = 1;
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * Creates an empty index, to be filled in as an export writes its files.
+     */
+    public ExportIndex() {
+        this(new TreeMap<>());
+    }
+
+    private ExportIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the index in the given export root.
+     *
+     * @param rootDirectory the export root directory
+     * @return the index, or null if there is none or it cannot be used
+     */
+    public static ExportIndex read(Path rootDirectory) {
+        Path indexFile = rootDirectory.resolve(INDEX_FILE_NAME);
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+
+        try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            JsonObject index = new JsonParser().parse(reader).getAsJsonObject();
+            if (!index.has("version") || index.get("version").getAsInt() != INDEX_VERSION) {
+                logger.info("Ignoring export index with unsupported version: {}", indexFile);
+                return null;
+            }
+
+            Map<String, Entry> entries = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> tag : index.getAsJsonObject("tags").entrySet()) {
+                entries.put(tag.getKey(), Entry.fromJson(tag.getKey(), tag.getValue().getAsJsonObject()));
+            }
+            return new ExportIndex(entries);
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable export index {}: {}", indexFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the given file name is the index file, so that imports and
+     * cleanup can skip it.
+     *
+     * @param fileName the file name to check
+     * @return true if the name is the index file name
+     */
+    public static boolean isIndexFile(String fileName) {
+        return INDEX_FILE_NAME.equals(fileName);
+    }
+
+    /**
+     * Records a folder.
+     *
+     * @param tagPath      the folder's path relative to the exported tag path
+     * @param relativePath the folder's directory relative to the export root
+     */
+    public void addFolder(String tagPath, String relativePath) {
+        entries.put(tagPath, new Entry(tagPath, relativePath, "Folder", null, Collections.emptySet()));
+    }
+
+    /**
+     * Records a tag, UDT instance or UDT definition.
+     *
+     * @param tagPath      the tag's path relative to the exported tag path
+     * @param relativePath the tag's file relative to the export root
+     * @param tag          the tag's JSON, for its type and UDT dependencies
+     * @param hash         the SHA-256 of the tag's file
+     */
+    public void addTag(String tagPath, String relativePath, JsonObject tag, String hash) {
+        String tagType = tag.has("tagType") ? tag.get("tagType").getAsString() : "";
+        entries.put(tagPath, new Entry(tagPath, relativePath, tagType, hash,
+                new TreeSet<>(UdtDependencyGraph.findDependencies(tag))));
+    }
+
+    /**
+     * @return the entries, ordered by tag path
+     */
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * @param tagPath the path relative to the exported tag path
+     * @return the entry for the path, or null
+     */
+    public Entry getEntry(String tagPath) {
+        return entries.get(tagPath);
+    }
+
+    /**
+     * Writes the index to the given export root, replacing any existing index.
+     *
+     * @param rootDirectory the export root directory
+     * @throws IOException if the index cannot be written
+     */
+    public void write(Path rootDirectory) throws IOException {
+        try (RootLocks.RootLock lock = RootLocks.EXPORT_ROOTS.lock(rootDirectory)) {
+            writeUnlocked(rootDirectory);
+        }
+    }
+
+    /**
+     * Deletes every tag file below the given export root that this index does
+     * not record, whether an earlier export wrote it or it was added by other
+     * means, then removes the directories left empty that this index does not
+     * record as folders. Files that do not hold tags, such as the manifest and
+     * the index, are left alone.
+     *
+     * @param rootDirectory the export root directory this index was written for
+     * @return the files that were deleted
+     * @throws IOException if the directory cannot be walked or a file cannot be
+     *                     deleted
+     */
+    public List<Path> deleteUnindexedFiles(Path rootDirectory) throws IOException {
+        Set<String> indexedFiles = new HashSet<>();
+        Set<String> indexedFolders = new HashSet<>();
+        for (Entry entry : entries.values()) {
+            (entry.isFolder() ? indexedFolders : indexedFiles).add(entry.getFile());
+        }
+
+        Path root = rootDirectory.toAbsolutePath().normalize();
+        List<Path> deletedFiles = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (attributes.isRegularFile() && TagDirectoryReader.isTagFileName(file.getFileName().toString())
+                        && !indexedFiles.contains(relativePath(root, file))) {
+                    Files.delete(file);
+                    deletedFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+                if (!directory.equals(root) && !indexedFolders.contains(relativePath(root, directory))
+                        && FileUtilities.isDirectoryEmpty(directory.toFile())) {
+                    Files.delete(directory);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        logger.info("Removed {} files for tags no longer exported to {}", deletedFiles.size(), root);
+        return deletedFiles;
+    }
+
+    /**
+     * Records a tag exported on its own into the index of the export whose
+     * directory it was written to, if there is one, so that the index stays in
+     * step with the directory. The index is found by checking the file's
+     * directory and each of its parents for an index file.
+     *
+     * @param file the tag's file
+     * @param tag  the tag's JSON
+     * @param hash the SHA-256 of the tag's file
+     * @throws IOException if the index cannot be written
+     */
+    public static void recordTag(Path file, JsonObject tag, String hash) throws IOException {
+        Path absoluteFile = file.toAbsolutePath().normalize();
+        Path rootDirectory = absoluteFile.getParent();
+        while (rootDirectory != null && !Files.isRegularFile(rootDirectory.resolve(INDEX_FILE_NAME))) {
+            rootDirectory = rootDirectory.getParent();
+        }
+        if (rootDirectory == null) {
+            return;
+        }
+
+        try (RootLocks.RootLock lock = RootLocks.EXPORT_ROOTS.lock(rootDirectory)) {
+            ExportIndex index = read(rootDirectory);
+            if (index == null) {
+                return;
+            }
+            String relativePath = rootDirectory.relativize(absoluteFile).toString().replace('\\', '/');
+            String tagPath = FanOutLayout.removeBucket(rootDirectory, relativePath);
+            if (tagPath.endsWith(".json")) {
+                tagPath = tagPath.substring(0, tagPath.length() - ".json".length());
+            }
+            index.addTag(tagPath, relativePath, tag, hash);
+            index.writeUnlocked(rootDirectory);
+            logger.debug("Recorded {} in export index {}", tagPath, rootDirectory);
+        }
+    }
+
+    private void writeUnlocked(Path rootDirectory) throws IOException {
+        JsonObject tags = new JsonObject();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            tags.add(entry.getKey(), entry.getValue().toJson());
+        }
+        JsonObject index = new JsonObject();
+        index.addProperty("version", INDEX_VERSION);
+        index.add("tags", tags);
+        FileUtilities.saveJsonToFile(index, rootDirectory.resolve(INDEX_FILE_NAME).toString());
+    }
+
+    private static String relativePath(Path root, Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     * One indexed tag or folder.
+     */
+    public static final class Entry {
+        private final String tagPath;
+        private final String file;
+        private final String tagType;
+        private final String hash;
+        private final Set<String> dependencies;
+
+        Entry(String tagPath, String file, String tagType, String hash, Set<String> dependencies) {
+            this.tagPath = tagPath;
+            this.file = file;
+            this.tagType = tagType;
+            this.hash = hash;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * @return the path relative to the exported tag path
+         */
+        public String getTagPath() {
+            return tagPath;
+        }
+
+        /**
+         * @return the file, or for a folder the directory, relative to the export
+         *         root
+         */
+        public String getFile() {
+            return file;
+        }
+
+        public String getTagType() {
+            return tagType;
+        }
+
+        /**
+         * @return the SHA-256 of the file, or null for a folder
+         */
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * @return the UDT types the tag depends on
+         */
+        public Set<String> getDependencies() {
+            return dependencies;
+        }
+
+        public boolean isFolder() {
+            return "Folder".equals(tagType);
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("file", file);
+            json.addProperty("tagType", tagType);
+            if (hash != null) {
+                json.addProperty("sha256", hash);
+            }
+            if (!dependencies.isEmpty()) {
+                JsonArray dependenciesArray = new JsonArray();
+                dependencies.forEach(dependenciesArray::add);
+                json.add("dependencies", dependenciesArray);
+            }
+            return json;
+        }
+
+        static Entry fromJson(String tagPath, JsonObject json) {
+            Set<String> dependencies = new TreeSet<>();
+            if (json.has("dependencies")) {
+                json.getAsJsonArray("dependencies").forEach(element -> dependencies.add(element.getAsString()));
+            }
+            return new Entry(tagPath, json.get("file").getAsString(), json.get("tagType").getAsString(),
+                    json.has("sha256") ? json.get("sha256").getAsString() : null, dependencies);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Tracks the files written by an incremental export so that unchanged files are
+ * never rewritten and only files for removed tags are deleted.
+ * <p>
+ * The manifest lives in the export root as {@value #MANIFEST_FILE_NAME} and maps
+ * each file's path (relative to the root) to the SHA-256 of its bytes,
+ * along with the size and modification time observed after it was written. A
+ * file is skipped when the new content hashes the same and the file on disk
+ * still has the recorded size and modification time.
+ * <p>
+ * A manifest holds a per-root lock from {@link #open(Path)} until
+ * {@link #close()}, which persists it.
+ *
+ * @author Keith Gamble
+ */
+public class ExportManifest implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ExportManifest.class.getName());
+
+    public static final String MANIFEST_FILE_NAME = ".tagcicd-manifest.json";
+    private static final int MANIFEST_VERSION = 1;
+
+    private final Path rootDirectory;
+    private final RootLocks.RootLock lock;
+    private final boolean newManifest;
+    private final Map<String, Entry> entries;
+    private final Set<String> touchedPaths = new HashSet<>();
+    private int writtenCount = 0;
+    private int unchangedCount = 0;
+
+    private ExportManifest(Path rootDirectory, RootLocks.RootLock lock, boolean newManifest,
+            Map<String, Entry> entries) {
+        this.rootDirectory = rootDirectory;
+        this.lock = lock;
+        this.newManifest = newManifest;
+        this.entries = entries;
+    }
+
+    /**
+     * Opens the manifest for the given export root, locking it against other
+     * exports to the same root until {@link #close()} is called. A missing or
+     * unreadable manifest results in an empty one, so every file is written.
+     *
+     * @param rootDirectory the export root directory
+     * @return the opened manifest
+     */
+    public static ExportManifest open(Path rootDirectory) {
+        Path root = rootDirectory.toAbsolutePath().normalize();
+        RootLocks.RootLock lock = RootLocks.EXPORT_ROOTS.lock(root);
+
+        Map<String, Entry> entries = readEntries(root.resolve(MANIFEST_FILE_NAME));
+        return new ExportManifest(root, lock, entries == null, entries == null ? new TreeMap<>() : entries);
+    }
+
+    /**
+     * Returns a manifest that writes every file and records nothing, for exports
+     * that are not incremental.
+     *
+     * @return a pass-through manifest
+     */
+    public static ExportManifest disabled() {
+        return new ExportManifest(null, null, true, new TreeMap<>());
+    }
+
+    /**
+     * Deletes the manifest in the given export root, if any. Non-incremental
+     * exports call this so that a later incremental export does not trust a
+     * manifest that no longer describes the directory.
+     *
+     * @param rootDirectory the export root directory
+     * @throws IOException if the manifest exists but cannot be deleted
+     */
+    public static void invalidate(Path rootDirectory) throws IOException {
+        Path root = rootDirectory.toAbsolutePath().normalize();
+        try (RootLocks.RootLock lock = RootLocks.EXPORT_ROOTS.lock(root)) {
+            Files.deleteIfExists(root.resolve(MANIFEST_FILE_NAME));
+        }
+    }
+
+    /**
+     * Checks whether the given file name is the manifest file, so that imports
+     * and cleanup can skip it.
+     *
+     * @param fileName the file name to check
+     * @return true if the name is the manifest file name
+     */
+    public static boolean isManifestFile(String fileName) {
+        return MANIFEST_FILE_NAME.equals(fileName);
+    }
+
+    /**
+     * @return true if no usable manifest existed when this one was opened, in which
+     *         case the export directory may contain files it does not know about
+     */
+    public boolean isNew() {
+        return newManifest;
+    }
+
+    /**
+     * Writes the given JSON to the given file, sorted once, unless the file
+     * already holds exactly that content.
+     *
+     * @param json     the JSON object to save
+     * @param filePath the file path to save to
+     * @return true if the file was written, false if it was unchanged
+     * @throws IOException if there is an error hashing or writing the file
+     */
+    public boolean saveJsonToFile(JsonObject json, String filePath) throws IOException {
+        return saveJsonToFile(json, filePath, null);
+    }
+
+    /**
+     * Writes the given JSON to the given file, sorted once, unless the file
+     * already holds exactly that content, for callers that already know the hash.
+     *
+     * @param json     the JSON object to save
+     * @param filePath the file path to save to
+     * @param hash     the {@link CanonicalJsonWriter#sha256(JsonElement)} of the
+     *                 JSON, or null to compute it when needed
+     * @return true if the file was written, false if it was unchanged
+     * @throws IOException if there is an error hashing or writing the file
+     */
+    public boolean saveJsonToFile(JsonObject json, String filePath, String hash) throws IOException {
+        if (rootDirectory == null) {
+            FileUtilities.saveJsonToFile(json, filePath);
+            return true;
+        }
+
+        Path file = Path.of(filePath).toAbsolutePath().normalize();
+        if (!file.startsWith(rootDirectory)) {
+            logger.debug("Writing {} without tracking, it is outside of export root {}", file, rootDirectory);
+            FileUtilities.saveJsonToFile(json, filePath);
+            return true;
+        }
+
+        String relativePath = rootDirectory.relativize(file).toString().replace('\\', '/');
+        Entry previous = entries.get(relativePath);
+
+        if (hash == null) {
+            hash = CanonicalJsonWriter.sha256(json);
+        }
+
+        touchedPaths.add(relativePath);
+        if (previous != null && previous.hash.equals(hash) && previous.matchesFile(file)) {
+            unchangedCount++;
+            OperationProgress.current().increment(OperationProgress.FILES_UNCHANGED);
+            return false;
+        }
+
+        FileUtilities.saveJsonToFile(json, file.toString());
+        entries.put(relativePath, new Entry(hash, Files.size(file), Files.getLastModifiedTime(file).toMillis()));
+        writtenCount++;
+        return true;
+    }
+
+    /**
+     * Deletes every file recorded by a previous export that was not written or
+     * confirmed unchanged during this export, then removes any directories left
+     * empty. Files the manifest never recorded are left alone.
+     *
+     * @return the files that were deleted
+     * @throws IOException if a file cannot be deleted
+     */
+    public List<Path> deleteRemovedFiles() throws IOException {
+        List<Path> deletedFiles = new ArrayList<>();
+        if (rootDirectory == null) {
+            return deletedFiles;
+        }
+
+        List<String> removedPaths = new ArrayList<>(entries.keySet());
+        removedPaths.removeAll(touchedPaths);
+        for (String relativePath : removedPaths) {
+            Path file = rootDirectory.resolve(relativePath);
+            if (Files.deleteIfExists(file)) {
+                deletedFiles.add(file);
+                deleteEmptyParents(file.getParent());
+            }
+            entries.remove(relativePath);
+        }
+
+        logger.info("Incremental export to {}: {} files written, {} unchanged, {} removed",
+                rootDirectory, writtenCount, unchangedCount, deletedFiles.size());
+        return deletedFiles;
+    }
+
+    /**
+     * Persists the manifest and releases the lock on the export root.
+     *
+     * @throws IOException if the manifest cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (rootDirectory == null) {
+            return;
+        }
+
+        try {
+            JsonObject files = new JsonObject();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                files.add(entry.getKey(), entry.getValue().toJson());
+            }
+            JsonObject manifest = new JsonObject();
+            manifest.addProperty("version", MANIFEST_VERSION);
+            manifest.add("files", files);
+            FileUtilities.saveJsonToFile(manifest, rootDirectory.resolve(MANIFEST_FILE_NAME).toString());
+        } finally {
+            lock.close();
+        }
+    }
+
+    private void deleteEmptyParents(Path directory) throws IOException {
+        while (directory != null && directory.startsWith(rootDirectory) && !directory.equals(rootDirectory)
+                && FileUtilities.isDirectoryEmpty(directory.toFile())) {
+            Files.delete(directory);
+            directory = directory.getParent();
+        }
+    }
+
+    private static Map<String, Entry> readEntries(Path manifestFile) {
+        if (!Files.isRegularFile(manifestFile)) {
+            return null;
+        }
+
+        try (Reader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            JsonObject manifest = new JsonParser().parse(reader).getAsJsonObject();
+            if (!manifest.has("version") || manifest.get("version").getAsInt() != MANIFEST_VERSION) {
+                logger.info("Ignoring export manifest with unsupported version: {}", manifestFile);
+                return null;
+            }
+
+            Map<String, Entry> entries = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> file : manifest.getAsJsonObject("files").entrySet()) {
+                entries.put(file.getKey(), Entry.fromJson(file.getValue().getAsJsonObject()));
+            }
+            return entries;
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable export manifest {}: {}", manifestFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The recorded state of one exported file.
+     */
+    private static final class Entry {
+        private final String hash;
+        private final long size;
+        private final long lastModified;
+
+        Entry(String hash, long size, long lastModified) {
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        boolean matchesFile(Path file) throws IOException {
+            return Files.isRegularFile(file)
+                    && Files.size(file) == size
+                    && Files.getLastModifiedTime(file).toMillis() == lastModified;
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("sha256", hash);
+            json.addProperty("size", size);
+            json.addProperty("lastModified", lastModified);
+            return json;
+        }
+
+        static Entry fromJson(JsonObject json) {
+            return new Entry(json.get("sha256").getAsString(), json.get("size").getAsLong(),
+                    json.get("lastModified").getAsLong());
+        }
+    }
+}
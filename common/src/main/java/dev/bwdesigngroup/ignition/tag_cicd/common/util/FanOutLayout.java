@@ -0,0 +1,189 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The layout of a folder whose tag files an individual files export has spread
+ * over bucket subdirectories, so that no single directory holds tens of
+ * thousands of files.
+ * <p>
+ * A fanned out folder holds a {@value #MARKER_FILE_NAME} file naming the layout,
+ * and each of its tags (but not its subfolders) is written to
+ * {@code <bucket>/<tag name>.json}, where the bucket is named
+ * {@value #BUCKET_PREFIX} followed by either two hex digits of a hash of the tag
+ * name ({@code hash}) or the tag name's first character in lower case
+ * ({@code alpha}). Buckets only depend on the tag's own name, so adding or
+ * removing tags never moves other tags between buckets.
+ * <p>
+ * Readers treat the bucket directories of a folder with a marker as part of the
+ * folder itself, so the folder reads back exactly as if it had not been fanned
+ * out. A folder is never fanned out if one of its tags or subfolders has a name
+ * that could be mistaken for a bucket.
+ *
+ * @author Keith Gamble
+ */
+public class FanOutLayout {
+    private static final Logger logger = LoggerFactory.getLogger(FanOutLayout.class.getName());
+
+    public static final String MARKER_FILE_NAME = ".tagcicd-fanout.json";
+    public static final String BUCKET_PREFIX = ".fanout-";
+    public static final String HASH = "hash";
+    public static final String ALPHA = "alpha";
+    private static final int MARKER_VERSION = 1;
+
+    private final String layout;
+
+    private FanOutLayout(String layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Returns the layout exports should use for a folder with the given number of
+     * tags, according to {@link TagCICDConstants#FAN_OUT_THRESHOLD} and
+     * {@link TagCICDConstants#FAN_OUT_LAYOUT}.
+     *
+     * @param tagCount the number of tags, not counting subfolders, in the folder
+     * @return the layout, or null if the folder should not be fanned out
+     */
+    public static FanOutLayout forTagCount(int tagCount) {
+        if (TagCICDConstants.FAN_OUT_THRESHOLD <= 0 || tagCount <= TagCICDConstants.FAN_OUT_THRESHOLD) {
+            return null;
+        }
+        return new FanOutLayout(ALPHA.equalsIgnoreCase(TagCICDConstants.FAN_OUT_LAYOUT) ? ALPHA : HASH);
+    }
+
+    /**
+     * Reads the marker of a fanned out folder.
+     *
+     * @param directory the folder's directory
+     * @return the folder's layout, or null if the folder is not fanned out
+     */
+    public static FanOutLayout read(Path directory) {
+        Path markerFile = directory.resolve(MARKER_FILE_NAME);
+        if (!Files.isRegularFile(markerFile)) {
+            return null;
+        }
+
+        try (Reader reader = Files.newBufferedReader(markerFile, StandardCharsets.UTF_8)) {
+            JsonObject marker = new JsonParser().parse(reader).getAsJsonObject();
+            String layout = marker.has("layout") ? marker.get("layout").getAsString() : "";
+            if (!HASH.equals(layout) && !ALPHA.equals(layout)) {
+                logger.warn("Ignoring fan-out marker with unknown layout '{}': {}", layout, markerFile);
+                return null;
+            }
+            return new FanOutLayout(layout);
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable fan-out marker {}: {}", markerFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the given file name is the fan-out marker, so that imports
+     * skip it.
+     *
+     * @param fileName the file name to check
+     * @return true if the name is the marker file name
+     */
+    public static boolean isMarkerFile(String fileName) {
+        return MARKER_FILE_NAME.equals(fileName);
+    }
+
+    /**
+     * Checks whether a directory name is a bucket name. Only directories in a
+     * folder with a marker are buckets.
+     *
+     * @param directoryName the directory name to check
+     * @return true if the name has the bucket prefix
+     */
+    public static boolean isBucketName(String directoryName) {
+        return directoryName.startsWith(BUCKET_PREFIX);
+    }
+
+    /**
+     * Checks whether a tag file path relative to some directory ends in a bucket
+     * of a fanned out folder, and if so returns the path without the bucket.
+     *
+     * @param directory    the directory the path is relative to
+     * @param relativePath the file's path, with {@code /} separators
+     * @return the path the file would have if its folder were not fanned out
+     */
+    public static String removeBucket(Path directory, String relativePath) {
+        String[] segments = relativePath.split("/");
+        if (segments.length < 2 || !isBucketName(segments[segments.length - 2])) {
+            return relativePath;
+        }
+
+        String folderPath = String.join("/", Arrays.copyOf(segments, segments.length - 2));
+        if (read(folderPath.isEmpty() ? directory : directory.resolve(folderPath)) == null) {
+            return relativePath;
+        }
+        return folderPath.isEmpty() ? segments[segments.length - 1]
+                : folderPath + "/" + segments[segments.length - 1];
+    }
+
+    public String getLayout() {
+        return layout;
+    }
+
+    /**
+     * @param tagName the tag name
+     * @return the name of the bucket directory the tag's file goes in
+     */
+    public String bucketFor(String tagName) {
+        if (ALPHA.equals(layout)) {
+            char first = tagName.isEmpty() ? '_' : Character.toLowerCase(tagName.charAt(0));
+            return BUCKET_PREFIX + (Character.isLetterOrDigit(first) ? String.valueOf(first) : "_");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(tagName.getBytes(StandardCharsets.UTF_8));
+        return BUCKET_PREFIX + String.format("%02x", crc.getValue() & 0xff);
+    }
+
+    /**
+     * Writes this layout's marker to the given folder's directory.
+     *
+     * @param directory the folder's directory
+     * @throws IOException if the marker cannot be written
+     */
+    public void writeMarker(Path directory) throws IOException {
+        JsonObject marker = new JsonObject();
+        marker.addProperty("version", MARKER_VERSION);
+        marker.addProperty("layout", layout);
+        FileUtilities.saveJsonToFile(marker, directory.resolve(MARKER_FILE_NAME).toString());
+    }
+
+    /**
+     * Removes the marker and every bucket from the given folder's directory, for
+     * a folder that is no longer fanned out or changes layout. Buckets only hold
+     * files written by exports, so nothing else is lost.
+     *
+     * @param directory the folder's directory
+     * @throws IOException if the directory cannot be listed or a bucket cannot be
+     *                     deleted
+     */
+    public static void removeBuckets(Path directory) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry) && isBucketName(entry.getFileName().toString())) {
+                    FileUtilities.deleteDirectory(entry.toFile());
+                }
+            }
+        }
+        Files.deleteIfExists(directory.resolve(MARKER_FILE_NAME));
+    }
+}
@@ -6,22 +6,22 @@
 */
 package dev.bwdesigngroup.ignition.tag_cicd.common.util;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.inductiveautomation.ignition.common.gson.Gson;
-import com.inductiveautomation.ignition.common.gson.GsonBuilder;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
@@ -34,52 +34,34 @@ import com.inductiveautomation.ignition.common.gson.JsonObject;
 public class FileUtilities {
 	private static final Logger logger = LoggerFactory.getLogger(FileUtilities.class.getName());
 
+	/**
+	 * Files whose name ends with this extension are written gzip-compressed.
+	 */
+	public static final String COMPRESSED_FILE_EXTENSION = ".gz";
+
+	private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+
 	/**
 	 * Sorts the given JSON element recursively. This method will sort the keys in
 	 * JSON objects and the elements in JSON arrays. This method is useful for
 	 * comparing JSON objects that may have the same elements but in a different
 	 * order.
+	 * <p>
+	 * Array elements are ordered by their unsorted serialization, so sorting a
+	 * sorted tree again can change it, see {@link CanonicalJsonUtilities}.
 	 *
 	 * @param element the JSON element to sort
 	 * @return the sorted JSON element
 	 */
 	public static JsonElement sortJsonElementRecursively(JsonElement element) {
-		if (element.isJsonObject()) {
-			JsonObject object = element.getAsJsonObject();
-			JsonObject sortedObject = new JsonObject();
-
-			object.entrySet().stream()
-					.sorted(Map.Entry.comparingByKey())
-					.forEach(entry -> sortedObject.add(entry.getKey(), sortJsonElementRecursively(entry.getValue())));
-
-			return sortedObject;
-		} else if (element.isJsonArray()) {
-			JsonArray array = element.getAsJsonArray();
-			JsonArray sortedArray = new JsonArray();
-
-			List<String> elementStrings = new ArrayList<>();
-			for (JsonElement arrayElement : array) {
-				elementStrings.add(arrayElement.toString());
-			}
-			Collections.sort(elementStrings);
-
-			for (String elementString : elementStrings) {
-				for (JsonElement arrayElement : array) {
-					if (arrayElement.toString().equals(elementString)) {
-						sortedArray.add(sortJsonElementRecursively(arrayElement));
-						break;
-					}
-				}
-			}
-
-			return sortedArray;
-		} else {
-			return element;
-		}
+		return CanonicalJsonUtilities.sort(element);
 	}
 
 	/**
-	 * Saves the given JSON object to the given file path.
+	 * Saves the given JSON object to the given file path. The object is sorted once
+	 * with {@link #sortJsonElementRecursively} as it is streamed to disk as UTF-8.
+	 * Paths ending in {@value #COMPRESSED_FILE_EXTENSION} are compressed with gzip
+	 * as they are written.
 	 * 
 	 * @param json     the JSON object to save
 	 * @param filePath the file path to save the JSON object to
@@ -94,17 +76,30 @@ public class FileUtilities {
 			}
 		}
 
-		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-		json = (JsonObject) sortJsonElementRecursively(json);
-		String prettyJson = gson.toJson(json);
-
-		try (FileWriter fileWriter = new FileWriter(file)) {
-			fileWriter.write(prettyJson);
+		if (isCompressedPath(filePath)) {
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+					new GZIPOutputStream(Files.newOutputStream(file.toPath()), COMPRESSION_BUFFER_SIZE),
+					StandardCharsets.UTF_8), COMPRESSION_BUFFER_SIZE)) {
+				CanonicalJsonWriter.write(json, writer);
+			}
+		} else {
+			CanonicalJsonWriter.write(json, file.toPath());
 		}
+		OperationProgress.current().increment(OperationProgress.FILES_WRITTEN);
+	}
+
+	/**
+	 * Checks whether {@link #saveJsonToFile} compresses the given path.
+	 *
+	 * @param filePath the file path to check
+	 * @return true if the path ends with {@value #COMPRESSED_FILE_EXTENSION}
+	 */
+	public static boolean isCompressedPath(String filePath) {
+		return filePath.toLowerCase().endsWith(COMPRESSED_FILE_EXTENSION);
 	}
 
 	/**
-	 * Reads the contents of the given file and returns it as a string.
+	 * Reads the contents of the given UTF-8 file and returns it as a string.
 	 * 
 	 * @param file the file to read
 	 * @return the contents of the file as a string
@@ -112,16 +107,7 @@ public class FileUtilities {
 	 */
 	public static String readFileAsString(File file) throws IOException {
 		logger.trace("Reading file as string: " + file.getAbsolutePath());
-		StringBuilder stringBuilder = new StringBuilder();
-
-		try (FileReader fileReader = new FileReader(file)) {
-			int character;
-			while ((character = fileReader.read()) != -1) {
-				stringBuilder.append((char) character);
-			}
-		}
-
-		return stringBuilder.toString();
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
 	}
 
 	/**
@@ -173,6 +159,7 @@ public class FileUtilities {
 
 		// Get list of expected files and directories based on JSON structure
 		Set<String> expectedItems = collectExpectedItems(jsonToSave, "");
+		Map<String, JsonObject> subFolders = collectSubFolders(jsonToSave);
 
 		File[] existingFiles = directory.listFiles();
 		if (existingFiles != null) {
@@ -185,7 +172,7 @@ public class FileUtilities {
 						deleteDirectory(file);
 					} else {
 						// Directory is expected, recursively clean it
-						JsonObject subFolder = findSubFolder(jsonToSave, fileName);
+						JsonObject subFolder = subFolders.get(fileName);
 						if (subFolder != null) {
 							deleteExistingFiles(file.getAbsolutePath(), subFolder);
 						}
@@ -234,13 +221,14 @@ public class FileUtilities {
 	}
 
 	/**
-	 * Finds a subfolder JSON object by name.
+	 * Collects the subfolder JSON objects by name, so that each directory can be
+	 * matched to its folder without scanning the tags again.
 	 *
-	 * @param json       the parent JSON object
-	 * @param folderName the name of the folder to find
-	 * @return the subfolder JSON object or null if not found
+	 * @param json the parent JSON object
+	 * @return the subfolder JSON objects keyed by folder name
 	 */
-	private static JsonObject findSubFolder(JsonObject json, String folderName) {
+	private static Map<String, JsonObject> collectSubFolders(JsonObject json) {
+		Map<String, JsonObject> subFolders = new HashMap<>();
 		if (json.has("tags")) {
 			JsonArray tags = json.getAsJsonArray("tags");
 			for (JsonElement tag : tags) {
@@ -249,14 +237,13 @@ public class FileUtilities {
 					String tagName = tagObject.get("name").getAsString();
 					String tagType = tagObject.get("tagType").getAsString();
 
-					if (("Folder".equals(tagType) || "Provider".equals(tagType)) &&
-							tagName.equals(folderName)) {
-						return tagObject;
+					if ("Folder".equals(tagType) || "Provider".equals(tagType)) {
+						subFolders.put(tagName, tagObject);
 					}
 				}
 			}
 		}
-		return null;
+		return subFolders;
 	}
 
 	/**
@@ -369,7 +356,7 @@ public class FileUtilities {
 
 	/**
 	 * Cleans a structured files export directory by removing all existing
-	 * tags.json and udts.json files and empty directories.
+	 * tags.json and udts.json files, their shards, and empty directories.
 	 *
 	 * @param directoryPath the path to the directory to clean
 	 * @throws IOException if there is an error during cleanup
@@ -406,7 +393,7 @@ public class FileUtilities {
 						logger.warn("Failed to delete empty directory: {}", file.getAbsolutePath());
 					}
 				}
-			} else if (file.getName().equals("tags.json") || file.getName().equals("udts.json")) {
+			} else if (StructuredFileShards.isStructuredFile(file.getName())) {
 				logger.debug("Removing existing structured file: {}", file.getAbsolutePath());
 				if (!file.delete()) {
 					logger.warn("Failed to delete file: {}", file.getAbsolutePath());
@@ -421,7 +408,7 @@ public class FileUtilities {
 	 * @param directory the directory to check
 	 * @return true if the directory is empty, false otherwise
 	 */
-	private static boolean isDirectoryEmpty(File directory) {
+	public static boolean isDirectoryEmpty(File directory) {
 		if (!directory.isDirectory()) {
 			return false;
 		}
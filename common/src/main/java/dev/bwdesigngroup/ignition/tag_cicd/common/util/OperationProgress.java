@@ -0,0 +1,219 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a long running export or import: the current phase, a set of
+ * named counters and a cancellation flag.
+ * <p>
+ * A progress instance is bound to the thread running the operation with
+ * {@link #bind(OperationProgress)}, and the export and import code reports to
+ * whatever {@link #current()} returns. When nothing is bound, {@link #current()}
+ * returns a shared instance that ignores updates, so operations that are not
+ * tracked pay nothing for it.
+ * <p>
+ * Parts of an operation that run at the same time, such as the entries of a
+ * configuration file, each report to a {@link #child()} of the operation's
+ * progress, so that they do not overwrite each other's phase.
+ *
+ * @author Keith Gamble
+ */
+public class OperationProgress {
+    private static final OperationProgress UNTRACKED = new OperationProgress(false, null);
+    private static final ThreadLocal<OperationProgress> CURRENT = new ThreadLocal<>();
+
+    public static final String PHASE_QUEUED = "queued";
+    public static final String PHASE_DELETING = "deleting";
+    public static final String PHASE_FETCHING = "fetching";
+    public static final String PHASE_READING = "reading";
+    public static final String PHASE_WRITING = "writing";
+    public static final String PHASE_IMPORTING_UDTS = "importing_udts";
+    public static final String PHASE_IMPORTING_TAGS = "importing_tags";
+    public static final String PHASE_DONE = "done";
+
+    public static final String FILES_WRITTEN = "files_written";
+    public static final String FILES_UNCHANGED = "files_unchanged";
+    public static final String FILES_READ = "files_read";
+    public static final String IMPORT_CALLS_SUBMITTED = "import_calls_submitted";
+    public static final String IMPORT_CALLS_COMPLETED = "import_calls_completed";
+    public static final String TAGS_IMPORTED = "tags_imported";
+    public static final String IMPORT_ERRORS = "import_errors";
+    public static final String CONFIGS_COMPLETED = "configs_completed";
+
+    private final boolean tracked;
+    private final OperationProgress parent;
+    private final Map<String, AtomicLong> counters = new ConcurrentSkipListMap<>();
+    private volatile String phase = PHASE_QUEUED;
+    private volatile boolean cancelled;
+    private volatile Expectation expectation;
+
+    /**
+     * The expected final value of one counter during the current phase, used
+     * to estimate the time remaining.
+     */
+    private static class Expectation {
+        private final String counter;
+        private final long baseline;
+        private final long total;
+        private final long startedAt = System.nanoTime();
+
+        private Expectation(String counter, long baseline, long total) {
+            this.counter = counter;
+            this.baseline = baseline;
+            this.total = total;
+        }
+    }
+
+    public OperationProgress() {
+        this(true, null);
+    }
+
+    private OperationProgress(boolean tracked, OperationProgress parent) {
+        this.tracked = tracked;
+        this.parent = parent;
+    }
+
+    /**
+     * Creates the progress of one part of this operation that runs alongside
+     * others. Its counters are added to this progress's counters as well, and it
+     * is cancelled along with this progress, but its phase and expectation are
+     * its own.
+     *
+     * @return the progress to bind to the thread running the part
+     */
+    public OperationProgress child() {
+        return tracked ? new OperationProgress(true, this) : this;
+    }
+
+    /**
+     * @return the progress bound to the current thread, or an instance that
+     *         ignores updates if none is bound
+     */
+    public static OperationProgress current() {
+        OperationProgress progress = CURRENT.get();
+        return progress != null ? progress : UNTRACKED;
+    }
+
+    /**
+     * Binds the given progress to the current thread, or unbinds it when null.
+     *
+     * @param progress the progress to report to
+     */
+    public static void bind(OperationProgress progress) {
+        if (progress == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(progress);
+        }
+    }
+
+    /**
+     * Moves the operation to the given phase. Also the point at which a
+     * cancelled operation stops.
+     *
+     * @param phase the new phase
+     * @throws CancellationException if the operation has been cancelled
+     */
+    public void setPhase(String phase) {
+        checkCancelled();
+        if (tracked) {
+            this.phase = phase;
+            this.expectation = null;
+        }
+    }
+
+    /**
+     * Declares how much a counter is expected to grow during the current phase,
+     * which lets {@link #toJson()} report an estimated time remaining. The
+     * expectation is cleared on the next phase change.
+     *
+     * @param counter the counter that measures the phase's work
+     * @param total   the expected increase of the counter
+     */
+    public void expect(String counter, long total) {
+        if (tracked && total > 0) {
+            this.expectation = new Expectation(counter, get(counter), total);
+        }
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    /**
+     * Adds to a named counter. Safe to call from any thread.
+     *
+     * @param counter the counter name
+     * @param delta   the amount to add
+     */
+    public void add(String counter, long delta) {
+        if (tracked) {
+            counters.computeIfAbsent(counter, key -> new AtomicLong()).addAndGet(delta);
+            if (parent != null) {
+                parent.add(counter, delta);
+            }
+        }
+    }
+
+    public void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public long get(String counter) {
+        AtomicLong value = counters.get(counter);
+        return value != null ? value.get() : 0;
+    }
+
+    /**
+     * Requests cancellation. The operation stops at its next phase change or
+     * submission.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+
+    /**
+     * @throws CancellationException if the operation has been cancelled
+     */
+    public void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Operation was cancelled");
+        }
+    }
+
+    /**
+     * @return the phase and counters as JSON, plus the expected and completed
+     *         work and the estimated seconds remaining when an expectation is
+     *         set
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("phase", phase);
+        JsonObject countersJson = new JsonObject();
+        counters.forEach((name, value) -> countersJson.addProperty(name, value.get()));
+        json.add("counters", countersJson);
+
+        Expectation currentExpectation = expectation;
+        if (currentExpectation != null) {
+            long done = Math.min(get(currentExpectation.counter) - currentExpectation.baseline,
+                    currentExpectation.total);
+            json.addProperty("expected", currentExpectation.total);
+            json.addProperty("completed", done);
+            if (done > 0) {
+                long elapsedMillis = (System.nanoTime() - currentExpectation.startedAt) / 1_000_000;
+                long remainingMillis = elapsedMillis * (currentExpectation.total - done) / done;
+                json.addProperty("etaSeconds", (remainingMillis + 999) / 1000);
+            }
+        }
+        return json;
+    }
+}
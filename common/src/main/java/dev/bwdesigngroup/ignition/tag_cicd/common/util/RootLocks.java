@@ -0,0 +1,78 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks on export root directories, so that only one export, cleanup or index
+ * update works on a root at a time. A root's lock is only kept while a thread
+ * holds or waits for it, so the roots of finished exports are not remembered.
+ * <p>
+ * Locks are reentrant, and roots are compared by their absolute, normalized
+ * path. Exports, {@link ExportManifest} and {@link ExportIndex} all lock roots
+ * through {@link #EXPORT_ROOTS}, so that they exclude each other.
+ *
+ * @author Keith Gamble
+ */
+public final class RootLocks {
+    /**
+     * The locks shared by everything that writes to an export root.
+     */
+    public static final RootLocks EXPORT_ROOTS = new RootLocks();
+
+    private final Map<Path, RootLock> locks = new HashMap<>();
+
+    RootLocks() {
+    }
+
+    /**
+     * Locks the given root, waiting for any other thread holding it.
+     *
+     * @param rootDirectory the export root directory
+     * @return the held lock, to be closed to release it
+     */
+    public RootLock lock(Path rootDirectory) {
+        Path root = rootDirectory.toAbsolutePath().normalize();
+        RootLock rootLock;
+        synchronized (this) {
+            rootLock = locks.computeIfAbsent(root, RootLock::new);
+            rootLock.users++;
+        }
+        rootLock.lock.lock();
+        return rootLock;
+    }
+
+    /**
+     * @return the number of roots currently locked or waited for
+     */
+    synchronized int size() {
+        return locks.size();
+    }
+
+    private synchronized void release(RootLock rootLock) {
+        rootLock.lock.unlock();
+        if (--rootLock.users == 0) {
+            locks.remove(rootLock.root);
+        }
+    }
+
+    /**
+     * A held lock on one root. Closing it releases the lock once.
+     */
+    public final class RootLock implements AutoCloseable {
+        private final Path root;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+
+        private RootLock(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.ArchiveExportStrategy;
+import com.inductiveautomation.ignition.common.gson.Gson;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes an export straight to a stream, such as an HTTP response, instead of
+ * to disk, without rendering the whole document in memory first.
+ * <p>
+ * Three formats are supported. {@link Format#JSON} is the document a single
+ * file export writes. {@link Format#NDJSON} writes one line per tag, each an
+ * object with the tag's {@code path} relative to the export root and the
+ * {@code tag} itself, with folders on a line of their own before their
+ * contents and without their {@code tags}. {@link Format#ZIP} writes the files
+ * of any {@link ExportMode} layout as a zip archive, the same archive the zip
+ * archive modes write to disk. All three are sorted the way the exports on disk
+ * are, so downloading the same tags twice gives the same bytes.
+ *
+ * @author Keith Gamble
+ */
+public class StreamingTagExporter {
+    private static final Gson COMPACT_GSON = new Gson();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The name of the single entry a zip of a single file layout holds.
+     */
+    public static final String SINGLE_FILE_ENTRY_NAME = "tags.json";
+
+    /**
+     * The formats an export can be streamed in.
+     */
+    public enum Format {
+        JSON("json", "application/json", ".json"),
+        NDJSON("ndjson", "application/x-ndjson", ".ndjson"),
+        ZIP("zip", "application/zip", ".zip");
+
+        private final String code;
+        private final String contentType;
+        private final String fileExtension;
+
+        Format(String code, String contentType, String fileExtension) {
+            this.code = code;
+            this.contentType = contentType;
+            this.fileExtension = fileExtension;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        /**
+         * Gets a Format from its code.
+         *
+         * @param code the code to look up, or null for {@link #JSON}
+         * @return the corresponding Format
+         * @throws IllegalArgumentException if the code is not a known format
+         */
+        public static Format fromCode(String code) {
+            if (code == null || code.isEmpty()) {
+                return JSON;
+            }
+            for (Format format : values()) {
+                if (format.code.equalsIgnoreCase(code)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export format '" + code + "', expected json, ndjson or zip");
+        }
+    }
+
+    /**
+     * Writes the given tags to the given stream in the given format. The stream
+     * is flushed but not closed.
+     *
+     * @param tagsJson              the tags to write, in any order
+     * @param format                the format to write
+     * @param exportMode            the layout of the files in a {@link Format#ZIP}
+     *                              archive, ignored by the other formats
+     * @param excludeUdtDefinitions whether to leave out UDT definitions
+     * @param out                   the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(JsonObject tagsJson, Format format, ExportMode exportMode,
+            boolean excludeUdtDefinitions, OutputStream out) throws IOException {
+        switch (format) {
+            case NDJSON:
+                writeNdjson(excludeUdtDefinitions ? TagExportUtilities.removeUdtDefinitions(tagsJson) : tagsJson,
+                        out);
+                break;
+            case ZIP:
+                writeZip(tagsJson, exportMode, excludeUdtDefinitions, out);
+                break;
+            default:
+                writeJson(excludeUdtDefinitions ? TagExportUtilities.removeUdtDefinitions(tagsJson) : tagsJson, out);
+                break;
+        }
+    }
+
+    /**
+     * Writes the given tags as a single JSON document, the same bytes a single
+     * file export writes to disk: sorted once here and once more as it is written.
+     *
+     * @param tagsJson the tags to write
+     * @param out      the stream to write to, which is flushed but not closed
+     * @throws IOException if the stream cannot be written
+     */
+    public static void writeJson(JsonObject tagsJson, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        CanonicalJsonWriter.write(FileUtilities.sortJsonElementRecursively(tagsJson), writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes the given tags as newline delimited JSON, one compact line per tag,
+     * in the order a single file export lists them.
+     *
+     * @param tagsJson the tags to write
+     * @param out      the stream to write to, which is flushed but not closed
+     * @throws IOException if the stream cannot be written
+     */
+    public static void writeNdjson(JsonObject tagsJson, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        // Sorted once up front and once more line by line, as a single file export is
+        tagsJson = (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson);
+        if (tagsJson.has("tags") && tagsJson.get("tags").isJsonArray()) {
+            writeNdjsonLines(tagsJson.getAsJsonArray("tags"), "", writer);
+        } else if (tagsJson.has("name")) {
+            // A single tag was exported rather than a folder
+            writeNdjsonLine(tagsJson, tagsJson.get("name").getAsString(), writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the files of the given export mode's layout as a zip archive. The
+     * individual files and structured files layouts give the same entries their
+     * zip archive modes do, and a single file layout gives one
+     * {@value #SINGLE_FILE_ENTRY_NAME} entry.
+     *
+     * @param tagsJson              the tags to write
+     * @param exportMode            the layout of the files in the archive
+     * @param excludeUdtDefinitions whether to leave out UDT definitions
+     * @param out                   the stream to write to, which is flushed but
+     *                              not closed
+     * @throws IOException if the stream cannot be written
+     */
+    public static void writeZip(JsonObject tagsJson, ExportMode exportMode, boolean excludeUdtDefinitions,
+            OutputStream out) throws IOException {
+        try (TagArchiveWriter archive = new TagArchiveWriter(out)) {
+            switch (exportMode) {
+                case SINGLE_FILE:
+                case SINGLE_FILE_GZIP:
+                    archive.putJson(SINGLE_FILE_ENTRY_NAME, (JsonObject) FileUtilities.sortJsonElementRecursively(
+                            excludeUdtDefinitions ? TagExportUtilities.removeUdtDefinitions(tagsJson) : tagsJson));
+                    break;
+                case STRUCTURED_FILES:
+                case STRUCTURED_FILES_ZIP:
+                    new ArchiveExportStrategy(true).writeArchive(tagsJson, excludeUdtDefinitions, archive);
+                    break;
+                default:
+                    new ArchiveExportStrategy(false).writeArchive(tagsJson, excludeUdtDefinitions, archive);
+                    break;
+            }
+            archive.finish();
+        }
+    }
+
+    private static void writeNdjsonLines(JsonArray tags, String folderPath, Writer writer) throws IOException {
+        for (JsonElement tag : CanonicalJsonUtilities.sortedElements(tags)) {
+            if (!tag.isJsonObject()) {
+                continue;
+            }
+            JsonObject tagObject = tag.getAsJsonObject();
+            String tagName = tagObject.has("name") ? tagObject.get("name").getAsString() : "";
+            String tagPath = folderPath.isEmpty() ? tagName : folderPath + "/" + tagName;
+            writeNdjsonLine(tagObject, tagPath, writer);
+
+            // Members of UDTs stay part of their UDT's line; only folders are split up
+            if (isFolder(tagObject) && tagObject.has("tags") && tagObject.get("tags").isJsonArray()) {
+                writeNdjsonLines(tagObject.getAsJsonArray("tags"), tagPath, writer);
+            }
+        }
+    }
+
+    private static void writeNdjsonLine(JsonObject tagObject, String tagPath, Writer writer) throws IOException {
+        JsonObject tag = tagObject;
+        if (isFolder(tagObject)) {
+            tag = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : tagObject.entrySet()) {
+                if (!"tags".equals(entry.getKey())) {
+                    tag.add(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        JsonObject line = new JsonObject();
+        line.addProperty("path", tagPath);
+        line.add("tag", tag);
+        COMPACT_GSON.toJson(CanonicalJsonUtilities.sort(line), writer);
+        writer.write('\n');
+    }
+
+    private static boolean isFolder(JsonObject tagObject) {
+        if (!tagObject.has("tagType")) {
+            return false;
+        }
+        String tagType = tagObject.get("tagType").getAsString();
+        return "Folder".equals(tagType) || "Provider".equals(tagType);
+    }
+}
@@ -0,0 +1,418 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import com.inductiveautomation.ignition.common.gson.stream.JsonReader;
+import com.inductiveautomation.ignition.common.gson.stream.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports a single file export with a pull parser, so that the whole document
+ * is never held in memory. Large files are read from a memory mapping, see
+ * {@link TagFileReader}.
+ * <p>
+ * The file is read twice. {@link #scan(Path)} skips through it once to count
+ * the tags and to parse the root {@code _types_} folder, wherever in the file it
+ * is, so that UDT definitions can be imported before any instance of them.
+ * {@link #importTags(Path)} then reads it again and hands the tags of
+ * each folder to a {@link TagImportBatcher} as soon as a batch has been parsed.
+ * Only one batch per open folder, plus the batches the batcher has in flight,
+ * is held at a time.
+ * <p>
+ * Folders are streamed when their {@code name} and {@code tagType} come before
+ * their {@code tags}, as they do in every file written by an export. A folder
+ * whose members come in another order is parsed whole before it is imported.
+ * <p>
+ * A document that can only be read once, such as a request body, is imported
+ * in a single pass by {@link #importTags(JsonReader, TypesFolderHandler)}
+ * instead. The root {@code _types_} folder is then imported as soon as it has
+ * been read, and UDT instances that come before it are held back until it has
+ * been, so that no instance is imported ahead of its definition.
+ *
+ * @author Keith Gamble
+ */
+public class StreamingTagImporter {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingTagImporter.class.getName());
+
+    private static final String TYPES_FOLDER_NAME = "_types_";
+
+    private final TagImportBatcher batcher;
+    private final TagDiff tagDiff;
+    private final String baseTagPath;
+    private final int batchSize;
+    private TypesFolderHandler typesFolderHandler;
+    private Map<String, List<JsonObject>> heldBackInstances;
+
+    /**
+     * @param batcher     the batcher to import through
+     * @param tagDiff     the differential import to filter each batch through, or
+     *                    null to import every tag
+     * @param baseTagPath the tag path the file's {@code tags} are imported into
+     */
+    public StreamingTagImporter(TagImportBatcher batcher, TagDiff tagDiff, String baseTagPath) {
+        this.batcher = batcher;
+        this.tagDiff = tagDiff;
+        this.baseTagPath = baseTagPath;
+        this.batchSize = Math.max(1, TagCICDConstants.IMPORT_BATCH_SIZE);
+    }
+
+    /**
+     * Skips through the given file once, counting the tags it holds and parsing
+     * its root {@code _types_} folder.
+     *
+     * @param file the single file export
+     * @return what was found
+     * @throws IOException if the file cannot be read or is not valid JSON
+     */
+    public static ScanResult scan(Path file) throws IOException {
+        ScanResult result = new ScanResult();
+        try (JsonReader reader = openReader(file)) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return result;
+            }
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("tags".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    result.hasTags = true;
+                    result.tagCount = scanRootTags(reader, file, result);
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Imports every tag in the given file below the base tag path, except the
+     * root {@code _types_} folder, which {@link #scan(Path)} returns for
+     * importing first. Folders are not imported themselves; they are created by
+     * the tag manager as the tags inside them are imported.
+     *
+     * @param file the single file export
+     * @throws IOException if the file cannot be read or is not valid JSON
+     */
+    public void importTags(Path file) throws IOException {
+        try (JsonReader reader = openReader(file)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("tags".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    importFolder(reader, baseTagPath, true);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+    }
+
+    /**
+     * Imports every tag read from the given reader in a single pass. The root
+     * {@code _types_} folder is handed to the given handler as soon as it has
+     * been read, and the UDT instances read before it are imported right after
+     * it, or at the end if there is no such folder. Every other tag is imported
+     * as it is read.
+     *
+     * @param reader             the reader over the document
+     * @param typesFolderHandler imports the root {@code _types_} folder
+     * @return the document if it holds a single tag rather than a {@code tags}
+     *         array, for importing whole, or null if its tags were imported
+     * @throws IOException if the document cannot be read or is not valid JSON
+     */
+    public JsonObject importTags(JsonReader reader, TypesFolderHandler typesFolderHandler) throws IOException {
+        this.typesFolderHandler = typesFolderHandler;
+        this.heldBackInstances = new LinkedHashMap<>();
+
+        JsonObject document = new JsonObject();
+        boolean hasTags = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("tags".equals(key) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                hasTags = true;
+                importFolder(reader, baseTagPath, true);
+            } else {
+                document.add(key, new JsonParser().parse(reader));
+            }
+        }
+        reader.endObject();
+
+        importHeldBackInstances();
+        return hasTags ? null : document;
+    }
+
+    private void importFolder(JsonReader reader, String folderPath, boolean root) throws IOException {
+        List<JsonObject> batch = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonObject tag = readTag(reader, folderPath, root);
+            if (tag == null) {
+                continue;
+            }
+
+            batch.add(tag);
+            if (batch.size() >= batchSize) {
+                importBatch(folderPath, batch);
+                batch = new ArrayList<>();
+            }
+        }
+        reader.endArray();
+        importBatch(folderPath, batch);
+    }
+
+    /**
+     * Reads one element of a {@code tags} array. Folders are imported as they are
+     * read and null is returned for them; any other tag is returned whole.
+     */
+    private JsonObject readTag(JsonReader reader, String folderPath, boolean root) throws IOException {
+        JsonObject tag = new JsonObject();
+        boolean imported = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("tags".equals(key) && reader.peek() == JsonToken.BEGIN_ARRAY && isFolder(tag)
+                    && !(root && isTypesFolder(tag) && typesFolderHandler != null)) {
+                if (root && isTypesFolder(tag)) {
+                    reader.skipValue();
+                } else {
+                    importFolder(reader, childPath(folderPath, tag.get("name").getAsString()), false);
+                }
+                imported = true;
+            } else {
+                tag.add(key, new JsonParser().parse(reader));
+            }
+        }
+        reader.endObject();
+
+        if (!isFolder(tag)) {
+            if (heldBackInstances != null && isUdtInstance(tag)) {
+                heldBackInstances.computeIfAbsent(folderPath, path -> new ArrayList<>()).add(tag);
+                return null;
+            }
+            return tag;
+        }
+        if (root && isTypesFolder(tag) && typesFolderHandler != null) {
+            typesFolderHandler.importTypesFolder(tag);
+            importHeldBackInstances();
+            return null;
+        }
+        if (!imported && tag.has("tags") && !(root && isTypesFolder(tag))) {
+            // The folder's tags came before its name or type, so they could not be streamed
+            String childPath = childPath(folderPath, tag.get("name").getAsString());
+            JsonObject tree = tagDiff != null ? tagDiff.filterChanged(baseTagPath, childPath, tag) : tag;
+            batcher.importTree(childPath, tree);
+        }
+        return null;
+    }
+
+    private void importBatch(String folderPath, List<JsonObject> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (tagDiff != null) {
+            JsonArray tags = new JsonArray();
+            batch.forEach(tags::add);
+            JsonObject tree = new JsonObject();
+            tree.add("tags", tags);
+            JsonArray changedTags = tagDiff.filterChanged(baseTagPath, folderPath, tree).getAsJsonArray("tags");
+
+            batch = new ArrayList<>(changedTags.size());
+            for (JsonElement changedTag : changedTags) {
+                batch.add(changedTag.getAsJsonObject());
+            }
+        }
+        batcher.importTags(folderPath, batch);
+    }
+
+    /**
+     * Imports the UDT instances held back until the root {@code _types_} folder
+     * was imported, and stops holding back any more.
+     */
+    private void importHeldBackInstances() throws IOException {
+        if (heldBackInstances == null) {
+            return;
+        }
+
+        Map<String, List<JsonObject>> instances = heldBackInstances;
+        heldBackInstances = null;
+        for (Map.Entry<String, List<JsonObject>> folder : instances.entrySet()) {
+            importBatch(folder.getKey(), folder.getValue());
+        }
+    }
+
+    private static long scanRootTags(JsonReader reader, Path file, ScanResult result) throws IOException {
+        long count = 0;
+        int index = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String name = null;
+            String tagType = null;
+            long childCount = 0;
+            boolean typesParsed = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if ("name".equals(key) && reader.peek() == JsonToken.STRING) {
+                    name = reader.nextString();
+                } else if ("tagType".equals(key) && reader.peek() == JsonToken.STRING) {
+                    tagType = reader.nextString();
+                } else if ("tags".equals(key) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    if (TYPES_FOLDER_NAME.equals(name) && "Folder".equals(tagType)) {
+                        JsonObject typesFolder = new JsonObject();
+                        typesFolder.addProperty("name", name);
+                        typesFolder.addProperty("tagType", tagType);
+                        typesFolder.add("tags", new JsonParser().parse(reader));
+                        result.typesFolder = typesFolder;
+                        typesParsed = true;
+                    } else {
+                        childCount = countTags(reader);
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            boolean folder = "Folder".equals(tagType);
+            if (folder && TYPES_FOLDER_NAME.equals(name)) {
+                if (!typesParsed) {
+                    // Its tags came before its name, so fetch it in a pass of its own
+                    result.typesFolder = readRootTag(file, index);
+                }
+            } else {
+                count += folder ? childCount : 1;
+            }
+            index++;
+        }
+        reader.endArray();
+        return count;
+    }
+
+    /**
+     * Counts the non-folder tags in a {@code tags} array without keeping any of
+     * them, the same way {@link TagImportBatcher#countTags} does for a parsed
+     * tree.
+     */
+    private static long countTags(JsonReader reader) throws IOException {
+        long count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            String tagType = null;
+            long childCount = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if ("tagType".equals(key) && reader.peek() == JsonToken.STRING) {
+                    tagType = reader.nextString();
+                } else if ("tags".equals(key) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    childCount = countTags(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            count += "Folder".equals(tagType) ? childCount : 1;
+        }
+        reader.endArray();
+        return count;
+    }
+
+    private static JsonObject readRootTag(Path file, int index) throws IOException {
+        try (JsonReader reader = openReader(file)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"tags".equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                reader.beginArray();
+                for (int i = 0; i < index; i++) {
+                    reader.skipValue();
+                }
+                return new JsonParser().parse(reader).getAsJsonObject();
+            }
+        }
+        throw new IOException("Root tag " + index + " not found in " + file);
+    }
+
+    private static JsonReader openReader(Path file) throws IOException {
+        logger.trace("Streaming tags from {}", file);
+        return TagFileReader.openJson(file);
+    }
+
+    private static boolean isFolder(JsonObject tag) {
+        return tag.has("name") && tag.has("tagType") && "Folder".equals(tag.get("tagType").getAsString());
+    }
+
+    private static boolean isUdtInstance(JsonObject tag) {
+        return tag.has("tagType") && "UdtInstance".equals(tag.get("tagType").getAsString());
+    }
+
+    private static boolean isTypesFolder(JsonObject tag) {
+        return TYPES_FOLDER_NAME.equals(tag.get("name").getAsString());
+    }
+
+    private static String childPath(String folderPath, String name) {
+        return folderPath.isEmpty() ? name : folderPath + "/" + name;
+    }
+
+    /**
+     * Imports the root {@code _types_} folder read by
+     * {@link #importTags(JsonReader, TypesFolderHandler)}.
+     */
+    @FunctionalInterface
+    public interface TypesFolderHandler {
+        void importTypesFolder(JsonObject typesFolder) throws IOException;
+    }
+
+    /**
+     * What {@link #scan(Path)} found in a single file export.
+     */
+    public static final class ScanResult {
+        private boolean hasTags;
+        private long tagCount;
+        private JsonObject typesFolder;
+
+        /**
+         * @return true if the file's root has a {@code tags} array, false for a
+         *         flat file holding a single tag
+         */
+        public boolean hasTags() {
+            return hasTags;
+        }
+
+        /**
+         * @return the number of non-folder tags outside of the root
+         *         {@code _types_} folder
+         */
+        public long getTagCount() {
+            return tagCount;
+        }
+
+        /**
+         * @return the root {@code _types_} folder, or null if there is none
+         */
+        public JsonObject getTypesFolder() {
+            return typesFolder;
+        }
+    }
+}
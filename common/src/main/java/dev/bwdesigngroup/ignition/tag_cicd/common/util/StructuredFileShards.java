@@ -0,0 +1,261 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the {@code tags.json} and {@code udts.json} files of a structured
+ * files export into numbered shards when they would grow past
+ * {@link TagCICDConstants#STRUCTURED_SHARD_SIZE}.
+ * <p>
+ * A folder whose tags fit in one file keeps writing {@code tags.json}. A larger
+ * folder writes {@code tags-0001.json}, {@code tags-0002.json} and so on
+ * instead. Tags are assigned to shards in order of their names, filling each
+ * shard up to the size limit, so exporting the same folder twice always gives
+ * the same shards. The size of a tag is measured as its compact JSON, so the
+ * pretty-printed files on disk are somewhat larger than the limit.
+ * <p>
+ * Each shard is a complete import document on its own, which lets imports send
+ * the shards of a folder as separate calls that run at the same time.
+ *
+ * @author Keith Gamble
+ */
+public class StructuredFileShards {
+    private static final Logger logger = LoggerFactory.getLogger(StructuredFileShards.class.getName());
+
+    public static final String TAGS_FILE_NAME = "tags.json";
+    public static final String UDTS_FILE_NAME = "udts.json";
+    private static final Pattern SHARD_PATTERN = Pattern.compile("(tags|udts)-(\\d{4,})\\.json");
+
+    /**
+     * Checks whether the given file name is a structured file, either whole or a
+     * shard, so that cleanup can remove it.
+     *
+     * @param fileName the file name to check
+     * @return true if the name is {@code tags.json}, {@code udts.json} or a shard
+     *         of either
+     */
+    public static boolean isStructuredFile(String fileName) {
+        return TAGS_FILE_NAME.equals(fileName) || UDTS_FILE_NAME.equals(fileName)
+                || SHARD_PATTERN.matcher(fileName).matches();
+    }
+
+    /**
+     * Returns the name of a numbered shard of the given file.
+     *
+     * @param fileName the whole file's name, {@code tags.json} or {@code udts.json}
+     * @param shard    the shard number, starting at 1
+     * @return the shard's file name, for example {@code tags-0001.json}
+     */
+    public static String shardFileName(String fileName, int shard) {
+        return baseName(fileName) + String.format("-%04d.json", shard);
+    }
+
+    /**
+     * Returns the shard number of the given structured file, for ordering files
+     * that were not listed by {@link #listFiles}.
+     *
+     * @param fileName the file name
+     * @return the shard number, 0 for a whole file, or -1 if the name is not a
+     *         structured file
+     */
+    public static int shardNumber(String fileName) {
+        if (TAGS_FILE_NAME.equals(fileName) || UDTS_FILE_NAME.equals(fileName)) {
+            return 0;
+        }
+        Matcher matcher = SHARD_PATTERN.matcher(fileName);
+        return matcher.matches() ? Integer.parseInt(matcher.group(2)) : -1;
+    }
+
+    /**
+     * Splits the given sibling tags into shards of at most {@code shardSize}
+     * bytes of compact JSON each, ordered by tag name. A tag larger than the limit
+     * gets a shard of its own.
+     *
+     * @param tags      the tags to split
+     * @param shardSize the size limit in bytes, or zero or less for no limit
+     * @return the shards, a single one if the tags fit in one file
+     */
+    public static List<JsonArray> split(JsonArray tags, long shardSize) {
+        List<JsonArray> shards = new ArrayList<>();
+        if (shardSize <= 0) {
+            shards.add(tags);
+            return shards;
+        }
+
+        List<JsonElement> sortedTags = new ArrayList<>(tags.size());
+        tags.forEach(sortedTags::add);
+        sortedTags.sort(Comparator.comparing(StructuredFileShards::tagName));
+
+        JsonArray shard = new JsonArray();
+        long size = 0;
+        for (JsonElement tag : sortedTags) {
+            long tagSize = tag.toString().length();
+            if (shard.size() > 0 && size + tagSize > shardSize) {
+                shards.add(shard);
+                shard = new JsonArray();
+                size = 0;
+            }
+            shard.add(tag);
+            size += tagSize;
+        }
+        shards.add(shard);
+        return shards;
+    }
+
+    /**
+     * Splits the given tags as {@link #write} does, into the documents of the
+     * files it writes, for writers that do not write to a directory.
+     *
+     * @param tags     the tags to split
+     * @param fileName {@code tags.json} or {@code udts.json}
+     * @return each file's name mapped to its document, in shard order
+     */
+    public static Map<String, JsonObject> shardDocuments(JsonArray tags, String fileName) {
+        List<JsonArray> shards = split(tags, TagCICDConstants.STRUCTURED_SHARD_SIZE);
+        Map<String, JsonObject> documents = new LinkedHashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            String shardName = shards.size() == 1 ? fileName : shardFileName(fileName, i + 1);
+            JsonObject shardJson = new JsonObject();
+            shardJson.add("tags", shards.get(i));
+            documents.put(shardName, shardJson);
+        }
+        return documents;
+    }
+
+    /**
+     * Writes the given tags to the given directory as {@code fileName}, or as
+     * shards of it if they do not fit in one file, through the export manifest.
+     * Whole files or shards left from an earlier export that this export did not
+     * write are deleted, so that imports never pick up stale tags.
+     *
+     * @param tags      the tags to write
+     * @param directory the folder's directory
+     * @param fileName  {@code tags.json} or {@code udts.json}
+     * @param manifest  the export manifest to write through
+     * @return the number of files written, or confirmed unchanged
+     * @throws IOException if a file cannot be written or deleted
+     */
+    public static int write(JsonArray tags, Path directory, String fileName, ExportManifest manifest)
+            throws IOException {
+        Map<String, JsonObject> shards = shardDocuments(tags, fileName);
+        for (Map.Entry<String, JsonObject> shard : shards.entrySet()) {
+            manifest.saveJsonToFile(shard.getValue(), directory.resolve(shard.getKey()).toString());
+        }
+        Set<String> writtenFiles = shards.keySet();
+
+        for (Path file : listFiles(directory, fileName)) {
+            if (!writtenFiles.contains(file.getFileName().toString())) {
+                logger.debug("Removing stale structured file: {}", file);
+                Files.deleteIfExists(file);
+            }
+        }
+
+        if (shards.size() > 1) {
+            logger.debug("Wrote {} tags to {} shards of {} in {}", tags.size(), shards.size(), fileName, directory);
+        }
+        return shards.size();
+    }
+
+    /**
+     * Lists the whole file and every shard of the given file in a directory, the
+     * whole file first and the shards in order of their numbers.
+     *
+     * @param directory the folder's directory
+     * @param fileName  {@code tags.json} or {@code udts.json}
+     * @return the files that exist, in import order
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> listFiles(Path directory, String fileName) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+
+        Path wholeFile = directory.resolve(fileName);
+        if (Files.isRegularFile(wholeFile)) {
+            files.add(wholeFile);
+        }
+
+        TreeMap<Integer, Path> shards = new TreeMap<>();
+        String baseName = baseName(fileName);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, baseName + "-*.json")) {
+            for (Path entry : entries) {
+                Matcher matcher = SHARD_PATTERN.matcher(entry.getFileName().toString());
+                if (matcher.matches() && matcher.group(1).equals(baseName) && Files.isRegularFile(entry)) {
+                    shards.put(Integer.parseInt(matcher.group(2)), entry);
+                }
+            }
+        }
+        files.addAll(shards.values());
+        return files;
+    }
+
+    /**
+     * Finds the file in a directory that holds the named tag, for updating a
+     * single tag in place. When the tag is not in any of the files, the last
+     * shard is returned, or the whole file if the folder is not sharded.
+     *
+     * @param directory the folder's directory
+     * @param fileName  {@code tags.json} or {@code udts.json}
+     * @param tagName   the name of the tag
+     * @return the file to update, which may not exist yet
+     * @throws IOException if the directory cannot be listed
+     */
+    public static Path findFileForTag(Path directory, String fileName, String tagName) throws IOException {
+        List<Path> files = listFiles(directory, fileName);
+        for (Path file : files) {
+            if (containsTag(file, tagName)) {
+                return file;
+            }
+        }
+        return files.isEmpty() ? directory.resolve(fileName) : files.get(files.size() - 1);
+    }
+
+    private static boolean containsTag(Path file, String tagName) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonObject json = new JsonParser().parse(reader).getAsJsonObject();
+            if (!json.has("tags")) {
+                return false;
+            }
+            for (JsonElement tag : json.getAsJsonArray("tags")) {
+                if (tag.isJsonObject() && tagName.equals(tagName(tag))) {
+                    return true;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read structured file {}: {}", file, e.getMessage());
+        }
+        return false;
+    }
+
+    private static String tagName(JsonElement tag) {
+        JsonObject tagObject = tag.getAsJsonObject();
+        return tagObject.has("name") ? tagObject.get("name").getAsString() : "";
+    }
+
+    private static String baseName(String fileName) {
+        return fileName.endsWith(".json") ? fileName.substring(0, fileName.length() - ".json".length()) : fileName;
+    }
+}
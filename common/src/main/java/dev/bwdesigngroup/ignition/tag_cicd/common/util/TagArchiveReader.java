@@ -0,0 +1,307 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads an export from a zip archive without extracting it.
+ * <p>
+ * The archive's entries are listed from its central directory, and read and
+ * parsed in parallel on the given pool, as {@link TagDirectoryReader} reads a
+ * directory. Entry paths
+ * are read relative to the root of the archive, so an archive made by zipping an
+ * export directory by hand must hold the export's contents at its root rather
+ * than inside a top-level directory. Files an export keeps alongside its tags,
+ * such as the manifest and the index, are ignored, and the buckets of a folder
+ * fanned out by {@link FanOutLayout} are read as part of the folder.
+ * <p>
+ * An archive can also be read from a stream, such as a request body, in a
+ * single pass through its entries, without the central directory.
+ *
+ * @author Keith Gamble
+ */
+public class TagArchiveReader implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TagArchiveReader.class.getName());
+
+    private static final Comparator<String> STRUCTURED_FILE_ORDER = Comparator
+            .comparing((String entryName) -> TagDirectoryReader.parentPath(entryName))
+            .thenComparing(entryName -> fileName(entryName).startsWith("udts"))
+            .thenComparingInt(entryName -> StructuredFileShards.shardNumber(fileName(entryName)));
+
+    private final Path archiveFile;
+    private final ZipFile zip;
+    private final ForkJoinPool pool;
+
+    /**
+     * Opens the given archive and reads its central directory.
+     *
+     * @param archiveFile the archive to read
+     * @param pool        the pool to read and parse entries on
+     * @throws IOException if the file cannot be opened or is not a zip archive
+     */
+    public TagArchiveReader(Path archiveFile, ForkJoinPool pool) throws IOException {
+        this.archiveFile = archiveFile;
+        this.pool = pool;
+        this.zip = new ZipFile(archiveFile.toFile(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads an archive of the individual files layout into a tag tree, the same
+     * tree {@link TagDirectoryReader} reads from the directory the archive was
+     * made from. Entries that cannot be read or parsed are logged and skipped.
+     *
+     * @return an object with a {@code tags} array
+     */
+    public JsonObject readTagTree() {
+        OperationProgress progress = OperationProgress.current();
+        List<ZipEntry> files = new ArrayList<>();
+        List<String> folders = new ArrayList<>();
+        Set<String> fannedOutFolders = new HashSet<>();
+        for (ZipEntry entry : listEntries()) {
+            String entryName = trimSlash(entry.getName());
+            if (entry.isDirectory()) {
+                folders.add(entryName);
+            } else if (FanOutLayout.isMarkerFile(fileName(entryName))) {
+                fannedOutFolders.add(TagDirectoryReader.parentPath(entryName));
+            } else if (TagDirectoryReader.isTagFileName(fileName(entryName))) {
+                files.add(entry);
+            }
+        }
+
+        JsonObject[] parsedTags = new JsonObject[files.size()];
+        pool.invoke(new TagDirectoryReader.RangeTask(0, files.size(), progress, i -> {
+            parsedTags[i] = readTag(files.get(i));
+            progress.increment(OperationProgress.FILES_READ);
+        }));
+
+        List<String> fileNames = new ArrayList<>(files.size());
+        files.forEach(entry -> fileNames.add(entry.getName()));
+        return assembleTagTree(folders, fannedOutFolders, fileNames, parsedTags);
+    }
+
+    /**
+     * Reads an archive of the individual files layout from a stream into the same
+     * tag tree {@link #readTagTree()} reads from a file, in a single pass. Each
+     * entry is parsed as it is read. Entries that cannot be parsed are logged and
+     * skipped.
+     *
+     * @param in the stream to read, which is closed when done
+     * @return an object with a {@code tags} array
+     * @throws IOException if the stream cannot be read
+     */
+    public static JsonObject readTagTree(InputStream in) throws IOException {
+        OperationProgress progress = OperationProgress.current();
+        List<String> fileNames = new ArrayList<>();
+        List<JsonObject> parsedTags = new ArrayList<>();
+        List<String> folders = new ArrayList<>();
+        Set<String> fannedOutFolders = new HashSet<>();
+        try (ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String entryName = trimSlash(entry.getName());
+                if (!isSafeEntryName(entry.getName())) {
+                    logger.warn("Skipping entry with an unsafe path in uploaded archive: {}", entry.getName());
+                } else if (entry.isDirectory()) {
+                    folders.add(entryName);
+                } else if (FanOutLayout.isMarkerFile(fileName(entryName))) {
+                    fannedOutFolders.add(TagDirectoryReader.parentPath(entryName));
+                } else if (TagDirectoryReader.isTagFileName(fileName(entryName))) {
+                    fileNames.add(entryName);
+                    parsedTags.add(TagDirectoryReader.parseTag("upload!/" + entryName, zip.readAllBytes()));
+                    progress.increment(OperationProgress.FILES_READ);
+                }
+            }
+        }
+        return assembleTagTree(folders, fannedOutFolders, fileNames, parsedTags.toArray(new JsonObject[0]));
+    }
+
+    /**
+     * Reads the {@code tags.json} and {@code udts.json} files of an archive of
+     * the structured files layout, and their shards, from a stream in a single
+     * pass, handing each one's content to the consumer in the order the archive
+     * holds them.
+     *
+     * @param in       the stream to read, which is closed when done
+     * @param consumer receives each file's entry name and content
+     * @throws IOException if the stream cannot be read, or the consumer fails
+     */
+    public static void readStructuredFiles(InputStream in, EntryConsumer consumer) throws IOException {
+        OperationProgress progress = OperationProgress.current();
+        try (ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!isSafeEntryName(entry.getName())) {
+                    logger.warn("Skipping entry with an unsafe path in uploaded archive: {}", entry.getName());
+                } else if (!entry.isDirectory() && StructuredFileShards.isStructuredFile(fileName(entry.getName()))) {
+                    String content = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                    progress.increment(OperationProgress.FILES_READ);
+                    consumer.accept(entry.getName(), content);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists the {@code tags.json} and {@code udts.json} files of an archive of
+     * the structured files layout, and their shards, ordered by folder and
+     * within a folder in the order a structured import reads them.
+     *
+     * @return the entry names of the structured files
+     */
+    public List<String> listStructuredFiles() {
+        List<String> entryNames = new ArrayList<>();
+        for (ZipEntry entry : listEntries()) {
+            if (!entry.isDirectory() && StructuredFileShards.isStructuredFile(fileName(entry.getName()))) {
+                entryNames.add(entry.getName());
+            }
+        }
+        entryNames.sort(STRUCTURED_FILE_ORDER);
+        return entryNames;
+    }
+
+    /**
+     * Reads the given entries, a few at a time in parallel, and hands each one's
+     * content to the consumer on the calling thread in the order given. Only the
+     * entries being read and handed on are held in memory at once.
+     *
+     * @param entryNames the entries to read
+     * @param consumer   receives each entry's name and content
+     * @throws IOException if an entry cannot be read, or the consumer fails
+     */
+    public void readEntries(List<String> entryNames, EntryConsumer consumer) throws IOException {
+        OperationProgress progress = OperationProgress.current();
+        int windowSize = Math.max(1, TagCICDConstants.IMPORT_READ_PARALLELISM);
+        for (int start = 0; start < entryNames.size(); start += windowSize) {
+            List<String> window = entryNames.subList(start, Math.min(start + windowSize, entryNames.size()));
+            String[] contents = new String[window.size()];
+            try {
+                pool.invoke(new TagDirectoryReader.RangeTask(0, window.size(), progress, i -> {
+                    contents[i] = new String(readEntry(window.get(i)), StandardCharsets.UTF_8);
+                    progress.increment(OperationProgress.FILES_READ);
+                }));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            for (int i = 0; i < window.size(); i++) {
+                consumer.accept(window.get(i), contents[i]);
+                contents[i] = null;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+
+    private List<ZipEntry> listEntries() {
+        List<ZipEntry> entries = new ArrayList<>();
+        Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+        while (zipEntries.hasMoreElements()) {
+            ZipEntry entry = zipEntries.nextElement();
+            if (!isSafeEntryName(entry.getName())) {
+                logger.warn("Skipping entry with an unsafe path in archive {}: {}", archiveFile, entry.getName());
+                continue;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private byte[] readEntry(String entryName) {
+        ZipEntry entry = zip.getEntry(entryName);
+        if (entry == null) {
+            throw new UncheckedIOException(new IOException("No entry " + entryName + " in archive " + archiveFile));
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(new IOException(
+                    "Cannot read " + entryName + " from archive " + archiveFile + ": " + e.getMessage(), e));
+        }
+    }
+
+    private JsonObject readTag(ZipEntry entry) {
+        try (InputStream in = zip.getInputStream(entry)) {
+            return TagDirectoryReader.parseTag(archiveFile + "!/" + entry.getName(), in.readAllBytes());
+        } catch (IOException e) {
+            logger.error("Error reading " + entry.getName() + " from archive " + archiveFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Builds the tag tree from the parsed tag files, filing the tags of a
+     * fanned out folder's buckets under the folder itself.
+     */
+    private static JsonObject assembleTagTree(List<String> folders, Set<String> fannedOutFolders,
+            List<String> fileNames, JsonObject[] parsedTags) {
+        Map<String, TagDirectoryReader.IndexedFolder> foldersByPath = new HashMap<>();
+        TagDirectoryReader.IndexedFolder root = new TagDirectoryReader.IndexedFolder("");
+        foldersByPath.put("", root);
+        for (String folder : folders) {
+            if (!isBucket(folder, fannedOutFolders)) {
+                TagDirectoryReader.findFolder(foldersByPath, folder);
+            }
+        }
+        for (int i = 0; i < fileNames.size(); i++) {
+            if (parsedTags[i] != null) {
+                String entryName = fileNames.get(i);
+                String folder = TagDirectoryReader.parentPath(entryName);
+                if (isBucket(folder, fannedOutFolders)) {
+                    folder = TagDirectoryReader.parentPath(folder);
+                }
+                TagDirectoryReader.findFolder(foldersByPath, folder).files.put(fileName(entryName), parsedTags[i]);
+            }
+        }
+        return root.toJson();
+    }
+
+    private static boolean isSafeEntryName(String entryName) {
+        return !entryName.startsWith("/") && !entryName.contains("\\")
+                && !("/" + entryName + "/").contains("/../");
+    }
+
+    private static boolean isBucket(String folder, Set<String> fannedOutFolders) {
+        return FanOutLayout.isBucketName(fileName(folder))
+                && fannedOutFolders.contains(TagDirectoryReader.parentPath(folder));
+    }
+
+    private static String fileName(String entryName) {
+        return entryName.substring(entryName.lastIndexOf('/') + 1);
+    }
+
+    private static String trimSlash(String entryName) {
+        return entryName.endsWith("/") ? entryName.substring(0, entryName.length() - 1) : entryName;
+    }
+
+    /**
+     * Receives the content of an entry read by {@link #readEntries}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(String entryName, String content) throws IOException;
+    }
+}
@@ -0,0 +1,184 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the files of an export as the entries of a single zip archive, in one
+ * stream, instead of as files on disk.
+ * <p>
+ * Entries are sorted once as they are written, as
+ * {@link FileUtilities#saveJsonToFile} writes files, and all carry the same fixed timestamp, so exporting the same
+ * tags twice gives byte for byte the same archive.
+ * <p>
+ * The archive is written to a temporary file next to the target and only moved
+ * into place by {@link #commit(boolean)}, so a failed export never leaves a
+ * partial archive behind. Closing the writer without committing discards it.
+ * An archive can also be written straight to a stream, such as an HTTP
+ * response, and is then only completed by {@link #finish()}.
+ *
+ * @author Keith Gamble
+ */
+public class TagArchiveWriter implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TagArchiveWriter.class.getName());
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+
+    private final Path archiveFile;
+    private final Path tempFile;
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private int entryCount = 0;
+    private boolean closed = false;
+
+    /**
+     * Starts writing an archive that will replace the given file once committed.
+     *
+     * @param archiveFile the archive to write
+     * @throws IOException if the temporary file cannot be created
+     */
+    public TagArchiveWriter(Path archiveFile) throws IOException {
+        this.archiveFile = archiveFile.toAbsolutePath();
+        Path directory = this.archiveFile.getParent();
+        Files.createDirectories(directory);
+        this.tempFile = Files.createTempFile(directory, this.archiveFile.getFileName().toString(), ".tmp");
+        this.zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE));
+        this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Starts writing an archive to the given stream. Nothing is written to disk.
+     *
+     * @param out the stream to write to, which is left open
+     */
+    public TagArchiveWriter(OutputStream out) {
+        this.archiveFile = null;
+        this.tempFile = null;
+        this.zip = new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Adds a directory entry, so that folders without any tags are kept.
+     *
+     * @param entryName the directory's path in the archive, with {@code /}
+     *                  separators
+     * @throws IOException if the entry cannot be written
+     */
+    public void putDirectory(String entryName) throws IOException {
+        ZipEntry entry = new ZipEntry(entryName.endsWith("/") ? entryName : entryName + "/");
+        entry.setTimeLocal(ENTRY_TIME);
+        zip.putNextEntry(entry);
+        zip.closeEntry();
+    }
+
+    /**
+     * Adds the given JSON as an entry, sorted once as it is written.
+     *
+     * @param entryName the file's path in the archive, with {@code /} separators
+     * @param json      the JSON object to write
+     * @throws IOException if the entry cannot be written
+     */
+    public void putJson(String entryName, JsonObject json) throws IOException {
+        OperationProgress.current().checkCancelled();
+        ZipEntry entry = new ZipEntry(entryName);
+        entry.setTimeLocal(ENTRY_TIME);
+        zip.putNextEntry(entry);
+        // The writer is flushed after every entry, so it holds nothing back across entries
+        CanonicalJsonWriter.write(json, writer);
+        zip.closeEntry();
+        entryCount++;
+        OperationProgress.current().increment(OperationProgress.FILES_WRITTEN);
+    }
+
+    /**
+     * Finishes the archive and moves it into place.
+     *
+     * @param keepUnchanged whether to leave an existing archive with exactly the
+     *                      same bytes untouched, as incremental exports leave
+     *                      unchanged files
+     * @return true if the archive was replaced, false if it was unchanged
+     * @throws IOException if the archive cannot be finished or moved
+     */
+    public boolean commit(boolean keepUnchanged) throws IOException {
+        if (tempFile == null) {
+            throw new IllegalStateException("An archive written to a stream is completed by finish()");
+        }
+        closeStream();
+        if (keepUnchanged && Files.isRegularFile(archiveFile) && Files.mismatch(tempFile, archiveFile) == -1L) {
+            logger.info("Archive {} is unchanged ({} files)", archiveFile, entryCount);
+            Files.delete(tempFile);
+            return false;
+        }
+
+        try {
+            Files.move(tempFile, archiveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, archiveFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("Wrote {} files to archive {}", entryCount, archiveFile);
+        return true;
+    }
+
+    /**
+     * Finishes an archive written to a stream by writing its central directory,
+     * and flushes the stream without closing it.
+     *
+     * @throws IOException if the archive cannot be finished
+     */
+    public void finish() throws IOException {
+        if (tempFile != null) {
+            throw new IllegalStateException("An archive written to a file is completed by commit()");
+        }
+        if (!closed) {
+            closed = true;
+            writer.flush();
+            zip.finish();
+            zip.flush();
+            logger.debug("Wrote {} files to archive stream", entryCount);
+        }
+    }
+
+    /**
+     * Discards the archive unless it has been committed. An archive written to a
+     * stream that was not finished is left without its central directory, so a
+     * failed export can never be read as a complete archive.
+     *
+     * @throws IOException if the temporary file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            closeStream();
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void closeStream() throws IOException {
+        if (!closed) {
+            closed = true;
+            writer.close();
+        }
+    }
+}
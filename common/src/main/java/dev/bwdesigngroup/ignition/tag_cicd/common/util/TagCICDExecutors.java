@@ -0,0 +1,89 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The thread pools exports and imports spread their work across. The pools
+ * belong to whoever creates this object, normally the gateway module hook, and
+ * are passed to the code that uses them, so they are stopped when the module
+ * shuts down rather than left running with the JVM.
+ * <p>
+ * Threads are only started once work is submitted, and the threads of the
+ * batch pools stop again after a minute without work.
+ *
+ * @author Keith Gamble
+ */
+public class TagCICDExecutors implements AutoCloseable {
+    private final ForkJoinPool readerPool;
+    private final ExecutorService exporterPool;
+    private final ExecutorService importerPool;
+
+    public TagCICDExecutors() {
+        this.readerPool = new ForkJoinPool(Math.max(1, TagCICDConstants.IMPORT_READ_PARALLELISM), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("tag-cicd-reader-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.exporterPool = createPool(TagCICDConstants.EXPORT_PARALLELISM, "tag-cicd-exporter-");
+        this.importerPool = createPool(TagCICDConstants.CONFIG_IMPORT_PARALLELISM, "tag-cicd-importer-");
+    }
+
+    private static ExecutorService createPool(int parallelism, String threadName) {
+        int threads = Math.max(1, parallelism);
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, threadName + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @return the pool of {@link TagCICDConstants#IMPORT_READ_PARALLELISM}
+     *         threads tag files are read and parsed on, see
+     *         {@link TagDirectoryReader} and {@link TagArchiveReader}
+     */
+    public ForkJoinPool getReaderPool() {
+        return readerPool;
+    }
+
+    /**
+     * @return the pool of {@link TagCICDConstants#EXPORT_PARALLELISM} threads
+     *         the entries of a configuration file are exported on, see
+     *         {@link BatchTagExporter}
+     */
+    public ExecutorService getExporterPool() {
+        return exporterPool;
+    }
+
+    /**
+     * @return the pool of {@link TagCICDConstants#CONFIG_IMPORT_PARALLELISM}
+     *         threads the entries of a configuration file are imported on, see
+     *         {@link BatchTagImporter}
+     */
+    public ExecutorService getImporterPool() {
+        return importerPool;
+    }
+
+    /**
+     * Stops the pools, interrupting any work still running on them. Work
+     * submitted afterwards is rejected.
+     */
+    @Override
+    public void close() {
+        readerPool.shutdownNow();
+        exporterPool.shutdownNow();
+        importerPool.shutdownNow();
+    }
+}
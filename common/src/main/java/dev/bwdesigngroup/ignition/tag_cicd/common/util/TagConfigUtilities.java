@@ -416,28 +416,25 @@ public class TagConfigUtilities {
      * @param regularTags the array to store the regular tags
      */
 	private static void separateUdtTypesRegularTagsAndInstances(JsonObject json, Map<String, JsonArray> udtTypesMap, JsonArray regularTags) {
-		if (json.has("tags")) {
-			JsonArray tags = json.getAsJsonArray("tags");
-			for (JsonElement tagElement : tags) {
-				JsonObject tag = tagElement.getAsJsonObject();
-				String tagType = tag.get("tagType").getAsString();
+		TagTreeWalker.walk(json, new TagVisitor() {
+			@Override
+			public Action enter(TagNode node) {
+				if (node.isRoot()) {
+					return Action.CONTINUE;
+				}
+				String tagType = node.getTagType();
 				if (tagType.equals("UdtType")) {
-					String folderPath = getTagFolderPath(json);
-					if (!udtTypesMap.containsKey(folderPath)) {
-						udtTypesMap.put(folderPath, new JsonArray());
-					}
-					udtTypesMap.get(folderPath).add(tag);
-				} else if (tagType.equals("UdtInstance")) {
-					// Recursively separate UDT instances and their children
-					separateUdtTypesRegularTagsAndInstances(tag, udtTypesMap, new JsonArray());
-					regularTags.add(tag);
+					String folderPath = getTagFolderPath(node.getParent().getTag());
+					udtTypesMap.computeIfAbsent(folderPath, key -> new JsonArray()).add(node.getTag());
+					return Action.SKIP_CHILDREN;
 				} else if (tagType.equals("Folder")) {
-					separateUdtTypesRegularTagsAndInstances(tag, udtTypesMap, regularTags);
-				} else {
-					regularTags.add(tag);
+					return Action.CONTINUE;
 				}
+				// UDT instances are kept whole, along with any other tag
+				regularTags.add(node.getTag());
+				return Action.SKIP_CHILDREN;
 			}
-		}
+		});
 	}
 
 
@@ -0,0 +1,285 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compares tags read from disk against the live configuration of a provider so
+ * that a differential import only sends added or changed tags to the tag
+ * manager.
+ * <p>
+ * The live subtree under each root is fetched once and every non-folder tag is
+ * indexed by its path relative to the root and the hash of the file an export
+ * would write for it, which holds the tag sorted twice. Source tags are hashed
+ * as they are, since they were read from such files. Source trees are then
+ * pruned down to the tags whose hash is missing or different. Folders are kept
+ * only as containers for imported tags, since the import paths never import
+ * folders on their own.
+ * <p>
+ * Exports hold either every property of a tag or only its local properties,
+ * depending on how they were made. A tag is unchanged when it matches the live
+ * tag read either way. The local properties are only read, once per root, when
+ * a tag does not match the live tag with all of its properties.
+ * <p>
+ * One report is shared by every root used during an import and is added to the
+ * import response as {@code added_tags}, {@code changed_tags} and
+ * {@code skipped_tags}. A diff may be used from several threads at once.
+ *
+ * @author Keith Gamble
+ */
+public class TagDiff {
+    private static final Logger logger = LoggerFactory.getLogger(TagDiff.class.getName());
+
+    /**
+     * Collision policy code that selects a differential import. Tags that differ
+     * are imported with the overwrite policy.
+     */
+    public static final String DIFF_COLLISION_POLICY = "u";
+
+    private final GatewayTagManager tagManager;
+    private final String provider;
+    private final Map<String, LiveIndex> liveIndexes = new ConcurrentHashMap<>();
+    private final JsonArray addedTags = new JsonArray();
+    private final JsonArray changedTags = new JsonArray();
+    private final JsonArray skippedTags = new JsonArray();
+
+    public TagDiff(GatewayTagManager tagManager, String provider) {
+        this.tagManager = tagManager;
+        this.provider = provider;
+    }
+
+    /**
+     * Checks whether the given collision policy code selects a differential
+     * import.
+     *
+     * @param collisionPolicy the collision policy code
+     * @return true for a differential import
+     */
+    public static boolean isDiffPolicy(String collisionPolicy) {
+        return DIFF_COLLISION_POLICY.equalsIgnoreCase(collisionPolicy);
+    }
+
+    /**
+     * Returns a copy of the given source tree containing only the tags that are
+     * missing from, or differ from, the live provider. Folders are kept when they
+     * contain at least one such tag. Properties of the tree's root object other
+     * than {@code tags} are copied as-is.
+     *
+     * @param rootPath   the tag path whose live subtree is compared against; it is
+     *                   fetched on first use and cached
+     * @param folderPath the tag path the tree's {@code tags} are imported into,
+     *                   which must be {@code rootPath} or below it
+     * @param tree       the source tree, an object with a {@code tags} array
+     * @return the pruned tree, whose {@code tags} array may be empty
+     * @throws IOException if the live subtree cannot be hashed
+     */
+    public JsonObject filterChanged(String rootPath, String folderPath, JsonObject tree) throws IOException {
+        LiveIndex liveIndex = liveIndexes.computeIfAbsent(rootPath, LiveIndex::new);
+
+        String relativeFolder = folderPath;
+        if (!rootPath.isEmpty()) {
+            relativeFolder = folderPath.equals(rootPath) ? "" : folderPath.substring(rootPath.length() + 1);
+        }
+
+        JsonObject filtered = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : tree.entrySet()) {
+            if (!"tags".equals(entry.getKey())) {
+                filtered.add(entry.getKey(), entry.getValue());
+            }
+        }
+        filtered.add("tags", filterTags(liveIndex, folderPath, relativeFolder, tree.getAsJsonArray("tags")));
+        return filtered;
+    }
+
+    /**
+     * Checks a source tag against the live provider by the hash of its exported
+     * file alone, so that a source that records its hashes, such as an
+     * {@link ExportIndex}, can avoid parsing unchanged tags. An unchanged tag is
+     * reported as skipped; any other tag is left to {@link #filterChanged}.
+     *
+     * @param rootPath     the tag path whose live subtree is compared against
+     * @param relativePath the tag's path relative to {@code rootPath}
+     * @param hash         the SHA-256 of the tag's exported file
+     * @return true if the live tag has the same hash
+     * @throws IOException if the live subtree cannot be hashed
+     */
+    public boolean isUnchanged(String rootPath, String relativePath, String hash) throws IOException {
+        LiveIndex liveIndex = liveIndexes.computeIfAbsent(rootPath, LiveIndex::new);
+        if (!liveIndex.contains(relativePath) || !liveIndex.matches(relativePath, hash)) {
+            return false;
+        }
+        report(skippedTags, "[" + provider + "]" + (rootPath.isEmpty() ? relativePath : rootPath + "/" + relativePath));
+        return true;
+    }
+
+    /**
+     * Checks whether a tree returned by {@link #filterChanged} has nothing left to
+     * import.
+     *
+     * @param filteredTree the pruned tree
+     * @return true if there are no tags to import
+     */
+    public static boolean isEmpty(JsonObject filteredTree) {
+        JsonArray tags = filteredTree.getAsJsonArray("tags");
+        return tags == null || tags.size() == 0;
+    }
+
+    /**
+     * Adds the added, changed and skipped tag paths to the import response.
+     *
+     * @param responseObject the import response
+     */
+    public synchronized void addToResponse(JsonObject responseObject) {
+        responseObject.add("added_tags", addedTags);
+        responseObject.add("changed_tags", changedTags);
+        responseObject.add("skipped_tags", skippedTags);
+        logger.info("Differential import for provider {}: {} added, {} changed, {} unchanged", provider,
+                addedTags.size(), changedTags.size(), skippedTags.size());
+    }
+
+    private JsonArray filterTags(LiveIndex liveIndex, String folderPath, String relativeFolder,
+            JsonArray tags) throws IOException {
+        JsonArray filteredTags = new JsonArray();
+        if (tags == null) {
+            return filteredTags;
+        }
+
+        for (JsonElement tagElement : tags) {
+            JsonObject tagObject = tagElement.getAsJsonObject();
+            String tagName = tagObject.get("name").getAsString();
+            String tagType = tagObject.has("tagType") ? tagObject.get("tagType").getAsString() : "";
+            String tagPath = folderPath.isEmpty() ? tagName : folderPath + "/" + tagName;
+            String relativePath = relativeFolder.isEmpty() ? tagName : relativeFolder + "/" + tagName;
+
+            if ("Folder".equals(tagType)) {
+                JsonObject filteredFolder = new JsonObject();
+                for (Map.Entry<String, JsonElement> entry : tagObject.entrySet()) {
+                    if (!"tags".equals(entry.getKey())) {
+                        filteredFolder.add(entry.getKey(), entry.getValue());
+                    }
+                }
+                JsonArray children = filterTags(liveIndex, tagPath, relativePath, tagObject.getAsJsonArray("tags"));
+                if (children.size() > 0) {
+                    filteredFolder.add("tags", children);
+                    filteredTags.add(filteredFolder);
+                }
+                continue;
+            }
+
+            String fullPath = "[" + provider + "]" + tagPath;
+            if (!liveIndex.contains(relativePath)) {
+                report(addedTags, fullPath);
+                filteredTags.add(tagObject);
+            } else if (!liveIndex.matches(relativePath, CanonicalJsonWriter.sha256Unsorted(tagObject))) {
+                report(changedTags, fullPath);
+                filteredTags.add(tagObject);
+            } else {
+                report(skippedTags, fullPath);
+            }
+        }
+        return filteredTags;
+    }
+
+    private synchronized void report(JsonArray tagPaths, String tagPath) {
+        tagPaths.add(tagPath);
+    }
+
+    private static void indexTags(Map<String, String> liveIndex, String relativeFolder, JsonArray tags)
+            throws IOException {
+        if (tags == null) {
+            return;
+        }
+
+        for (JsonElement tagElement : tags) {
+            JsonObject tagObject = tagElement.getAsJsonObject();
+            if (!tagObject.has("name")) {
+                continue;
+            }
+            String tagName = tagObject.get("name").getAsString();
+            String relativePath = relativeFolder.isEmpty() ? tagName : relativeFolder + "/" + tagName;
+
+            if (tagObject.has("tagType") && "Folder".equals(tagObject.get("tagType").getAsString())) {
+                indexTags(liveIndex, relativePath, tagObject.getAsJsonArray("tags"));
+            } else {
+                // Sorted once here and once more as it is hashed, as exports write it
+                liveIndex.put(relativePath,
+                        CanonicalJsonWriter.sha256(FileUtilities.sortJsonElementRecursively(tagObject)));
+            }
+        }
+    }
+
+    /**
+     * The hashes of the live tags under one root, read with all of their
+     * properties when first used and with only their local properties when first
+     * needed. Threads using the same root wait for each read.
+     */
+    private final class LiveIndex {
+        private final String rootPath;
+        private Map<String, String> allProperties;
+        private Map<String, String> localProperties;
+
+        private LiveIndex(String rootPath) {
+            this.rootPath = rootPath;
+        }
+
+        /**
+         * @return whether the live provider has a tag at the given path
+         */
+        synchronized boolean contains(String relativePath) throws IOException {
+            if (allProperties == null) {
+                allProperties = read(false);
+            }
+            return allProperties.containsKey(relativePath);
+        }
+
+        /**
+         * @return whether the live tag at the given path has the given hash, read
+         *         with all of its properties or with only its local ones
+         */
+        synchronized boolean matches(String relativePath, String hash) throws IOException {
+            if (allProperties == null) {
+                allProperties = read(false);
+            }
+            if (hash.equals(allProperties.get(relativePath))) {
+                return true;
+            }
+            if (localProperties == null) {
+                localProperties = read(true);
+            }
+            return hash.equals(localProperties.get(relativePath));
+        }
+
+        private Map<String, String> read(boolean localPropsOnly) throws IOException {
+            Map<String, String> liveIndex = new HashMap<>();
+            try {
+                TagConfigurationModel liveModel = TagConfigUtilities.getTagConfigurationModel(tagManager, provider,
+                        rootPath, true, localPropsOnly);
+                if (liveModel != null) {
+                    JsonObject liveJson = TagExportUtilities.convertToJsonObject(liveModel);
+                    if (!liveJson.has("tagType") || !"Unknown".equals(liveJson.get("tagType").getAsString())) {
+                        indexTags(liveIndex, "", liveJson.getAsJsonArray("tags"));
+                    }
+                }
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                // A path that does not exist yet simply has nothing to compare against
+                logger.debug("No live tags found at {}/{}: {}", provider, rootPath, e.getMessage());
+            }
+
+            logger.info("Indexed {} live tags at {}/{}{} for differential import", liveIndex.size(), provider,
+                    rootPath, localPropsOnly ? " by their local properties" : "");
+            return liveIndex;
+        }
+    }
+}
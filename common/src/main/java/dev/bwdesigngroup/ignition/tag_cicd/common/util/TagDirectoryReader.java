@@ -0,0 +1,508 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.tags.TagUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Reads a directory written by the individual files export back into a tag
+ * tree, listing, reading and parsing sibling directories and files in
+ * parallel.
+ * <p>
+ * Each folder becomes an object with {@code name}, {@code tagType} and a
+ * {@code tags} array holding its tag files, in file name order, followed by its
+ * subfolders, in directory name order, so the result does not depend on the
+ * order the file system lists entries in. Files that cannot be read or are not
+ * JSON objects are logged and skipped, as are subdirectories that cannot be
+ * listed.
+ * <p>
+ * When the directory holds an {@link ExportIndex}, the files it lists are read
+ * from it, and the directories are only listed to check that the index covers
+ * them, so the result is the same as walking the directory. If the directory
+ * holds a tag file or folder the index does not record, such as one added by a
+ * merge, or a recorded file is missing or no longer matches its hash, the index
+ * is out of date and the directory is walked instead.
+ * <p>
+ * The buckets of a folder fanned out by {@link FanOutLayout} are read as part of
+ * the folder.
+ * <p>
+ * The work runs on the given pool, normally the reader pool of
+ * {@link TagCICDExecutors}.
+ *
+ * @author Keith Gamble
+ */
+public class TagDirectoryReader {
+    private static final Logger logger = LoggerFactory.getLogger(TagDirectoryReader.class.getName());
+
+    /** Files read one after another by a single task before the list is split further. */
+    private static final int FILES_PER_TASK = 16;
+
+    private static final Comparator<Path> BY_NAME = Comparator.comparing(path -> path.getFileName().toString());
+
+    private TagDirectoryReader() {
+    }
+
+    /**
+     * Reads the tag tree below the given directory, from its index if it has an
+     * up to date one.
+     *
+     * @param pool      the pool to read and parse the files on
+     * @param directory the directory to read
+     * @return an object with a {@code tags} array
+     * @throws IOException if the directory itself cannot be listed
+     */
+    public static JsonObject read(ForkJoinPool pool, Path directory) throws IOException {
+        ExportIndex index = ExportIndex.read(directory);
+        if (index != null) {
+            JsonObject tagsJson = read(pool, directory, index, entry -> true);
+            if (tagsJson != null) {
+                return tagsJson;
+            }
+        }
+
+        try {
+            return pool.invoke(new DirectoryTask(directory, OperationProgress.current()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads the tag tree below the given directory from the files listed in its
+     * index. The directory is listed to check that the index records every tag
+     * file and folder in it, and every file is read and checked against the
+     * index, but only the tags accepted by the filter are parsed and included, so
+     * a caller that can decide from the index alone that a tag is not needed
+     * avoids parsing it. Every folder in the index is included.
+     *
+     * @param pool      the pool to read and parse the files on
+     * @param directory the export root the index was read from
+     * @param index     the index
+     * @param include   decides which tags to include; it is called on the calling
+     *                  thread, once per tag, in tag path order, and only once all
+     *                  files have been checked
+     * @return an object with a {@code tags} array, or null if the index is out of
+     *         date
+     * @throws IOException if the filter fails
+     */
+    public static JsonObject read(ForkJoinPool pool, Path directory, ExportIndex index,
+            Predicate<ExportIndex.Entry> include) throws IOException {
+        OperationProgress progress = OperationProgress.current();
+        Path root = directory.toAbsolutePath().normalize();
+
+        List<ExportIndex.Entry> tags = new ArrayList<>();
+        List<ExportIndex.Entry> folders = new ArrayList<>();
+        for (ExportIndex.Entry entry : index.getEntries()) {
+            (entry.isFolder() ? folders : tags).add(entry);
+        }
+
+        // Check the listing and read and check every file before anything is
+        // filtered, so the filter never sees an index that turns out to be out
+        // of date
+        byte[][] contents = new byte[tags.size()][];
+        AtomicReference<String> staleReason = new AtomicReference<>(
+                checkListing(pool, root, tags, folders, progress));
+        pool.invoke(new RangeTask(0, tags.size(), progress, i -> {
+            if (staleReason.get() == null) {
+                String reason = readIndexedFile(root, tags.get(i), contents, i);
+                if (reason != null) {
+                    staleReason.compareAndSet(null, reason);
+                }
+                progress.increment(OperationProgress.FILES_READ);
+            }
+        }));
+        if (staleReason.get() != null) {
+            logger.info("Export index in {} is out of date ({}), reading the directory instead", directory,
+                    staleReason.get());
+            return null;
+        }
+
+        boolean[] included = new boolean[tags.size()];
+        try {
+            for (int i = 0; i < tags.size(); i++) {
+                included[i] = include.test(tags.get(i));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        JsonObject[] parsedTags = new JsonObject[tags.size()];
+        pool.invoke(new RangeTask(0, tags.size(), progress, i -> {
+            if (included[i]) {
+                parsedTags[i] = parseTag(root.resolve(tags.get(i).getFile()).toString(), contents[i]);
+            }
+            contents[i] = null;
+        }));
+
+        return assembleTree(tags, folders, parsedTags);
+    }
+
+    /**
+     * Lists the directory below the export root and checks that the index
+     * records every tag file and folder in it, and that every folder it records
+     * is there. Missing tag files are found when they are read.
+     *
+     * @return null if the index covers the directory, otherwise why it does not
+     */
+    private static String checkListing(ForkJoinPool pool, Path root, List<ExportIndex.Entry> tags,
+            List<ExportIndex.Entry> folders, OperationProgress progress) {
+        Set<String> listedFiles = ConcurrentHashMap.newKeySet();
+        Set<String> listedFolders = ConcurrentHashMap.newKeySet();
+        try {
+            pool.invoke(new ListingTask(root, root, listedFiles, listedFolders, progress));
+        } catch (UncheckedIOException e) {
+            return "cannot list " + e.getCause().getMessage();
+        }
+
+        for (ExportIndex.Entry tag : tags) {
+            listedFiles.remove(tag.getFile());
+        }
+        if (!listedFiles.isEmpty()) {
+            return new TreeSet<>(listedFiles).first() + " is not in the index";
+        }
+        for (ExportIndex.Entry folder : folders) {
+            if (!listedFolders.remove(folder.getFile())) {
+                return "folder " + folder.getFile() + " is missing";
+            }
+        }
+        if (!listedFolders.isEmpty()) {
+            return "folder " + new TreeSet<>(listedFolders).first() + " is not in the index";
+        }
+        return null;
+    }
+
+    /**
+     * Reads one indexed file into the contents array and checks it against its
+     * hash.
+     *
+     * @return null if the file matches the index, otherwise why it does not
+     */
+    private static String readIndexedFile(Path root, ExportIndex.Entry entry, byte[][] contents, int i) {
+        Path file = root.resolve(entry.getFile()).normalize();
+        if (!file.startsWith(root) || entry.getHash() == null) {
+            return "invalid entry for " + entry.getTagPath();
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (!entry.getHash().equals(CanonicalJsonWriter.sha256(bytes))) {
+                return entry.getFile() + " has changed";
+            }
+            contents[i] = bytes;
+            return null;
+        } catch (NoSuchFileException e) {
+            return entry.getFile() + " is missing";
+        } catch (IOException e) {
+            return "cannot read " + entry.getFile() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * Builds the folder structure the directory walk would produce from the
+     * indexed folders and the parsed tags.
+     */
+    private static JsonObject assembleTree(List<ExportIndex.Entry> tags, List<ExportIndex.Entry> folders,
+            JsonObject[] parsedTags) {
+        Map<String, IndexedFolder> foldersByPath = new HashMap<>();
+        IndexedFolder root = new IndexedFolder("");
+        foldersByPath.put("", root);
+        for (ExportIndex.Entry folder : folders) {
+            findFolder(foldersByPath, folder.getTagPath());
+        }
+        for (int i = 0; i < tags.size(); i++) {
+            if (parsedTags[i] != null) {
+                String tagPath = tags.get(i).getTagPath();
+                String file = tags.get(i).getFile();
+                findFolder(foldersByPath, parentPath(tagPath)).files
+                        .put(file.substring(file.lastIndexOf('/') + 1), parsedTags[i]);
+            }
+        }
+        return root.toJson();
+    }
+
+    static IndexedFolder findFolder(Map<String, IndexedFolder> foldersByPath, String tagPath) {
+        IndexedFolder folder = foldersByPath.get(tagPath);
+        if (folder == null) {
+            folder = new IndexedFolder(tagPath.substring(tagPath.lastIndexOf('/') + 1));
+            findFolder(foldersByPath, parentPath(tagPath)).subfolders.put(folder.name, folder);
+            foldersByPath.put(tagPath, folder);
+        }
+        return folder;
+    }
+
+    static String parentPath(String tagPath) {
+        int separator = tagPath.lastIndexOf('/');
+        return separator < 0 ? "" : tagPath.substring(0, separator);
+    }
+
+    /**
+     * A folder being assembled from the index, or from an archive, with its tags
+     * keyed by file name and its subfolders by name, both sorted as the directory
+     * walk sorts them.
+     */
+    static final class IndexedFolder {
+        private final String name;
+        final Map<String, JsonObject> files = new TreeMap<>();
+        private final Map<String, IndexedFolder> subfolders = new TreeMap<>();
+
+        IndexedFolder(String name) {
+            this.name = name;
+        }
+
+        JsonObject toJson() {
+            JsonArray tagsArray = new JsonArray();
+            files.values().forEach(tagsArray::add);
+            for (IndexedFolder subfolder : subfolders.values()) {
+                JsonObject subFolder = subfolder.toJson();
+                subFolder.addProperty("name", subfolder.name);
+                subFolder.addProperty("tagType", "Folder");
+                tagsArray.add(subFolder);
+            }
+
+            JsonObject folderObject = new JsonObject();
+            folderObject.add("tags", tagsArray);
+            return folderObject;
+        }
+    }
+
+    /**
+     * Reads one directory: its files in this task, split across further tasks
+     * when there are many, and each subdirectory in a task of its own.
+     */
+    private static class DirectoryTask extends RecursiveTask<JsonObject> {
+        private final Path directory;
+        private final OperationProgress progress;
+
+        private DirectoryTask(Path directory, OperationProgress progress) {
+            this.directory = directory;
+            this.progress = progress;
+        }
+
+        @Override
+        protected JsonObject compute() {
+            progress.checkCancelled();
+
+            List<Path> files = new ArrayList<>();
+            List<Path> subdirectories = new ArrayList<>();
+            listFolder(directory, files, subdirectories);
+            files.sort(BY_NAME);
+            subdirectories.sort(BY_NAME);
+
+            List<DirectoryTask> subdirectoryTasks = new ArrayList<>();
+            for (Path subdirectory : subdirectories) {
+                DirectoryTask task = new DirectoryTask(subdirectory, progress);
+                task.fork();
+                subdirectoryTasks.add(task);
+            }
+
+            JsonObject[] fileTags = new JsonObject[files.size()];
+            new RangeTask(0, files.size(), progress, i -> {
+                fileTags[i] = readTag(files.get(i));
+                progress.increment(OperationProgress.FILES_READ);
+            }).invoke();
+
+            JsonArray tagsArray = new JsonArray();
+            for (JsonObject tag : fileTags) {
+                if (tag != null) {
+                    tagsArray.add(tag);
+                }
+            }
+
+            for (DirectoryTask task : subdirectoryTasks) {
+                try {
+                    JsonObject subFolder = task.join();
+                    subFolder.addProperty("name", task.directory.getFileName().toString());
+                    subFolder.addProperty("tagType", "Folder");
+                    tagsArray.add(subFolder);
+                } catch (UncheckedIOException e) {
+                    logger.error("Error reading directory: " + task.directory, e.getCause());
+                }
+            }
+
+            JsonObject folderObject = new JsonObject();
+            folderObject.add("tags", tagsArray);
+            return folderObject;
+        }
+    }
+
+    /**
+     * Lists one directory, recording its tag files and subfolders relative to
+     * the export root, and each subdirectory in a task of its own.
+     */
+    private static class ListingTask extends RecursiveAction {
+        private final Path root;
+        private final Path directory;
+        private final Set<String> files;
+        private final Set<String> folders;
+        private final OperationProgress progress;
+
+        private ListingTask(Path root, Path directory, Set<String> files, Set<String> folders,
+                OperationProgress progress) {
+            this.root = root;
+            this.directory = directory;
+            this.files = files;
+            this.folders = folders;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            progress.checkCancelled();
+
+            List<Path> tagFiles = new ArrayList<>();
+            List<Path> subdirectories = new ArrayList<>();
+            listFolder(directory, tagFiles, subdirectories);
+            for (Path file : tagFiles) {
+                files.add(relativePath(file));
+            }
+
+            List<ListingTask> subdirectoryTasks = new ArrayList<>();
+            for (Path subdirectory : subdirectories) {
+                folders.add(relativePath(subdirectory));
+                subdirectoryTasks.add(new ListingTask(root, subdirectory, files, folders, progress));
+            }
+            invokeAll(subdirectoryTasks);
+        }
+
+        private String relativePath(Path path) {
+            return root.relativize(path).toString().replace('\\', '/');
+        }
+    }
+
+    /**
+     * Lists the tag files and subdirectories of a folder's directory, including
+     * the tag files in the buckets of a fanned out folder.
+     *
+     * @throws UncheckedIOException if the directory cannot be listed
+     */
+    private static void listFolder(Path directory, List<Path> files, List<Path> subdirectories) {
+        try {
+            listDirectory(directory, files, subdirectories);
+
+            // The buckets of a fanned out folder hold the folder's own tags
+            if (FanOutLayout.read(directory) != null) {
+                List<Path> buckets = new ArrayList<>();
+                for (Path subdirectory : subdirectories) {
+                    if (FanOutLayout.isBucketName(subdirectory.getFileName().toString())) {
+                        buckets.add(subdirectory);
+                    }
+                }
+                subdirectories.removeAll(buckets);
+                for (Path bucket : buckets) {
+                    listDirectory(bucket, files, new ArrayList<>());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void listDirectory(Path directory, List<Path> files, List<Path> subdirectories)
+            throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry)) {
+                    subdirectories.add(entry);
+                } else if (isTagFile(entry)) {
+                    files.add(entry);
+                }
+            }
+        }
+    }
+
+    private static boolean isTagFile(Path path) {
+        return Files.isRegularFile(path) && isTagFileName(path.getFileName().toString());
+    }
+
+    /**
+     * Checks whether a file with the given name holds a tag, rather than being
+     * one of the files an export keeps alongside its tags.
+     */
+    static boolean isTagFileName(String fileName) {
+        return fileName.toLowerCase().endsWith(".json") && !ExportManifest.isManifestFile(fileName)
+                && !ExportIndex.isIndexFile(fileName) && !FanOutLayout.isMarkerFile(fileName);
+    }
+
+    private static JsonObject readTag(Path file) {
+        try {
+            return parseTag(file.toString(), Files.readAllBytes(file));
+        } catch (IOException e) {
+            logger.error("Error reading file: " + file, e);
+            return null;
+        }
+    }
+
+    static JsonObject parseTag(String file, byte[] bytes) {
+        String content = new String(bytes, StandardCharsets.UTF_8);
+        try {
+            // Parse the JSON and validate it's an object
+            JsonElement jsonElement = TagUtilities.stringToJson(content);
+            if (jsonElement.isJsonObject()) {
+                return jsonElement.getAsJsonObject();
+            }
+            logger.warn("Skipping file {} - contains {} instead of JsonObject. Content: {}", file,
+                    jsonElement.getClass().getSimpleName(),
+                    content.length() > 100 ? content.substring(0, 100) + "..." : content);
+        } catch (Exception e) {
+            logger.error("Error parsing JSON from file: " + file + " - " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Runs an action for each index in a range of files, splitting the range
+     * across further tasks when it is large.
+     */
+    static class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final OperationProgress progress;
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, OperationProgress progress, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > FILES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(from, middle, progress, action), new RangeTask(middle, to, progress, action));
+                return;
+            }
+
+            progress.checkCancelled();
+            for (int i = from; i < to; i++) {
+                action.accept(i);
+            }
+        }
+    }
+}
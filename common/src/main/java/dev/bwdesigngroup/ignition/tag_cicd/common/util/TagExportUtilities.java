@@ -50,6 +50,8 @@ public class TagExportUtilities {
 
     /**
      * Validates the tag path and export configuration before attempting export.
+     * This reads the base tag itself; callers that go on to export should use
+     * {@link #fetchExportTags} instead, which validates the tags it reads.
      * 
      * @param tagManager     the tag manager
      * @param provider       the provider name
@@ -61,6 +63,30 @@ public class TagExportUtilities {
      */
     public static void validateExportConfiguration(GatewayTagManager tagManager, String provider,
             String baseTagPath, boolean recursive, boolean localPropsOnly) throws IOException {
+        fetchExportTags(tagManager, provider, baseTagPath, false, localPropsOnly);
+    }
+
+    /**
+     * Reads the tags to export from the provider and validates them. The subtree
+     * is read once, and the configuration checks and the search for Unknown tag
+     * types run against that same result, so an export never reads the provider
+     * again before writing.
+     *
+     * @param tagManager     the tag manager
+     * @param provider       the provider name, or null for the default provider
+     * @param baseTagPath    the base tag path, or null for the provider root
+     * @param recursive      whether to include the tags below the base path
+     * @param localPropsOnly whether to export only local properties
+     * @return the tags, in the order the tag manager returned them
+     * @throws IllegalArgumentException if the configuration is invalid or the
+     *                                  tags contain an Unknown tag type
+     * @throws IOException              if there's an error accessing the tags
+     */
+    public static JsonObject fetchExportTags(GatewayTagManager tagManager, String provider,
+            String baseTagPath, boolean recursive, boolean localPropsOnly) throws IOException {
+        if (provider == null) {
+            provider = TagConfigUtilities.DEFAULT_PROVIDER;
+        }
 
         // Check if provider exists
         if (tagManager.getTagProvider(provider) == null) {
@@ -70,57 +96,74 @@ public class TagExportUtilities {
         // Normalize the base tag path to prevent double slashes
         baseTagPath = normalizeTagPath(baseTagPath);
 
-        // For _types_ paths, we'll be more permissive and let Ignition handle the
-        // validation
-        if (baseTagPath != null && baseTagPath.startsWith("_types_")) {
-            logger.info("Skipping strict validation for UDT path: {}", baseTagPath);
-            try {
-                // Just do a basic check that we can access the path
-                TagConfigurationModel testModel = TagConfigUtilities.getTagConfigurationModel(
-                        tagManager, provider, baseTagPath, false, localPropsOnly);
-
-                if (testModel == null) {
-                    throw new IllegalArgumentException(
-                            "Tag path '" + baseTagPath + "' does not exist in provider '" + provider + "'");
-                }
-
-                // Skip the Unknown tag type validation for _types_ paths
-                // Let the export process handle it naturally
-                logger.info("Basic validation passed for UDT path: {}", baseTagPath);
-                return;
-
-            } catch (Exception e) {
-                if (e instanceof IllegalArgumentException) {
-                    throw e;
-                }
-                throw new IOException("Failed to access UDT path '" + baseTagPath + "' in provider '" + provider + "': "
-                        + e.getMessage(), e);
-            }
-        }
+        JsonObject tagsJson = readTagsJson(tagManager, provider, baseTagPath, recursive, localPropsOnly);
+        validateExportTags(tagsJson, provider, baseTagPath);
+        return tagsJson;
+    }
 
-        // Standard validation for non-_types_ paths
+    /**
+     * Reads the tags at the given path from the provider, without validating
+     * them.
+     *
+     * @param tagManager     the tag manager
+     * @param provider       the provider name, which must exist
+     * @param baseTagPath    the normalized base tag path
+     * @param recursive      whether to include the tags below the base path
+     * @param localPropsOnly whether to export only local properties
+     * @return the tags, in the order the tag manager returned them
+     * @throws IllegalArgumentException if the path does not exist
+     * @throws IOException              if there's an error accessing the tags
+     */
+    static JsonObject readTagsJson(GatewayTagManager tagManager, String provider, String baseTagPath,
+            boolean recursive, boolean localPropsOnly) throws IOException {
         try {
-            TagConfigurationModel testModel = TagConfigUtilities.getTagConfigurationModel(
-                    tagManager, provider, baseTagPath, false, localPropsOnly);
+            TagConfigurationModel tagConfigurationModel = TagConfigUtilities.getTagConfigurationModel(
+                    tagManager, provider, baseTagPath, recursive, localPropsOnly);
 
             // Check if we got a valid result
-            if (testModel == null) {
+            if (tagConfigurationModel == null) {
                 throw new IllegalArgumentException(
                         "Tag path '" + baseTagPath + "' does not exist in provider '" + provider + "'");
             }
 
-            // Convert to JSON to check for Unknown tag types or empty results
-            JsonObject testJson = convertToJsonObject(testModel);
-            validateJsonStructure(testJson, baseTagPath, provider);
-
+            return convertToJsonObject(tagConfigurationModel);
         } catch (IllegalArgumentException e) {
             throw e; // Re-throw validation errors as-is
         } catch (Exception e) {
-            throw new IOException("Failed to validate tag path '" + baseTagPath + "' in provider '" + provider + "': "
+            throw new IOException("Failed to read tag path '" + baseTagPath + "' in provider '" + provider + "': "
                     + e.getMessage(), e);
         }
     }
 
+    /**
+     * Validates tags read for an export, looking for Unknown tag types and
+     * counting the tags in a single walk. Below {@code _types_} only an Unknown
+     * root is rejected, as it means the UDT folder does not exist. Every export
+     * mode relies on this check having run before it writes or cleans up.
+     *
+     * @param tagsJson    the tags read from the base tag path
+     * @param provider    the provider name, for logging
+     * @param baseTagPath the normalized base tag path the tags were read from
+     * @throws IllegalArgumentException if the tags contain an Unknown tag type
+     */
+    static void validateExportTags(JsonObject tagsJson, String provider, String baseTagPath) {
+        // Validate and count the tags in a single walk. For _types_ paths, we'll be
+        // more permissive and let the export process handle Unknown tag types naturally
+        TagStatisticsVisitor statistics = new TagStatisticsVisitor();
+        UnknownTagTypeVisitor unknownTags = new UnknownTagTypeVisitor();
+        TagTreeWalker.walk(tagsJson, unknownTags, statistics);
+        if (!baseTagPath.startsWith("_types_")) {
+            checkUnknownTagTypes(unknownTags, baseTagPath);
+        } else if (unknownTags.isFound() && unknownTags.getUnknownTag().isRoot()) {
+            throw new IllegalArgumentException(
+                    "Export resulted in Unknown tag type. The UDT folder '" + baseTagPath + "' may not exist " +
+                            "or may be empty. Please verify the folder exists and contains UDT definitions.");
+        } else {
+            logger.info("Skipping strict validation for UDT path: {}", baseTagPath);
+        }
+        logger.info("Fetched tags from provider '{}' at '{}': {}", provider, baseTagPath, statistics);
+    }
+
     /**
      * Normalizes a tag path by removing duplicate slashes and ensuring proper
      * format.
@@ -128,7 +171,7 @@ public class TagExportUtilities {
      * @param tagPath the tag path to normalize
      * @return the normalized tag path
      */
-    private static String normalizeTagPath(String tagPath) {
+    static String normalizeTagPath(String tagPath) {
         if (tagPath == null || tagPath.isEmpty()) {
             return "";
         }
@@ -161,7 +204,9 @@ public class TagExportUtilities {
      */
     private static void validateJsonStructure(JsonObject json, String baseTagPath, String provider) {
         logger.debug("Validating JSON structure for path: '{}' in provider: '{}'", baseTagPath, provider);
-        logger.debug("JSON structure: {}", json.toString());
+        if (logger.isTraceEnabled()) {
+            logger.trace("JSON structure: {}", json);
+        }
 
         // Special handling for _types_ folder exports
         if (baseTagPath != null && baseTagPath.startsWith("_types_")) {
@@ -239,62 +284,58 @@ public class TagExportUtilities {
         }
 
         // General validation for non-_types_ paths
-        if (json.has("tagType") && "Unknown".equals(json.get("tagType").getAsString())) {
-            String tagName = json.has("name") ? json.get("name").getAsString() : "unnamed";
-            throw new IllegalArgumentException(
-                    "Export resulted in Unknown tag type for '" + tagName + "'. " +
-                            "This usually indicates an invalid tag path. " +
-                            "Base tag path: '" + baseTagPath + "'");
-        }
-
-        // Check for tags array and validate recursively
-        if (json.has("tags") && json.get("tags").isJsonArray()) {
-            JsonArray tags = json.getAsJsonArray("tags");
-            for (JsonElement tagElement : tags) {
-                if (tagElement.isJsonObject()) {
-                    JsonObject tagObject = tagElement.getAsJsonObject();
-                    if (tagObject.has("tagType") && "Unknown".equals(tagObject.get("tagType").getAsString())) {
-                        String tagName = tagObject.has("name") ? tagObject.get("name").getAsString() : "unnamed";
-                        throw new IllegalArgumentException(
-                                "Export contains Unknown tag type for '" + tagName + "'. " +
-                                        "This indicates an invalid tag configuration. " +
-                                        "Base tag path: '" + baseTagPath + "'");
-                    }
-                    // Recursively validate nested structures (but not for _types_ as we handle that
-                    // above)
-                    if (baseTagPath == null || !baseTagPath.startsWith("_types_")) {
-                        validateJsonStructure(tagObject, baseTagPath, provider);
-                    }
-                }
-            }
-        }
+        UnknownTagTypeVisitor unknownTags = new UnknownTagTypeVisitor();
+        TagTreeWalker.walk(json, unknownTags);
+        checkUnknownTagTypes(unknownTags, baseTagPath);
     }
 
     /**
-     * Recursively checks if a JSON object contains UDT definitions.
-     * 
-     * @param json the JSON object to check
-     * @return true if UDT definitions are found
+     * Throws if the given visitor found an Unknown tag type.
+     *
+     * @param unknownTags the visitor, after walking the export result
+     * @param baseTagPath the base tag path for context in error messages
+     * @throws IllegalArgumentException if an Unknown tag type was found
      */
-    private static boolean containsUdtDefinitions(JsonObject json) {
-        if (json.has("tagType") && "UdtType".equals(json.get("tagType").getAsString())) {
-            return true;
+    private static void checkUnknownTagTypes(UnknownTagTypeVisitor unknownTags, String baseTagPath) {
+        if (!unknownTags.isFound()) {
+            return;
         }
 
-        if (json.has("tags") && json.get("tags").isJsonArray()) {
-            JsonArray tags = json.getAsJsonArray("tags");
-            for (JsonElement tagElement : tags) {
-                if (tagElement.isJsonObject() && containsUdtDefinitions(tagElement.getAsJsonObject())) {
-                    return true;
-                }
-            }
+        TagNode unknownTag = unknownTags.getUnknownTag();
+        String tagName = unknownTag.getName().isEmpty() ? "unnamed" : unknownTag.getName();
+        if (unknownTag.isRoot()) {
+            throw new IllegalArgumentException(
+                    "Export resulted in Unknown tag type for '" + tagName + "'. " +
+                            "This usually indicates an invalid tag path. " +
+                            "Base tag path: '" + baseTagPath + "'");
         }
-
-        return false;
+        throw new IllegalArgumentException(
+                "Export contains Unknown tag type for '" + tagName + "'. " +
+                        "This indicates an invalid tag configuration. " +
+                        "Base tag path: '" + baseTagPath + "'");
     }
 
     public static JsonObject exportTagsToJson(GatewayTagManager tagManager, String provider, String baseTagPath,
             boolean recursive, boolean localPropsOnly) throws Exception {
+        JsonObject tagsJson = fetchTagsJson(tagManager, provider, baseTagPath, recursive, localPropsOnly);
+        return (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson);
+    }
+
+    /**
+     * Reads and validates the tags to export, as {@link #exportTagsToJson} does,
+     * but without making the sorted copy, for callers that sort the parts of the
+     * tree they write themselves instead of holding a sorted copy of all of it.
+     *
+     * @param tagManager     the tag manager
+     * @param provider       the provider name, or null for the default provider
+     * @param baseTagPath    the base tag path, or null for the provider root
+     * @param recursive      whether to include the tags below the base path
+     * @param localPropsOnly whether to export only local properties
+     * @return the tags, in the order the tag manager returned them
+     * @throws Exception if the configuration is invalid or the tags cannot be read
+     */
+    public static JsonObject fetchTagsJson(GatewayTagManager tagManager, String provider, String baseTagPath,
+            boolean recursive, boolean localPropsOnly) throws Exception {
         if (provider == null) {
             provider = TagConfigUtilities.DEFAULT_PROVIDER;
         }
@@ -308,22 +349,19 @@ public class TagExportUtilities {
         logger.info("Exporting tags from provider " + provider + " at " + baseTagPath + " (recursive=" + recursive +
                 ", localPropsOnly=" + localPropsOnly + ")");
 
-        // Validate configuration before proceeding
-        validateExportConfiguration(tagManager, provider, baseTagPath, recursive, localPropsOnly);
-
-        TagConfigurationModel tagConfigurationModel = TagConfigUtilities.getTagConfigurationModel(tagManager, provider,
-                baseTagPath, recursive, localPropsOnly);
-        JsonObject tagsJson = convertToJsonObject(tagConfigurationModel);
+        JsonObject tagsJson = fetchExportTags(tagManager, provider, baseTagPath, recursive, localPropsOnly);
 
-        // Final validation of the export result
-        validateJsonStructure(tagsJson, baseTagPath, provider);
+        // UDT paths get their own checks on the export result
+        if (baseTagPath.startsWith("_types_")) {
+            validateJsonStructure(tagsJson, baseTagPath, provider);
+        }
 
-        return (JsonObject) FileUtilities.sortJsonElementRecursively(tagsJson);
+        return tagsJson;
     }
 
     public static void exportTagsToDisk(GatewayTagManager tagManager, String provider, String baseTagPath,
             boolean recursive, boolean localPropsOnly, String filePath, String exportMode,
-            boolean deleteExisting, boolean excludeUdtDefinitions) throws IOException {
+            boolean deleteExisting, boolean excludeUdtDefinitions, boolean incremental) throws IOException {
 
         // Normalize the base tag path
         if (baseTagPath == null) {
@@ -331,20 +369,43 @@ public class TagExportUtilities {
         }
         baseTagPath = normalizeTagPath(baseTagPath);
 
-        // Validate configuration before any file operations
-        logger.info("Validating export configuration before proceeding...");
-        validateExportConfiguration(tagManager, provider, baseTagPath, recursive, localPropsOnly);
+        // Read and validate the tags once, before any file operations
+        logger.info("Fetching and validating tags before proceeding...");
+        OperationProgress.current().setPhase(OperationProgress.PHASE_FETCHING);
+        JsonObject tagsJson = fetchExportTags(tagManager, provider, baseTagPath, recursive, localPropsOnly);
 
+        writeTagsToDisk(tagsJson, provider, baseTagPath, filePath, exportMode, deleteExisting,
+                excludeUdtDefinitions, incremental);
+    }
+
+    /**
+     * Writes tags that have already been read and validated, by
+     * {@link #fetchExportTags} or otherwise, to disk in the given export mode.
+     *
+     * @param tagsJson              the tags to write
+     * @param provider              the provider the tags were read from
+     * @param baseTagPath           the normalized base tag path the tags were read from
+     * @param filePath              the target file or directory path
+     * @param exportMode            the export mode code
+     * @param deleteExisting        whether to delete existing files before export
+     * @param excludeUdtDefinitions whether to exclude UDT definitions
+     * @param incremental           whether to skip unchanged files using the export manifest
+     * @throws IOException if the tags cannot be written
+     */
+    public static void writeTagsToDisk(JsonObject tagsJson, String provider, String baseTagPath, String filePath,
+            String exportMode, boolean deleteExisting, boolean excludeUdtDefinitions, boolean incremental)
+            throws IOException {
         TagExportImportStrategy strategy = TagExportImportStrategyFactory.getInstance().getStrategy(exportMode);
 
         logger.info(
-                "Starting tag export to disk using {} mode: provider={}, baseTagPath={}, filePath={}, recursive={}, localPropsOnly={}, deleteExisting={}, excludeUdtDefinitions={}",
-                strategy.getExportMode().getDisplayName(), provider, baseTagPath, filePath, recursive, localPropsOnly,
-                deleteExisting, excludeUdtDefinitions);
+                "Starting tag export to disk using {} mode: provider={}, baseTagPath={}, filePath={}, deleteExisting={}, excludeUdtDefinitions={}, incremental={}",
+                strategy.getExportMode().getDisplayName(), provider, baseTagPath, filePath, deleteExisting,
+                excludeUdtDefinitions, incremental);
 
         try {
-            strategy.exportTagsToDisk(tagManager, provider, baseTagPath, recursive, localPropsOnly, filePath,
-                    deleteExisting, excludeUdtDefinitions);
+            OperationProgress.current().setPhase(OperationProgress.PHASE_WRITING);
+            strategy.exportTagsToDisk(tagsJson, provider, baseTagPath, filePath, deleteExisting,
+                    excludeUdtDefinitions, incremental);
         } catch (Exception e) {
             // If export fails, provide helpful error message
             if (e.getMessage().contains("Unknown")) {
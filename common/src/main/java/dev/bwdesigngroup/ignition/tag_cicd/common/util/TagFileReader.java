@@ -0,0 +1,341 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import com.inductiveautomation.ignition.common.gson.stream.JsonReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Opens export files for reading, memory-mapping the large ones and
+ * decompressing gzip-compressed ones.
+ * <p>
+ * Files of at least {@link TagCICDConstants#IMPORT_MAP_THRESHOLD} bytes are
+ * mapped read-only and decoded from the mapped pages straight into the
+ * caller's buffer, so that reading them costs page cache rather than a heap
+ * copy of the file. Smaller files are read through an ordinary buffered
+ * reader, which is cheaper than setting up a mapping. Either way the file is
+ * decoded as UTF-8, with malformed input replaced, the same way
+ * {@code new String(bytes, UTF_8)} decodes it.
+ * <p>
+ * Files starting with the gzip magic number are decompressed as they are read,
+ * whatever their name, so imports accept compressed exports wherever they take
+ * an uncompressed one.
+ * <p>
+ * Files and streams, such as a request body, may also be a zip archive holding
+ * a single file export, of which the first {@code .json} entry is read.
+ * <p>
+ * A mapping outlives the reader that made it until it is garbage collected, and
+ * Windows will not truncate a file while a mapping of it is live. Files that are
+ * read in order to be rewritten are therefore read with
+ * {@link #parseForRewrite(Path)}, which never maps them.
+ *
+ * @author Keith Gamble
+ */
+public class TagFileReader {
+    private static final Logger logger = LoggerFactory.getLogger(TagFileReader.class.getName());
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long MAP_WINDOW_SIZE = 256L * 1024 * 1024;
+    private static final int ZIP_MAGIC = 0x04034b50;
+
+    /**
+     * Opens the given file as a character stream.
+     *
+     * @param file the file to read
+     * @return a reader over the file's contents
+     * @throws IOException if the file cannot be opened
+     */
+    public static Reader open(Path file) throws IOException {
+        return open(file, true);
+    }
+
+    private static Reader open(Path file, boolean mapLargeFiles) throws IOException {
+        if (isZip(file)) {
+            logger.debug("Reading {} as a zip archive", file);
+            return new BufferedReader(new InputStreamReader(
+                    openFirstJsonEntry(new ZipInputStream(Files.newInputStream(file), StandardCharsets.UTF_8)),
+                    StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+        }
+        if (isCompressed(file)) {
+            logger.debug("Decompressing {}", file);
+            return new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file), READ_BUFFER_SIZE), StandardCharsets.UTF_8),
+                    READ_BUFFER_SIZE);
+        }
+
+        long size = Files.size(file);
+        if (mapLargeFiles && TagCICDConstants.IMPORT_MAP_THRESHOLD > 0
+                && size >= TagCICDConstants.IMPORT_MAP_THRESHOLD) {
+            logger.debug("Memory-mapping {} ({} bytes)", file, size);
+            return new MappedFileReader(file, size);
+        }
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8),
+                READ_BUFFER_SIZE);
+    }
+
+    /**
+     * Checks whether the given file is gzip-compressed by its first two bytes.
+     *
+     * @param file the file to check
+     * @return true if the file starts with the gzip magic number
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isCompressed(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            int first = in.read();
+            int second = in.read();
+            return first != -1 && second != -1 && ((second << 8) | first) == GZIPInputStream.GZIP_MAGIC;
+        }
+    }
+
+    private static boolean isZip(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return isZipMagic(in.readNBytes(4));
+        }
+    }
+
+    private static boolean isZipMagic(byte[] magic) {
+        return magic.length == 4 && ((magic[0] & 0xff) | (magic[1] & 0xff) << 8 | (magic[2] & 0xff) << 16
+                | (magic[3] & 0xff) << 24) == ZIP_MAGIC;
+    }
+
+    /**
+     * Opens the given file for pull parsing, leniently as Gson parses whole
+     * documents.
+     *
+     * @param file the file to read
+     * @return a JSON reader over the file's contents
+     * @throws IOException if the file cannot be opened
+     */
+    public static JsonReader openJson(Path file) throws IOException {
+        return openJson(open(file));
+    }
+
+    private static JsonReader openJson(Reader in) {
+        JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Opens the given stream for pull parsing, as {@link #openJson(Path)} opens a
+     * file, decompressing a gzip-compressed stream as it is read.
+     *
+     * @param in the stream to read, which is closed with the returned reader
+     * @return a JSON reader over the stream's contents
+     * @throws IOException if the stream cannot be read, or is a zip archive
+     *                     without a {@code .json} entry
+     */
+    public static JsonReader openJson(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, READ_BUFFER_SIZE);
+        buffered.mark(4);
+        byte[] magic = buffered.readNBytes(4);
+        buffered.reset();
+
+        InputStream content = buffered;
+        if (magic.length >= 2 && ((magic[0] & 0xff) | (magic[1] & 0xff) << 8) == GZIPInputStream.GZIP_MAGIC) {
+            logger.debug("Decompressing gzip stream");
+            content = new GZIPInputStream(buffered, READ_BUFFER_SIZE);
+        } else if (isZipMagic(magic)) {
+            content = openFirstJsonEntry(new ZipInputStream(buffered, StandardCharsets.UTF_8));
+        }
+
+        return openJson(new InputStreamReader(content, StandardCharsets.UTF_8));
+    }
+
+    private static InputStream openFirstJsonEntry(ZipInputStream zip) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory() && entry.getName().toLowerCase().endsWith(".json")) {
+                logger.debug("Reading zip entry {}", entry.getName());
+                return zip;
+            }
+        }
+        zip.close();
+        throw new IOException("Zip archive does not contain a .json file");
+    }
+
+    /**
+     * Parses the given file as JSON without first reading it into a string.
+     *
+     * @param file the file to parse
+     * @return the parsed element
+     * @throws IOException if the file cannot be read or is not valid JSON
+     */
+    public static JsonElement parse(Path file) throws IOException {
+        return parse(file, true);
+    }
+
+    /**
+     * Parses the given file as {@link #parse(Path)} does, but reads it through a
+     * buffered reader whatever its size, so that the caller can truncate and
+     * rewrite the file as soon as this returns.
+     *
+     * @param file the file to parse
+     * @return the parsed element
+     * @throws IOException if the file cannot be read or is not valid JSON
+     */
+    public static JsonElement parseForRewrite(Path file) throws IOException {
+        return parse(file, false);
+    }
+
+    private static JsonElement parse(Path file, boolean mapLargeFiles) throws IOException {
+        try (JsonReader reader = openJson(open(file, mapLargeFiles))) {
+            return new JsonParser().parse(reader);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid JSON in " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the given file into a string, for callers that have to hand the
+     * document on as a string. Large files are decoded from the mapping, so only
+     * the string itself is held on the heap.
+     *
+     * @param file the file to read
+     * @return the file's contents
+     * @throws IOException if the file cannot be read
+     */
+    public static String readString(Path file) throws IOException {
+        long size = Files.size(file);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("File is too large to read into a string: " + file);
+        }
+
+        // The size of a compressed file says little about its contents, so let the builder grow
+        StringBuilder content = isCompressed(file) || isZip(file) ? new StringBuilder(READ_BUFFER_SIZE)
+                : new StringBuilder((int) size);
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        try (Reader reader = open(file)) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                content.append(buffer, 0, read);
+            }
+        }
+        return content.toString();
+    }
+
+    /**
+     * Decodes UTF-8 from a read-only mapping of the file. The file is mapped one
+     * window at a time, since a single mapping cannot exceed 2 GB, and each window
+     * starts at the first byte the previous one could not decode, so characters
+     * split across a window boundary are decoded whole.
+     */
+    private static final class MappedFileReader extends Reader {
+        private final FileChannel channel;
+        private final long size;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer spare = CharBuffer.allocate(2).flip();
+        private MappedByteBuffer window;
+        private long windowStart;
+        private boolean flushed;
+
+        MappedFileReader(Path file, long size) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = size;
+            try {
+                mapWindow(0);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (window == null) {
+                throw new IOException("Reader is closed");
+            }
+            if (length == 0) {
+                return 0;
+            }
+
+            int read = 0;
+            while (spare.hasRemaining() && read < length) {
+                buffer[offset + read++] = spare.get();
+            }
+            if (read > 0) {
+                return read;
+            }
+            if (length >= 2) {
+                return decode(CharBuffer.wrap(buffer, offset, length));
+            }
+
+            // A character outside the BMP decodes to two chars, so a single char read goes through the spare
+            spare.clear();
+            int decoded = decode(spare);
+            spare.flip();
+            if (decoded == -1) {
+                return -1;
+            }
+            buffer[offset] = spare.get();
+            return 1;
+        }
+
+        /**
+         * Decodes into the given buffer, which must have room for at least two
+         * chars, until it is full or the file ends.
+         *
+         * @return the number of chars decoded, or -1 at the end of the file
+         */
+        private int decode(CharBuffer out) throws IOException {
+            int start = out.position();
+            while (out.position() == start && !flushed) {
+                boolean lastWindow = windowStart + window.limit() >= size;
+                CoderResult result = decoder.decode(window, out, lastWindow);
+                if (result.isOverflow()) {
+                    break;
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (lastWindow) {
+                    if (decoder.flush(out).isOverflow()) {
+                        break;
+                    }
+                    flushed = true;
+                } else {
+                    mapWindow(windowStart + window.position());
+                }
+            }
+
+            int decoded = out.position() - start;
+            return decoded == 0 && flushed ? -1 : decoded;
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+
+        private void mapWindow(long start) throws IOException {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAP_WINDOW_SIZE, size - start));
+        }
+    }
+}
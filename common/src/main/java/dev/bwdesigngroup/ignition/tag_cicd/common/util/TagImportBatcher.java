@@ -0,0 +1,259 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.TagUtilities;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Imports a tag tree folder by folder, sending the non-folder tags of each
+ * folder to the tag manager in batches instead of one call per tag.
+ * <p>
+ * Each batch holds siblings under the same parent path, so the tag manager
+ * returns one quality code per tag in the order they were sent. Those codes are
+ * mapped back to the individual tag paths in {@code created_tags}, the same way
+ * the per-tag import reported them.
+ * <p>
+ * Calls are not joined one at a time. Each one is submitted and its result is
+ * recorded when its future completes, so the caller can keep reading and
+ * building the next payload while the tag manager works. The number of
+ * outstanding calls is capped, and submitting blocks once the cap is reached.
+ * {@link #close()} waits for every outstanding call to finish.
+ *
+ * @author Keith Gamble
+ */
+public class TagImportBatcher implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TagImportBatcher.class.getName());
+
+    private final GatewayTagManager tagManager;
+    private final String provider;
+    private final CollisionPolicy collisionPolicy;
+    private final JsonObject createdTags;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final OperationProgress progress = OperationProgress.current();
+
+    public TagImportBatcher(GatewayTagManager tagManager, String provider, CollisionPolicy collisionPolicy,
+            JsonObject createdTags) {
+        this(tagManager, provider, collisionPolicy, createdTags, TagCICDConstants.IMPORT_BATCH_SIZE,
+                TagCICDConstants.IMPORT_MAX_IN_FLIGHT);
+    }
+
+    public TagImportBatcher(GatewayTagManager tagManager, String provider, CollisionPolicy collisionPolicy,
+            JsonObject createdTags, int batchSize, int maxInFlight) {
+        this.tagManager = tagManager;
+        this.provider = provider;
+        this.collisionPolicy = collisionPolicy;
+        this.createdTags = createdTags;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
+    }
+
+    /**
+     * Imports every tag in the given tree below the base tag path. Folders are
+     * not imported themselves; they are created by the tag manager as the tags
+     * inside them are imported.
+     *
+     * @param baseTagPath the tag path the tree's {@code tags} are imported into
+     * @param tagsJson    an object with a {@code tags} array
+     * @throws IOException if interrupted while waiting to submit
+     */
+    public void importTree(String baseTagPath, JsonObject tagsJson) throws IOException {
+        JsonArray tags = tagsJson.getAsJsonArray("tags");
+        if (tags == null || tags.size() == 0) {
+            return;
+        }
+
+        List<JsonObject> batch = new ArrayList<>();
+        List<JsonObject> folders = new ArrayList<>();
+        for (JsonElement tagElement : tags) {
+            JsonObject tagObject = tagElement.getAsJsonObject();
+            if ("Folder".equals(tagObject.get("tagType").getAsString())) {
+                folders.add(tagObject);
+                continue;
+            }
+
+            batch.add(tagObject);
+            if (batch.size() >= batchSize) {
+                importBatch(baseTagPath, batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(baseTagPath, batch);
+        }
+
+        for (JsonObject folder : folders) {
+            String folderName = folder.get("name").getAsString();
+            String folderPath = baseTagPath.isEmpty() ? folderName : baseTagPath + "/" + folderName;
+            importTree(folderPath, folder);
+        }
+    }
+
+    /**
+     * Counts the tags {@link #importTree} would import from the given tree, that
+     * is every tag that is not a folder.
+     *
+     * @param tagsJson an object with a {@code tags} array
+     * @return the number of non-folder tags
+     */
+    public static long countTags(JsonObject tagsJson) {
+        JsonArray tags = tagsJson.getAsJsonArray("tags");
+        if (tags == null) {
+            return 0;
+        }
+
+        long count = 0;
+        for (JsonElement tagElement : tags) {
+            JsonObject tagObject = tagElement.getAsJsonObject();
+            if ("Folder".equals(tagObject.get("tagType").getAsString())) {
+                count += countTags(tagObject);
+            } else {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Imports the given sibling tags as they are, folders included, in batches
+     * under one parent path. Unlike {@link #importTree}, folders are sent whole
+     * with their contents.
+     *
+     * @param baseTagPath the tag path the tags are imported into
+     * @param tags        the tags to import
+     * @throws IOException if interrupted while waiting to submit
+     */
+    public void importTags(String baseTagPath, List<JsonObject> tags) throws IOException {
+        for (int start = 0; start < tags.size(); start += batchSize) {
+            importBatch(baseTagPath, tags.subList(start, Math.min(start + batchSize, tags.size())));
+        }
+    }
+
+    /**
+     * Submits an already built import document as a single call. The quality
+     * codes are recorded in {@code created_tags} under the given key.
+     *
+     * @param basePath  the tag path to import into
+     * @param tagsJson  the import document
+     * @param resultKey the key to record the quality codes under
+     * @throws IOException if interrupted while waiting to submit
+     */
+    public void importDocument(TagPath basePath, String tagsJson, String resultKey) throws IOException {
+        submit(basePath, tagsJson, resultKey, qualityCodes -> createdTags.add(resultKey,
+                TagConfigUtilities.convertQualityCodesToArray(qualityCodes)));
+    }
+
+    /**
+     * Waits for every call submitted so far to complete. The batcher can keep
+     * being used afterwards, which lets callers import in dependent stages.
+     *
+     * @throws IOException if interrupted while waiting
+     */
+    public void awaitCompletion() throws IOException {
+        try {
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for tag imports to complete", e);
+        }
+    }
+
+    /**
+     * Waits for every submitted call to complete.
+     *
+     * @throws IOException if interrupted while waiting
+     */
+    @Override
+    public void close() throws IOException {
+        awaitCompletion();
+    }
+
+    private void importBatch(String baseTagPath, List<JsonObject> batch) throws IOException {
+        List<String> pathComponents = new ArrayList<>();
+        if (!baseTagPath.isEmpty()) {
+            pathComponents.addAll(List.of(baseTagPath.split("/")));
+        }
+        TagPath basePath = new BasicTagPath(provider, pathComponents);
+
+        JsonArray batchTags = new JsonArray();
+        batch.forEach(batchTags::add);
+        JsonObject batchJson = new JsonObject();
+        batchJson.add("tags", batchTags);
+
+        submit(basePath, TagUtilities.jsonToString(batchJson), batch.size() + " tags", qualityCodes -> {
+            logger.debug("Imported {} tags to {} in one batch", batch.size(), basePath);
+            if (qualityCodes.size() != batch.size()) {
+                // Without a code per tag there is no way to tell which tag a code belongs to
+                logger.warn("Expected {} quality codes for the batch at {} but received {}", batch.size(),
+                        basePath, qualityCodes.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                String tagName = batch.get(i).get("name").getAsString();
+                List<QualityCode> tagCodes = qualityCodes.size() == batch.size()
+                        ? List.of(qualityCodes.get(i))
+                        : qualityCodes;
+                createdTags.add(basePath.toString() + "/" + tagName,
+                        TagConfigUtilities.convertQualityCodesToArray(tagCodes));
+            }
+        });
+    }
+
+    private void submit(TagPath basePath, String tagsJson, String description,
+            Consumer<List<QualityCode>> resultHandler) throws IOException {
+        progress.checkCancelled();
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while submitting tag import to " + basePath, e);
+        }
+
+        CompletableFuture<List<QualityCode>> future;
+        try {
+            future = tagManager.importTagsAsync(basePath, tagsJson, "json", collisionPolicy);
+        } catch (Exception e) {
+            inFlight.release();
+            progress.increment(OperationProgress.IMPORT_ERRORS);
+            logger.error("Error importing {} to {}: {}", description, basePath, e.getMessage(), e);
+            return;
+        }
+        progress.increment(OperationProgress.IMPORT_CALLS_SUBMITTED);
+
+        future.whenComplete((qualityCodes, error) -> {
+            try {
+                progress.increment(OperationProgress.IMPORT_CALLS_COMPLETED);
+                if (error != null) {
+                    progress.increment(OperationProgress.IMPORT_ERRORS);
+                    logger.error("Error importing {} to {}: {}", description, basePath, error.getMessage(), error);
+                } else {
+                    progress.add(OperationProgress.TAGS_IMPORTED, qualityCodes.size());
+                    synchronized (createdTags) {
+                        resultHandler.accept(qualityCodes);
+                    }
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+}
@@ -3,25 +3,23 @@ package dev.bwdesigngroup.ignition.tag_cicd.common.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
 import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategy;
 import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategyFactory;
-import com.inductiveautomation.ignition.common.tags.TagUtilities;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.stream.Stream;
+import java.io.InputStream;
 
 public class TagImportUtilities {
     private static final Logger logger = LoggerFactory.getLogger(TagImportUtilities.class.getName());
 
     public static JsonObject importTagsFromSource(
             GatewayTagManager tagManager,
+            TagCICDExecutors executors,
             String provider,
             String baseTagPath,
             String sourcePath,
@@ -34,62 +32,61 @@ public class TagImportUtilities {
                 "Starting tag import using {} mode: provider={}, baseTagPath={}, sourcePath={}, collisionPolicy={}",
                 strategy.getExportMode().getDisplayName(), provider, baseTagPath, sourcePath, collisionPolicy);
 
-        return strategy.importTagsFromSource(tagManager, provider, baseTagPath, sourcePath, collisionPolicy);
+        return strategy.importTagsFromSource(tagManager, executors, provider, baseTagPath, sourcePath,
+                collisionPolicy);
     }
 
-    public static JsonObject readTagsFromDirectory(String directoryPath, String relativePath) throws IOException {
-        logger.trace("Reading tags from directory: " + directoryPath + " with relative path: " + relativePath);
-        Path path = Paths.get(directoryPath);
-        JsonObject folderObject = new JsonObject();
-        JsonArray tagsArray = new JsonArray();
-
-        try (Stream<Path> paths = Files.walk(path, 1)) {
-            paths.filter(Files::isRegularFile)
-                    .filter(file -> file.toString().toLowerCase().endsWith(".json"))
-                    .forEach(file -> {
-                        try {
-                            String content = new String(Files.readAllBytes(file));
+    /**
+     * Imports tags from a stream, such as an uploaded request body, in a single
+     * pass. A single file mode reads the JSON document, compressed or not, or a
+     * zip archive holding it. Every other mode reads a zip archive of its
+     * layout, as its zip archive mode writes.
+     *
+     * @param tagManager      the tag manager
+     * @param provider        the target tag provider
+     * @param baseTagPath     the base tag path to import to
+     * @param source          the stream to read, which is closed when done
+     * @param collisionPolicy the collision policy to use
+     * @param exportMode      the export mode the stream was written in
+     * @return information about the imported tags
+     * @throws IOException if the stream cannot be read or the import fails
+     * @throws IllegalArgumentException if the export mode cannot be imported from
+     *                                  a stream
+     */
+    public static JsonObject importTagsFromStream(
+            GatewayTagManager tagManager,
+            String provider,
+            String baseTagPath,
+            InputStream source,
+            String collisionPolicy,
+            String exportMode) throws IOException {
+        ExportMode mode = getStreamExportMode(exportMode);
+        TagExportImportStrategy strategy = TagExportImportStrategyFactory.getInstance().getStrategy(mode);
+        if (!strategy.supportsStreamImport()) {
+            throw new IllegalArgumentException(mode.getDisplayName() + " mode cannot import from a stream");
+        }
 
-                            // Parse the JSON and validate it's an object
-                            JsonElement jsonElement = TagUtilities.stringToJson(content);
+        logger.info("Starting tag import from stream using {} mode: provider={}, baseTagPath={}, collisionPolicy={}",
+                strategy.getExportMode().getDisplayName(), provider, baseTagPath, collisionPolicy);
 
-                            if (jsonElement.isJsonObject()) {
-                                JsonObject tagObject = jsonElement.getAsJsonObject();
-                                tagsArray.add(tagObject);
-                            } else {
-                                logger.warn("Skipping file {} - contains {} instead of JsonObject. Content: {}",
-                                        file.toString(),
-                                        jsonElement.getClass().getSimpleName(),
-                                        content.length() > 100 ? content.substring(0, 100) + "..." : content);
-                            }
-                        } catch (IOException e) {
-                            logger.error("Error reading file: " + file.toString(), e);
-                        } catch (Exception e) {
-                            logger.error("Error parsing JSON from file: " + file.toString() + " - " + e.getMessage(),
-                                    e);
-                        }
-                    });
+        return strategy.importTagsFromStream(tagManager, provider, baseTagPath, source, collisionPolicy);
+    }
 
-            Files.list(path)
-                    .filter(Files::isDirectory)
-                    .filter(subDir -> !subDir.equals(path))
-                    .forEach(subDir -> {
-                        try {
-                            String subDirName = subDir.getFileName().toString();
-                            String newRelativePath = relativePath.isEmpty() ? subDirName
-                                    : relativePath + "/" + subDirName;
-                            JsonObject subFolder = readTagsFromDirectory(subDir.toString(), newRelativePath);
-                            subFolder.addProperty("name", subDirName);
-                            subFolder.addProperty("tagType", "Folder");
-                            tagsArray.add(subFolder);
-                        } catch (IOException e) {
-                            logger.error("Error reading directory: " + subDir.toString(), e);
-                        }
-                    });
+    /**
+     * Returns the mode a stream in the given export mode is imported with: the
+     * zip archive mode of a directory layout, or the mode itself.
+     *
+     * @param exportMode the export mode code
+     * @return the export mode to import a stream with
+     */
+    public static ExportMode getStreamExportMode(String exportMode) {
+        ExportMode mode = ExportMode.fromCode(exportMode);
+        if (mode == ExportMode.INDIVIDUAL_FILES) {
+            return ExportMode.INDIVIDUAL_FILES_ZIP;
+        } else if (mode == ExportMode.STRUCTURED_FILES) {
+            return ExportMode.STRUCTURED_FILES_ZIP;
         }
-
-        folderObject.add("tags", tagsArray);
-        return folderObject;
+        return mode;
     }
 
     public static JsonObject findTypesFolder(JsonObject tagsJson) {
@@ -0,0 +1,101 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A tag reached by a {@link TagTreeWalker}, together with where it was found.
+ * <p>
+ * The root of the walk has depth 0 and an empty path, and every other tag's
+ * path is the names of the tags leading to it, below the root, joined with
+ * {@code /}. Paths are only built when asked for.
+ *
+ * @author Keith Gamble
+ */
+public final class TagNode {
+    private final JsonObject tag;
+    private final TagNode parent;
+    private final int depth;
+    private String path;
+
+    TagNode(JsonObject tag, TagNode parent) {
+        this.tag = tag;
+        this.parent = parent;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+        this.path = parent == null ? "" : null;
+    }
+
+    /**
+     * @return the tag's JSON
+     */
+    public JsonObject getTag() {
+        return tag;
+    }
+
+    /**
+     * @return the node of the tag holding this one, or null for the root
+     */
+    public TagNode getParent() {
+        return parent;
+    }
+
+    /**
+     * @return the number of tags between the root and this one, 0 for the root
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    /**
+     * @return the tag's name, or an empty string if it has none
+     */
+    public String getName() {
+        return tag.has("name") ? tag.get("name").getAsString() : "";
+    }
+
+    /**
+     * @return the tag's type, or an empty string if it has none
+     */
+    public String getTagType() {
+        return tag.has("tagType") ? tag.get("tagType").getAsString() : "";
+    }
+
+    /**
+     * @return whether the tag is a folder or a provider, whose children are
+     *         tags in their own right rather than members of a UDT
+     */
+    public boolean isFolder() {
+        String tagType = getTagType();
+        return "Folder".equals(tagType) || "Provider".equals(tagType);
+    }
+
+    /**
+     * @return the tag's path relative to the root of the walk
+     */
+    public String getPath() {
+        if (path == null) {
+            // Collect the names up to the nearest node that already knows its path
+            List<String> names = new ArrayList<>();
+            TagNode node = this;
+            while (node.path == null) {
+                names.add(node.getName());
+                node = node.parent;
+            }
+            StringBuilder builder = new StringBuilder(node.path);
+            for (int i = names.size() - 1; i >= 0; i--) {
+                if (builder.length() > 0) {
+                    builder.append('/');
+                }
+                builder.append(names.get(i));
+            }
+            path = builder.toString();
+        }
+        return path;
+    }
+}
@@ -0,0 +1,86 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts the tags of a tree by type. Folders are counted and descended into,
+ * while UDT definitions and instances are counted as one tag each, with their
+ * members left out, as the individual files layout writes them. The root of
+ * the walk is only counted when it is itself a tag rather than a folder.
+ *
+ * @author Keith Gamble
+ */
+public class TagStatisticsVisitor implements TagVisitor {
+    private final Map<String, Integer> countsByType = new TreeMap<>();
+    private int folderCount;
+    private int tagCount;
+    private int maxDepth;
+
+    @Override
+    public Action enter(TagNode node) {
+        maxDepth = Math.max(maxDepth, node.getDepth());
+        if (node.isFolder()) {
+            if (!node.isRoot()) {
+                folderCount++;
+            }
+            return Action.CONTINUE;
+        }
+        if (node.isRoot() && node.getTagType().isEmpty()) {
+            // The tags of a provider root, which has no tag of its own
+            return Action.CONTINUE;
+        }
+
+        tagCount++;
+        countsByType.merge(node.getTagType(), 1, Integer::sum);
+        return Action.SKIP_CHILDREN;
+    }
+
+    /**
+     * @return the number of tags, UDT definitions and instances, not counting
+     *         folders or UDT members
+     */
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    /**
+     * @return the number of folders below the root
+     */
+    public int getFolderCount() {
+        return folderCount;
+    }
+
+    /**
+     * @param tagType the tag type, such as {@code AtomicTag} or {@code UdtInstance}
+     * @return the number of tags of the given type
+     */
+    public int getCount(String tagType) {
+        return countsByType.getOrDefault(tagType, 0);
+    }
+
+    /**
+     * @return the depth of the deepest folder or tag visited
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("tags", tagCount);
+        json.addProperty("folders", folderCount);
+        json.addProperty("max_depth", maxDepth);
+        JsonObject byType = new JsonObject();
+        countsByType.forEach(byType::addProperty);
+        json.add("by_type", byType);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return toJson().toString();
+    }
+}
@@ -0,0 +1,144 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Walks a tag tree depth first, in document order, passing every tag to any
+ * number of {@link TagVisitor}s in a single pass.
+ * <p>
+ * The walk follows the {@code tags} arrays of folders, UDT definitions and
+ * UDT instances alike, and keeps its own stack rather than recursing, so the
+ * depth of a tree is limited only by memory. A visitor that skips a tag's
+ * children is left out of that subtree while the others still see it, and a
+ * subtree no visitor wants is not walked at all. The walk ends early once
+ * every visitor has stopped.
+ *
+ * @author Keith Gamble
+ */
+public class TagTreeWalker {
+    private static final int NOT_SKIPPING = -1;
+
+    private final TagVisitor[] visitors;
+    private final boolean[] stopped;
+    private final int[] skipDepth;
+    private int activeVisitors;
+
+    private TagTreeWalker(TagVisitor[] visitors) {
+        this.visitors = visitors;
+        this.stopped = new boolean[visitors.length];
+        this.skipDepth = new int[visitors.length];
+        Arrays.fill(skipDepth, NOT_SKIPPING);
+        this.activeVisitors = visitors.length;
+    }
+
+    /**
+     * Walks the given tree, root included, passing each tag to the given
+     * visitors in the order they are given.
+     *
+     * @param root     the tag or folder to start from
+     * @param visitors the visitors to pass the tags to
+     */
+    public static void walk(JsonObject root, TagVisitor... visitors) {
+        if (root == null || visitors.length == 0) {
+            return;
+        }
+        new TagTreeWalker(visitors).walk(root);
+    }
+
+    private void walk(JsonObject root) {
+        Deque<Frame> stack = new ArrayDeque<>();
+        TagNode rootNode = new TagNode(root, null);
+        stack.push(new Frame(rootNode, enter(rootNode)));
+
+        while (!stack.isEmpty() && activeVisitors > 0) {
+            Frame frame = stack.peek();
+            JsonObject child = frame.nextChild();
+            if (child == null) {
+                stack.pop();
+                leave(frame.node);
+                continue;
+            }
+            TagNode node = new TagNode(child, frame.node);
+            stack.push(new Frame(node, enter(node)));
+        }
+    }
+
+    /**
+     * Enters the given tag for every visitor that is still interested in it.
+     *
+     * @return whether any visitor wants the tag's children
+     */
+    private boolean enter(TagNode node) {
+        boolean descend = false;
+        for (int i = 0; i < visitors.length; i++) {
+            if (!receives(i, node)) {
+                continue;
+            }
+            switch (visitors[i].enter(node)) {
+                case STOP:
+                    stopped[i] = true;
+                    activeVisitors--;
+                    break;
+                case SKIP_CHILDREN:
+                    skipDepth[i] = node.getDepth();
+                    break;
+                default:
+                    descend = true;
+                    break;
+            }
+        }
+        return descend;
+    }
+
+    private void leave(TagNode node) {
+        for (int i = 0; i < visitors.length; i++) {
+            if (!receives(i, node)) {
+                continue;
+            }
+            visitors[i].leave(node);
+            if (skipDepth[i] == node.getDepth()) {
+                skipDepth[i] = NOT_SKIPPING;
+            }
+        }
+    }
+
+    private boolean receives(int visitor, TagNode node) {
+        return !stopped[visitor] && (skipDepth[visitor] == NOT_SKIPPING || node.getDepth() <= skipDepth[visitor]);
+    }
+
+    /**
+     * A tag on the walk's stack and how far its children have been walked.
+     */
+    private static final class Frame {
+        private final TagNode node;
+        private final JsonArray children;
+        private int next;
+
+        private Frame(TagNode node, boolean descend) {
+            this.node = node;
+            JsonObject tag = node.getTag();
+            this.children = descend && tag.has("tags") && tag.get("tags").isJsonArray()
+                    ? tag.getAsJsonArray("tags")
+                    : null;
+        }
+
+        private JsonObject nextChild() {
+            if (children == null) {
+                return null;
+            }
+            while (next < children.size()) {
+                JsonElement child = children.get(next++);
+                if (child.isJsonObject()) {
+                    return child.getAsJsonObject();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+/**
+ * Receives the tags of a tag tree as {@link TagTreeWalker} walks it.
+ * <p>
+ * Each tag is entered before its children and left after them. Several
+ * visitors can share one walk, and each one decides for itself whether it
+ * needs a tag's children or has seen enough of the tree, without affecting
+ * the others.
+ *
+ * @author Keith Gamble
+ */
+public interface TagVisitor {
+
+    /**
+     * What a visitor wants from the rest of the walk after entering a tag.
+     */
+    enum Action {
+        /** Visit the tag's children next. */
+        CONTINUE,
+        /** Leave out the tag's children, but still leave the tag itself. */
+        SKIP_CHILDREN,
+        /** Visit nothing more, not even the leaving of the tags entered so far. */
+        STOP
+    }
+
+    /**
+     * Called when the walk reaches a tag, before any of its children.
+     *
+     * @param node the tag
+     * @return what to visit next
+     */
+    default Action enter(TagNode node) {
+        return Action.CONTINUE;
+    }
+
+    /**
+     * Called after the tag's children have been visited, or skipped.
+     *
+     * @param node the tag
+     */
+    default void leave(TagNode node) {
+    }
+}
@@ -0,0 +1,237 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph of UDT definitions, split into import levels.
+ * <p>
+ * A UDT depends on another when it contains an instance of it, either directly,
+ * inside a nested folder or through a parameter value, or when it inherits from
+ * it. Level 0 holds the types with no dependencies within the set, and every
+ * later level holds only types whose dependencies are all in earlier levels, so
+ * the types within a level can be imported together.
+ * <p>
+ * Types that are part of, or depend on, a dependency cycle cannot be placed in a
+ * level. The cycles are found when the graph is built and exposed through
+ * {@link #getCycles()}. The affected types are still returned as a final level
+ * so that they are imported on a best-effort basis, as before.
+ *
+ * @author Keith Gamble
+ */
+public class UdtDependencyGraph {
+    private static final Logger logger = LoggerFactory.getLogger(UdtDependencyGraph.class.getName());
+
+    private final List<List<JsonObject>> levels;
+    private final List<List<String>> cycles;
+
+    private UdtDependencyGraph(List<List<JsonObject>> levels, List<List<String>> cycles) {
+        this.levels = levels;
+        this.cycles = cycles;
+    }
+
+    /**
+     * Builds the dependency graph for the given UDT definitions.
+     *
+     * @param udtTypesArray the UDT definitions, as found in a {@code _types_}
+     *                      folder's {@code tags} array
+     * @return the graph
+     */
+    public static UdtDependencyGraph build(JsonArray udtTypesArray) {
+        Map<String, JsonObject> udtTypesMap = new LinkedHashMap<>();
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        if (udtTypesArray != null) {
+            for (JsonElement element : udtTypesArray) {
+                JsonObject udtType = element.getAsJsonObject();
+                String udtName = udtType.get("name").getAsString();
+                udtTypesMap.put(udtName, udtType);
+
+                dependencies.put(udtName, findDependencies(udtType));
+            }
+        }
+
+        // Only dependencies on types within this set affect the import order
+        Map<String, Integer> remainingDeps = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (String udtName : udtTypesMap.keySet()) {
+            int count = 0;
+            for (String dep : dependencies.get(udtName)) {
+                if (udtTypesMap.containsKey(dep)) {
+                    dependents.computeIfAbsent(dep, key -> new ArrayList<>()).add(udtName);
+                    count++;
+                }
+            }
+            remainingDeps.put(udtName, count);
+        }
+
+        List<List<JsonObject>> levels = new ArrayList<>();
+        List<String> currentLevel = new ArrayList<>();
+        for (String udtName : udtTypesMap.keySet()) {
+            if (remainingDeps.get(udtName) == 0) {
+                currentLevel.add(udtName);
+            }
+        }
+
+        Set<String> placed = new LinkedHashSet<>();
+        while (!currentLevel.isEmpty()) {
+            List<JsonObject> level = new ArrayList<>();
+            List<String> nextLevel = new ArrayList<>();
+            for (String udtName : currentLevel) {
+                level.add(udtTypesMap.get(udtName));
+                placed.add(udtName);
+                for (String dependent : dependents.getOrDefault(udtName, Collections.emptyList())) {
+                    if (remainingDeps.merge(dependent, -1, Integer::sum) == 0) {
+                        nextLevel.add(dependent);
+                    }
+                }
+            }
+            levels.add(level);
+            currentLevel = nextLevel;
+        }
+
+        List<List<String>> cycles = new ArrayList<>();
+        if (placed.size() < udtTypesMap.size()) {
+            List<JsonObject> unresolved = new ArrayList<>();
+            Map<String, Set<String>> unresolvedDeps = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonObject> entry : udtTypesMap.entrySet()) {
+                if (!placed.contains(entry.getKey())) {
+                    unresolved.add(entry.getValue());
+                    Set<String> deps = new LinkedHashSet<>(dependencies.get(entry.getKey()));
+                    deps.removeIf(dep -> !udtTypesMap.containsKey(dep) || placed.contains(dep));
+                    unresolvedDeps.put(entry.getKey(), deps);
+                }
+            }
+            cycles = findCycles(unresolvedDeps);
+            logger.warn("Circular dependencies detected in UDT types: {}. {} types will be imported last without a "
+                    + "guaranteed order", cycles, unresolved.size());
+            levels.add(unresolved);
+        }
+
+        logger.debug("Split {} UDT types into {} import levels", udtTypesMap.size(), levels.size());
+        return new UdtDependencyGraph(levels, cycles);
+    }
+
+    /**
+     * @return the import levels, in the order they must be imported
+     */
+    public List<List<JsonObject>> getLevels() {
+        return levels;
+    }
+
+    /**
+     * @return the dependency cycles, each as the names of the types in it
+     */
+    public List<List<String>> getCycles() {
+        return cycles;
+    }
+
+    /**
+     * Adds the dependency cycles to the import response under
+     * {@code udt_cycles}, if there are any.
+     *
+     * @param responseObject the import response
+     */
+    public void addCyclesToResponse(JsonObject responseObject) {
+        if (cycles.isEmpty()) {
+            return;
+        }
+
+        JsonArray cyclesArray = new JsonArray();
+        for (List<String> cycle : cycles) {
+            JsonArray cycleArray = new JsonArray();
+            cycle.forEach(cycleArray::add);
+            cyclesArray.add(cycleArray);
+        }
+        responseObject.add("udt_cycles", cyclesArray);
+    }
+
+    /**
+     * Finds the UDT types the given UDT definition or tag depends on: the types
+     * of the UDT instances it contains, directly, inside nested folders or
+     * through parameter values, and the parent type of an inherited UDT.
+     *
+     * @param tag the UDT definition or tag
+     * @return the type ids, in the order they were found
+     */
+    public static Set<String> findDependencies(JsonObject tag) {
+        UdtDependencyVisitor visitor = new UdtDependencyVisitor(new LinkedHashSet<>());
+        if (tag.has("typeId") && "UdtType".equals(getTagType(tag))) {
+            // The parent type of an inherited UDT
+            visitor.addDependency(tag.get("typeId").getAsString());
+        }
+        TagTreeWalker.walk(tag, visitor);
+        return visitor.getDependencies();
+    }
+
+    private static String getTagType(JsonObject jsonObject) {
+        return jsonObject.has("tagType") ? jsonObject.get("tagType").getAsString() : "";
+    }
+
+    /**
+     * Finds the strongly connected components that form cycles, using Tarjan's
+     * algorithm. A type that only depends on a cycle is not itself reported.
+     */
+    private static List<List<String>> findCycles(Map<String, Set<String>> dependencies) {
+        Map<String, Integer> index = new HashMap<>();
+        Map<String, Integer> lowLink = new HashMap<>();
+        List<String> stack = new ArrayList<>();
+        Set<String> onStack = new LinkedHashSet<>();
+        List<List<String>> cycles = new ArrayList<>();
+
+        for (String udtName : dependencies.keySet()) {
+            if (!index.containsKey(udtName)) {
+                strongConnect(udtName, dependencies, index, lowLink, stack, onStack, cycles);
+            }
+        }
+        return cycles;
+    }
+
+    private static void strongConnect(String udtName, Map<String, Set<String>> dependencies,
+            Map<String, Integer> index, Map<String, Integer> lowLink, List<String> stack, Set<String> onStack,
+            List<List<String>> cycles) {
+        index.put(udtName, index.size());
+        lowLink.put(udtName, index.get(udtName));
+        stack.add(udtName);
+        onStack.add(udtName);
+
+        for (String dep : dependencies.getOrDefault(udtName, Collections.emptySet())) {
+            if (!dependencies.containsKey(dep)) {
+                continue;
+            }
+            if (!index.containsKey(dep)) {
+                strongConnect(dep, dependencies, index, lowLink, stack, onStack, cycles);
+                lowLink.put(udtName, Math.min(lowLink.get(udtName), lowLink.get(dep)));
+            } else if (onStack.contains(dep)) {
+                lowLink.put(udtName, Math.min(lowLink.get(udtName), index.get(dep)));
+            }
+        }
+
+        if (lowLink.get(udtName).equals(index.get(udtName))) {
+            List<String> component = new ArrayList<>();
+            String member;
+            do {
+                member = stack.remove(stack.size() - 1);
+                onStack.remove(member);
+                component.add(member);
+            } while (!member.equals(udtName));
+
+            boolean selfReferencing = dependencies.get(udtName).contains(udtName);
+            if (component.size() > 1 || selfReferencing) {
+                Collections.reverse(component);
+                cycles.add(component);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the UDT types a tree depends on: the types of the UDT instances it
+ * contains, directly, inside nested folders or through parameter values.
+ * <p>
+ * Type ids are added in the order they are found, a tag's own type before
+ * those of its members, and the types found in a tag's parameter values after
+ * its members.
+ *
+ * @author Keith Gamble
+ */
+public class UdtDependencyVisitor implements TagVisitor {
+    private final Set<String> dependencies;
+
+    /**
+     * @param dependencies the set to add the type ids to
+     */
+    public UdtDependencyVisitor(Set<String> dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    @Override
+    public Action enter(TagNode node) {
+        JsonObject tag = node.getTag();
+        if ("UdtInstance".equals(node.getTagType()) && tag.has("typeId")) {
+            addDependency(tag.get("typeId").getAsString());
+        }
+        return Action.CONTINUE;
+    }
+
+    @Override
+    public void leave(TagNode node) {
+        JsonObject tag = node.getTag();
+        if (!tag.has("parameters")) {
+            return;
+        }
+
+        // Parameter values are walked as trees of their own; they are rarely more than a level deep
+        JsonElement parametersElement = tag.get("parameters");
+        if (parametersElement.isJsonArray()) {
+            for (JsonElement paramElement : parametersElement.getAsJsonArray()) {
+                if (paramElement.isJsonObject()) {
+                    JsonObject param = paramElement.getAsJsonObject();
+                    if (param.has("value") && param.get("value").isJsonObject()) {
+                        TagTreeWalker.walk(param.get("value").getAsJsonObject(), this);
+                    }
+                }
+            }
+        } else if (parametersElement.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : parametersElement.getAsJsonObject().entrySet()) {
+                if (entry.getValue().isJsonObject()) {
+                    TagTreeWalker.walk(entry.getValue().getAsJsonObject(), this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a type id, ignoring empty ones.
+     *
+     * @param typeId the type id
+     */
+    public void addDependency(String typeId) {
+        if (!typeId.isEmpty()) {
+            dependencies.add(typeId);
+        }
+    }
+
+    /**
+     * @return the type ids found so far
+     */
+    public Set<String> getDependencies() {
+        return dependencies;
+    }
+}
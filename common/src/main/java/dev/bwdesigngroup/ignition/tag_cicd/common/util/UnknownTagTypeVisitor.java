@@ -0,0 +1,32 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+/**
+ * Finds the first tag with an {@code Unknown} tag type, which the tag manager
+ * returns for paths that do not exist and for tags it cannot read. The walk
+ * stops for this visitor as soon as one is found.
+ *
+ * @author Keith Gamble
+ */
+public class UnknownTagTypeVisitor implements TagVisitor {
+    private TagNode unknownTag;
+
+    @Override
+    public Action enter(TagNode node) {
+        if ("Unknown".equals(node.getTagType())) {
+            unknownTag = node;
+            return Action.STOP;
+        }
+        return Action.CONTINUE;
+    }
+
+    public boolean isFound() {
+        return unknownTag != null;
+    }
+
+    /**
+     * @return the first Unknown tag found, or null if there is none
+     */
+    public TagNode getUnknownTag() {
+        return unknownTag;
+    }
+}
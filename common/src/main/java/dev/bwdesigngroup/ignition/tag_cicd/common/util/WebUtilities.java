@@ -33,6 +33,34 @@ public class WebUtilities {
         return json;
     }
 
+    /**
+     * Returns a jsonObject to represent an HTTP error of status 404.
+     * 
+     * @param httpServletResponse the HttpServletResponse to set the status code on
+     * @param message the message to include in the error response
+     * @return a jsonObject to represent an HTTP error of status 404
+     */
+    public static JsonObject getNotFoundError(HttpServletResponse httpServletResponse, String message) {
+        httpServletResponse.setStatus(404);
+        JsonObject json = new JsonObject();
+        json.addProperty("error", message);
+        return json;
+    }
+
+    /**
+     * Returns a jsonObject to represent an HTTP error of status 503.
+     * 
+     * @param httpServletResponse the HttpServletResponse to set the status code on
+     * @param message the message to include in the error response
+     * @return a jsonObject to represent an HTTP error of status 503
+     */
+    public static JsonObject getServiceUnavailableError(HttpServletResponse httpServletResponse, String message) {
+        httpServletResponse.setStatus(503);
+        JsonObject json = new JsonObject();
+        json.addProperty("error", message);
+        return json;
+    }
+
     /**
      * Returns a jsonObject to represent an HTTP error of status 500.
      * 
@@ -0,0 +1,204 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.BaselineJson;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.StreamingTagExporter;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Writes one tag tree through every export mode and checks each file byte for
+ * byte against what the exports wrote before files were streamed to disk.
+ */
+class ExportModeBaselineTest {
+    // Sorting the alarms a second time reverses them, so a file sorted once or three times would differ
+    private static final String ALARMS = "\"alarms\":["
+            + "{\"name\":\"z\",\"label\":\"x\"},{\"name\":\"a\",\"mode\":\"Equal\"}]";
+    private static final JsonObject MOTOR = parse("{\"name\":\"Motor\",\"tagType\":\"UdtType\","
+            + "\"parameters\":{\"speed\":{\"dataType\":\"Integer\",\"value\":1}},\"tags\":["
+            + "{\"name\":\"Run\",\"tagType\":\"AtomicTag\"," + ALARMS + "},"
+            + "{\"name\":\"Amps\",\"tagType\":\"AtomicTag\",\"valueSource\":\"opc\"}]}");
+    private static final JsonObject PUMP = parse("{\"name\":\"Pump\",\"tagType\":\"AtomicTag\","
+            + "\"valueSource\":\"memory\"," + ALARMS + "}");
+    private static final JsonObject MOTOR1 = parse("{\"name\":\"Motor1\",\"tagType\":\"UdtInstance\","
+            + "\"typeId\":\"Motor\",\"tags\":[{\"name\":\"Run\",\"tagType\":\"AtomicTag\"," + ALARMS + "}]}");
+    private static final JsonObject SPEED = parse("{\"name\":\"Speed\",\"tagType\":\"AtomicTag\",\"value\":1.5}");
+    private static final JsonObject SETPOINT = parse("{\"name\":\"Setpoint\",\"tagType\":\"AtomicTag\","
+            + "\"valueSource\":\"memory\",\"value\":\"<10 & \\\"20\\\" \\u00e9>\"}");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void singleFileMatchesTheBaseline() throws IOException {
+        for (boolean incremental : new boolean[] { false, true }) {
+            Path file = directory.resolve("single-" + incremental + ".json");
+            new SingleFileExportStrategy().exportTagsToDisk(tree(), "default", "", file.toString(), true, false,
+                    incremental);
+
+            assertEquals(BaselineJson.exportedFile(tree()), read(file));
+        }
+    }
+
+    @Test
+    void compressedSingleFileMatchesTheBaseline() throws IOException {
+        for (boolean incremental : new boolean[] { false, true }) {
+            Path file = directory.resolve("single-" + incremental + ".json.gz");
+            new SingleFileExportStrategy(true).exportTagsToDisk(tree(), "default", "", file.toString(), true,
+                    false, incremental);
+
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                assertEquals(BaselineJson.exportedFile(tree()), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void individualFilesMatchTheBaseline() throws IOException {
+        for (boolean incremental : new boolean[] { false, true }) {
+            Path exportDirectory = directory.resolve("individual-" + incremental);
+            new IndividualFilesExportStrategy().exportTagsToDisk(tree(), "default", "", exportDirectory + "/", true,
+                    false, incremental);
+
+            assertEquals(individualFiles(), readTagFiles(exportDirectory));
+        }
+    }
+
+    @Test
+    void structuredFilesMatchTheBaseline() throws IOException {
+        for (boolean incremental : new boolean[] { false, true }) {
+            Path exportDirectory = directory.resolve("structured-" + incremental);
+            new StructuredFilesExportStrategy().exportTagsToDisk(tree(), "default", "", exportDirectory + "/", true,
+                    false, incremental);
+
+            assertEquals(structuredFiles(), readTagFiles(exportDirectory));
+        }
+    }
+
+    @Test
+    void archivesHoldTheBaselineFiles() throws IOException {
+        for (boolean structured : new boolean[] { false, true }) {
+            Path archive = directory.resolve(structured ? "structured" : "individual");
+            new ArchiveExportStrategy(structured).exportTagsToDisk(tree(), "default", "", archive.toString(), true,
+                    false, false);
+
+            assertEquals(structured ? structuredFiles() : individualFiles(),
+                    readEntries(Path.of(ArchiveExportStrategy.getArchiveFilePath(archive.toString()))));
+        }
+    }
+
+    @Test
+    void downloadsMatchTheBaseline() throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        StreamingTagExporter.writeJson(tree(), json);
+        assertEquals(BaselineJson.exportedFile(tree()), json.toString(StandardCharsets.UTF_8));
+
+        Path archive = directory.resolve("download.zip");
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            StreamingTagExporter.writeZip(tree(), ExportMode.STRUCTURED_FILES, false, out);
+        }
+        assertEquals(structuredFiles(), readEntries(archive));
+    }
+
+    /**
+     * @return a fresh copy of the tree, in the order the tag manager returns it
+     */
+    private static JsonObject tree() {
+        return parse("{\"tags\":["
+                + "{\"name\":\"_types_\",\"tagType\":\"Folder\",\"tags\":[" + MOTOR + "]},"
+                + "{\"name\":\"Area\",\"tagType\":\"Folder\",\"tags\":[" + PUMP + "," + MOTOR1 + ","
+                + "{\"name\":\"Line\",\"tagType\":\"Folder\",\"tags\":[" + SPEED + "]}]},"
+                + SETPOINT + "]}");
+    }
+
+    private static Map<String, String> individualFiles() {
+        Map<String, String> files = new TreeMap<>();
+        files.put("_types_/Motor.json", BaselineJson.exportedFile(MOTOR));
+        files.put("Area/Pump.json", BaselineJson.exportedFile(PUMP));
+        files.put("Area/Motor1.json", BaselineJson.exportedFile(MOTOR1));
+        files.put("Area/Line/Speed.json", BaselineJson.exportedFile(SPEED));
+        files.put("Setpoint.json", BaselineJson.exportedFile(SETPOINT));
+        return files;
+    }
+
+    private static Map<String, String> structuredFiles() {
+        Map<String, String> files = new TreeMap<>();
+        files.put("_types_/udts.json", BaselineJson.exportedFile(document(MOTOR)));
+        files.put("tags.json", BaselineJson.exportedFile(document(SETPOINT)));
+        files.put("Area/tags.json", BaselineJson.exportedFile(document(PUMP)));
+        files.put("Area/udts.json", BaselineJson.exportedFile(document(MOTOR1)));
+        files.put("Area/Line/tags.json", BaselineJson.exportedFile(document(SPEED)));
+        return files;
+    }
+
+    private static JsonObject document(JsonElement... tags) {
+        JsonArray tagsArray = new JsonArray();
+        for (JsonElement tag : tags) {
+            tagsArray.add(tag);
+        }
+        JsonObject document = new JsonObject();
+        document.add("tags", tagsArray);
+        return document;
+    }
+
+    /**
+     * Reads every file of an export directory except the ones it keeps
+     * alongside the tags, keyed by relative path.
+     */
+    private static Map<String, String> readTagFiles(Path exportDirectory) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(exportDirectory)) {
+            for (Path file : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(file) && !file.getFileName().toString().startsWith(".tagcicd-")) {
+                    files.put(exportDirectory.relativize(file).toString().replace('\\', '/'), read(file));
+                }
+            }
+        }
+        return files;
+    }
+
+    private static Map<String, String> readEntries(Path archive) throws IOException {
+        Map<String, String> entries = new TreeMap<>();
+        try (ZipFile zip = new ZipFile(archive.toFile(), StandardCharsets.UTF_8)) {
+            Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+            while (zipEntries.hasMoreElements()) {
+                ZipEntry entry = zipEntries.nextElement();
+                if (!entry.isDirectory()) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        entries.put(entry.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static JsonObject parse(String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+}
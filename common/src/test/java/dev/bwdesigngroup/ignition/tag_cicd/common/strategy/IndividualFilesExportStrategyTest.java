@@ -0,0 +1,42 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ExportIndex;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndividualFilesExportStrategyTest {
+    private static final JsonObject TAGS = new JsonParser()
+            .parse("{\"tags\":[{\"name\":\"Area\",\"tagType\":\"Folder\",\"tags\":["
+                    + "{\"name\":\"Pump\",\"tagType\":\"AtomicTag\",\"valueSource\":\"memory\"}]}]}")
+            .getAsJsonObject();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deleteExistingRemovesFilesNoExportWrote() throws IOException {
+        IndividualFilesExportStrategy strategy = new IndividualFilesExportStrategy();
+        // A trailing separator keeps a dot in the temporary directory from being read as a file name
+        String filePath = directory.toString() + "/";
+        strategy.exportTagsToDisk(TAGS, "default", "", filePath, true, false, false);
+        assertNotNull(ExportIndex.read(directory));
+
+        Path added = directory.resolve("Area/Added.json");
+        Files.write(added, "{\"name\":\"Added\",\"tagType\":\"AtomicTag\"}".getBytes(StandardCharsets.UTF_8));
+        strategy.exportTagsToDisk(TAGS, "default", "", filePath, true, false, false);
+
+        assertFalse(Files.exists(added));
+        assertTrue(Files.exists(directory.resolve("Area/Pump.json")));
+    }
+}
@@ -0,0 +1,25 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.strategy;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TagExportImportStrategyFactoryTest {
+    @Test
+    void onlySingleFileAndArchiveModesImportFromAStream() {
+        for (ExportMode mode : ExportMode.values()) {
+            TagExportImportStrategy strategy = TagExportImportStrategyFactory.getInstance().getStrategy(mode);
+
+            assertEquals(mode, strategy.getExportMode());
+            assertEquals(mode.isSingleFile() || mode.isArchive(), strategy.supportsStreamImport(), mode.getCode());
+            if (!strategy.supportsStreamImport()) {
+                assertThrows(UnsupportedOperationException.class, () -> strategy.importTagsFromStream(
+                        null, "default", "", new ByteArrayInputStream(new byte[0]), "o"));
+            }
+        }
+    }
+}
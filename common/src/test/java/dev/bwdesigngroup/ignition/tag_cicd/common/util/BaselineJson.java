@@ -0,0 +1,70 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.Gson;
+import com.inductiveautomation.ignition.common.gson.GsonBuilder;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The sort and serialization exports used before sort keys were cached and files
+ * were streamed, kept as the reference the bytes on disk must still match.
+ */
+public final class BaselineJson {
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private BaselineJson() {
+    }
+
+    /**
+     * Sorts the given element the original way: object members by key and, for
+     * every sorted array element serialization, the first element with it.
+     *
+     * @param element the JSON element to sort
+     * @return the sorted JSON element
+     */
+    public static JsonElement sort(JsonElement element) {
+        if (element.isJsonObject()) {
+            JsonObject sortedObject = new JsonObject();
+            element.getAsJsonObject().entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> sortedObject.add(entry.getKey(), sort(entry.getValue())));
+            return sortedObject;
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            List<String> elementStrings = new ArrayList<>();
+            for (JsonElement arrayElement : array) {
+                elementStrings.add(arrayElement.toString());
+            }
+            Collections.sort(elementStrings);
+
+            JsonArray sortedArray = new JsonArray();
+            for (String elementString : elementStrings) {
+                for (JsonElement arrayElement : array) {
+                    if (arrayElement.toString().equals(elementString)) {
+                        sortedArray.add(sort(arrayElement));
+                        break;
+                    }
+                }
+            }
+            return sortedArray;
+        }
+        return element;
+    }
+
+    /**
+     * Returns the file an export wrote for the given JSON: sorted once by the
+     * export, then sorted again and pretty-printed as it was saved.
+     *
+     * @param json the JSON the export saved
+     * @return the file's contents
+     */
+    public static String exportedFile(JsonElement json) {
+        return PRETTY_GSON.toJson(sort(sort(json)));
+    }
+}
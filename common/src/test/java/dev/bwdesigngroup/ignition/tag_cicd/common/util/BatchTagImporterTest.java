@@ -0,0 +1,74 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchTagImporterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void importsTypesBeforeTheInstancesOfTheirProvider() {
+        ConfigDependencyGraph graph = BatchTagImporter.buildGraph(List.of(
+                entry("default", "Area", "area.json"),
+                entry("default", "Line", "line.json"),
+                entry("default", "_types_", "types.json"),
+                entry("other", "Area", "other.json")));
+
+        assertEquals(List.of(2), graph.getPredecessors(0));
+        assertEquals(List.of(2), graph.getPredecessors(1));
+        assertEquals(List.of(), graph.getPredecessors(2));
+        assertEquals(List.of(), graph.getPredecessors(3));
+    }
+
+    @Test
+    void keepsConfigurationOrderForOverlappingEntries() {
+        ConfigDependencyGraph graph = BatchTagImporter.buildGraph(List.of(
+                entry("default", "Area", "area.json"),
+                entry("default", "", "all"),
+                entry("default", "_types_", "types.json"),
+                entry("default", "Area/Line", "line.json"),
+                entry("other", "Line", "all/line.json")));
+
+        // The types import cannot move ahead of the provider root import it overlaps
+        assertEquals(List.of(), graph.getPredecessors(0));
+        assertEquals(List.of(0), graph.getPredecessors(1));
+        assertEquals(List.of(0, 1), graph.getPredecessors(2));
+        assertEquals(List.of(0, 1, 2), graph.getPredecessors(3));
+        // Overlapping source paths conflict across providers
+        assertEquals(List.of(1), graph.getPredecessors(4));
+    }
+
+    @Test
+    void skipsEntriesThatWaitForAFailedImport() throws InterruptedException {
+        List<BatchTagImporter.Entry> entries = List.of(
+                new BatchTagImporter.Entry("default", "Area", source("area"), "o", "individualFiles"),
+                new BatchTagImporter.Entry("default", "Area/Line", source("line"), "o", "individualFiles"));
+
+        JsonObject result;
+        try (TagCICDExecutors executors = new TagCICDExecutors()) {
+            result = BatchTagImporter.importTags(null, executors, entries);
+        }
+
+        JsonObject errors = result.getAsJsonObject("errors");
+        assertTrue(errors.get(source("area")).getAsString().startsWith("Source path is not a valid directory"));
+        assertEquals("Skipped because the import from " + source("area") + " did not complete",
+                errors.get(source("line")).getAsString());
+        assertEquals(0, result.getAsJsonObject("details").size());
+    }
+
+    private BatchTagImporter.Entry entry(String provider, String baseTagPath, String source) {
+        return new BatchTagImporter.Entry(provider, baseTagPath, source(source), "o", "singleFile");
+    }
+
+    private String source(String name) {
+        return directory.resolve(name).toString();
+    }
+}
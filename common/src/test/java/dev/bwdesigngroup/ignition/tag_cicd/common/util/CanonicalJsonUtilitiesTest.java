@@ -0,0 +1,72 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.Gson;
+import com.inductiveautomation.ignition.common.gson.GsonBuilder;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class CanonicalJsonUtilitiesTest {
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    @Test
+    void ordersArraysByTheirUnsortedSerialization() {
+        JsonElement tags = parse("[{\"name\":\"z\",\"accessRights\":\"x\"},"
+                + "{\"name\":\"a\",\"tagType\":\"AtomicTag\"}]");
+
+        JsonElement sortedOnce = CanonicalJsonUtilities.sort(tags);
+        assertEquals("[{\"name\":\"a\",\"tagType\":\"AtomicTag\"},{\"accessRights\":\"x\",\"name\":\"z\"}]",
+                sortedOnce.toString());
+        // Sorting again keys on the sorted members, which puts the other element first
+        assertEquals("[{\"accessRights\":\"x\",\"name\":\"z\"},{\"name\":\"a\",\"tagType\":\"AtomicTag\"}]",
+                CanonicalJsonUtilities.sort(sortedOnce).toString());
+    }
+
+    @Test
+    void matchesTheBaselineFilesSortedOnceAndTwice() throws IOException {
+        JsonElement tag = parse(readResource("baseline/tag.json"));
+
+        JsonElement sortedOnce = CanonicalJsonUtilities.sort(tag);
+        assertEquals(readResource("baseline/tag-sorted-once.json"), PRETTY_GSON.toJson(sortedOnce));
+        assertEquals(readResource("baseline/tag-sorted-twice.json"),
+                PRETTY_GSON.toJson(CanonicalJsonUtilities.sort(sortedOnce)));
+    }
+
+    @Test
+    void matchesTheBaselineScanForDuplicatesAndMixedElements() {
+        JsonElement tree = parse("{\"b\":[3,\"3\",[2,1],{\"y\":1,\"x\":[{\"k\":2},{\"k\":1}]},3,null,true,"
+                + "{\"x\":[{\"k\":2},{\"k\":1}],\"y\":1}],\"a\":{\"d\":[\"b\",\"a\"],\"c\":1.50}}");
+
+        JsonElement sortedOnce = CanonicalJsonUtilities.sort(tree);
+        assertEquals(BaselineJson.sort(tree).toString(), sortedOnce.toString());
+        assertEquals(BaselineJson.sort(BaselineJson.sort(tree)).toString(),
+                CanonicalJsonUtilities.sort(sortedOnce).toString());
+    }
+
+    @Test
+    void leavesTheGivenTreeUnchanged() {
+        String json = "{\"tags\":[{\"name\":\"b\"},{\"name\":\"a\"}],\"name\":\"Area\"}";
+        JsonElement tree = parse(json);
+
+        CanonicalJsonUtilities.sort(tree);
+        assertEquals(json, tree.toString());
+    }
+
+    static JsonElement parse(String json) {
+        return new JsonParser().parse(json);
+    }
+
+    static String readResource(String name) throws IOException {
+        try (InputStream in = CanonicalJsonUtilitiesTest.class.getResourceAsStream(name)) {
+            assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.Gson;
+import com.inductiveautomation.ignition.common.gson.GsonBuilder;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CanonicalJsonWriterTest {
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sortsOnceAsItWrites() throws IOException {
+        JsonElement tag = readTag();
+
+        assertEquals(CanonicalJsonUtilitiesTest.readResource("baseline/tag-sorted-once.json"), write(tag));
+        assertEquals(CanonicalJsonUtilitiesTest.readResource("baseline/tag-sorted-twice.json"),
+                write(CanonicalJsonUtilities.sort(tag)));
+    }
+
+    @Test
+    void writesWhatGsonWritesForTheSortedTree() throws IOException {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("name", "Pump <1> & \"2\"");
+        tag.addProperty("value", Double.NaN);
+        tag.add("documentation", null);
+        tag.add("tags", CanonicalJsonUtilitiesTest.parse("[[],{},[2,1],\"\\u00e9\\t\",1.0,-0,1e40]"));
+
+        assertEquals(PRETTY_GSON.toJson(CanonicalJsonUtilities.sort(tag)), write(tag));
+    }
+
+    @Test
+    void hashesTheBytesItWrites() throws IOException {
+        JsonElement tag = readTag();
+        Path file = directory.resolve("tag.json");
+        CanonicalJsonWriter.write(tag, file);
+
+        String hash = CanonicalJsonWriter.sha256(tag);
+        assertEquals(hash, CanonicalJsonWriter.sha256(Files.readAllBytes(file)));
+        assertTrue(hash.matches("[0-9a-f]{64}"));
+        assertFalse(hash.equals(CanonicalJsonWriter.sha256(CanonicalJsonUtilities.sort(tag))));
+    }
+
+    private static JsonElement readTag() throws IOException {
+        return CanonicalJsonUtilitiesTest.parse(CanonicalJsonUtilitiesTest.readResource("baseline/tag.json"));
+    }
+
+    private static String write(JsonElement element) throws IOException {
+        StringWriter writer = new StringWriter();
+        CanonicalJsonWriter.write(element, writer);
+        return writer.toString();
+    }
+}
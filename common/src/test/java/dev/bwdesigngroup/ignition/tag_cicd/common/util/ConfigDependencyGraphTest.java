@@ -0,0 +1,124 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigDependencyGraphTest {
+    @Test
+    void conflictsPointFromTheEarlierEntryInRunOrder() {
+        ConfigDependencyGraph graph = new ConfigDependencyGraph(new int[] {1, 1, 0});
+        graph.addConflict(0, 1);
+        graph.addConflict(0, 2);
+        graph.addConflict(1, 1);
+
+        assertEquals(List.of(2), graph.getPredecessors(0));
+        assertEquals(List.of(0), graph.getPredecessors(1));
+        assertEquals(List.of(), graph.getPredecessors(2));
+        assertEquals(2, graph.getDependencyCount());
+        assertEquals(3, graph.getCriticalPathLength());
+    }
+
+    @Test
+    void runsEachEntryAfterTheEntriesItDependsOn() throws InterruptedException {
+        ConfigDependencyGraph graph = new ConfigDependencyGraph(4);
+        graph.addConflict(0, 1);
+        graph.addConflict(1, 3);
+        boolean[] finished = new boolean[4];
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Exception[] errors = graph.run(executor, i -> {
+                for (int predecessor : graph.getPredecessors(i)) {
+                    synchronized (finished) {
+                        if (!finished[predecessor]) {
+                            outOfOrder.set(true);
+                        }
+                    }
+                }
+                synchronized (finished) {
+                    finished[i] = true;
+                }
+            }, false);
+
+            assertFalse(outOfOrder.get());
+            for (Exception error : errors) {
+                assertNull(error);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void skipsEntriesThatDependOnAFailure() throws InterruptedException {
+        ConfigDependencyGraph graph = new ConfigDependencyGraph(4);
+        graph.addConflict(0, 1);
+        graph.addConflict(1, 2);
+        AtomicInteger runs = new AtomicInteger();
+
+        Exception[] errors = graph.run(Runnable::run, i -> {
+            runs.incrementAndGet();
+            if (i == 0) {
+                throw new IOException("failed");
+            }
+        }, true);
+
+        assertTrue(errors[0] instanceof IOException);
+        assertEquals(0, ((ConfigDependencyGraph.SkippedException) errors[1]).getFailedIndex());
+        assertEquals(1, ((ConfigDependencyGraph.SkippedException) errors[2]).getFailedIndex());
+        assertNull(errors[3]);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void runsEntriesThatDependOnAFailureUnlessSkipping() throws InterruptedException {
+        ConfigDependencyGraph graph = new ConfigDependencyGraph(2);
+        graph.addConflict(0, 1);
+
+        Exception[] errors = graph.run(Runnable::run, i -> {
+            if (i == 0) {
+                throw new IOException("failed");
+            }
+        }, false);
+
+        assertTrue(errors[0] instanceof IOException);
+        assertNull(errors[1]);
+    }
+
+    @Test
+    void rethrowsCancellation() {
+        ConfigDependencyGraph graph = new ConfigDependencyGraph(3);
+
+        assertThrows(CancellationException.class, () -> graph.run(Runnable::run, i -> {
+            if (i == 1) {
+                throw new CancellationException("Operation was cancelled");
+            }
+        }, false));
+    }
+
+    @Test
+    void overlapsWhenOnePathIsInsideTheOther() {
+        assertTrue(ConfigDependencyGraph.overlaps(Paths.get("/exports/a"), Paths.get("/exports/a/b")));
+        assertTrue(ConfigDependencyGraph.overlaps(Paths.get("/exports/a"), Paths.get("/exports/a")));
+        assertFalse(ConfigDependencyGraph.overlaps(Paths.get("/exports/a"), Paths.get("/exports/ab")));
+
+        assertTrue(ConfigDependencyGraph.overlaps("", "Area"));
+        assertTrue(ConfigDependencyGraph.overlaps("Area/Line", "Area"));
+        assertFalse(ConfigDependencyGraph.overlaps("Area", "Area2"));
+    }
+}
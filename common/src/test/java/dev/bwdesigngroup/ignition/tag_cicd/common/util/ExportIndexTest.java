@@ -0,0 +1,75 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportIndexTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void deletesTagFilesTheIndexDoesNotRecord() throws IOException {
+        ExportIndex index = new ExportIndex();
+        index.addFolder("Area", "Area");
+        index.addFolder("Empty", "Empty");
+        writeTag(index, "Area/Pump", "Area/Pump.json");
+        write("Area/Added.json", "{}");
+        write("Removed/Old.json", "{}");
+        write("Area/notes.txt", "kept");
+        write(ExportManifest.MANIFEST_FILE_NAME, "{}");
+        Files.createDirectories(directory.resolve("Empty"));
+        index.write(directory);
+
+        List<Path> deleted = index.deleteUnindexedFiles(directory);
+
+        assertEquals(2, deleted.size());
+        assertFalse(Files.exists(directory.resolve("Area/Added.json")));
+        assertFalse(Files.exists(directory.resolve("Removed")));
+        assertTrue(Files.exists(directory.resolve("Area/Pump.json")));
+        assertTrue(Files.exists(directory.resolve("Area/notes.txt")));
+        assertTrue(Files.isDirectory(directory.resolve("Empty")));
+        assertTrue(Files.exists(directory.resolve(ExportManifest.MANIFEST_FILE_NAME)));
+        assertTrue(Files.exists(directory.resolve(ExportIndex.INDEX_FILE_NAME)));
+    }
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        ExportIndex index = new ExportIndex();
+        index.addFolder("Area", "Area");
+        writeTag(index, "Area/Pump", "Area/Pump.json");
+        index.write(directory);
+
+        ExportIndex read = ExportIndex.read(directory);
+        assertNotNull(read);
+        assertTrue(read.getEntry("Area").isFolder());
+        assertEquals(index.getEntry("Area/Pump").getHash(), read.getEntry("Area/Pump").getHash());
+        assertEquals("Area/Pump.json", read.getEntry("Area/Pump").getFile());
+    }
+
+    private void writeTag(ExportIndex index, String tagPath, String file) throws IOException {
+        String content = "{\"name\":\"" + tagPath.substring(tagPath.lastIndexOf('/') + 1)
+                + "\",\"tagType\":\"AtomicTag\"}";
+        write(file, content);
+        JsonObject tag = new JsonParser().parse(content).getAsJsonObject();
+        index.addTag(tagPath, file, tag, CanonicalJsonWriter.sha256(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void write(String file, String content) throws IOException {
+        Path path = directory.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperationProgressTest {
+    @Test
+    void childrenAddToTheCountersButKeepTheirOwnPhase() {
+        OperationProgress progress = new OperationProgress();
+        progress.setPhase(OperationProgress.PHASE_IMPORTING_TAGS);
+        progress.expect(OperationProgress.CONFIGS_COMPLETED, 2);
+
+        OperationProgress first = progress.child();
+        OperationProgress second = progress.child();
+        first.setPhase(OperationProgress.PHASE_IMPORTING_UDTS);
+        first.expect(OperationProgress.TAGS_IMPORTED, 10);
+        second.setPhase(OperationProgress.PHASE_READING);
+        first.add(OperationProgress.TAGS_IMPORTED, 4);
+        second.add(OperationProgress.TAGS_IMPORTED, 3);
+        progress.increment(OperationProgress.CONFIGS_COMPLETED);
+
+        assertEquals(OperationProgress.PHASE_IMPORTING_TAGS, progress.getPhase());
+        assertEquals(7, progress.get(OperationProgress.TAGS_IMPORTED));
+        assertEquals(4, first.get(OperationProgress.TAGS_IMPORTED));
+        JsonObject json = progress.toJson();
+        assertEquals(2, json.get("expected").getAsLong());
+        assertEquals(1, json.get("completed").getAsLong());
+        assertEquals(4, first.toJson().get("completed").getAsLong());
+    }
+
+    @Test
+    void childrenAreCancelledWithTheirParent() {
+        OperationProgress progress = new OperationProgress();
+        OperationProgress child = progress.child();
+        assertFalse(child.isCancelled());
+
+        progress.cancel();
+        assertTrue(child.isCancelled());
+        assertThrows(CancellationException.class, () -> child.setPhase(OperationProgress.PHASE_WRITING));
+    }
+
+    @Test
+    void untrackedProgressIgnoresUpdates() {
+        OperationProgress untracked = OperationProgress.current();
+        untracked.child().increment(OperationProgress.FILES_READ);
+
+        assertEquals(0, untracked.get(OperationProgress.FILES_READ));
+        assertEquals(OperationProgress.PHASE_QUEUED, untracked.getPhase());
+    }
+}
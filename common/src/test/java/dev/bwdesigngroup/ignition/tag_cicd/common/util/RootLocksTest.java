@@ -0,0 +1,105 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RootLocksTest {
+    @TempDir
+    Path directory;
+
+    private final RootLocks rootLocks = new RootLocks();
+
+    @Test
+    void forgetsRootsOnceReleased() {
+        for (int i = 0; i < 100; i++) {
+            try (RootLocks.RootLock lock = rootLocks.lock(Paths.get("exports", "root" + i))) {
+                assertEquals(1, rootLocks.size());
+            }
+        }
+        assertEquals(0, rootLocks.size());
+    }
+
+    @Test
+    void isReentrantAndComparesNormalizedPaths() {
+        Path root = Paths.get("exports", "root");
+        try (RootLocks.RootLock outer = rootLocks.lock(root)) {
+            try (RootLocks.RootLock inner = rootLocks.lock(root.resolve("sub").resolve("..").toAbsolutePath())) {
+                assertEquals(1, rootLocks.size());
+            }
+            assertEquals(1, rootLocks.size());
+        }
+        assertEquals(0, rootLocks.size());
+    }
+
+    @Test
+    void blocksOtherThreadsUntilReleased() throws Exception {
+        Path root = Paths.get("exports", "root");
+        AtomicBoolean acquired = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread other;
+        try (RootLocks.RootLock lock = rootLocks.lock(root)) {
+            other = new Thread(() -> {
+                try (RootLocks.RootLock otherLock = rootLocks.lock(root)) {
+                    acquired.set(true);
+                }
+                done.countDown();
+            });
+            other.start();
+            assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+            assertFalse(acquired.get());
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(acquired.get());
+        other.join();
+        assertEquals(0, rootLocks.size());
+    }
+
+    @Test
+    void manifestAndIndexUpdatesWaitForAHeldExportRoot() throws Exception {
+        Path manifestFile = directory.resolve(ExportManifest.MANIFEST_FILE_NAME);
+        Files.writeString(manifestFile, "{}");
+        CountDownLatch done = new CountDownLatch(2);
+        Thread invalidate;
+        Thread writeIndex;
+        try (RootLocks.RootLock lock = RootLocks.EXPORT_ROOTS.lock(directory)) {
+            invalidate = new Thread(() -> {
+                try {
+                    ExportManifest.invalidate(directory);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                done.countDown();
+            });
+            writeIndex = new Thread(() -> {
+                try {
+                    new ExportIndex().write(directory);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                done.countDown();
+            });
+            invalidate.start();
+            writeIndex.start();
+            assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+            assertTrue(Files.exists(manifestFile));
+            assertFalse(Files.exists(directory.resolve(ExportIndex.INDEX_FILE_NAME)));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        invalidate.join();
+        writeIndex.join();
+        assertFalse(Files.exists(manifestFile));
+        assertTrue(Files.exists(directory.resolve(ExportIndex.INDEX_FILE_NAME)));
+        assertEquals(0, RootLocks.EXPORT_ROOTS.size());
+    }
+}
@@ -0,0 +1,77 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.stream.JsonReader;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StreamingTagImporterTest {
+    private final List<String> imported = new ArrayList<>();
+
+    @Test
+    void holdsBackInstancesReadBeforeTheTypesFolder() throws IOException {
+        importDocument("{\"tags\":["
+                + folder("Area", instance("Motor1") + "," + tag("Speed"))
+                + "," + instance("Pump1")
+                + "," + folder("_types_", "{\"name\":\"Motor\",\"tagType\":\"UdtType\"}")
+                + "," + instance("Pump2")
+                + "]}");
+
+        assertEquals(List.of("Area:Speed", "types", "Area:Motor1", ":Pump1", ":Pump2"), imported);
+    }
+
+    @Test
+    void importsHeldBackInstancesAtTheEndWithoutATypesFolder() throws IOException {
+        importDocument("{\"tags\":[" + instance("Pump1") + "," + tag("Speed") + "]}");
+
+        assertEquals(List.of(":Speed", ":Pump1"), imported);
+    }
+
+    @Test
+    void returnsADocumentHoldingASingleTag() throws IOException {
+        JsonObject document = new StreamingTagImporter(new RecordingBatcher(), null, "")
+                .importTags(new JsonReader(new StringReader(tag("Speed"))), typesFolder -> imported.add("types"));
+
+        assertEquals("Speed", document.get("name").getAsString());
+        assertEquals(List.of(), imported);
+    }
+
+    private void importDocument(String json) throws IOException {
+        StreamingTagImporter importer = new StreamingTagImporter(new RecordingBatcher(), null, "");
+        assertNull(importer.importTags(new JsonReader(new StringReader(json)), typesFolder -> imported.add("types")));
+    }
+
+    private static String folder(String name, String tags) {
+        return "{\"name\":\"" + name + "\",\"tagType\":\"Folder\",\"tags\":[" + tags + "]}";
+    }
+
+    private static String instance(String name) {
+        return "{\"name\":\"" + name + "\",\"tagType\":\"UdtInstance\",\"typeId\":\"Motor\"}";
+    }
+
+    private static String tag(String name) {
+        return "{\"name\":\"" + name + "\",\"tagType\":\"AtomicTag\",\"valueSource\":\"memory\"}";
+    }
+
+    /**
+     * Records the tags it is given in order instead of importing them.
+     */
+    private final class RecordingBatcher extends TagImportBatcher {
+        private RecordingBatcher() {
+            super(null, "default", CollisionPolicy.Overwrite, new JsonObject());
+        }
+
+        @Override
+        public void importTags(String baseTagPath, List<JsonObject> tags) {
+            tags.forEach(tag -> imported.add(baseTagPath + ":" + tag.get("name").getAsString()));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class TagArchiveReaderTest {
+    @TempDir
+    Path directory;
+
+    private TagCICDExecutors executors;
+
+    @BeforeEach
+    void setUp() {
+        executors = new TagCICDExecutors();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executors.close();
+    }
+
+    @Test
+    void readsTheSameTreeAsTheDirectoryTheArchiveHolds() throws IOException {
+        Files.createDirectories(directory.resolve("export/Area/Empty"));
+        write("export/Top.json", tag("Top"));
+        write("export/Area/Pump.json", tag("Pump"));
+        write("export/Area/notes.txt", "not a tag");
+        Path archiveFile = zip("export.zip", "Area/", "Area/Empty/", "Top.json", tag("Top"),
+                "Area/Pump.json", tag("Pump"), "Area/notes.txt", "not a tag");
+
+        JsonObject fromDirectory = TagDirectoryReader.read(executors.getReaderPool(), directory.resolve("export"));
+        try (TagArchiveReader reader = new TagArchiveReader(archiveFile, executors.getReaderPool())) {
+            assertEquals(fromDirectory.toString(), reader.readTagTree().toString());
+        }
+        JsonObject fromStream = TagArchiveReader.readTagTree(Files.newInputStream(archiveFile));
+        assertEquals(fromDirectory.toString(), fromStream.toString());
+    }
+
+    @Test
+    void readsTheBucketsOfAFannedOutFolderAsTheFolder() throws IOException {
+        String bucket = FanOutLayout.BUCKET_PREFIX + "a";
+        Path archiveFile = zip("export.zip", "Area/", "Area/" + FanOutLayout.MARKER_FILE_NAME, "{}",
+                "Area/" + bucket + "/", "Area/" + bucket + "/Pump.json", tag("Pump"));
+
+        try (TagArchiveReader reader = new TagArchiveReader(archiveFile, executors.getReaderPool())) {
+            JsonObject area = folder(reader.readTagTree(), "Area");
+            assertEquals(1, area.getAsJsonArray("tags").size());
+            assertEquals("Pump", area.getAsJsonArray("tags").get(0).getAsJsonObject().get("name").getAsString());
+        }
+    }
+
+    @Test
+    void skipsEntriesWithUnsafePaths() throws IOException {
+        Path archiveFile = zip("export.zip", "../Escaped.json", tag("Escaped"), "Area/../../Up.json", tag("Up"),
+                "Top.json", tag("Top"));
+
+        JsonObject tree = TagArchiveReader.readTagTree(Files.newInputStream(archiveFile));
+        assertEquals(1, tree.getAsJsonArray("tags").size());
+        assertNotNull(folder(tree, "Top"));
+        try (TagArchiveReader reader = new TagArchiveReader(archiveFile, executors.getReaderPool())) {
+            assertEquals(tree.toString(), reader.readTagTree().toString());
+        }
+    }
+
+    @Test
+    void listsStructuredFilesInImportOrder() throws IOException {
+        Path archiveFile = zip("export.zip",
+                "Area/udts.json", document("Motor1"),
+                "Area/tags-0002.json", document("Valve"),
+                "Area/tags-0001.json", document("Pump"),
+                "udts.json", document("Motor2"),
+                "tags.json", document("Top"),
+                "Area/readme.json", document("Ignored"));
+
+        try (TagArchiveReader reader = new TagArchiveReader(archiveFile, executors.getReaderPool())) {
+            List<String> entryNames = reader.listStructuredFiles();
+            assertEquals(List.of("tags.json", "udts.json", "Area/tags-0001.json", "Area/tags-0002.json",
+                    "Area/udts.json"), entryNames);
+
+            List<String> read = new ArrayList<>();
+            reader.readEntries(entryNames, (entryName, content) -> read.add(entryName + ":" + firstTag(content)));
+            assertEquals(List.of("tags.json:Top", "udts.json:Motor2", "Area/tags-0001.json:Pump",
+                    "Area/tags-0002.json:Valve", "Area/udts.json:Motor1"), read);
+        }
+    }
+
+    @Test
+    void readsStructuredFilesFromAStreamInArchiveOrder() throws IOException {
+        Path archiveFile = zip("export.zip",
+                "Area/udts.json", document("Motor1"),
+                "../udts.json", document("Escaped"),
+                "tags.json", document("Top"),
+                "Area/readme.json", document("Ignored"));
+
+        List<String> read = new ArrayList<>();
+        TagArchiveReader.readStructuredFiles(Files.newInputStream(archiveFile),
+                (entryName, content) -> read.add(entryName + ":" + firstTag(content)));
+        assertEquals(List.of("Area/udts.json:Motor1", "tags.json:Top"), read);
+    }
+
+    /**
+     * Writes a zip archive by hand, so that it can hold entries an export would
+     * never write. Entries are given as a name ending in {@code /} for a
+     * directory, or a name followed by the file's content.
+     */
+    private Path zip(String fileName, String... entries) throws IOException {
+        Path archiveFile = directory.resolve(fileName);
+        try (OutputStream out = Files.newOutputStream(archiveFile);
+                ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < entries.length; i++) {
+                zip.putNextEntry(new ZipEntry(entries[i]));
+                if (!entries[i].endsWith("/")) {
+                    zip.write(entries[++i].getBytes(StandardCharsets.UTF_8));
+                }
+                zip.closeEntry();
+            }
+        }
+        return archiveFile;
+    }
+
+    private void write(String file, String content) throws IOException {
+        Files.write(directory.resolve(file), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String tag(String name) {
+        return "{\"name\":\"" + name + "\",\"tagType\":\"AtomicTag\",\"valueSource\":\"memory\"}";
+    }
+
+    private static String document(String name) {
+        return "{\"tags\":[" + tag(name) + "]}";
+    }
+
+    private static String firstTag(String content) {
+        JsonObject document = new JsonParser().parse(content).getAsJsonObject();
+        return document.getAsJsonArray("tags").get(0).getAsJsonObject().get("name").getAsString();
+    }
+
+    private static JsonObject folder(JsonObject parent, String name) {
+        JsonArray tags = parent.getAsJsonArray("tags");
+        for (int i = 0; i < tags.size(); i++) {
+            JsonObject tag = tags.get(i).getAsJsonObject();
+            if (name.equals(tag.get("name").getAsString())) {
+                return tag;
+            }
+        }
+        return null;
+    }
+}
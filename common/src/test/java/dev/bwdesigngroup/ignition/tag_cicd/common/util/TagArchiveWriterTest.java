@@ -0,0 +1,126 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TagArchiveWriterTest {
+    private static final String PUMP = "{\"tagType\":\"AtomicTag\",\"name\":\"Pump\",\"alarms\":["
+            + "{\"name\":\"z\",\"label\":\"High\"},{\"name\":\"a\",\"mode\":\"Equal\"}]}";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesEntriesAsTheFilesAnExportWrites() throws IOException {
+        Path archiveFile = directory.resolve("export.zip");
+        try (TagArchiveWriter archive = new TagArchiveWriter(archiveFile)) {
+            archive.putDirectory("Area");
+            archive.putJson("Area/Pump.json", parse(PUMP));
+            assertTrue(archive.commit(false));
+        }
+
+        List<String> entryNames = new ArrayList<>();
+        String content = null;
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archiveFile))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entryNames.add(entry.getName());
+                if (!entry.isDirectory()) {
+                    content = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        StringWriter expected = new StringWriter();
+        CanonicalJsonWriter.write(parse(PUMP), expected);
+        assertEquals(List.of("Area/", "Area/Pump.json"), entryNames);
+        assertEquals(expected.toString(), content);
+    }
+
+    @Test
+    void writesTheSameBytesForTheSameTags() throws IOException {
+        Path first = directory.resolve("first.zip");
+        Path second = directory.resolve("second.zip");
+        write(first, false);
+        write(second, false);
+
+        assertEquals(-1L, Files.mismatch(first, second));
+    }
+
+    @Test
+    void keepsAnUnchangedArchiveOnlyWhenAsked() throws IOException {
+        Path archiveFile = directory.resolve("export.zip");
+        write(archiveFile, false);
+        FileTime written = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(archiveFile, written);
+
+        assertFalse(write(archiveFile, true));
+        assertEquals(written, Files.getLastModifiedTime(archiveFile));
+        assertTrue(write(archiveFile, false));
+        assertEquals(List.of(archiveFile), list());
+    }
+
+    @Test
+    void discardsAnArchiveThatIsNotCommitted() throws IOException {
+        Path archiveFile = directory.resolve("export.zip");
+        try (TagArchiveWriter archive = new TagArchiveWriter(archiveFile)) {
+            archive.putJson("Pump.json", parse(PUMP));
+        }
+
+        assertEquals(List.of(), list());
+    }
+
+    @Test
+    void writesAnArchiveToAStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TagArchiveWriter archive = new TagArchiveWriter(out)) {
+            archive.putJson("Pump.json", parse(PUMP));
+            assertThrows(IllegalStateException.class, () -> archive.commit(false));
+            archive.finish();
+        }
+
+        Path archiveFile = directory.resolve("export.zip");
+        write(archiveFile, false);
+        JsonObject fromStream = TagArchiveReader.readTagTree(new ByteArrayInputStream(out.toByteArray()));
+        JsonObject fromFile = TagArchiveReader.readTagTree(Files.newInputStream(archiveFile));
+        assertEquals(fromFile.toString(), fromStream.toString());
+    }
+
+    private boolean write(Path archiveFile, boolean keepUnchanged) throws IOException {
+        try (TagArchiveWriter archive = new TagArchiveWriter(archiveFile)) {
+            archive.putJson("Pump.json", parse(PUMP));
+            return archive.commit(keepUnchanged);
+        }
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static JsonObject parse(String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+}
@@ -0,0 +1,135 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import dev.bwdesigngroup.ignition.tag_cicd.testfixtures.InMemoryTagManager;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TagDiffTest {
+    private static final String PROVIDER = "default";
+
+    private InMemoryTagManager tags;
+
+    @BeforeEach
+    void setUp() {
+        tags = new InMemoryTagManager();
+        tags.addProvider(PROVIDER).load(parse("{\"tags\":[{\"name\":\"Area\",\"tagType\":\"Folder\",\"tags\":["
+                + "{\"name\":\"Pump\",\"tagType\":\"AtomicTag\",\"valueSource\":\"memory\",\"value\":1,"
+                // Sorting this array a second time reverses it, as it does in the exported files
+                + "\"alarms\":[{\"name\":\"z\",\"label\":\"High\"},{\"name\":\"a\",\"mode\":\"Equal\"}]},"
+                + "{\"name\":\"Valve\",\"tagType\":\"AtomicTag\",\"valueSource\":\"memory\",\"value\":2}]}]}"));
+        // Properties a real provider reports for every tag unless only local properties are read
+        tags.getProvider(PROVIDER).setInheritedProperties(parse("{\"enabled\":true,\"tagGroup\":\"Default\"}"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tags.close();
+    }
+
+    @Test
+    void skipsUnchangedTagsExportedWithAllProperties() throws Exception {
+        assertSkipsEverything(export(false));
+    }
+
+    @Test
+    void skipsUnchangedTagsExportedWithLocalPropertiesOnly() throws Exception {
+        assertSkipsEverything(export(true));
+    }
+
+    @Test
+    void keepsAddedAndChangedTags() throws Exception {
+        JsonObject source = export(true);
+        JsonArray sourceTags = source.getAsJsonArray("tags");
+        for (int i = 0; i < sourceTags.size(); i++) {
+            JsonObject tag = sourceTags.get(i).getAsJsonObject();
+            if ("Pump".equals(tag.get("name").getAsString())) {
+                tag.addProperty("value", 10);
+            }
+        }
+        sourceTags.add(parse("{\"name\":\"Motor\",\"tagType\":\"AtomicTag\",\"valueSource\":\"memory\"}"));
+
+        TagDiff diff = new TagDiff(tags.getTagManager(), PROVIDER);
+        JsonObject filtered = diff.filterChanged("Area", "Area", source);
+        JsonObject response = new JsonObject();
+        diff.addToResponse(response);
+
+        assertEquals(2, filtered.getAsJsonArray("tags").size());
+        assertEquals(parse("{\"tags\":[\"[default]Area/Motor\"]}").get("tags"), response.get("added_tags"));
+        assertEquals(parse("{\"tags\":[\"[default]Area/Pump\"]}").get("tags"), response.get("changed_tags"));
+        assertEquals(parse("{\"tags\":[\"[default]Area/Valve\"]}").get("tags"), response.get("skipped_tags"));
+    }
+
+    @Test
+    void matchesIndexedHashesOfEitherPropertySet() throws Exception {
+        TagDiff diff = new TagDiff(tags.getTagManager(), PROVIDER);
+        for (boolean localPropsOnly : new boolean[] { false, true }) {
+            JsonObject pump = export(localPropsOnly).getAsJsonArray("tags").get(0).getAsJsonObject();
+            assertTrue(diff.isUnchanged("Area", "Pump", CanonicalJsonWriter.sha256Unsorted(pump)));
+        }
+
+        JsonObject changedPump = export(true).getAsJsonArray("tags").get(0).getAsJsonObject();
+        changedPump.addProperty("value", 10);
+        assertFalse(diff.isUnchanged("Area", "Pump", CanonicalJsonWriter.sha256Unsorted(changedPump)));
+        assertFalse(diff.isUnchanged("Area", "Missing", CanonicalJsonWriter.sha256Unsorted(changedPump)));
+    }
+
+    @Test
+    void canBeSharedByConcurrentImports() throws Exception {
+        TagDiff diff = new TagDiff(tags.getTagManager(), PROVIDER);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<JsonObject>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                JsonObject source = export(i % 2 == 0);
+                results.add(executor.submit(() -> diff.filterChanged("Area", "Area", source)));
+            }
+            for (Future<JsonObject> result : results) {
+                assertTrue(TagDiff.isEmpty(result.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        JsonObject response = new JsonObject();
+        diff.addToResponse(response);
+        assertEquals(64, response.getAsJsonArray("skipped_tags").size());
+        assertEquals(0, response.getAsJsonArray("changed_tags").size());
+    }
+
+    private void assertSkipsEverything(JsonObject source) throws Exception {
+        TagDiff diff = new TagDiff(tags.getTagManager(), PROVIDER);
+        assertTrue(TagDiff.isEmpty(diff.filterChanged("Area", "Area", source)));
+
+        JsonObject response = new JsonObject();
+        diff.addToResponse(response);
+        assertEquals(2, response.getAsJsonArray("skipped_tags").size());
+        assertEquals(0, response.getAsJsonArray("changed_tags").size());
+        assertEquals(0, response.getAsJsonArray("added_tags").size());
+    }
+
+    /**
+     * Exports the tags sorted twice, as the files imports read them from hold them.
+     */
+    private JsonObject export(boolean localPropsOnly) throws Exception {
+        return (JsonObject) FileUtilities.sortJsonElementRecursively(
+                TagExportUtilities.exportTagsToJson(tags.getTagManager(), PROVIDER, "Area", true, localPropsOnly));
+    }
+
+    private static JsonObject parse(String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+}
@@ -0,0 +1,121 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TagDirectoryReaderTest {
+    @TempDir
+    Path directory;
+
+    private TagCICDExecutors executors;
+    private ExportIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executors = new TagCICDExecutors();
+        index = new ExportIndex();
+        Files.createDirectories(directory.resolve("Area"));
+        index.addFolder("Area", "Area");
+        writeTag("Top", "Top.json");
+        writeTag("Area/Pump", "Area/Pump.json");
+        writeTag("Area/Valve", "Area/Valve.json");
+        index.write(directory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executors.close();
+    }
+
+    @Test
+    void readsTheSameTreeFromAnIndexThatCoversTheDirectory() throws IOException {
+        JsonObject fromIndex = TagDirectoryReader.read(executors.getReaderPool(), directory, index, entry -> true);
+        assertNotNull(fromIndex);
+
+        Files.delete(directory.resolve(ExportIndex.INDEX_FILE_NAME));
+        assertEquals(TagDirectoryReader.read(executors.getReaderPool(), directory), fromIndex);
+    }
+
+    @Test
+    void readsTagFilesAddedAfterTheExport() throws IOException {
+        write("Area/Motor.json", tag("Motor"));
+
+        assertNull(TagDirectoryReader.read(executors.getReaderPool(), directory, index, entry -> true));
+        JsonObject area = folder(TagDirectoryReader.read(executors.getReaderPool(), directory), "Area");
+        assertEquals(3, area.getAsJsonArray("tags").size());
+    }
+
+    @Test
+    void readsFoldersAddedAfterTheExport() throws IOException {
+        Files.createDirectories(directory.resolve("Area/Line"));
+
+        assertNull(TagDirectoryReader.read(executors.getReaderPool(), directory, index, entry -> true));
+        JsonObject area = folder(TagDirectoryReader.read(executors.getReaderPool(), directory), "Area");
+        assertNotNull(folder(area, "Line"));
+    }
+
+    @Test
+    void readsTheDirectoryWhenIndexedFilesChangeOrDisappear() throws IOException {
+        write("Area/Pump.json", tag("Pump").replace("}", ",\"value\":2}"));
+        assertNull(TagDirectoryReader.read(executors.getReaderPool(), directory, index, entry -> true));
+
+        Files.delete(directory.resolve("Area/Pump.json"));
+        assertNull(TagDirectoryReader.read(executors.getReaderPool(), directory, index, entry -> true));
+        JsonObject area = folder(TagDirectoryReader.read(executors.getReaderPool(), directory), "Area");
+        assertEquals(1, area.getAsJsonArray("tags").size());
+    }
+
+    @Test
+    void readsTheDirectoryWhenAnIndexedFolderIsRemoved() throws IOException {
+        Files.createDirectories(directory.resolve("Empty"));
+        index.addFolder("Empty", "Empty");
+        assertNotNull(TagDirectoryReader.read(executors.getReaderPool(), directory, index, entry -> true));
+
+        Files.delete(directory.resolve("Empty"));
+        assertNull(TagDirectoryReader.read(executors.getReaderPool(), directory, index, entry -> true));
+    }
+
+    private void writeTag(String tagPath, String file) throws IOException {
+        String content = tag(tagPath.substring(tagPath.lastIndexOf('/') + 1));
+        write(file, content);
+        index.addTag(tagPath, file, parse(content),
+                CanonicalJsonWriter.sha256(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void write(String file, String content) throws IOException {
+        Files.write(directory.resolve(file), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String tag(String name) {
+        return "{\"name\":\"" + name + "\",\"tagType\":\"AtomicTag\",\"valueSource\":\"memory\"}";
+    }
+
+    private static JsonObject folder(JsonObject parent, String name) {
+        JsonArray tags = parent.getAsJsonArray("tags");
+        for (int i = 0; i < tags.size(); i++) {
+            JsonObject tag = tags.get(i).getAsJsonObject();
+            if (name.equals(tag.get("name").getAsString())) {
+                return tag;
+            }
+        }
+        return null;
+    }
+
+    private static JsonObject parse(String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+}
@@ -0,0 +1,34 @@
+package dev.bwdesigngroup.ignition.tag_cicd.common.util;
+
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TagExportUtilitiesTest {
+    private static final String UNKNOWN = "{\"name\":\"Missing\",\"tagType\":\"Unknown\"}";
+    private static final String FOLDER_WITH_UNKNOWN = "{\"name\":\"Area\",\"tagType\":\"Folder\",\"tags\":["
+            + "{\"name\":\"Broken\",\"tagType\":\"Unknown\"}]}";
+
+    @Test
+    void rejectsUnknownTagTypesAnywhereOutsideTypes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TagExportUtilities.validateExportTags(parse(UNKNOWN), "default", "Missing"));
+        assertThrows(IllegalArgumentException.class,
+                () -> TagExportUtilities.validateExportTags(parse(FOLDER_WITH_UNKNOWN), "default", "Area"));
+    }
+
+    @Test
+    void rejectsOnlyAnUnknownRootBelowTypes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TagExportUtilities.validateExportTags(parse(UNKNOWN), "default", "_types_/Missing"));
+        assertDoesNotThrow(
+                () -> TagExportUtilities.validateExportTags(parse(FOLDER_WITH_UNKNOWN), "default", "_types_/Area"));
+    }
+
+    private static JsonObject parse(String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+}
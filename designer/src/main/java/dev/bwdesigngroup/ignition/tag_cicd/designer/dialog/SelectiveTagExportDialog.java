@@ -2,6 +2,8 @@ package dev.bwdesigngroup.ignition.tag_cicd.designer.dialog;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.TagCICDRPC;
 import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagFileReader;
 import dev.bwdesigngroup.ignition.tag_cicd.designer.model.TagConfigManager;
 import dev.bwdesigngroup.ignition.tag_cicd.designer.util.DialogUtilities;
 import com.inductiveautomation.ignition.client.gateway_interface.ModuleRPCFactory;
@@ -28,7 +30,7 @@ import java.util.concurrent.TimeUnit;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.Arrays;
 
@@ -434,8 +436,9 @@ public class SelectiveTagExportDialog extends JDialog {
                             Future<String> future;
                             
                             // Handle different export modes for selective export
-                            if ("singleFile".equals(exportMode) || "structuredByType".equals(exportMode)) {
-                                // For single file and structured modes, use the new selective export RPC method
+                            ExportMode mode = ExportMode.fromCode(exportMode);
+                            if (mode.isSingleFile() || mode.isArchive() || "structuredByType".equals(exportMode)) {
+                                // For single file, archive and structured modes, use the new selective export RPC method
                                 future = executor.submit(() -> 
                                     rpc.performSelectiveExport(selectedProvider, actualExportPath, targetFilePath, 
                                                              exportMode, excludeUdtDefinitions, configBaseTagPath));
@@ -443,7 +446,7 @@ public class SelectiveTagExportDialog extends JDialog {
                                 // For individual files mode, use the regular export (already works correctly)
                                 future = executor.submit(() -> 
                                     rpc.exportTags(selectedProvider, actualExportPath, targetFilePath, true, false, 
-                                                 exportMode, true, excludeUdtDefinitions));
+                                                 exportMode, true, excludeUdtDefinitions, false));
                             }
                             
                             String result = future.get(RPC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
@@ -582,8 +585,7 @@ public class SelectiveTagExportDialog extends JDialog {
             
             if (targetFile.exists()) {
                 try {
-                    String existingContent = new String(Files.readAllBytes(Paths.get(absoluteFilePath)));
-                    existingData = gson.fromJson(existingContent, JsonObject.class);
+                    existingData = TagFileReader.parseForRewrite(Paths.get(absoluteFilePath)).getAsJsonObject();
                 } catch (Exception e) {
                     logger.warn("Could not read existing file {}, creating new: {}", absoluteFilePath, e.getMessage());
                     existingData = new JsonObject();
@@ -598,7 +600,7 @@ public class SelectiveTagExportDialog extends JDialog {
             JsonObject mergedData = mergeSelectiveData(existingData, newData, tagPath, exportMode);
             
             // Step 4: Write the merged data back to the file
-            try (FileWriter writer = new FileWriter(targetFile)) {
+            try (FileWriter writer = new FileWriter(targetFile, StandardCharsets.UTF_8)) {
                 writer.write(gson.toJson(mergedData));
             }
             
@@ -44,6 +44,7 @@ public class TagConfigEditorDialog extends JDialog {
     private final JComboBox<String> exportModeComboBox;
     private final JComboBox<String> collisionPolicyComboBox;
     private final JCheckBox includeUdtDefinitionsCheckBox;
+    private final JCheckBox incrementalExportCheckBox;
     private final JLabel selectionStatusLabel;
     private final JLabel validationWarningLabel;
 
@@ -104,11 +105,12 @@ public class TagConfigEditorDialog extends JDialog {
 
         JLabel collisionPolicyLabel = new JLabel("Collision Policy:");
         String[] collisionPolicies = {
-                "Abort (a)", "Merge (m)", "Overwrite (o)", "Delete & Replace (d)"
+                "Abort (a)", "Merge (m)", "Overwrite (o)", "Delete & Replace (d)", "Update Changed (u)"
         };
         collisionPolicyComboBox = new JComboBox<>(collisionPolicies);
 
         includeUdtDefinitionsCheckBox = new JCheckBox("Include UDT Definitions");
+        incrementalExportCheckBox = new JCheckBox("Incremental Export (skip unchanged files)");
 
         // Populate fields if editing
         if (config != null) {
@@ -133,12 +135,15 @@ public class TagConfigEditorDialog extends JDialog {
                 case "m" -> 1;
                 case "o" -> 2;
                 case "d" -> 3;
+                case "u" -> 4;
                 default -> 0;
             };
             collisionPolicyComboBox.setSelectedIndex(collisionIndex);
             boolean includeUdtDefinitions = !config.has("excludeUdtDefinitions") ||
                     !config.get("excludeUdtDefinitions").getAsBoolean();
             includeUdtDefinitionsCheckBox.setSelected(includeUdtDefinitions);
+            incrementalExportCheckBox.setSelected(config.has("incrementalExport")
+                    && config.get("incrementalExport").getAsBoolean());
         } else {
             providerComboBox.setSelectedIndex(0);
             exportModeComboBox.setSelectedItem(ExportMode.INDIVIDUAL_FILES.getDisplayName());
@@ -305,6 +310,12 @@ public class TagConfigEditorDialog extends JDialog {
         gbc.gridwidth = 2;
         formPanel.add(includeUdtDefinitionsCheckBox, gbc);
 
+        // Incremental Export checkbox row
+        gbc.gridx = 0;
+        gbc.gridy = 10;
+        gbc.gridwidth = 2;
+        formPanel.add(incrementalExportCheckBox, gbc);
+
         contentPanel.add(formPanel, BorderLayout.CENTER);
 
         // Create button panel using DialogUtilities for consistent styling
@@ -320,7 +331,7 @@ public class TagConfigEditorDialog extends JDialog {
 
         setContentPane(contentPanel);
         pack();
-        setSize(550, 600); // Increased height for validation warning
+        setSize(550, 630); // Increased height for validation warning
         setResizable(true);
         DialogUtilities.centerOnOwner(this, context.getFrame());
 
@@ -657,6 +668,7 @@ public class TagConfigEditorDialog extends JDialog {
                 case 1 -> "m"; // Merge
                 case 2 -> "o"; // Overwrite
                 case 3 -> "d"; // Delete and Replace
+                case 4 -> "u"; // Update Changed
                 default -> "a";
             };
             configObject.addProperty("collisionPolicy", collisionPolicy);
@@ -665,6 +677,10 @@ public class TagConfigEditorDialog extends JDialog {
                 configObject.addProperty("excludeUdtDefinitions", true);
             }
 
+            if (incrementalExportCheckBox.isSelected()) {
+                configObject.addProperty("incrementalExport", true);
+            }
+
             dispose();
         }
     }
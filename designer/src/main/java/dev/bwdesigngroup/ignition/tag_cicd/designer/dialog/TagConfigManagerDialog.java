@@ -1,6 +1,7 @@
 package dev.bwdesigngroup.ignition.tag_cicd.designer.dialog;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.designer.model.GatewayJobClient;
 import dev.bwdesigngroup.ignition.tag_cicd.designer.model.TagConfigManager;
 import dev.bwdesigngroup.ignition.tag_cicd.designer.util.DialogUtilities;
 import com.inductiveautomation.ignition.client.icons.VectorIcons;
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -392,10 +394,16 @@ public class TagConfigManagerDialog extends JDialog {
         setOperationInProgress(true);
         statusLabel.setText("Exporting tags...");
 
-        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+        SwingWorker<String, String> worker = new SwingWorker<String, String>() {
             @Override
             protected String doInBackground() throws Exception {
-                return configManager.exportTags(selectedRow);
+                return configManager.exportTags(selectedRow,
+                        job -> publish(GatewayJobClient.describeProgress(job)));
+            }
+
+            @Override
+            protected void process(List<String> progress) {
+                statusLabel.setText(progress.get(progress.size() - 1));
             }
 
             @Override
@@ -445,10 +453,16 @@ public class TagConfigManagerDialog extends JDialog {
         setOperationInProgress(true);
         statusLabel.setText("Importing tags...");
 
-        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+        SwingWorker<String, String> worker = new SwingWorker<String, String>() {
             @Override
             protected String doInBackground() throws Exception {
-                return configManager.importTags(selectedRow);
+                return configManager.importTags(selectedRow,
+                        job -> publish(GatewayJobClient.describeProgress(job)));
+            }
+
+            @Override
+            protected void process(List<String> progress) {
+                statusLabel.setText(progress.get(progress.size() - 1));
             }
 
             @Override
@@ -2,6 +2,7 @@ package dev.bwdesigngroup.ignition.tag_cicd.designer.dialog;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.TagCICDRPC;
 import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.designer.model.GatewayJobClient;
 import dev.bwdesigngroup.ignition.tag_cicd.designer.util.DialogUtilities;
 import com.inductiveautomation.ignition.client.gateway_interface.ModuleRPCFactory;
 import com.inductiveautomation.ignition.common.gson.Gson;
@@ -23,7 +24,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.*;
 
 import static com.inductiveautomation.ignition.common.BundleUtil.i18n;
 
@@ -43,7 +43,6 @@ public class TagConfigOperationDialog extends JDialog {
     private JButton confirmButton;
     private JButton cancelButton;
     private final Gson gson = new Gson();
-    private static final int RPC_TIMEOUT_SECONDS = 30;
 
     public TagConfigOperationDialog(DesignerContext context, String operationType) {
         super(context.getFrame(), true);
@@ -278,14 +277,15 @@ public class TagConfigOperationDialog extends JDialog {
     }
 
     private void startExport() {
-        SwingWorker<Void, Void> exportWorker = new SwingWorker<Void, Void>() {
+        SwingWorker<Void, String> exportWorker = new SwingWorker<Void, String>() {
             private JsonObject exportResults = new JsonObject();
 
             @Override
             protected Void doInBackground() {
-                ExecutorService executor = Executors.newSingleThreadExecutor();
+                GatewayJobClient jobClient = null;
                 try {
                     TagCICDRPC rpc = ModuleRPCFactory.create(TagCICDConstants.MODULE_ID, TagCICDRPC.class);
+                    jobClient = new GatewayJobClient(rpc);
                     for (JsonObject config : selectedConfigs) {
                         String filePath = config.get("sourcePath").getAsString();
                         String provider = config.get("provider").getAsString();
@@ -294,20 +294,13 @@ public class TagConfigOperationDialog extends JDialog {
                         boolean excludeUdtDefinitions = config.has("excludeUdtDefinitions")
                                 ? config.get("excludeUdtDefinitions").getAsBoolean()
                                 : false;
+                        boolean incrementalExport = config.has("incrementalExport")
+                                && config.get("incrementalExport").getAsBoolean();
 
-                        Callable<String> exportTask = () -> rpc.exportTags(provider, baseTagPath, filePath, true, false,
-                                exportMode, true, excludeUdtDefinitions);
-                        Future<String> future = executor.submit(exportTask);
-
-                        String result;
-                        try {
-                            result = future.get(RPC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-                        } catch (TimeoutException te) {
-                            exportResults.addProperty(filePath,
-                                    "Failed: Timeout after " + RPC_TIMEOUT_SECONDS + " seconds");
-                            continue;
-                        }
-                        JsonObject exportResult = gson.fromJson(result, JsonObject.class);
+                        String job = rpc.startExportJob(provider, baseTagPath, filePath, true, false,
+                                exportMode, true, excludeUdtDefinitions, incrementalExport);
+                        JsonObject exportResult = jobClient.awaitJob(job,
+                                status -> publish(filePath + ": " + GatewayJobClient.describeProgress(status)));
                         exportResults.addProperty(filePath,
                                 exportResult.get("success").getAsBoolean()
                                         ? "Exported successfully"
@@ -318,11 +311,18 @@ public class TagConfigOperationDialog extends JDialog {
                         exportResults.addProperty(config.get("sourcePath").getAsString(), "Failed: " + ex.getMessage());
                     }
                 } finally {
-                    executor.shutdown();
+                    if (jobClient != null) {
+                        jobClient.close();
+                    }
                 }
                 return null;
             }
 
+            @Override
+            protected void process(List<String> progress) {
+                statusLabel.setText(progress.get(progress.size() - 1));
+            }
+
             @Override
             protected void done() {
                 try {
@@ -340,14 +340,15 @@ public class TagConfigOperationDialog extends JDialog {
     }
 
     private void startImport() {
-        SwingWorker<Void, Void> importWorker = new SwingWorker<Void, Void>() {
+        SwingWorker<Void, String> importWorker = new SwingWorker<Void, String>() {
             private JsonObject importResults = new JsonObject();
 
             @Override
             protected Void doInBackground() {
-                ExecutorService executor = Executors.newSingleThreadExecutor();
+                GatewayJobClient jobClient = null;
                 try {
                     TagCICDRPC rpc = ModuleRPCFactory.create(TagCICDConstants.MODULE_ID, TagCICDRPC.class);
+                    jobClient = new GatewayJobClient(rpc);
                     for (JsonObject config : selectedConfigs) {
                         String filePath = config.get("sourcePath").getAsString();
                         String provider = config.get("provider").getAsString();
@@ -355,19 +356,10 @@ public class TagConfigOperationDialog extends JDialog {
                         String collisionPolicy = config.get("collisionPolicy").getAsString();
                         String exportMode = config.get("exportMode").getAsString();
 
-                        Callable<String> importTask = () -> rpc.importTags(provider, baseTagPath, filePath,
-                                collisionPolicy, exportMode);
-                        Future<String> future = executor.submit(importTask);
-
-                        String result;
-                        try {
-                            result = future.get(RPC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-                        } catch (TimeoutException te) {
-                            importResults.addProperty(filePath,
-                                    "Failed: Timeout after " + RPC_TIMEOUT_SECONDS + " seconds");
-                            continue;
-                        }
-                        JsonObject importResult = gson.fromJson(result, JsonObject.class);
+                        String job = rpc.startImportJob(provider, baseTagPath, filePath, collisionPolicy,
+                                exportMode);
+                        JsonObject importResult = jobClient.awaitJob(job,
+                                status -> publish(filePath + ": " + GatewayJobClient.describeProgress(status)));
                         if (importResult.get("success").getAsBoolean()) {
                             JsonObject details = importResult.getAsJsonObject("details");
                             int created = details.has("created_tags") ? details.getAsJsonObject("created_tags").size()
@@ -384,11 +376,18 @@ public class TagConfigOperationDialog extends JDialog {
                         importResults.addProperty(config.get("sourcePath").getAsString(), "Failed: " + ex.getMessage());
                     }
                 } finally {
-                    executor.shutdown();
+                    if (jobClient != null) {
+                        jobClient.close();
+                    }
                 }
                 return null;
             }
 
+            @Override
+            protected void process(List<String> progress) {
+                statusLabel.setText(progress.get(progress.size() - 1));
+            }
+
             @Override
             protected void done() {
                 try {
@@ -59,7 +59,8 @@ public class TagImportDialog extends JDialog {
         exportModeComboBox.addActionListener(e -> updateFileChooserMode());
 
         JLabel collisionPolicyLabel = new JLabel("Collision Policy:");
-        String[] collisionPolicies = { "Abort (a)", "Merge (m)", "Overwrite (o)", "Delete and Replace (d)" };
+        String[] collisionPolicies = { "Abort (a)", "Merge (m)", "Overwrite (o)", "Delete and Replace (d)",
+                "Update Changed (u)" };
         collisionPolicyComboBox = new JComboBox<>(collisionPolicies);
         collisionPolicyComboBox.setSelectedIndex(0);
 
@@ -164,7 +165,7 @@ public class TagImportDialog extends JDialog {
         String dialogTitle;
 
         String selectedMode = (String) exportModeComboBox.getSelectedItem();
-        if (selectedMode.equals(ExportMode.SINGLE_FILE.getDisplayName())) {
+        if (isFileMode(selectedMode)) {
             fileSelectionMode = JFileChooser.FILES_ONLY;
             dialogTitle = "Select JSON File";
         } else {
@@ -227,11 +228,11 @@ public class TagImportDialog extends JDialog {
         File file = new File(filePath);
         String selectedMode = (String) exportModeComboBox.getSelectedItem();
 
-        if (selectedMode.equals(ExportMode.SINGLE_FILE.getDisplayName()) && !file.isFile()) {
-            JOptionPane.showMessageDialog(this, "Selected path must be a file for Single File mode",
+        if (isFileMode(selectedMode) && !file.isFile()) {
+            JOptionPane.showMessageDialog(this, "Selected path must be a file for " + selectedMode,
                     "Input Error", JOptionPane.ERROR_MESSAGE);
             return false;
-        } else if (!selectedMode.equals(ExportMode.SINGLE_FILE.getDisplayName()) && !file.isDirectory()) {
+        } else if (!isFileMode(selectedMode) && !file.isDirectory()) {
             JOptionPane.showMessageDialog(this, "Selected path must be a directory for " + selectedMode,
                     "Input Error", JOptionPane.ERROR_MESSAGE);
             return false;
@@ -240,6 +241,15 @@ public class TagImportDialog extends JDialog {
         return true;
     }
 
+    private boolean isFileMode(String modeName) {
+        for (ExportMode mode : ExportMode.values()) {
+            if (mode.getDisplayName().equals(modeName)) {
+                return mode.isSingleFile() || mode.isArchive();
+            }
+        }
+        return false;
+    }
+
     /**
      * Gets available tag providers from the Ignition tag system.
      * 
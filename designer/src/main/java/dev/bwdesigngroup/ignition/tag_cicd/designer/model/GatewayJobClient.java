@@ -0,0 +1,170 @@
+package dev.bwdesigngroup.ignition.tag_cicd.designer.model;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.TagCICDRPC;
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import com.inductiveautomation.ignition.client.gateway_interface.GatewayConnectionManager;
+import com.inductiveautomation.ignition.client.gateway_interface.PushNotificationListener;
+import com.inductiveautomation.ignition.common.gateway.messages.PushNotification;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Follows export and import jobs running on the gateway.
+ * <p>
+ * The gateway pushes a job update over
+ * {@link TagCICDConstants#DESIGNER_NOTIFICATION_ID} whenever a job changes
+ * state, and about once a second while it runs. This client passes those
+ * updates on to whoever is waiting for the job, and falls back to asking the
+ * gateway for the job status if no update arrives for a while, so that a lost
+ * notification never leaves the Designer waiting. Jobs have no time limit, so
+ * operations of any length can be run from the Designer.
+ *
+ * @author Keith Gamble
+ */
+public class GatewayJobClient implements PushNotificationListener {
+    private static final Logger logger = LoggerFactory.getLogger(GatewayJobClient.class.getName());
+    private static final long POLL_INTERVAL_SECONDS = 5;
+
+    private final TagCICDRPC rpc;
+    private final Map<String, BlockingQueue<JsonObject>> watchedJobs = new ConcurrentHashMap<>();
+
+    public GatewayJobClient(TagCICDRPC rpc) {
+        this.rpc = rpc;
+        GatewayConnectionManager.getInstance().addPushNotificationListener(this);
+    }
+
+    @Override
+    public void receiveNotification(PushNotification notification) {
+        if (!TagCICDConstants.MODULE_ID.equals(notification.getModuleId())
+                || !TagCICDConstants.DESIGNER_NOTIFICATION_ID.equals(notification.getMessageType())) {
+            return;
+        }
+
+        try {
+            JsonObject job = parse(String.valueOf(notification.getMessage()));
+            if (job.has("jobId")) {
+                BlockingQueue<JsonObject> updates = watchedJobs.get(job.get("jobId").getAsString());
+                if (updates != null) {
+                    updates.offer(job);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed job notification: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for a job to finish, reporting its progress along the way. If the
+     * waiting thread is interrupted, the job is cancelled on the gateway.
+     *
+     * @param submitResult the response of the RPC call that started the job
+     * @param onProgress   called with the job status on every update
+     * @return the job's result, in the same form as the equivalent synchronous
+     *         RPC call, or a {@code success: false} object if the job could not
+     *         be started or did not finish successfully
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public JsonObject awaitJob(String submitResult, Consumer<JsonObject> onProgress) throws InterruptedException {
+        JsonObject job = parse(submitResult);
+        if (!job.has("jobId")) {
+            return job;
+        }
+
+        String jobId = job.get("jobId").getAsString();
+        BlockingQueue<JsonObject> updates = new LinkedBlockingQueue<>();
+        watchedJobs.put(jobId, updates);
+        try {
+            // The job may have finished before we started listening
+            job = parse(rpc.getJobStatus(jobId));
+            while (!isFinished(job)) {
+                onProgress.accept(job);
+                JsonObject update = updates.poll(POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                job = update != null ? update : parse(rpc.getJobStatus(jobId));
+            }
+        } catch (InterruptedException e) {
+            logger.info("Stopped waiting for job {}, cancelling it", jobId);
+            rpc.cancelJob(jobId);
+            throw e;
+        } finally {
+            watchedJobs.remove(jobId);
+        }
+
+        // Pushed updates do not carry the result
+        return toOperationResult(parse(rpc.getJobStatus(jobId)));
+    }
+
+    /**
+     * Stops listening for job notifications.
+     */
+    public void close() {
+        GatewayConnectionManager.getInstance().removePushNotificationListener(this);
+        watchedJobs.clear();
+    }
+
+    /**
+     * Describes a job's progress in a short line for a status label, such as
+     * {@code Importing tags: 1200 of 5000, 3 files written, about 0:42 left}.
+     *
+     * @param job the job status
+     * @return the description
+     */
+    public static String describeProgress(JsonObject job) {
+        String phase = job.has("phase") ? job.get("phase").getAsString() : "queued";
+        StringBuilder description = new StringBuilder();
+        description.append(Character.toUpperCase(phase.charAt(0))).append(phase.substring(1).replace('_', ' '));
+
+        if (job.has("expected")) {
+            description.append(": ").append(job.get("completed").getAsLong())
+                    .append(" of ").append(job.get("expected").getAsLong());
+        }
+
+        JsonObject counters = job.has("progress") ? job.getAsJsonObject("progress") : new JsonObject();
+        if (counters.has("files_written")) {
+            description.append(job.has("expected") ? ", " : ": ")
+                    .append(counters.get("files_written").getAsLong()).append(" files written");
+        }
+
+        if (job.has("etaSeconds")) {
+            long etaSeconds = job.get("etaSeconds").getAsLong();
+            description.append(String.format(", about %d:%02d left", etaSeconds / 60, etaSeconds % 60));
+        }
+        return description.toString();
+    }
+
+    private static boolean isFinished(JsonObject job) {
+        if (!job.has("state")) {
+            return true;
+        }
+        String state = job.get("state").getAsString();
+        return "succeeded".equals(state) || "failed".equals(state) || "cancelled".equals(state);
+    }
+
+    private static JsonObject toOperationResult(JsonObject job) {
+        if (job.has("result")) {
+            return job.getAsJsonObject("result");
+        }
+        if (job.has("success")) {
+            return job;
+        }
+
+        JsonObject result = new JsonObject();
+        result.addProperty("success", false);
+        result.addProperty("error", job.has("error") ? job.get("error").getAsString()
+                : "Job " + job.get("state").getAsString());
+        return result;
+    }
+
+    private static JsonObject parse(String json) {
+        return new JsonParser().parse(json).getAsJsonObject();
+    }
+}
@@ -19,10 +19,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Data model for managing tag configurations.
@@ -31,12 +28,11 @@ import java.util.concurrent.TimeUnit;
  */
 public class TagConfigManager {
     private static final Logger logger = LoggerFactory.getLogger(TagConfigManager.class.getName());
-    private static final int RPC_TIMEOUT_SECONDS = 30;
 
     private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
     private JsonArray configArray = new JsonArray();
     private TagCICDRPC rpc;
+    private GatewayJobClient jobClient;
 
     public TagConfigManager() {
         try {
@@ -151,13 +147,14 @@ public class TagConfigManager {
     }
 
     /**
-     * Exports tags using the configuration at the specified index.
+     * Exports tags using the configuration at the specified index. The export
+     * runs as a job on the gateway and this call blocks until it finishes.
      * 
-     * @param index the index of the configuration to use
+     * @param index      the index of the configuration to use
+     * @param onProgress called with the job status as the export progresses
      * @return the result of the export operation
-     * @throws Exception if an error occurs during export
      */
-    public String exportTags(int index) {
+    public String exportTags(int index, Consumer<JsonObject> onProgress) {
         JsonObject config = getConfiguration(index);
 
         try {
@@ -170,11 +167,17 @@ public class TagConfigManager {
             boolean excludeUdtDefinitions = config.has("excludeUdtDefinitions")
                     ? config.get("excludeUdtDefinitions").getAsBoolean()
                     : false;
+            boolean incrementalExport = config.has("incrementalExport")
+                    && config.get("incrementalExport").getAsBoolean();
 
-            Future<String> future = executor.submit(() -> rpc.exportTags(
-                    provider, baseTagPath, filePath, true, false, exportMode, true, excludeUdtDefinitions));
+            String job = rpc.startExportJob(
+                    provider, baseTagPath, filePath, true, false, exportMode, true, excludeUdtDefinitions,
+                    incrementalExport);
 
-            return future.get(RPC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return getJobClient().awaitJob(job, onProgress).toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "{\"success\":false,\"error\":\"Export cancelled\"}";
         } catch (Exception e) {
             logger.error("Export error", e);
             return "{\"success\":false,\"error\":\"" + e.getMessage() + "\"}";
@@ -182,13 +185,14 @@ public class TagConfigManager {
     }
 
     /**
-     * Imports tags using the configuration at the specified index.
+     * Imports tags using the configuration at the specified index. The import
+     * runs as a job on the gateway and this call blocks until it finishes.
      * 
-     * @param index the index of the configuration to use
+     * @param index      the index of the configuration to use
+     * @param onProgress called with the job status as the import progresses
      * @return the result of the import operation
-     * @throws Exception if an error occurs during import
      */
-    public String importTags(int index) {
+    public String importTags(int index, Consumer<JsonObject> onProgress) {
         JsonObject config = getConfiguration(index);
 
         try {
@@ -198,10 +202,12 @@ public class TagConfigManager {
             String collisionPolicy = config.get("collisionPolicy").getAsString();
             String exportMode = config.get("exportMode").getAsString();
 
-            Future<String> future = executor.submit(() -> rpc.importTags(
-                    provider, baseTagPath, sourcePath, collisionPolicy, exportMode));
+            String job = rpc.startImportJob(provider, baseTagPath, sourcePath, collisionPolicy, exportMode);
 
-            return future.get(RPC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return getJobClient().awaitJob(job, onProgress).toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "{\"success\":false,\"error\":\"Import cancelled\"}";
         } catch (Exception e) {
             logger.error("Import error", e);
             return "{\"success\":false,\"error\":\"" + e.getMessage() + "\"}";
@@ -239,6 +245,8 @@ public class TagConfigManager {
                 return "Overwrite";
             case "d":
                 return "Delete & Replace";
+            case "u":
+                return "Update Changed";
             default:
                 return code;
         }
@@ -326,18 +334,21 @@ public class TagConfigManager {
         return gson.fromJson(result, JsonObject.class);
     }
 
+    private synchronized GatewayJobClient getJobClient() {
+        // Created on first use so that managers that never run jobs do not listen for them
+        if (jobClient == null) {
+            jobClient = new GatewayJobClient(rpc);
+        }
+        return jobClient;
+    }
+
     /**
-     * Shuts down the executor service.
+     * Stops listening for job updates from the gateway.
      */
-    public void shutdown() {
-        executor.shutdown();
-        try {
-            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
+    public synchronized void shutdown() {
+        if (jobClient != null) {
+            jobClient.close();
+            jobClient = null;
         }
     }
 }
\ No newline at end of file
@@ -8,18 +8,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.job.TagJobManager;
 import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagExportRoutes;
 import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagImportRoutes;
 import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagConfigRoutes;
 import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagDeleteRoutes;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes.TagJobRoutes;
 import com.inductiveautomation.ignition.common.gson.Gson;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.common.gson.JsonParser;
 import com.inductiveautomation.ignition.common.licensing.LicenseState;
+import com.inductiveautomation.ignition.common.model.ApplicationScope;
 import com.inductiveautomation.ignition.gateway.clientcomm.ClientReqSession;
 import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
 import com.inductiveautomation.ignition.gateway.model.AbstractGatewayModuleHook;
@@ -29,11 +33,18 @@ public class TagCICDGatewayHook extends AbstractGatewayModuleHook {
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
     public static GatewayContext context;
+    private TagJobManager jobManager;
+    private TagCICDExecutors executors;
 
     @Override
     public void setup(GatewayContext context) {
         logger.info("Setting up TagCICDGatewayHook");
         TagCICDGatewayHook.context = context;
+        executors = new TagCICDExecutors();
+        jobManager = new TagJobManager();
+        jobManager.addListener(job -> context.getGatewaySessionManager().sendNotification(
+                ApplicationScope.DESIGNER, TagCICDConstants.MODULE_ID, TagCICDConstants.DESIGNER_NOTIFICATION_ID,
+                job.toJson(false).toString()));
     }
 
     @Override
@@ -85,7 +96,7 @@ public class TagCICDGatewayHook extends AbstractGatewayModuleHook {
 
                 logger.info("Importing tags from " + sourcePath + " to provider " + provider);
                 JsonObject result = TagImportUtilities.importTagsFromSource(
-                        context.getTagManager(), provider, baseTagPath, sourcePath,
+                        context.getTagManager(), executors, provider, baseTagPath, sourcePath,
                         collisionPolicy, exportMode);
                 logger.info("Import result: " + result.toString());
             }
@@ -97,13 +108,20 @@ public class TagCICDGatewayHook extends AbstractGatewayModuleHook {
     @Override
     public void shutdown() {
         logger.info("Shutting down TagCICDGatewayHook");
+        if (jobManager != null) {
+            jobManager.shutdown();
+        }
+        if (executors != null) {
+            executors.close();
+        }
     }
 
     @Override
     public void mountRouteHandlers(RouteGroup routes) {
         logger.info("Mounting route handlers for TagCICDGatewayHook");
-        new TagExportRoutes(context, routes).mountRoutes();
-        new TagImportRoutes(context, routes).mountRoutes();
+        new TagExportRoutes(context, jobManager, routes).mountRoutes();
+        new TagImportRoutes(context, jobManager, executors, routes).mountRoutes();
+        new TagJobRoutes(jobManager, routes).mountRoutes();
         new TagDeleteRoutes(context, routes).mountRoutes();
         new TagConfigRoutes(context, routes).mountRoutes();
     }
@@ -111,7 +129,7 @@ public class TagCICDGatewayHook extends AbstractGatewayModuleHook {
     @Override
     public Object getRPCHandler(ClientReqSession session, String projectName) {
         logger.debug("Creating RPC Handler for session: " + session.getId() + ", project: " + projectName);
-        return new TagCICDRPCHandler(context);
+        return new TagCICDRPCHandler(context, jobManager, executors);
     }
 
     @Override
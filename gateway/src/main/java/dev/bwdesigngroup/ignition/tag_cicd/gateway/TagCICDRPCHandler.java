@@ -3,9 +3,19 @@ package dev.bwdesigngroup.ignition.tag_cicd.gateway;
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
 import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
 import dev.bwdesigngroup.ignition.tag_cicd.common.TagCICDRPC;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.ArchiveExportStrategy;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.SingleFileExportStrategy;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.BatchTagExporter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.BatchTagImporter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.ExportManifest;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.StructuredFileShards;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagFileReader;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.job.TagJob;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.job.TagJobManager;
 import com.inductiveautomation.ignition.common.gson.Gson;
 import com.inductiveautomation.ignition.common.gson.JsonArray;
 import com.inductiveautomation.ignition.common.gson.JsonElement;
@@ -20,56 +30,143 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class TagCICDRPCHandler implements TagCICDRPC {
     private static final Logger logger = LoggerFactory.getLogger(TagCICDRPCHandler.class.getName());
     private final GatewayContext context;
+    private final TagJobManager jobManager;
+    private final TagCICDExecutors executors;
     private final Gson gson = new Gson();
 
-    public TagCICDRPCHandler(GatewayContext context) {
+    public TagCICDRPCHandler(GatewayContext context, TagJobManager jobManager, TagCICDExecutors executors) {
         this.context = context;
+        this.jobManager = jobManager;
+        this.executors = executors;
     }
 
     @Override
     public String exportTags(String provider, String baseTagPath, String filePath, boolean recursive,
-            boolean localPropsOnly, String exportMode, boolean deleteExisting, boolean excludeUdtDefinitions) {
+            boolean localPropsOnly, String exportMode, boolean deleteExisting, boolean excludeUdtDefinitions,
+            boolean incremental) {
+        return runExport(provider, baseTagPath, filePath, recursive, localPropsOnly, exportMode, deleteExisting,
+                excludeUdtDefinitions, incremental).toString();
+    }
+
+    @Override
+    public String importTags(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
+            String exportMode) {
+        return runImport(provider, baseTagPath, sourcePath, collisionPolicy, exportMode).toString();
+    }
+
+    @Override
+    public String startExportJob(String provider, String baseTagPath, String filePath, boolean recursive,
+            boolean localPropsOnly, String exportMode, boolean deleteExisting, boolean excludeUdtDefinitions,
+            boolean incremental) {
+        JsonObject parameters = new JsonObject();
+        parameters.addProperty("provider", provider);
+        parameters.addProperty("baseTagPath", baseTagPath);
+        parameters.addProperty("filePath", filePath);
+        parameters.addProperty("exportMode", exportMode);
+        return submitJob("export", parameters, () -> runExport(provider, baseTagPath, filePath, recursive,
+                localPropsOnly, exportMode, deleteExisting, excludeUdtDefinitions, incremental));
+    }
+
+    @Override
+    public String startImportJob(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
+            String exportMode) {
+        JsonObject parameters = new JsonObject();
+        parameters.addProperty("provider", provider);
+        parameters.addProperty("baseTagPath", baseTagPath);
+        parameters.addProperty("sourcePath", sourcePath);
+        parameters.addProperty("collisionPolicy", collisionPolicy);
+        parameters.addProperty("exportMode", exportMode);
+        return submitJob("import", parameters,
+                () -> runImport(provider, baseTagPath, sourcePath, collisionPolicy, exportMode));
+    }
+
+    @Override
+    public String getJobStatus(String jobId) {
+        TagJob job = jobManager.getJob(jobId);
+        return job != null ? job.toJson(true).toString() : jobNotFound(jobId).toString();
+    }
+
+    @Override
+    public String cancelJob(String jobId) {
+        TagJob job = jobManager.cancel(jobId);
+        return job != null ? job.toJson(false).toString() : jobNotFound(jobId).toString();
+    }
+
+    private String submitJob(String type, JsonObject parameters,
+            Callable<JsonObject> operation) {
+        try {
+            logger.info("RPC {} job requested: {}", type, parameters);
+            return jobManager.submit(type, parameters, operation).toJson(false).toString();
+        } catch (RejectedExecutionException e) {
+            logger.warn("Rejected {} job: {}", type, e.getMessage());
+            JsonObject result = new JsonObject();
+            result.addProperty("success", false);
+            result.addProperty("error", "The job queue is full, try again once running jobs have finished");
+            return result.toString();
+        }
+    }
+
+    private JsonObject jobNotFound(String jobId) {
+        JsonObject result = new JsonObject();
+        result.addProperty("success", false);
+        result.addProperty("error", "No job found with id " + jobId);
+        return result;
+    }
+
+    private JsonObject runExport(String provider, String baseTagPath, String filePath, boolean recursive,
+            boolean localPropsOnly, String exportMode, boolean deleteExisting, boolean excludeUdtDefinitions,
+            boolean incremental) {
         JsonObject result = new JsonObject();
         try {
             logger.info("RPC exportTags called: provider={}, baseTagPath={}, filePath={}, exportMode={}",
                     provider, baseTagPath, filePath, exportMode);
             TagExportUtilities.exportTagsToDisk(context.getTagManager(), provider, baseTagPath, recursive,
-                    localPropsOnly, filePath, exportMode, deleteExisting, excludeUdtDefinitions);
+                    localPropsOnly, filePath, exportMode, deleteExisting, excludeUdtDefinitions, incremental);
             result.addProperty("success", true);
             result.addProperty("filePath", filePath);
             result.addProperty("exportMode", exportMode);
             result.addProperty("details", "Exported tags to " + filePath + " using " +
                     ExportMode.fromCode(exportMode).getDisplayName() + " mode");
+        } catch (CancellationException e) {
+            // Let a cancelled job finish as cancelled rather than as a failed result
+            throw e;
         } catch (Exception e) {
             logger.error("Error exporting tags: {}", e.getMessage(), e);
             result.addProperty("success", false);
             result.addProperty("error", "Failed to export tags: " + e.getMessage());
         }
-        return result.toString();
+        return result;
     }
 
-    @Override
-    public String importTags(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
+    private JsonObject runImport(String provider, String baseTagPath, String sourcePath, String collisionPolicy,
             String exportMode) {
         JsonObject result = new JsonObject();
         try {
             logger.info("RPC importTags called: provider={}, baseTagPath={}, sourcePath={}, exportMode={}",
                     provider, baseTagPath, sourcePath, exportMode);
-            JsonObject importResult = TagImportUtilities.importTagsFromSource(context.getTagManager(), provider,
-                    baseTagPath, sourcePath, collisionPolicy, exportMode);
+            JsonObject importResult = TagImportUtilities.importTagsFromSource(context.getTagManager(), executors,
+                    provider, baseTagPath, sourcePath, collisionPolicy, exportMode);
             result.addProperty("success", true);
             result.addProperty("exportMode", exportMode);
             result.add("details", importResult);
+        } catch (CancellationException e) {
+            // Let a cancelled job finish as cancelled rather than as a failed result
+            throw e;
         } catch (Exception e) {
             logger.error("Error importing tags: {}", e.getMessage(), e);
             result.addProperty("success", false);
             result.addProperty("error", "Failed to import tags: " + e.getMessage());
         }
-        return result.toString();
+        return result;
     }
 
     @Override
@@ -118,29 +215,22 @@ public class TagCICDRPCHandler implements TagCICDRPC {
         try {
             String configContent = new String(Files.readAllBytes(configPath));
             JsonArray configArray = new JsonParser().parse(configContent).getAsJsonArray();
-            JsonObject exportResults = new JsonObject();
-
+            List<BatchTagExporter.Entry> entries = new ArrayList<>();
             for (JsonElement element : configArray) {
-                JsonObject config = element.getAsJsonObject();
-                String filePath = config.get("sourcePath").getAsString();
-                String provider = config.get("provider").getAsString();
-                String baseTagPath = config.get("baseTagPath").getAsString();
-                String exportMode = config.get("exportMode").getAsString();
-                boolean excludeUdtDefinitions = config.has("excludeUdtDefinitions")
-                        ? config.get("excludeUdtDefinitions").getAsBoolean()
-                        : false;
-
-                logger.info("Exporting tags from config: filePath={}, provider={}, baseTagPath={}, exportMode={}",
-                        filePath, provider, baseTagPath, exportMode);
-
-                TagExportUtilities.exportTagsToDisk(context.getTagManager(), provider, baseTagPath, true, false,
-                        filePath, exportMode, true, excludeUdtDefinitions);
+                entries.add(BatchTagExporter.Entry.fromConfig(element.getAsJsonObject()));
+            }
 
-                exportResults.addProperty(filePath, "Exported successfully using " +
-                        ExportMode.fromCode(exportMode).getDisplayName() + " mode");
+            // Overlapping configs share one read of their tags, and the exports are written in parallel
+            logger.info("Exporting tags from {} configs", entries.size());
+            JsonObject batchResult = BatchTagExporter.export(context.getTagManager(), executors, entries);
+            JsonObject errors = batchResult.getAsJsonObject("errors");
+            result.addProperty("success", errors.size() == 0);
+            if (errors.size() > 0) {
+                result.addProperty("error", "Failed to export tags from " + errors.size() + " of " +
+                        entries.size() + " configs");
+                result.add("errors", errors);
             }
-            result.addProperty("success", true);
-            result.add("details", exportResults);
+            result.add("details", batchResult.getAsJsonObject("details"));
         } catch (Exception e) {
             logger.error("Error exporting tags from config: {}", e.getMessage(), e);
             result.addProperty("success", false);
@@ -163,26 +253,22 @@ public class TagCICDRPCHandler implements TagCICDRPC {
         try {
             String configContent = new String(Files.readAllBytes(configPath));
             JsonArray configArray = new JsonParser().parse(configContent).getAsJsonArray();
-            JsonObject importResults = new JsonObject();
-
+            List<BatchTagImporter.Entry> entries = new ArrayList<>();
             for (JsonElement element : configArray) {
-                JsonObject config = element.getAsJsonObject();
-                String sourcePath = config.get("sourcePath").getAsString();
-                String provider = config.get("provider").getAsString();
-                String baseTagPath = config.get("baseTagPath").getAsString();
-                String collisionPolicy = config.get("collisionPolicy").getAsString();
-                String exportMode = config.get("exportMode").getAsString();
-
-                logger.info("Importing tags from config: sourcePath={}, provider={}, baseTagPath={}, exportMode={}",
-                        sourcePath, provider, baseTagPath, exportMode);
-
-                JsonObject importResult = TagImportUtilities.importTagsFromSource(context.getTagManager(), provider,
-                        baseTagPath, sourcePath, collisionPolicy, exportMode);
+                entries.add(BatchTagImporter.Entry.fromConfig(element.getAsJsonObject()));
+            }
 
-                importResults.add(sourcePath, importResult);
+            // Configs that cannot affect each other are imported at the same time
+            logger.info("Importing tags from {} configs", entries.size());
+            JsonObject batchResult = BatchTagImporter.importTags(context.getTagManager(), executors, entries);
+            JsonObject errors = batchResult.getAsJsonObject("errors");
+            result.addProperty("success", errors.size() == 0);
+            if (errors.size() > 0) {
+                result.addProperty("error", "Failed to import tags from " + errors.size() + " of " +
+                        entries.size() + " configs");
+                result.add("errors", errors);
             }
-            result.addProperty("success", true);
-            result.add("details", importResults);
+            result.add("details", batchResult.getAsJsonObject("details"));
         } catch (Exception e) {
             logger.error("Error importing tags from config: {}", e.getMessage(), e);
             result.addProperty("success", false);
@@ -254,6 +340,17 @@ public class TagCICDRPCHandler implements TagCICDRPC {
             logger.info("RPC performSelectiveExport called: provider={}, baseTagPath={}, targetFilePath={}, exportMode={}, configBaseTagPath={}",
                     provider, baseTagPath, targetFilePath, exportMode, configBaseTagPath);
 
+            // An archive is always written whole, so the whole configured path is exported again
+            if (ExportMode.fromCode(exportMode).isArchive()) {
+                TagExportUtilities.exportTagsToDisk(context.getTagManager(), provider, configBaseTagPath, true,
+                        false, targetFilePath, exportMode, true, excludeUdtDefinitions, true);
+                JsonObject result = new JsonObject();
+                result.addProperty("success", true);
+                result.addProperty("message", "Selective export completed successfully");
+                result.addProperty("filePath", ArchiveExportStrategy.getArchiveFilePath(targetFilePath));
+                return result.toString();
+            }
+
             // Step 1: Get the JSON data for the selected portion
             JsonObject newData = TagExportUtilities.exportTagsToJson(context.getTagManager(), provider, baseTagPath, true, false);
 
@@ -274,6 +371,9 @@ public class TagCICDRPCHandler implements TagCICDRPC {
             }
 
             // Step 2: Resolve target file path (for single file mode)
+            if (ExportMode.fromCode(exportMode) == ExportMode.SINGLE_FILE_GZIP) {
+                targetFilePath = SingleFileExportStrategy.getCompressedFilePath(targetFilePath);
+            }
             String absoluteFilePath;
             File targetFile = new File(targetFilePath);
             if (targetFile.isAbsolute()) {
@@ -291,8 +391,7 @@ public class TagCICDRPCHandler implements TagCICDRPC {
             JsonObject existingData;
             if (targetFile.exists()) {
                 try {
-                    String existingContent = new String(Files.readAllBytes(targetFile.toPath()));
-                    existingData = gson.fromJson(existingContent, JsonObject.class);
+                    existingData = TagFileReader.parseForRewrite(targetFile.toPath()).getAsJsonObject();
                     logger.info("Loaded existing file with {} top-level properties", existingData.keySet().size());
                 } catch (Exception e) {
                     logger.warn("Could not read existing file {}, creating new: {}", absoluteFilePath, e.getMessage());
@@ -317,7 +416,7 @@ public class TagCICDRPCHandler implements TagCICDRPC {
                        mergedData.has("tags") ? mergedData.getAsJsonArray("tags").size() : 0);
 
             // Step 4.5: Ensure proper root structure (name and tagType)
-            if ("singleFile".equals(exportMode)) {
+            if (ExportMode.fromCode(exportMode).isSingleFile()) {
                 // For single file mode, use configBaseTagPath to determine the correct root structure
                 ensureRootStructure(mergedData, configBaseTagPath);
             } else {
@@ -347,7 +446,7 @@ public class TagCICDRPCHandler implements TagCICDRPC {
     }
 
     private JsonObject mergeSelectiveData(JsonObject existingData, JsonObject newData, String selectedPath, String exportMode, String configBaseTagPath) {
-        if ("singleFile".equals(exportMode)) {
+        if (ExportMode.fromCode(exportMode).isSingleFile()) {
             return mergeSingleFileData(existingData, newData, selectedPath, configBaseTagPath);
         } else if ("structuredByType".equals(exportMode)) {
             return mergeStructuredData(existingData, newData, selectedPath);
@@ -908,20 +1007,19 @@ public class TagCICDRPCHandler implements TagCICDRPC {
             }
         }
 
-        // Save regularTags to tags.json if there are any
+        // Save regularTags to tags.json, or its shards, if there are any
         if (regularTags.size() > 0) {
-            JsonObject tagsJson = new JsonObject();
-            tagsJson.add("tags", regularTags);
-            FileUtilities.saveJsonToFile(tagsJson, basePath + "/tags.json");
-            logger.info("Exported {} regular tags to {}/tags.json", regularTags.size(), basePath);
+            int files = StructuredFileShards.write(regularTags, Paths.get(basePath),
+                    StructuredFileShards.TAGS_FILE_NAME, ExportManifest.disabled());
+            logger.info("Exported {} regular tags to {} tags file(s) in {}", regularTags.size(), files, basePath);
         }
 
-        // Save UDT instances and UDT types to udts.json if there are any
+        // Save UDT instances and UDT types to udts.json, or its shards, if there are any
         if (udtInstances.size() > 0) {
-            JsonObject udtsJson = new JsonObject();
-            udtsJson.add("tags", udtInstances);
-            FileUtilities.saveJsonToFile(udtsJson, basePath + "/udts.json");
-            logger.info("Exported {} UDT instances/types to {}/udts.json", udtInstances.size(), basePath);
+            int files = StructuredFileShards.write(udtInstances, Paths.get(basePath),
+                    StructuredFileShards.UDTS_FILE_NAME, ExportManifest.disabled());
+            logger.info("Exported {} UDT instances/types to {} udts file(s) in {}", udtInstances.size(), files,
+                    basePath);
         }
     }
 
@@ -948,15 +1046,15 @@ public class TagCICDRPCHandler implements TagCICDRPC {
      * @param tagName the name of the tag being added
      */
     private void updateStructuredFile(String basePath, String fileName, JsonObject newTag, String tagName) throws IOException {
-        logger.info("Updating structured file: {}/{} with tag '{}'", basePath, fileName, tagName);
-        File targetFile = new File(basePath, fileName);
+        // A sharded folder keeps the tag in whichever shard already holds it
+        File targetFile = StructuredFileShards.findFileForTag(Paths.get(basePath), fileName, tagName).toFile();
+        logger.info("Updating structured file: {} with tag '{}'", targetFile.getAbsolutePath(), tagName);
         JsonObject fileData;
 
         // Load existing file or create new structure
         if (targetFile.exists()) {
             try {
-                String existingContent = new String(Files.readAllBytes(targetFile.toPath()));
-                fileData = gson.fromJson(existingContent, JsonObject.class);
+                fileData = TagFileReader.parseForRewrite(targetFile.toPath()).getAsJsonObject();
                 logger.info("Loaded existing {} with {} tags", fileName,
                            fileData.has("tags") ? fileData.getAsJsonArray("tags").size() : 0);
             } catch (Exception e) {
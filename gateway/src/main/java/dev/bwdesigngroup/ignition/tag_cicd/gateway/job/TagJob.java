@@ -0,0 +1,162 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.job;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationProgress;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.concurrent.Future;
+
+/**
+ * An export or import submitted to the {@link TagJobManager}, with its state,
+ * progress and final result.
+ *
+ * @author Keith Gamble
+ */
+public class TagJob {
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final String type;
+    private final JsonObject parameters;
+    private final OperationProgress progress = new OperationProgress();
+    private final long submittedAt = System.currentTimeMillis();
+
+    private volatile State state = State.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile JsonObject result;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    TagJob(String id, String type, JsonObject parameters) {
+        this.id = id;
+        this.type = type;
+        this.parameters = parameters;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public OperationProgress getProgress() {
+        return progress;
+    }
+
+    public JsonObject getResult() {
+        return result;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        startedAt = System.currentTimeMillis();
+        return true;
+    }
+
+    synchronized void succeed(JsonObject result) {
+        if (!state.isFinished()) {
+            this.result = result;
+            finish(State.SUCCEEDED);
+        }
+    }
+
+    synchronized void fail(Throwable error) {
+        if (!state.isFinished()) {
+            this.error = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+            finish(progress.isCancelled() ? State.CANCELLED : State.FAILED);
+        }
+    }
+
+    /**
+     * Cancels the job. A queued job is cancelled right away; a running job stops
+     * at its next phase change or tag import submission and is interrupted if it
+     * is blocked.
+     *
+     * @return false if the job had already finished
+     */
+    synchronized boolean cancel() {
+        if (state.isFinished()) {
+            return false;
+        }
+        progress.cancel();
+        if (state == State.QUEUED) {
+            finish(State.CANCELLED);
+        }
+        Future<?> currentFuture = future;
+        if (currentFuture != null) {
+            currentFuture.cancel(true);
+        }
+        return true;
+    }
+
+    private void finish(State finalState) {
+        state = finalState;
+        finishedAt = System.currentTimeMillis();
+        if (finalState == State.SUCCEEDED && !progress.isCancelled()) {
+            progress.setPhase(OperationProgress.PHASE_DONE);
+        }
+    }
+
+    /**
+     * @param includeResult whether to include the final result
+     * @return the job as JSON
+     */
+    public JsonObject toJson(boolean includeResult) {
+        JsonObject json = new JsonObject();
+        json.addProperty("jobId", id);
+        json.addProperty("type", type);
+        json.addProperty("state", state.name().toLowerCase());
+        json.add("parameters", parameters);
+        json.addProperty("submittedAt", submittedAt);
+        if (startedAt > 0) {
+            json.addProperty("startedAt", startedAt);
+        }
+        if (finishedAt > 0) {
+            json.addProperty("finishedAt", finishedAt);
+        }
+
+        JsonObject progressJson = progress.toJson();
+        json.addProperty("phase", progressJson.get("phase").getAsString());
+        json.add("progress", progressJson.get("counters"));
+        for (String key : new String[] { "expected", "completed", "etaSeconds" }) {
+            if (progressJson.has(key)) {
+                json.add(key, progressJson.get(key));
+            }
+        }
+
+        if (error != null) {
+            json.addProperty("error", error);
+        }
+        if (includeResult && result != null) {
+            json.add("result", result);
+        }
+        return json;
+    }
+}
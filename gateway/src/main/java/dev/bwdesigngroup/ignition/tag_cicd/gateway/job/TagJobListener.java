@@ -0,0 +1,17 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.job;
+
+/**
+ * Receives updates about jobs run by the {@link TagJobManager}.
+ *
+ * @author Keith Gamble
+ */
+public interface TagJobListener {
+    /**
+     * Called when a job is submitted, starts, finishes or is cancelled, and
+     * periodically while it runs so that its progress can be reported.
+     * Implementations should return quickly.
+     *
+     * @param job the job
+     */
+    void jobUpdated(TagJob job);
+}
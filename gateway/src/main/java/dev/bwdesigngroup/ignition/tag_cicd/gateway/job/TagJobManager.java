@@ -0,0 +1,228 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.job;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.constants.TagCICDConstants;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.OperationProgress;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs exports and imports as background jobs so that callers do not have to
+ * hold an HTTP request open for the length of the operation.
+ * <p>
+ * Jobs run on a bounded executor of {@link TagCICDConstants#JOB_CONCURRENCY}
+ * threads with a queue of {@link TagCICDConstants#JOB_QUEUE_LIMIT}. Submissions
+ * beyond that are rejected rather than queued without limit. Finished jobs are
+ * kept for {@link TagCICDConstants#JOB_RETENTION_MINUTES} minutes, up to
+ * {@link TagCICDConstants#JOB_MAX_RETAINED} of them, and are pruned whenever
+ * jobs are submitted or listed.
+ * <p>
+ * Registered {@link TagJobListener}s are told about every state change, and
+ * about running jobs every {@link TagCICDConstants#JOB_PROGRESS_INTERVAL_MILLIS}
+ * milliseconds.
+ *
+ * @author Keith Gamble
+ */
+public class TagJobManager {
+    private static final Logger logger = LoggerFactory.getLogger(TagJobManager.class.getName());
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService progressPublisher;
+    private final List<TagJobListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, TagJob> jobs = new ConcurrentHashMap<>();
+    private final long retentionMillis;
+    private final int maxRetained;
+
+    public TagJobManager() {
+        this(TagCICDConstants.JOB_CONCURRENCY, TagCICDConstants.JOB_QUEUE_LIMIT,
+                TagCICDConstants.JOB_RETENTION_MINUTES, TagCICDConstants.JOB_MAX_RETAINED);
+    }
+
+    public TagJobManager(int concurrency, int queueLimit, int retentionMinutes, int maxRetained) {
+        int threads = Math.max(1, concurrency);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueLimit)), runnable -> {
+                    Thread thread = new Thread(runnable, "tag-cicd-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(Math.max(0, retentionMinutes));
+        this.maxRetained = Math.max(0, maxRetained);
+
+        this.progressPublisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tag-cicd-job-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, TagCICDConstants.JOB_PROGRESS_INTERVAL_MILLIS);
+        this.progressPublisher.scheduleWithFixedDelay(this::publishRunningJobs, interval, interval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param listener the listener to notify of job updates
+     */
+    public void addListener(TagJobListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TagJobListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Submits an operation to run in the background.
+     *
+     * @param type       a short name for the operation, such as {@code export}
+     * @param parameters the parameters the job was submitted with, reported back
+     *                   with its status
+     * @param operation  the work to run, which reports progress through
+     *                   {@link OperationProgress#current()}
+     * @return the submitted job
+     * @throws RejectedExecutionException if the job queue is full or the manager
+     *                                    has been shut down
+     */
+    public TagJob submit(String type, JsonObject parameters, Callable<JsonObject> operation) {
+        pruneFinishedJobs();
+
+        TagJob job = new TagJob(UUID.randomUUID().toString(), type, parameters);
+        jobs.put(job.getId(), job);
+        try {
+            Future<?> future = executor.submit(() -> run(job, operation));
+            job.setFuture(future);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+
+        logger.info("Submitted {} job {}", type, job.getId());
+        notifyListeners(job);
+        return job;
+    }
+
+    /**
+     * @param jobId the job id
+     * @return the job, or null if it does not exist or has been pruned
+     */
+    public TagJob getJob(String jobId) {
+        return jobId != null ? jobs.get(jobId) : null;
+    }
+
+    /**
+     * Cancels a job.
+     *
+     * @param jobId the job id
+     * @return the job, or null if it does not exist
+     */
+    public TagJob cancel(String jobId) {
+        TagJob job = getJob(jobId);
+        if (job != null && job.cancel()) {
+            // Drop cancelled jobs that are still queued so they free their queue slot
+            executor.purge();
+            logger.info("Cancelled {} job {}", job.getType(), jobId);
+            notifyListeners(job);
+        }
+        return job;
+    }
+
+    /**
+     * @return every retained job, newest first, without results
+     */
+    public JsonArray listJobs() {
+        pruneFinishedJobs();
+
+        List<TagJob> sortedJobs = new ArrayList<>(jobs.values());
+        sortedJobs.sort(Comparator.comparingLong(TagJob::getSubmittedAt).reversed());
+
+        JsonArray jobsArray = new JsonArray();
+        sortedJobs.forEach(job -> jobsArray.add(job.toJson(false)));
+        return jobsArray;
+    }
+
+    /**
+     * Cancels every running job and stops the executor.
+     */
+    public void shutdown() {
+        jobs.values().forEach(TagJob::cancel);
+        executor.shutdownNow();
+        progressPublisher.shutdownNow();
+        listeners.clear();
+    }
+
+    private void run(TagJob job, Callable<JsonObject> operation) {
+        if (!job.start()) {
+            return;
+        }
+        notifyListeners(job);
+
+        OperationProgress.bind(job.getProgress());
+        try {
+            job.succeed(operation.call());
+            logger.info("{} job {} finished", job.getType(), job.getId());
+        } catch (Throwable e) {
+            logger.error("{} job {} failed: {}", job.getType(), job.getId(), e.getMessage(), e);
+            job.fail(e);
+        } finally {
+            OperationProgress.bind(null);
+        }
+        notifyListeners(job);
+    }
+
+    private void publishRunningJobs() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (TagJob job : jobs.values()) {
+            if (job.getState() == TagJob.State.RUNNING) {
+                notifyListeners(job);
+            }
+        }
+    }
+
+    private void notifyListeners(TagJob job) {
+        for (TagJobListener listener : listeners) {
+            try {
+                listener.jobUpdated(job);
+            } catch (Exception e) {
+                logger.warn("Job listener failed for job {}: {}", job.getId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        jobs.values().removeIf(job -> job.getState().isFinished() && job.getFinishedAt() < cutoff);
+
+        List<TagJob> finishedJobs = new ArrayList<>();
+        for (TagJob job : jobs.values()) {
+            if (job.getState().isFinished()) {
+                finishedJobs.add(job);
+            }
+        }
+        if (finishedJobs.size() > maxRetained) {
+            finishedJobs.sort(Comparator.comparingLong(TagJob::getFinishedAt));
+            for (int i = 0; i < finishedJobs.size() - maxRetained; i++) {
+                jobs.remove(finishedJobs.get(i).getId());
+            }
+        }
+    }
+}
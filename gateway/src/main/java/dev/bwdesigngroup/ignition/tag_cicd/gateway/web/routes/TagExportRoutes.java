@@ -9,22 +9,32 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.StreamingTagExporter;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.job.TagJobManager;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
 import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
 import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
 import com.inductiveautomation.ignition.gateway.model.GatewayContext;
 import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+
 public class TagExportRoutes {
 	private static final Logger logger = LoggerFactory.getLogger(TagExportRoutes.class.getName());
 	private final RouteGroup routes;
 	private final GatewayTagManager tagManager;
+	private final TagJobManager jobManager;
 
-	public TagExportRoutes(GatewayContext context, RouteGroup group) {
+	public TagExportRoutes(GatewayContext context, TagJobManager jobManager, RouteGroup group) {
 		this.routes = group;
 		this.tagManager = context.getTagManager();
+		this.jobManager = jobManager;
 	}
 
 	public void mountRoutes() {
@@ -39,6 +49,11 @@ public class TagExportRoutes {
 				.method(POST)
 				.mount();
 
+		// No response type: the handler sets the content type of the format it streams
+		this.routes.newRoute("/tags/export/download")
+				.handler(this::downloadTags)
+				.mount();
+
 		this.routes.newRoute("/tags/export/modes")
 				.handler(this::getExportModes)
 				.type(TYPE_JSON)
@@ -62,6 +77,83 @@ public class TagExportRoutes {
 		return responseObject;
 	}
 
+	/**
+	 * Streams an export straight to the response as canonical JSON, NDJSON or a
+	 * zip archive of any export mode's layout, without writing it to disk or
+	 * rendering the whole document in memory. No content length is set, so the
+	 * response is sent with chunked transfer encoding as it is written.
+	 * <p>
+	 * Errors found before anything has been written are returned as JSON, as on
+	 * the other routes. An error part way through aborts the response, so that a
+	 * truncated download is never mistaken for a complete one.
+	 *
+	 * @return null, as the response has already been written
+	 */
+	public JsonObject downloadTags(RequestContext requestContext, HttpServletResponse httpServletResponse)
+			throws IOException {
+		String provider = requestContext.getParameter("provider");
+		String baseTagPath = requestContext.getParameter("baseTagPath");
+		boolean recursive = Boolean.parseBoolean(requestContext.getParameter("recursive"));
+		boolean localPropsOnly = Boolean.parseBoolean(requestContext.getParameter("localPropsOnly"));
+		boolean excludeUdtDefinitions = Boolean.parseBoolean(requestContext.getParameter("excludeUdtDefinitions"));
+
+		StreamingTagExporter.Format format;
+		ExportMode exportMode;
+		JsonObject tagsJson;
+		try {
+			format = StreamingTagExporter.Format.fromCode(requestContext.getParameter("format"));
+			exportMode = ExportMode.fromCode(requestContext.getParameter("exportMode"));
+			tagsJson = TagExportUtilities.fetchTagsJson(tagManager, provider, baseTagPath, recursive, localPropsOnly);
+		} catch (IllegalArgumentException e) {
+			logger.error("Invalid tag download request: " + e.getMessage());
+			writeJsonResponse(httpServletResponse, WebUtilities.getBadRequestError(httpServletResponse, e.getMessage()));
+			return null;
+		} catch (Exception e) {
+			logger.error("Error reading tags for download: " + e.getMessage(), e);
+			writeJsonResponse(httpServletResponse, WebUtilities.getInternalServerErrorResponse(httpServletResponse, e));
+			return null;
+		}
+
+		logger.info("Streaming tag download: provider={}, baseTagPath={}, format={}, exportMode={}", provider,
+				baseTagPath, format.getCode(), exportMode.getCode());
+		httpServletResponse.setContentType(format.getContentType());
+		if (format != StreamingTagExporter.Format.ZIP) {
+			httpServletResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		}
+		httpServletResponse.setHeader("Content-Disposition",
+				"attachment; filename=\"" + getDownloadFileName(provider, baseTagPath, format) + "\"");
+
+		try {
+			OutputStream out = httpServletResponse.getOutputStream();
+			StreamingTagExporter.write(tagsJson, format, exportMode, excludeUdtDefinitions, out);
+			out.flush();
+		} catch (Exception e) {
+			logger.error("Error streaming tag download: " + e.getMessage(), e);
+			if (httpServletResponse.isCommitted()) {
+				throw new IOException("Tag download aborted: " + e.getMessage(), e);
+			}
+			httpServletResponse.reset();
+			writeJsonResponse(httpServletResponse, WebUtilities.getInternalServerErrorResponse(httpServletResponse, e));
+		}
+		return null;
+	}
+
+	private static void writeJsonResponse(HttpServletResponse httpServletResponse, JsonObject responseObject)
+			throws IOException {
+		httpServletResponse.setContentType(TYPE_JSON);
+		httpServletResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		httpServletResponse.getWriter().write(responseObject.toString());
+	}
+
+	private static String getDownloadFileName(String provider, String baseTagPath,
+			StreamingTagExporter.Format format) {
+		String name = provider == null ? TagConfigUtilities.DEFAULT_PROVIDER : provider;
+		if (baseTagPath != null && !baseTagPath.isEmpty()) {
+			name += "-" + baseTagPath;
+		}
+		return name.replaceAll("[^A-Za-z0-9_-]+", "_") + format.getFileExtension();
+	}
+
 	public JsonObject exportTagsToDisk(RequestContext requestContext, HttpServletResponse httpServletResponse) {
 		JsonObject responseObject = new JsonObject();
 		try {
@@ -81,16 +173,35 @@ public class TagExportRoutes {
 
 			boolean deleteExisting = Boolean.parseBoolean(requestContext.getParameter("deleteExisting"));
 			boolean excludeUdtDefinitions = Boolean.parseBoolean(requestContext.getParameter("excludeUdtDefinitions"));
-
-			TagExportUtilities.exportTagsToDisk(tagManager, provider, baseTagPath, recursive, localPropsOnly, filePath,
-					exportMode, deleteExisting, excludeUdtDefinitions);
-
-			responseObject.addProperty("status", "success");
-			responseObject.addProperty("filePath", filePath);
-			responseObject.addProperty("exportMode", exportMode);
-			if (excludeUdtDefinitions) {
-				responseObject.addProperty("excludedUdtDefinitions", true);
+			boolean incremental = Boolean.parseBoolean(requestContext.getParameter("incremental"));
+
+			Callable<JsonObject> operation = () -> {
+				TagExportUtilities.exportTagsToDisk(tagManager, provider, baseTagPath, recursive, localPropsOnly,
+						filePath, exportMode, deleteExisting, excludeUdtDefinitions, incremental);
+
+				JsonObject exportResponse = new JsonObject();
+				exportResponse.addProperty("status", "success");
+				exportResponse.addProperty("filePath", filePath);
+				exportResponse.addProperty("exportMode", exportMode);
+				if (excludeUdtDefinitions) {
+					exportResponse.addProperty("excludedUdtDefinitions", true);
+				}
+				if (incremental) {
+					exportResponse.addProperty("incremental", true);
+				}
+				return exportResponse;
+			};
+
+			if (Boolean.parseBoolean(requestContext.getParameter("async"))) {
+				JsonObject parameters = new JsonObject();
+				parameters.addProperty("provider", provider);
+				parameters.addProperty("baseTagPath", baseTagPath);
+				parameters.addProperty("filePath", filePath);
+				parameters.addProperty("exportMode", exportMode);
+				return TagJobRoutes.submitJob(jobManager, "export", parameters, operation, httpServletResponse);
 			}
+
+			responseObject = operation.call();
 		} catch (Exception e) {
 			logger.error("Error exporting tags to disk: " + e.getMessage(), e);
 			responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
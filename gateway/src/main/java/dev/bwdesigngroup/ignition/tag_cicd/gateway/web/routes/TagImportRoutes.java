@@ -3,18 +3,20 @@ package dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes;
 import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.POST;
 import static com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup.TYPE_JSON;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
-import dev.bwdesigngroup.ignition.tag_cicd.common.util.FileUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.strategy.TagExportImportStrategyFactory;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagConfigUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
 import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.job.TagJobManager;
 import com.inductiveautomation.ignition.common.gson.JsonObject;
-import com.inductiveautomation.ignition.common.tags.TagUtilities;
 import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
 import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
 import com.inductiveautomation.ignition.gateway.model.GatewayContext;
@@ -22,15 +24,24 @@ import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Callable;
 
 public class TagImportRoutes {
     private static final Logger logger = LoggerFactory.getLogger(TagImportRoutes.class.getName());
     private final RouteGroup routes;
     private final GatewayTagManager tagManager;
+    private final TagJobManager jobManager;
+    private final TagCICDExecutors executors;
 
-    public TagImportRoutes(GatewayContext context, RouteGroup group) {
+    public TagImportRoutes(GatewayContext context, TagJobManager jobManager, TagCICDExecutors executors,
+            RouteGroup group) {
         this.routes = group;
         this.tagManager = context.getTagManager();
+        this.jobManager = jobManager;
+        this.executors = executors;
     }
 
     public void mountRoutes() {
@@ -41,6 +52,17 @@ public class TagImportRoutes {
                 .mount();
     }
 
+    /**
+     * Imports tags from {@code filePath}, or from the request body when it is
+     * left out. A body is imported as it is read, in the zip archive mode of a
+     * directory layout, and a mode that cannot be read from a stream is rejected
+     * with {@code 400 Bad Request}.
+     * <p>
+     * With {@code async=true} the job outlives the request, so a body is not
+     * streamed: it is first copied as sent to a temporary file, which needs room
+     * for the whole upload in the temporary directory and is deleted once the job
+     * has read it.
+     */
     public JsonObject importTagConfiguration(RequestContext requestContext, HttpServletResponse httpServletResponse) {
         JsonObject responseObject = new JsonObject();
         try {
@@ -65,27 +87,68 @@ public class TagImportRoutes {
             }
 
             String sourcePath = requestContext.getParameter("filePath");
-
-            if (sourcePath == null && !ExportMode.SINGLE_FILE.getCode().equals(exportMode)) {
-                throw new IllegalArgumentException("filePath is required for selected export mode");
+            boolean async = Boolean.parseBoolean(requestContext.getParameter("async"));
+            HttpServletRequest request = requestContext.getRequest();
+            if (sourcePath == null && (request.getContentLengthLong() == 0 || isFormBody(request))) {
+                throw new IllegalArgumentException(
+                        "filePath is required unless the request body holds the tags to import");
             }
-
-            if (ExportMode.SINGLE_FILE.getCode().equals(exportMode) && sourcePath == null) {
-                String jsonBody = requestContext.readBody();
-                if (jsonBody == null || jsonBody.trim().isEmpty()) {
+            if (sourcePath == null) {
+                ExportMode streamMode = TagImportUtilities.getStreamExportMode(exportMode);
+                if (!TagExportImportStrategyFactory.getInstance().getStrategy(streamMode).supportsStreamImport()) {
                     throw new IllegalArgumentException(
-                            "Request body must contain tag configuration JSON when using single file mode without filePath");
+                            streamMode.getDisplayName() + " mode cannot import from a request body");
                 }
-                sourcePath = writeTempFile(jsonBody);
             }
 
-            responseObject = TagImportUtilities.importTagsFromSource(
-                    tagManager, provider, baseTagPath, sourcePath, collisionPolicy, exportMode);
+            String importProvider = provider;
+            String importBaseTagPath = baseTagPath;
+            String importCollisionPolicy = collisionPolicy;
+            Callable<JsonObject> operation;
+            if (sourcePath == null && !async) {
+                // Imported as the body is read, so it is parsed once and never written to disk
+                operation = () -> TagImportUtilities.importTagsFromStream(tagManager, importProvider,
+                        importBaseTagPath, request.getInputStream(), importCollisionPolicy, exportMode);
+            } else {
+                String importExportMode = exportMode;
+                boolean deleteSourceAfterImport = sourcePath == null;
+                if (sourcePath == null) {
+                    // A job outlives the request, so the body is kept as it was sent until the job reads it
+                    ExportMode streamMode = TagImportUtilities.getStreamExportMode(exportMode);
+                    sourcePath = writeBodyToTempFile(request,
+                            streamMode.isArchive() ? ".zip" : isCompressedBody(request) ? ".json.gz" : ".json");
+                    importExportMode = streamMode.getCode();
+                }
+
+                String importSourcePath = sourcePath;
+                String sourceExportMode = importExportMode;
+                operation = () -> {
+                    try {
+                        return TagImportUtilities.importTagsFromSource(tagManager, executors,
+                                importProvider, importBaseTagPath, importSourcePath, importCollisionPolicy,
+                                sourceExportMode);
+                    } finally {
+                        if (deleteSourceAfterImport) {
+                            new File(importSourcePath).delete();
+                        }
+                    }
+                };
+            }
 
-            if (ExportMode.SINGLE_FILE.getCode().equals(exportMode)
-                    && !sourcePath.equals(requestContext.getParameter("filePath"))) {
-                new File(sourcePath).delete();
+            if (async) {
+                JsonObject parameters = new JsonObject();
+                parameters.addProperty("provider", provider);
+                parameters.addProperty("baseTagPath", baseTagPath);
+                parameters.addProperty("filePath", requestContext.getParameter("filePath"));
+                parameters.addProperty("collisionPolicy", collisionPolicy);
+                parameters.addProperty("exportMode", exportMode);
+                return TagJobRoutes.submitJob(jobManager, "import", parameters, operation, httpServletResponse);
             }
+
+            responseObject = operation.call();
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid tag import request: " + e.getMessage());
+            responseObject = WebUtilities.getBadRequestError(httpServletResponse, e.getMessage());
         } catch (Exception e) {
             logger.error("Error importing tag configuration: " + e.getMessage(), e);
             responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
@@ -93,10 +156,39 @@ public class TagImportRoutes {
         return responseObject;
     }
 
-    private String writeTempFile(String jsonContent) throws IOException {
-        File tempFile = File.createTempFile("tag_import_", ".json");
-        FileUtilities.saveJsonToFile(TagUtilities.stringToJson(jsonContent).getAsJsonObject(),
-                tempFile.getAbsolutePath());
+    /**
+     * Checks whether the request body is a gzip-compressed export, sent either
+     * with {@code Content-Encoding: gzip} or as {@code application/gzip}.
+     */
+    private boolean isCompressedBody(HttpServletRequest request) {
+        String contentEncoding = request.getHeader("Content-Encoding");
+        String contentType = request.getContentType();
+        return (contentEncoding != null && contentEncoding.toLowerCase().contains("gzip"))
+                || (contentType != null && (contentType.toLowerCase().startsWith("application/gzip")
+                        || contentType.toLowerCase().startsWith("application/x-gzip")));
+    }
+
+    /**
+     * Checks whether the request body holds form parameters rather than tags.
+     */
+    private boolean isFormBody(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("application/x-www-form-urlencoded");
+    }
+
+    private String writeBodyToTempFile(HttpServletRequest request, String suffix) throws IOException {
+        File tempFile = File.createTempFile("tag_import_", suffix);
+        try (InputStream body = request.getInputStream()) {
+            Files.copy(body, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+        if (tempFile.length() == 0) {
+            tempFile.delete();
+            throw new IllegalArgumentException(
+                    "filePath is required unless the request body holds the tags to import");
+        }
         return tempFile.getAbsolutePath();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package dev.bwdesigngroup.ignition.tag_cicd.gateway.web.routes;
+
+import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.GET;
+import static com.inductiveautomation.ignition.gateway.dataroutes.HttpMethod.POST;
+import static com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup.TYPE_JSON;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.WebUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.job.TagJob;
+import dev.bwdesigngroup.ignition.tag_cicd.gateway.job.TagJobManager;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.gateway.dataroutes.RequestContext;
+import com.inductiveautomation.ignition.gateway.dataroutes.RouteGroup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Routes for checking on and cancelling export and import jobs started with
+ * {@code async=true}.
+ */
+public class TagJobRoutes {
+    private static final Logger logger = LoggerFactory.getLogger(TagJobRoutes.class.getName());
+    private final RouteGroup routes;
+    private final TagJobManager jobManager;
+
+    public TagJobRoutes(TagJobManager jobManager, RouteGroup group) {
+        this.routes = group;
+        this.jobManager = jobManager;
+    }
+
+    public void mountRoutes() {
+        this.routes.newRoute("/tags/jobs")
+                .handler(this::listJobs)
+                .type(TYPE_JSON)
+                .method(GET)
+                .mount();
+
+        this.routes.newRoute("/tags/jobs/:jobId")
+                .handler(this::getJob)
+                .type(TYPE_JSON)
+                .method(GET)
+                .mount();
+
+        this.routes.newRoute("/tags/jobs/:jobId/cancel")
+                .handler(this::cancelJob)
+                .type(TYPE_JSON)
+                .method(POST)
+                .mount();
+    }
+
+    /**
+     * Submits an operation as a job and builds the 202 response for it, or a 503
+     * response if the job queue is full.
+     *
+     * @param jobManager          the job manager
+     * @param type                a short name for the operation
+     * @param parameters          the request parameters to report with the job
+     * @param operation           the work to run
+     * @param httpServletResponse the response to set the status code on
+     * @return the response body
+     */
+    public static JsonObject submitJob(TagJobManager jobManager, String type, JsonObject parameters,
+            Callable<JsonObject> operation, HttpServletResponse httpServletResponse) {
+        try {
+            TagJob job = jobManager.submit(type, parameters, operation);
+            httpServletResponse.setStatus(202);
+            JsonObject responseObject = job.toJson(false);
+            responseObject.addProperty("status", "accepted");
+            return responseObject;
+        } catch (RejectedExecutionException e) {
+            logger.warn("Rejected {} job: {}", type, e.getMessage());
+            return WebUtilities.getServiceUnavailableError(httpServletResponse,
+                    "The job queue is full, try again once running jobs have finished");
+        }
+    }
+
+    public JsonObject listJobs(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        JsonObject responseObject = new JsonObject();
+        try {
+            responseObject.add("jobs", jobManager.listJobs());
+        } catch (Exception e) {
+            logger.error("Error listing jobs: " + e.getMessage(), e);
+            responseObject = WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+        return responseObject;
+    }
+
+    public JsonObject getJob(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        try {
+            String jobId = requestContext.getParameter("jobId");
+            TagJob job = jobManager.getJob(jobId);
+            if (job == null) {
+                return WebUtilities.getNotFoundError(httpServletResponse, "No job found with id " + jobId);
+            }
+            return job.toJson(true);
+        } catch (Exception e) {
+            logger.error("Error getting job: " + e.getMessage(), e);
+            return WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+    }
+
+    public JsonObject cancelJob(RequestContext requestContext, HttpServletResponse httpServletResponse) {
+        try {
+            String jobId = requestContext.getParameter("jobId");
+            TagJob job = jobManager.cancel(jobId);
+            if (job == null) {
+                return WebUtilities.getNotFoundError(httpServletResponse, "No job found with id " + jobId);
+            }
+            return job.toJson(false);
+        } catch (Exception e) {
+            logger.error("Error cancelling job: " + e.getMessage(), e);
+            return WebUtilities.getInternalServerErrorResponse(httpServletResponse, e);
+        }
+    }
+}
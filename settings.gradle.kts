@@ -23,6 +23,7 @@ dependencyResolutionManagement {
         maven {
             url = uri("https://nexus.inductiveautomation.com/repository/public/")
         }
+        mavenCentral()  // JMH and other build-only tooling
     }
 }
 
@@ -31,4 +32,4 @@ enableFeaturePreview("TYPESAFE_PROJECT_ACCESSORS")
 
 rootProject.name = "tag-cicd"
 
-include(":common", ":gateway", ":designer")
\ No newline at end of file
+include(":common", ":gateway", ":designer", ":benchmarks", ":test-fixtures")
\ No newline at end of file
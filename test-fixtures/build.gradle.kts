@@ -0,0 +1,36 @@
+// In-process stand-ins for the gateway, for benchmarks and throughput runs. Not
+// part of the module.
+plugins {
+    `java-library`
+}
+
+java {
+    toolchain {
+        // Set Java version to 17
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+dependencies {
+    api(projects.common)
+
+    // Provided by the gateway at runtime, so needed on the classpath here
+    api(libs.ignition.common)
+    api(libs.ignition.gateway.api)
+}
+
+// Measures export and import throughput for every export mode against the
+// in-memory tag manager, e.g.
+// ./gradlew :test-fixtures:throughputHarness -PharnessArgs="--counts=10000,100000"
+val throughputHarness by tasks.registering(JavaExec::class) {
+    group = "verification"
+    description = "Reports tags/sec and peak heap for each export mode."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("dev.bwdesigngroup.ignition.tag_cicd.testfixtures.ThroughputHarness")
+    maxHeapSize = project.findProperty("harnessHeap")?.toString() ?: "8g"
+    workingDir = layout.buildDirectory.dir("throughput").get().asFile
+    args = (project.findProperty("harnessArgs")?.toString() ?: "").split(" ").filter { it.isNotBlank() }
+    doFirst {
+        workingDir.mkdirs()
+    }
+}
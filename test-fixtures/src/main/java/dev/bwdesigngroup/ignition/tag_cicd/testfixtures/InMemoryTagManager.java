@@ -0,0 +1,162 @@
+package dev.bwdesigngroup.ignition.tag_cicd.testfixtures;
+
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.model.TagProvider;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory stand-in for the gateway's tag manager, so that exports and
+ * imports can be run and measured without a gateway.
+ * <p>
+ * {@link #getTagManager()} returns a {@link GatewayTagManager} that supports
+ * the calls the module makes: {@code getTagProvider}, {@code getTagProviders}
+ * and {@code importTagsAsync}, and on the providers {@code getTagConfigsAsync}
+ * and {@code removeTagConfigsAsync}. Any other call throws
+ * {@link UnsupportedOperationException}.
+ * <p>
+ * Every asynchronous call completes on a separate thread after the configured
+ * latency, to mimic the round trip to a real provider.
+ *
+ * @author Keith Gamble
+ */
+public class InMemoryTagManager implements AutoCloseable {
+    private final Map<String, InMemoryTagProvider> providers = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final Executor delayedExecutor;
+    private final GatewayTagManager tagManager;
+
+    public InMemoryTagManager() {
+        this(0);
+    }
+
+    /**
+     * @param latencyMillis the time every asynchronous call takes to complete
+     */
+    public InMemoryTagManager(long latencyMillis) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "in-memory-tags-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.delayedExecutor = latencyMillis > 0
+                ? CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS, executor)
+                : executor;
+        this.tagManager = (GatewayTagManager) Proxy.newProxyInstance(GatewayTagManager.class.getClassLoader(),
+                new Class<?>[] { GatewayTagManager.class }, (proxy, method, args) -> invokeTagManager(method, args));
+    }
+
+    /**
+     * Adds an empty provider, or returns the existing one with that name.
+     *
+     * @param name the provider name
+     * @return the provider
+     */
+    public InMemoryTagProvider addProvider(String name) {
+        return providers.computeIfAbsent(name, InMemoryTagProvider::new);
+    }
+
+    public InMemoryTagProvider getProvider(String name) {
+        return providers.get(name);
+    }
+
+    /**
+     * @return the tag manager to pass to the module's export and import code
+     */
+    public GatewayTagManager getTagManager() {
+        return tagManager;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> later(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, delayedExecutor);
+    }
+
+    private Object invokeTagManager(Method method, Object[] args) {
+        int argCount = args == null ? 0 : args.length;
+        switch (method.getName() + "/" + argCount) {
+            case "getTagProvider/1": {
+                InMemoryTagProvider provider = providers.get((String) args[0]);
+                return provider != null ? asTagProvider(provider) : null;
+            }
+            case "getTagProviders/0": {
+                List<TagProvider> tagProviders = new ArrayList<>();
+                providers.values().forEach(provider -> tagProviders.add(asTagProvider(provider)));
+                return tagProviders;
+            }
+            case "importTagsAsync/4":
+                return importTags((TagPath) args[0], (String) args[1], (CollisionPolicy) args[3]);
+            case "toString/0":
+                return "InMemoryTagManager" + providers.keySet();
+            case "hashCode/0":
+                return System.identityHashCode(this);
+            case "equals/1":
+                return args[0] == tagManager;
+            default:
+                throw new UnsupportedOperationException(
+                        "GatewayTagManager." + method.getName() + " is not supported by InMemoryTagManager");
+        }
+    }
+
+    private CompletableFuture<List<QualityCode>> importTags(TagPath basePath, String json,
+            CollisionPolicy collisionPolicy) {
+        InMemoryTagProvider provider = providers.get(basePath.getSource());
+        if (provider == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Tag provider " + basePath.getSource() + " does not exist"));
+        }
+        return later(() -> provider.importTags(basePath, json, collisionPolicy));
+    }
+
+    private TagProvider asTagProvider(InMemoryTagProvider provider) {
+        return (TagProvider) Proxy.newProxyInstance(TagProvider.class.getClassLoader(),
+                new Class<?>[] { TagProvider.class }, (proxy, method, args) -> {
+                    int argCount = args == null ? 0 : args.length;
+                    switch (method.getName() + "/" + argCount) {
+                        case "getName/0":
+                            return provider.getName();
+                        case "getTagConfigsAsync/3": {
+                            @SuppressWarnings("unchecked")
+                            List<TagPath> tagPaths = (List<TagPath>) args[0];
+                            boolean recursive = (Boolean) args[1];
+                            boolean localPropsOnly = (Boolean) args[2];
+                            return later(() -> provider.getTagConfigs(tagPaths, recursive, localPropsOnly));
+                        }
+                        case "removeTagConfigsAsync/1": {
+                            @SuppressWarnings("unchecked")
+                            List<TagPath> tagPaths = (List<TagPath>) args[0];
+                            return later(() -> provider.removeTagConfigs(tagPaths));
+                        }
+                        case "toString/0":
+                            return "InMemoryTagProvider[" + provider.getName() + "]";
+                        case "hashCode/0":
+                            return System.identityHashCode(proxy);
+                        case "equals/1":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(
+                                    "TagProvider." + method.getName() + " is not supported by InMemoryTagProvider");
+                    }
+                });
+    }
+}
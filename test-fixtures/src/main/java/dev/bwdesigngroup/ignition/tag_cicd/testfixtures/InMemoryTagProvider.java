@@ -0,0 +1,172 @@
+package dev.bwdesigngroup.ignition.tag_cicd.testfixtures;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonParser;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A tag provider held in memory, created through
+ * {@link InMemoryTagManager#addProvider(String)}.
+ * <p>
+ * Imports follow the tag manager's collision policies: {@code Abort} fails
+ * tags that already exist, {@code Ignore} leaves them alone, {@code Overwrite}
+ * replaces them and {@code MergeOverwrite} merges into them. Folders are
+ * always merged into, so that importing a folder never drops tags that are not
+ * part of the import. Every operation holds the provider's lock for its
+ * duration.
+ * <p>
+ * Reads without {@code localPropsOnly} add the provider's inherited
+ * properties, see {@link #setInheritedProperties(JsonObject)}, to every tag.
+ *
+ * @author Keith Gamble
+ */
+public class InMemoryTagProvider {
+    private final String name;
+    private final TagNode root;
+    private JsonObject inheritedProperties;
+
+    InMemoryTagProvider(String name) {
+        this.name = name;
+        this.root = new TagNode(name, "Provider");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Adds a tag tree to the provider root without going through an import,
+     * for seeding the provider before a run.
+     *
+     * @param tagsJson an object with a {@code tags} array
+     */
+    public synchronized void load(JsonObject tagsJson) {
+        root.mergeConfig(tagsJson);
+    }
+
+    /**
+     * @return the number of tags in the provider, not counting folders and
+     *         counting each UDT definition or instance as one tag
+     */
+    public synchronized long countTags() {
+        return root.countTags();
+    }
+
+    /**
+     * @return the provider's tags as an object with a {@code tags} array
+     */
+    public synchronized JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.add("tags", root.toJson().getAsJsonArray("tags"));
+        return json;
+    }
+
+    /**
+     * Sets properties every tag other than a folder reports when read without
+     * {@code localPropsOnly}, unless it sets them itself, as a real provider
+     * reports the values a tag inherits or leaves at their defaults.
+     *
+     * @param properties the properties, or null for none
+     */
+    public synchronized void setInheritedProperties(JsonObject properties) {
+        this.inheritedProperties = properties != null ? properties.deepCopy() : null;
+    }
+
+    synchronized List<TagConfigurationModel> getTagConfigs(List<TagPath> tagPaths, boolean recursive,
+            boolean localPropsOnly) {
+        List<TagConfigurationModel> models = new ArrayList<>();
+        for (TagPath tagPath : tagPaths) {
+            models.add(JsonTagConfigurationModel.create(find(tagPath), tagPath, recursive,
+                    localPropsOnly ? null : inheritedProperties));
+        }
+        return models;
+    }
+
+    synchronized List<QualityCode> importTags(TagPath basePath, String json, CollisionPolicy collisionPolicy) {
+        TagNode parent = findOrCreateFolder(basePath);
+        JsonElement document = new JsonParser().parse(json);
+
+        List<JsonObject> tags = new ArrayList<>();
+        if (document.isJsonArray()) {
+            document.getAsJsonArray().forEach(element -> tags.add(element.getAsJsonObject()));
+        } else if (document.getAsJsonObject().has("name")) {
+            tags.add(document.getAsJsonObject());
+        } else {
+            JsonArray tagsArray = document.getAsJsonObject().getAsJsonArray("tags");
+            if (tagsArray != null) {
+                tagsArray.forEach(element -> tags.add(element.getAsJsonObject()));
+            }
+        }
+
+        List<QualityCode> results = new ArrayList<>();
+        for (JsonObject tag : tags) {
+            results.add(importTag(parent, tag, collisionPolicy));
+        }
+        return results;
+    }
+
+    synchronized List<QualityCode> removeTagConfigs(List<TagPath> tagPaths) {
+        List<QualityCode> results = new ArrayList<>();
+        for (TagPath tagPath : tagPaths) {
+            TagNode parent = tagPath.getPathLength() > 1 ? find(tagPath.getParentPath()) : root;
+            boolean removed = parent != null && tagPath.getPathLength() > 0
+                    && parent.getChildren().remove(tagPath.getItemName()) != null;
+            results.add(removed ? QualityCode.Good : QualityCode.Bad_NotFound);
+        }
+        return results;
+    }
+
+    private QualityCode importTag(TagNode parent, JsonObject tag, CollisionPolicy collisionPolicy) {
+        String tagName = tag.get("name").getAsString();
+        TagNode existing = parent.getChildren().get(tagName);
+        if (existing == null) {
+            parent.getChildren().put(tagName, TagNode.fromJson(tag));
+            return QualityCode.Good;
+        }
+
+        switch (collisionPolicy) {
+            case Abort:
+                return QualityCode.Bad_Failure;
+            case Ignore:
+                return QualityCode.Good;
+            case MergeOverwrite:
+                existing.mergeConfig(tag);
+                return QualityCode.Good;
+            default:
+                if (existing.isFolder()) {
+                    existing.mergeConfig(tag);
+                } else {
+                    parent.getChildren().put(tagName, TagNode.fromJson(tag));
+                }
+                return QualityCode.Good;
+        }
+    }
+
+    private TagNode find(TagPath tagPath) {
+        TagNode node = root;
+        for (int i = 0; i < tagPath.getPathLength() && node != null; i++) {
+            node = node.getChildren().get(tagPath.getPathComponent(i));
+        }
+        return node;
+    }
+
+    private TagNode findOrCreateFolder(TagPath tagPath) {
+        TagNode node = root;
+        for (int i = 0; i < tagPath.getPathLength(); i++) {
+            String component = tagPath.getPathComponent(i);
+            if (component.isEmpty()) {
+                continue;
+            }
+            node = node.getChildren().computeIfAbsent(component, key -> new TagNode(key, "Folder"));
+        }
+        return node;
+    }
+}
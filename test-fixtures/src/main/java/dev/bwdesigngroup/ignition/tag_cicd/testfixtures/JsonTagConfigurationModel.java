@@ -0,0 +1,142 @@
+package dev.bwdesigngroup.ignition.tag_cicd.testfixtures;
+
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+import com.inductiveautomation.ignition.common.gson.JsonPrimitive;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.paths.BasicTagPath;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds {@link TagConfigurationModel}s over {@link TagNode}s.
+ * <p>
+ * The models are dynamic proxies rather than implementations of the SDK's
+ * model classes, so the fixture only depends on the handful of methods the
+ * module calls: {@code getName}, {@code getPath}, {@code getType},
+ * {@code getChildren} and {@code getProperties}. Any other method returns an
+ * empty value of its return type.
+ *
+ * @author Keith Gamble
+ */
+final class JsonTagConfigurationModel {
+    private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = Map.of(boolean.class, false, byte.class,
+            (byte) 0, short.class, (short) 0, int.class, 0, long.class, 0L, float.class, 0f, double.class, 0d,
+            char.class, '\0');
+
+    private JsonTagConfigurationModel() {
+    }
+
+    /**
+     * @param node      the node to expose, or null for a path that does not
+     *                  exist, which the tag manager reports as an
+     *                  {@code Unknown} tag
+     * @param path      the path the model was requested with
+     * @param recursive whether to include the children's children
+     * @param inherited properties every tag other than a folder reports unless
+     *                  it sets them itself, or null for none
+     * @return the model
+     */
+    static TagConfigurationModel create(TagNode node, TagPath path, boolean recursive, JsonObject inherited) {
+        return create(node, path, recursive ? Integer.MAX_VALUE : 1, inherited);
+    }
+
+    private static TagConfigurationModel create(TagNode node, TagPath path, int childDepth, JsonObject inherited) {
+        return (TagConfigurationModel) Proxy.newProxyInstance(TagConfigurationModel.class.getClassLoader(),
+                new Class<?>[] { TagConfigurationModel.class },
+                (proxy, method, args) -> invoke(proxy, node, path, childDepth, inherited, method, args));
+    }
+
+    private static Object invoke(Object proxy, TagNode node, TagPath path, int childDepth, JsonObject inherited,
+            Method method, Object[] args) {
+        int argCount = args == null ? 0 : args.length;
+        switch (method.getName() + "/" + argCount) {
+            case "getName/0":
+                return node != null ? node.getName() : path.getItemName();
+            case "getPath/0":
+                return path;
+            case "getType/0":
+                return toType(method.getReturnType(), node != null ? node.getTagType() : "Unknown");
+            case "getChildren/0":
+                return getChildren(node, childDepth, inherited);
+            case "getProperties/0":
+                return node != null ? toPropertyMap(getProperties(node, inherited)) : Collections.emptyMap();
+            case "toString/0":
+                return "JsonTagConfigurationModel[" + path + "]";
+            case "hashCode/0":
+                return System.identityHashCode(proxy);
+            case "equals/1":
+                return proxy == args[0];
+            default:
+                return emptyValue(method.getReturnType());
+        }
+    }
+
+    private static Map<String, JsonElement> getProperties(TagNode node, JsonObject inherited) {
+        Map<String, JsonElement> properties = node.getProperties();
+        if (inherited != null && !node.isFolder()) {
+            inherited.entrySet().forEach(entry -> properties.putIfAbsent(entry.getKey(), entry.getValue()));
+        }
+        return properties;
+    }
+
+    private static List<TagConfigurationModel> getChildren(TagNode node, int childDepth, JsonObject inherited) {
+        List<TagConfigurationModel> children = new ArrayList<>();
+        if (node == null || childDepth <= 0) {
+            return children;
+        }
+        for (TagNode child : node.getChildren().values()) {
+            // Children report their path relative to their parent, as the tag manager does
+            TagPath childPath = new BasicTagPath("", List.of(child.getName()));
+            children.add(create(child, childPath, childDepth - 1, inherited));
+        }
+        return children;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object toType(Class<?> returnType, String tagType) {
+        if (returnType.isEnum()) {
+            try {
+                return Enum.valueOf((Class<? extends Enum>) returnType, tagType);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return tagType;
+    }
+
+    private static Map<String, Object> toPropertyMap(Map<String, JsonElement> properties) {
+        Map<String, Object> propertyMap = new LinkedHashMap<>();
+        properties.forEach((name, value) -> {
+            if (value.isJsonPrimitive()) {
+                JsonPrimitive primitive = value.getAsJsonPrimitive();
+                propertyMap.put(name, primitive.isBoolean() ? (Object) primitive.getAsBoolean()
+                        : primitive.isNumber() ? primitive.getAsNumber() : primitive.getAsString());
+            } else {
+                propertyMap.put(name, value);
+            }
+        });
+        return propertyMap;
+    }
+
+    private static Object emptyValue(Class<?> type) {
+        if (type.isPrimitive()) {
+            return PRIMITIVE_DEFAULTS.get(type);
+        } else if (type.isAssignableFrom(List.class)) {
+            return Collections.emptyList();
+        } else if (type.isAssignableFrom(Map.class)) {
+            return Collections.emptyMap();
+        } else if (type == Optional.class) {
+            return Optional.empty();
+        }
+        return null;
+    }
+}
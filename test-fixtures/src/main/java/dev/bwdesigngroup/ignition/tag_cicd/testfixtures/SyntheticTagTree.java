@@ -0,0 +1,169 @@
+package dev.bwdesigngroup.ignition.tag_cicd.testfixtures;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates tag trees in the shape the tag manager exports them, for measuring
+ * the export and import code without a gateway.
+ * <p>
+ * The tree has a {@code _types_} folder of UDT definitions followed by a
+ * hierarchy of folders {@code depth} levels deep, each folder holding
+ * {@value #FOLDER_FANOUT} subfolders. Tags are spread evenly over the deepest
+ * folders, and {@code udtRatio} of them are UDT instances rather than atomic
+ * tags. Every tag carries {@code propertyCount} extra properties. Properties are
+ * added out of key order so that sorting has real work to do.
+ * <p>
+ * The same parameters always produce the same tree.
+ *
+ * @author Keith Gamble
+ */
+public class SyntheticTagTree {
+    public static final int FOLDER_FANOUT = 4;
+    private static final int MEMBERS_PER_TYPE = 5;
+    private static final int INSTANCES_PER_TYPE = 100;
+
+    private final int tagCount;
+    private final int depth;
+    private final double udtRatio;
+    private final int propertyCount;
+
+    /**
+     * @param tagCount      the number of tags outside {@code _types_}, excluding
+     *                      folders
+     * @param depth         the number of folder levels below the root
+     * @param udtRatio      the fraction of tags that are UDT instances, from 0
+     *                      to 1
+     * @param propertyCount the number of extra properties on every tag
+     */
+    public SyntheticTagTree(int tagCount, int depth, double udtRatio, int propertyCount) {
+        this.tagCount = tagCount;
+        this.depth = depth;
+        this.udtRatio = Math.max(0, Math.min(1, udtRatio));
+        this.propertyCount = propertyCount;
+    }
+
+    /**
+     * @return the number of UDT definitions in the generated tree
+     */
+    public int getTypeCount() {
+        int instanceCount = (int) Math.floor(tagCount * udtRatio);
+        return instanceCount == 0 ? 0 : Math.max(1, instanceCount / INSTANCES_PER_TYPE);
+    }
+
+    /**
+     * @return a new tree, as an object with a {@code tags} array
+     */
+    public JsonObject generate() {
+        JsonArray rootTags = new JsonArray();
+        int typeCount = getTypeCount();
+        if (typeCount > 0) {
+            rootTags.add(createTypesFolder(typeCount));
+        }
+
+        List<JsonArray> leafFolders = new ArrayList<>();
+        if (depth <= 0) {
+            leafFolders.add(rootTags);
+        } else {
+            for (int i = 0; i < FOLDER_FANOUT; i++) {
+                rootTags.add(createFolder("Folder_" + i, depth - 1, leafFolders));
+            }
+        }
+
+        for (int i = 0; i < tagCount; i++) {
+            // Spread UDT instances evenly instead of bunching them at the start
+            boolean udtInstance = Math.floor((i + 1) * udtRatio) > Math.floor(i * udtRatio);
+            JsonObject tag = udtInstance
+                    ? createUdtInstance("Udt_" + i, "Type_" + (i % typeCount), i)
+                    : createAtomicTag("Tag_" + i, i);
+            leafFolders.get(i % leafFolders.size()).add(tag);
+        }
+
+        JsonObject root = new JsonObject();
+        root.add("tags", rootTags);
+        return root;
+    }
+
+    private JsonObject createFolder(String name, int remainingDepth, List<JsonArray> leafFolders) {
+        JsonArray tags = new JsonArray();
+        if (remainingDepth == 0) {
+            leafFolders.add(tags);
+        } else {
+            for (int i = 0; i < FOLDER_FANOUT; i++) {
+                tags.add(createFolder(name + "_" + i, remainingDepth - 1, leafFolders));
+            }
+        }
+
+        JsonObject folder = new JsonObject();
+        folder.addProperty("name", name);
+        folder.addProperty("tagType", "Folder");
+        folder.add("tags", tags);
+        return folder;
+    }
+
+    private JsonObject createTypesFolder(int typeCount) {
+        JsonArray types = new JsonArray();
+        for (int i = 0; i < typeCount; i++) {
+            JsonArray members = new JsonArray();
+            for (int m = 0; m < MEMBERS_PER_TYPE; m++) {
+                members.add(createAtomicTag("Member_" + m, m));
+            }
+            if (i > 0 && i % 2 == 0) {
+                // Every other type nests an instance of the one before it
+                members.add(createUdtInstance("Nested", "Type_" + (i - 1), i));
+            }
+
+            JsonObject type = new JsonObject();
+            type.addProperty("name", "Type_" + i);
+            type.add("tags", members);
+            type.addProperty("tagType", "UdtType");
+            JsonObject parameters = new JsonObject();
+            JsonObject parameter = new JsonObject();
+            parameter.addProperty("dataType", "String");
+            parameters.add("Location", parameter);
+            type.add("parameters", parameters);
+            types.add(type);
+        }
+
+        JsonObject typesFolder = new JsonObject();
+        typesFolder.addProperty("name", "_types_");
+        typesFolder.addProperty("tagType", "Folder");
+        typesFolder.add("tags", types);
+        return typesFolder;
+    }
+
+    private JsonObject createAtomicTag(String name, int index) {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("valueSource", "memory");
+        tag.addProperty("name", name);
+        tag.addProperty("tagType", "AtomicTag");
+        tag.addProperty("dataType", "Int4");
+        tag.addProperty("value", index);
+        addProperties(tag, index);
+        return tag;
+    }
+
+    private JsonObject createUdtInstance(String name, String typeId, int index) {
+        JsonObject tag = new JsonObject();
+        tag.addProperty("typeId", typeId);
+        tag.addProperty("name", name);
+        tag.addProperty("tagType", "UdtInstance");
+        JsonObject parameters = new JsonObject();
+        JsonObject parameter = new JsonObject();
+        parameter.addProperty("dataType", "String");
+        parameter.addProperty("value", "Area " + (index % 10));
+        parameters.add("Location", parameter);
+        tag.add("parameters", parameters);
+        addProperties(tag, index);
+        return tag;
+    }
+
+    private void addProperties(JsonObject tag, int index) {
+        for (int p = propertyCount - 1; p >= 0; p--) {
+            tag.addProperty(String.format("property_%03d", p), "Value " + p + " of tag " + index);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package dev.bwdesigngroup.ignition.tag_cicd.testfixtures;
+
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonElement;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A tag, folder or UDT held by an {@link InMemoryTagProvider}. Folders and
+ * provider roots keep their children as nodes so they can be browsed and
+ * merged into. Every other tag keeps its whole configuration, members included,
+ * as it was imported.
+ *
+ * @author Keith Gamble
+ */
+class TagNode {
+    private final String name;
+    private String tagType;
+    private JsonObject config;
+    private final Map<String, TagNode> children = new LinkedHashMap<>();
+
+    TagNode(String name, String tagType) {
+        this.name = name;
+        this.tagType = tagType;
+        this.config = new JsonObject();
+    }
+
+    /**
+     * Creates a node from a tag's JSON configuration.
+     *
+     * @param tagJson the tag, with at least {@code name} and {@code tagType}
+     * @return the node
+     */
+    static TagNode fromJson(JsonObject tagJson) {
+        TagNode node = new TagNode(tagJson.get("name").getAsString(), tagJson.get("tagType").getAsString());
+        node.setConfig(tagJson);
+        return node;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getTagType() {
+        return tagType;
+    }
+
+    boolean isFolder() {
+        return "Folder".equals(tagType) || "Provider".equals(tagType);
+    }
+
+    Map<String, TagNode> getChildren() {
+        return children;
+    }
+
+    /**
+     * Replaces the node's configuration. For folders, the children in the
+     * configuration are added to the existing ones rather than replacing them.
+     */
+    void setConfig(JsonObject tagJson) {
+        tagType = tagJson.get("tagType").getAsString();
+        config = new JsonObject();
+        for (Entry<String, JsonElement> entry : tagJson.entrySet()) {
+            if (!isFolder() || !"tags".equals(entry.getKey())) {
+                config.add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (isFolder() && tagJson.has("tags")) {
+            for (JsonElement childElement : tagJson.getAsJsonArray("tags")) {
+                TagNode child = fromJson(childElement.getAsJsonObject());
+                children.put(child.getName(), child);
+            }
+        }
+    }
+
+    /**
+     * Merges a configuration into the node: properties are overwritten one by
+     * one and, for folders, children are merged recursively.
+     */
+    void mergeConfig(JsonObject tagJson) {
+        for (Entry<String, JsonElement> entry : tagJson.entrySet()) {
+            if (!isFolder() || !"tags".equals(entry.getKey())) {
+                config.add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (isFolder() && tagJson.has("tags")) {
+            for (JsonElement childElement : tagJson.getAsJsonArray("tags")) {
+                JsonObject childJson = childElement.getAsJsonObject();
+                TagNode existing = children.get(childJson.get("name").getAsString());
+                if (existing != null) {
+                    existing.mergeConfig(childJson);
+                } else {
+                    TagNode child = fromJson(childJson);
+                    children.put(child.getName(), child);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the properties of the node, without its name, type or children
+     */
+    Map<String, JsonElement> getProperties() {
+        Map<String, JsonElement> properties = new LinkedHashMap<>();
+        for (Entry<String, JsonElement> entry : config.entrySet()) {
+            if (!"name".equals(entry.getKey()) && !"tagType".equals(entry.getKey())) {
+                properties.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * @return the node as tag JSON, the way the tag manager exports it
+     */
+    JsonObject toJson() {
+        JsonObject json = config.deepCopy();
+        json.addProperty("name", name);
+        json.addProperty("tagType", tagType);
+        if (isFolder()) {
+            JsonArray tags = new JsonArray();
+            children.values().forEach(child -> tags.add(child.toJson()));
+            json.add("tags", tags);
+        }
+        return json;
+    }
+
+    /**
+     * @return the number of nodes below this one that are not folders,
+     *         counting a UDT as one tag
+     */
+    long countTags() {
+        long count = 0;
+        for (TagNode child : children.values()) {
+            count += child.isFolder() ? child.countTags() : 1;
+        }
+        return count;
+    }
+}
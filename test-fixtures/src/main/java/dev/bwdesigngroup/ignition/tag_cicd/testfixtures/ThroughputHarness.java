@@ -0,0 +1,191 @@
+package dev.bwdesigngroup.ignition.tag_cicd.testfixtures;
+
+import dev.bwdesigngroup.ignition.tag_cicd.common.model.ExportMode;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagCICDExecutors;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagExportUtilities;
+import dev.bwdesigngroup.ignition.tag_cicd.common.util.TagImportUtilities;
+import com.inductiveautomation.ignition.common.gson.GsonBuilder;
+import com.inductiveautomation.ignition.common.gson.JsonArray;
+import com.inductiveautomation.ignition.common.gson.JsonObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Measures export and import throughput for every {@link ExportMode} against
+ * an {@link InMemoryTagManager}, over synthetic tag trees of increasing size.
+ * <p>
+ * For each tag count, a tree is generated and loaded into a provider, exported
+ * to disk in each mode and imported back into an empty provider. Each run
+ * reports tags per second and the peak heap used, summed over the heap memory
+ * pools, so it is an upper bound.
+ * <p>
+ * Options, all {@code --name=value}:
+ * <ul>
+ * <li>{@code counts}: comma separated tag counts, default
+ * {@code 10000,100000,1000000}</li>
+ * <li>{@code modes}: comma separated export mode codes, default all</li>
+ * <li>{@code depth}, {@code udtRatio}, {@code properties}: the shape of the
+ * tree, see {@link SyntheticTagTree}</li>
+ * <li>{@code latencyMs}: the latency of every tag manager call, default 0</li>
+ * <li>{@code workDir}: where exports are written, default a temporary
+ * directory</li>
+ * <li>{@code output}: where the JSON report is written, default
+ * {@code throughput.json}</li>
+ * </ul>
+ *
+ * @author Keith Gamble
+ */
+public class ThroughputHarness {
+    private static final String PROVIDER = "default";
+
+    private final Map<String, String> options;
+
+    private ThroughputHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new ThroughputHarness(options).run();
+    }
+
+    private void run() throws IOException {
+        int depth = Integer.parseInt(options.getOrDefault("depth", "3"));
+        double udtRatio = Double.parseDouble(options.getOrDefault("udtRatio", "0.2"));
+        int propertyCount = Integer.parseInt(options.getOrDefault("properties", "5"));
+        long latencyMillis = Long.parseLong(options.getOrDefault("latencyMs", "0"));
+        Path workDirectory = options.containsKey("workDir") ? Paths.get(options.get("workDir"))
+                : Files.createTempDirectory("tag-cicd-throughput");
+        Path output = Paths.get(options.getOrDefault("output", "throughput.json"));
+
+        List<ExportMode> modes = new ArrayList<>();
+        if (options.containsKey("modes")) {
+            for (String code : options.get("modes").split(",")) {
+                modes.add(ExportMode.fromCode(code.trim()));
+            }
+        } else {
+            modes.addAll(List.of(ExportMode.values()));
+        }
+
+        JsonArray results = new JsonArray();
+        System.out.printf("%-18s %10s %-7s %10s %12s %10s%n", "mode", "tags", "op", "seconds", "tags/sec",
+                "peak MB");
+        try (TagCICDExecutors executors = new TagCICDExecutors()) {
+            for (String count : options.getOrDefault("counts", "10000,100000,1000000").split(",")) {
+                int tagCount = Integer.parseInt(count.trim());
+                JsonObject tree = new SyntheticTagTree(tagCount, depth, udtRatio, propertyCount).generate();
+
+                for (ExportMode mode : modes) {
+                    Path modeDirectory = workDirectory.resolve(mode.getCode() + "-" + tagCount);
+                    String filePath = mode == ExportMode.SINGLE_FILE ? modeDirectory.resolve("tags.json").toString()
+                            : modeDirectory.toString();
+
+                    try (InMemoryTagManager source = new InMemoryTagManager(latencyMillis)) {
+                        source.addProvider(PROVIDER).load(tree);
+                        JsonObject result = measure(mode, "export", () -> TagExportUtilities.exportTagsToDisk(
+                                source.getTagManager(), PROVIDER, "", true, false, filePath, mode.getCode(), true,
+                                false, false));
+                        results.add(report(result, source.getProvider(PROVIDER).countTags()));
+                    }
+
+                    try (InMemoryTagManager target = new InMemoryTagManager(latencyMillis)) {
+                        InMemoryTagProvider provider = target.addProvider(PROVIDER);
+                        JsonObject result = measure(mode, "import", () -> TagImportUtilities.importTagsFromSource(
+                                target.getTagManager(), executors, PROVIDER, "", filePath, "o", mode.getCode()));
+                        results.add(report(result, provider.countTags()));
+                    }
+
+                    deleteRecursively(modeDirectory);
+                }
+            }
+        }
+
+        Files.write(output, new GsonBuilder().setPrettyPrinting().create().toJson(results)
+                .getBytes(StandardCharsets.UTF_8));
+        System.out.println("Wrote " + output.toAbsolutePath());
+    }
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private JsonObject measure(ExportMode mode, String operation, Operation work) {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        JsonObject result = new JsonObject();
+        result.addProperty("mode", mode.getCode());
+        result.addProperty("operation", operation);
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } catch (Exception e) {
+            result.addProperty("error", e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        result.addProperty("seconds", seconds);
+        result.addProperty("peakHeapMb", peakHeap / (1024 * 1024));
+        return result;
+    }
+
+    /**
+     * Adds the tag count and rate to a result and prints it.
+     *
+     * @param result the measured result
+     * @param tags   the number of tags the operation handled
+     * @return the result
+     */
+    private static JsonObject report(JsonObject result, long tags) {
+        double seconds = result.get("seconds").getAsDouble();
+        result.addProperty("tags", tags);
+        result.addProperty("tagsPerSecond", seconds > 0 ? tags / seconds : 0);
+
+        System.out.printf("%-18s %10d %-7s %10.2f %12.0f %10d%s%n", result.get("mode").getAsString(),
+                result.get("tags").getAsLong(), result.get("operation").getAsString(),
+                result.get("seconds").getAsDouble(), result.get("tagsPerSecond").getAsDouble(),
+                result.get("peakHeapMb").getAsLong(),
+                result.has("error") ? "  " + result.get("error").getAsString() : "");
+        return result;
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}